@@ -25,18 +25,28 @@
 package net.algart.matrices.tiff;
 
 import net.algart.arrays.JArrays;
+import net.algart.matrices.tiff.io.WriteCombiningDataHandle;
 import net.algart.matrices.tiff.tags.TagCompression;
 import net.algart.matrices.tiff.tiles.*;
 import org.scijava.io.handle.BytesHandle;
 import org.scijava.io.handle.DataHandle;
+import org.scijava.io.handle.FileHandle;
 import org.scijava.io.location.BytesLocation;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 
@@ -108,6 +118,8 @@ public final class TiffCopier {
     private ProgressUpdater progressUpdater = null;
     private BooleanSupplier interruptionChecker = null;
     private int progressUpdateDelay = 0;
+    private Executor copyingExecutor = null;
+    private boolean channelTransfer = true;
 
     private volatile boolean cancelled = false;
     private final ProgressInformation progressInformation = new ProgressInformation();
@@ -268,6 +280,84 @@ public final class TiffCopier {
         return this;
     }
 
+    public Executor getCopyingExecutor() {
+        return copyingExecutor;
+    }
+
+    /**
+     * Sets the executor used for parallel copying tiles in the methods copying the entire image,
+     * such as {@link #copyImage(TiffWriter, TiffReader, int)},
+     * {@link #copyTiffFile(TiffWriter, TiffReader)}, or {@link #compact(Path)}.
+     * If it is <code>null</code> (the default value), all tiles are copied sequentially in the current thread.
+     *
+     * <p>In the parallel mode, the source tiles are read (the file access itself is still serialized
+     * by the reader), decoded, copied and encoded again by the threads of the specified executor,
+     * while the current thread writes the ready tiles into the target file in the usual order.
+     * So, the resulting file is identical to the file created in the sequential mode.
+     * The number of tiles, which are read but not written yet, is limited by
+     * {@link TiffWriter#getMaxEncodedTilesInFlight()}.
+     * The {@link #setProgressUpdater(ProgressUpdater) progress updater} and
+     * the {@link #setInterruptionChecker(BooleanSupplier) interruption checker} are called
+     * from the current thread after writing each tile, as in the sequential mode,
+     * and {@link TiffTile.DuplicateHandling#LINK_REFERENCE} mode is processed in the same way.</p>
+     *
+     * <p>Note: the parallel mode is not used when the source map belongs to the same {@link TiffWriter}
+     * (see {@link #copyImage(TiffWriter, TiffIOMap)}).</p>
+     *
+     * @param copyingExecutor the executor for parallel copying tiles; may be <code>null</code>.
+     * @return a reference to this object.
+     */
+    public TiffCopier setCopyingExecutor(Executor copyingExecutor) {
+        this.copyingExecutor = copyingExecutor;
+        return this;
+    }
+
+    /**
+     * Equivalent to
+     * <code>{@link #setCopyingExecutor(Executor) setCopyingExecutor}(ForkJoinPool.commonPool())</code>.
+     *
+     * @return a reference to this object.
+     */
+    public TiffCopier enableParallelCopying() {
+        return setCopyingExecutor(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Equivalent to <code>{@link #setCopyingExecutor(Executor) setCopyingExecutor}(null)</code>.
+     *
+     * @return a reference to this object.
+     */
+    public TiffCopier disableParallelCopying() {
+        return setCopyingExecutor(null);
+    }
+
+    public boolean isChannelTransfer() {
+        return channelTransfer;
+    }
+
+    /**
+     * Sets whether the encoded tiles should be transferred between files by the operating system,
+     * without loading them into Java memory, when it is possible.
+     *
+     * <p>If this flag is set (the default value), the methods copying the entire image,
+     * such as {@link #copyImage(TiffWriter, TiffReader, int)},
+     * {@link #copyTiffFile(TiffWriter, TiffReader)}, or {@link #compact(Path)},
+     * use {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+     * to copy the encoded tile data in the {@link #isActuallyDirectCopy() direct copying} mode,
+     * if both source and target TIFF are usual files (the reader and the writer were created for
+     * {@link TiffIO#filePath() file paths}).
+     * The tiles, which are stored sequentially in the source file, are transferred by a single call.
+     * Only IFDs and offset tables are written in the usual way.
+     * The resulting file is identical to the file created without this mode.</p>
+     *
+     * @param channelTransfer whether to transfer the encoded tiles via file channels.
+     * @return a reference to this object.
+     */
+    public TiffCopier setChannelTransfer(boolean channelTransfer) {
+        this.channelTransfer = channelTransfer;
+        return this;
+    }
+
     public boolean hasCompression() {
         return compression != null;
     }
@@ -718,6 +808,10 @@ public final class TiffCopier {
                 TiffIO.MapOption.ofCorrection(correctForEncoding));
         checkImageCompatibility(writeMap, readMap);
         this.actuallyDirectCopy = actuallyDirectCopy;
+        if (duplicateHandling.isLinking() && readMap instanceof TiffReadMap) {
+            readMap.ifd().cachedTileOrStripOffsets();
+            // - loads the TileOffsets array if it was read lazily: necessary for detecting duplicates
+        }
         if (!actuallyDirectCopy) {
             writeIFD.removeJPEGTables();
             // - should be called before prewrite()
@@ -727,55 +821,65 @@ public final class TiffCopier {
         progressInformation.tileCount = targetTiles.size();
         int linear = 0;
         long t2 = TiffIO.debugTime();
-        long timeReading = 0;
-        long timeCopying = 0;
-        long timeWriting = 0;
+        final CopyTiming timing = new CopyTiming();
         @SuppressWarnings("resource") final TiffReader reader = readMap.reader();
         // - helps to avoid extra re-initializing the companion reader inside the loop
         // if readMap is actually TiffWriteMap which belongs to the same TiffWriter
         final TiffTile.CopyMode tileCopyMode = actuallyDirectCopy ?
                 TiffTile.CopyMode.COPY_REFERENCE :
                 TiffTile.CopyMode.COPY_UNPACKED_SAMPLES;
-        for (TiffTile targetTile : targetTiles) {
-            if (targetTile.linearIndex() != linear) {
-                throw new AssertionError("Newly created map is not full or correctly ordered: \"" +
-                        targetTile + "\", its linear index is not " + linear +
-                        "; this is impossible: newMap must call buildTileGrid");
-            }
-            final TiffTileIndex readIndex = readMap.copyIndex(targetTile.index());
-            // - important to copy index: targetTile.index() refer to the writeIFD instead of some source IFD
-            long t1Tile = TiffIO.debugTime(), t2Tile;
-            final TiffTile sourceTile = actuallyDirectCopy ?
-                    reader.readEncodedTile(readIndex, duplicateHandling) :
-                    reader.readTile(readIndex, duplicateHandling);
-            t2Tile = TiffIO.debugTime();
-            if (duplicateHandling.isLinking() && sourceTile.hasPreviousDuplicate()) {
-                assert sourceTile.isEmpty() : "duplicate should not be read";
-                final int indexOfPrevious = sourceTile.getLinearIndexOfPreviousDuplicate();
-                if (indexOfPrevious >= linear) {
-                    throw new AssertionError("Index of the previous duplicate must be less, but " +
-                            indexOfPrevious + " >= " + linear);
+        final Executor executor = this.copyingExecutor;
+        if (actuallyDirectCopy && canTransferTiles(writer, readMap)) {
+            linear = transferTiles(writer, writeMap, readMap, reader, targetTiles);
+        } else if (executor != null && readMap.owner() != writer) {
+            // - if the source belongs to the same writer, every writing invalidates its companion reader:
+            // we should not read it in parallel threads
+            linear = copyTilesInParallel(
+                    executor, writer, writeMap, readMap, reader, targetTiles, tileCopyMode, actuallyDirectCopy,
+                    timing);
+        } else {
+            for (TiffTile targetTile : targetTiles) {
+                if (targetTile.linearIndex() != linear) {
+                    throw new AssertionError("Newly created map is not full or correctly ordered: \"" +
+                            targetTile + "\", its linear index is not " + linear +
+                            "; this is impossible: newMap must call buildTileGrid");
                 }
-                final TiffTile previous = writeMap.getByLinear(indexOfPrevious);
-                assert previous != null : "previous duplicate of " + sourceTile.index() + " has not been written yet";
-                targetTile.linkWithPreviousDuplicate(previous);
-                // - note: this linkage is necessary if we are going to read something from the returned map
-            } else {
-                targetTile.copyData(sourceTile, tileCopyMode);
-                // - this method performs necessary unpacking/packing bytes when the byte order is incompatible
-            }
-            writeMap.put(targetTile);
-            long t3Tile = TiffIO.debugTime();
-            writeMap.writeTile(targetTile, true);
-            long t4Tile = TiffIO.debugTime();
-            timeReading += t2Tile - t1Tile;
-            timeCopying += t3Tile - t2Tile;
-            timeWriting += t4Tile - t3Tile;
-            progressInformation.tileIndex = linear;
-            if (shouldBreak()) {
-                break;
+                final TiffTileIndex readIndex = readMap.copyIndex(targetTile.index());
+                // - important to copy index: targetTile.index() refer to the writeIFD instead of some source IFD
+                long t1Tile = TiffIO.debugTime(), t2Tile;
+                final TiffTile sourceTile = actuallyDirectCopy ?
+                        reader.readEncodedTile(readIndex, duplicateHandling) :
+                        reader.readTile(readIndex, duplicateHandling);
+                t2Tile = TiffIO.debugTime();
+                if (duplicateHandling.isLinking() && sourceTile.hasPreviousDuplicate()) {
+                    assert sourceTile.isEmpty() : "duplicate should not be read";
+                    final int indexOfPrevious = sourceTile.getLinearIndexOfPreviousDuplicate();
+                    if (indexOfPrevious >= linear) {
+                        throw new AssertionError("Index of the previous duplicate must be less, but " +
+                                indexOfPrevious + " >= " + linear);
+                    }
+                    final TiffTile previous = writeMap.getByLinear(indexOfPrevious);
+                    assert previous != null :
+                            "previous duplicate of " + sourceTile.index() + " has not been written yet";
+                    targetTile.linkWithPreviousDuplicate(previous);
+                    // - note: this linkage is necessary if we are going to read something from the returned map
+                } else {
+                    targetTile.copyData(sourceTile, tileCopyMode);
+                    // - this method performs necessary unpacking/packing bytes when the byte order is incompatible
+                }
+                writeMap.put(targetTile);
+                long t3Tile = TiffIO.debugTime();
+                writeMap.writeTile(targetTile, true);
+                long t4Tile = TiffIO.debugTime();
+                timing.reading.add(t2Tile - t1Tile);
+                timing.copying.add(t3Tile - t2Tile);
+                timing.writing.add(t4Tile - t3Tile);
+                progressInformation.tileIndex = linear;
+                if (shouldBreak()) {
+                    break;
+                }
+                linear++;
             }
-            linear++;
         }
         long t3 = TiffIO.debugTime();
         writeMap.completeWriting();
@@ -798,7 +902,7 @@ public final class TiffCopier {
                     (t4 - t1) * 1e-6,
                     (t2 - t1) * 1e-6,
                     (t3 - t2) * 1e-6,
-                    timeReading * 1e-6, timeCopying * 1e-6, timeWriting * 1e-6,
+                    timing.reading.sum() * 1e-6, timing.copying.sum() * 1e-6, timing.writing.sum() * 1e-6,
                     (t4 - t3) * 1e-6,
                     sizeInBytes / 1048576.0 / ((t4 - t1) * 1e-9)));
         }
@@ -1043,6 +1147,193 @@ public final class TiffCopier {
         return writeMap.flushCompletedTiles(tiles);
     }
 
+    private int copyTilesInParallel(
+            Executor executor,
+            TiffWriter writer,
+            TiffWriteMap writeMap,
+            TiffIOMap readMap,
+            TiffReader reader,
+            Collection<TiffTile> targetTiles,
+            TiffTile.CopyMode tileCopyMode,
+            boolean actuallyDirectCopy,
+            CopyTiming timing) throws IOException {
+        final List<TiffTile> tiles = new ArrayList<>(targetTiles);
+        final int n = tiles.size();
+        final int maxTilesInFlight = writer.getMaxEncodedTilesInFlight();
+        final Queue<CompletableFuture<TiffTile>> queue = new ArrayDeque<>();
+        int submitted = 0;
+        int linear = 0;
+        try {
+            for (; linear < n; linear++) {
+                for (; submitted < n && submitted - linear < maxTilesInFlight; submitted++) {
+                    final TiffTile targetTile = tiles.get(submitted);
+                    if (targetTile.linearIndex() != submitted) {
+                        throw new AssertionError("Newly created map is not full or correctly ordered: \"" +
+                                targetTile + "\", its linear index is not " + submitted +
+                                "; this is impossible: newMap must call buildTileGrid");
+                    }
+                    final TiffTileIndex readIndex = readMap.copyIndex(targetTile.index());
+                    queue.add(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return readAndPrepareTile(
+                                    writer, reader, readIndex, targetTile, tileCopyMode, actuallyDirectCopy, timing);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, executor));
+                }
+                final TiffTile sourceTile = awaitTile(queue.remove());
+                final TiffTile targetTile = tiles.get(linear);
+                if (duplicateHandling.isLinking() && sourceTile.hasPreviousDuplicate()) {
+                    assert sourceTile.isEmpty() : "duplicate should not be read";
+                    final int indexOfPrevious = sourceTile.getLinearIndexOfPreviousDuplicate();
+                    if (indexOfPrevious >= linear) {
+                        throw new AssertionError("Index of the previous duplicate must be less, but " +
+                                indexOfPrevious + " >= " + linear);
+                    }
+                    final TiffTile previous = writeMap.getByLinear(indexOfPrevious);
+                    assert previous != null : "previous duplicate of " + sourceTile.index() +
+                            " has not been written yet";
+                    targetTile.linkWithPreviousDuplicate(previous);
+                }
+                writeMap.put(targetTile);
+                long t1Tile = TiffIO.debugTime();
+                writeMap.writeTile(targetTile, true);
+                // - the tile is already encoded in readAndPrepareTile, so, here we only write it
+                timing.writing.add(TiffIO.debugTime() - t1Tile);
+                progressInformation.tileIndex = linear;
+                if (shouldBreak()) {
+                    break;
+                }
+            }
+        } finally {
+            for (CompletableFuture<TiffTile> future : queue) {
+                try {
+                    future.join();
+                } catch (RuntimeException ignored) {
+                    // - the task is finished: it will not modify its target tile more
+                }
+            }
+        }
+        return linear;
+    }
+
+    private boolean canTransferTiles(TiffWriter writer, TiffIOMap readMap) {
+        return channelTransfer
+                && readMap instanceof TiffReadMap
+                && readMap.reader().filePath().isPresent()
+                && writer.filePath().isPresent()
+                && isFileStream(writer.stream());
+        // - FileHandle writes directly to the file, so the writer will see the transferred data
+    }
+
+    private static boolean isFileStream(DataHandle<?> stream) {
+        return stream instanceof FileHandle
+                || (stream instanceof WriteCombiningDataHandle<?> combining
+                && combining.handle() instanceof FileHandle);
+        // - WriteCombiningDataHandle is flushed by TileRangeTransfer before transferring data via FileChannel
+    }
+
+    private int transferTiles(
+            TiffWriter writer,
+            TiffWriteMap writeMap,
+            TiffIOMap readMap,
+            TiffReader reader,
+            Collection<TiffTile> targetTiles) throws IOException {
+        final Path sourceFile = reader.filePath().orElseThrow();
+        final Path targetFile = writer.filePath().orElseThrow();
+        int linear = 0;
+        try (FileChannel source = FileChannel.open(sourceFile, StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(targetFile, StandardOpenOption.WRITE)) {
+            final long sourceLength = source.size();
+            final TileRangeTransfer transfer = new TileRangeTransfer(writer, source, target);
+            for (TiffTile targetTile : targetTiles) {
+                if (targetTile.linearIndex() != linear) {
+                    throw new AssertionError("Newly created map is not full or correctly ordered: \"" +
+                            targetTile + "\", its linear index is not " + linear +
+                            "; this is impossible: newMap must call buildTileGrid");
+                }
+                final TiffTileIndex readIndex = readMap.copyIndex(targetTile.index());
+                final long offset = reader.encodedTileOffset(readIndex);
+                final int byteCount = reader.encodedTileByteCount(readIndex, offset);
+                final int indexOfPrevious = duplicateHandling.isLinking() ?
+                        readIndex.ifd().cachedLinkToPreviousSameOffset(readIndex.linear()) :
+                        -1;
+                if (indexOfPrevious != -1) {
+                    if (indexOfPrevious >= linear) {
+                        throw new AssertionError("Index of the previous duplicate must be less, but " +
+                                indexOfPrevious + " >= " + linear);
+                    }
+                    final TiffTile previous = writeMap.getByLinear(indexOfPrevious);
+                    assert previous != null : "previous duplicate of " + readIndex + " has not been written yet";
+                    targetTile.linkWithPreviousDuplicate(previous);
+                    writeMap.put(targetTile);
+                } else if (offset > 0 && byteCount > 0 && offset <= sourceLength - byteCount) {
+                    transfer.add(targetTile, offset, byteCount);
+                    writeMap.put(targetTile);
+                } else {
+                    // - rare case (missing tile, invalid offset): processing in the usual way,
+                    // which also throws a correct exception if necessary
+                    transfer.flush();
+                    final TiffTile sourceTile = reader.readEncodedTile(readIndex, duplicateHandling);
+                    targetTile.copyData(sourceTile, TiffTile.CopyMode.COPY_REFERENCE);
+                    writeMap.put(targetTile);
+                    writeMap.writeTile(targetTile, true);
+                }
+                progressInformation.tileIndex = linear;
+                if (shouldBreak()) {
+                    break;
+                }
+                linear++;
+            }
+            transfer.flush();
+        }
+        return linear;
+    }
+
+    private TiffTile readAndPrepareTile(
+            TiffWriter writer,
+            TiffReader reader,
+            TiffTileIndex readIndex,
+            TiffTile targetTile,
+            TiffTile.CopyMode tileCopyMode,
+            boolean actuallyDirectCopy,
+            CopyTiming timing) throws IOException {
+        long t1 = TiffIO.debugTime();
+        final TiffTile sourceTile = actuallyDirectCopy ?
+                reader.readEncodedTile(readIndex, duplicateHandling) :
+                reader.readTile(readIndex, duplicateHandling);
+        long t2 = TiffIO.debugTime();
+        if (!(duplicateHandling.isLinking() && sourceTile.hasPreviousDuplicate())) {
+            targetTile.copyData(sourceTile, tileCopyMode);
+            writer.encode(targetTile);
+            // - does nothing for direct copying: the target tile is already encoded
+        }
+        long t3 = TiffIO.debugTime();
+        timing.reading.add(t2 - t1);
+        timing.copying.add(t3 - t2);
+        // - in the parallel mode, these times are summed over all threads
+        return sourceTile;
+    }
+
+    private static TiffTile awaitTile(CompletableFuture<TiffTile> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException ioException) {
+                throw ioException.getCause();
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
     private static void copyEncodedTile(
             TiffWriteMap writeMap,
             TiffIOMap readMap,
@@ -1157,5 +1448,68 @@ public final class TiffCopier {
             }
         }
     }
-}
 
+    private static final class TileRangeTransfer {
+        private final TiffWriter writer;
+        private final FileChannel source;
+        private final FileChannel target;
+        private long sourceOffset = -1;
+        private long targetOffset = -1;
+        private long length = 0;
+
+        TileRangeTransfer(TiffWriter writer, FileChannel source, FileChannel target) {
+            this.writer = writer;
+            this.source = source;
+            this.target = target;
+        }
+
+        void add(TiffTile targetTile, long offset, int byteCount) throws IOException {
+            if (length > 0 && offset != sourceOffset + length) {
+                flush();
+            }
+            if (length == 0) {
+                sourceOffset = offset;
+                synchronized (writer.fileLock()) {
+                    targetOffset = writer.stream().length();
+                }
+            }
+            final long tileOffset = targetOffset + length;
+            if (!writer.isBigTiff() && tileOffset > 0xFFFFFFF0L - byteCount) {
+                throw new IOException("Attempt to write TIFF tile outside maximal allowed 32-bit file length " +
+                        "2^32-16 = " + 0xFFFFFFF0L + "; such large files should be written in BigTIFF mode");
+            }
+            targetTile.setStoredInFileDataRange(tileOffset, byteCount);
+            targetTile.setDuplicate(false);
+            targetTile.freeAndFreeze();
+            // - equivalent to writing the tile by TiffWriter.writeTile(targetTile, true)
+            length += byteCount;
+        }
+
+        void flush() throws IOException {
+            if (length == 0) {
+                return;
+            }
+            synchronized (writer.fileLock()) {
+                writer.invalidateCompanionReader();
+                writer.flushStream();
+                target.position(targetOffset);
+                for (long done = 0; done < length; ) {
+                    final long transferred = source.transferTo(sourceOffset + done, length - done, target);
+                    if (transferred <= 0) {
+                        throw new IOException("Cannot transfer " + (length - done) + " bytes from the source file " +
+                                "at position " + (sourceOffset + done));
+                    }
+                    done += transferred;
+                }
+            }
+            length = 0;
+        }
+    }
+
+    // Accumulated times of copying tiles; may be updated from several threads
+    private static final class CopyTiming {
+        final LongAdder reading = new LongAdder();
+        final LongAdder copying = new LongAdder();
+        final LongAdder writing = new LongAdder();
+    }
+}
@@ -34,11 +34,14 @@ import net.algart.matrices.tiff.tiles.TiffWriteMap;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Function;
 import java.util.function.IntPredicate;
 import java.util.stream.IntStream;
@@ -438,6 +441,349 @@ public final class TiffIFD {
         }
     }
 
+    // previous == next == null means that there are no duplicates
+    private record SameOffsetLinks(int length, int[] previous, int[] next) {
+        boolean hasDuplicates() {
+            return previous != null;
+        }
+
+        static int[] noLinks(int length) {
+            final int[] result = new int[length];
+            Arrays.fill(result, -1);
+            return result;
+        }
+    }
+
+    /**
+     * Large array of LONG or LONG8 values (usually TileOffsets or TileByteCounts),
+     * which is not loaded while reading IFD, but remains a reference to the file.
+     * It is created by {@link TiffReader} in the {@link TiffReader#setLazyOffsetArrays(boolean) lazy mode}.
+     *
+     * <p>Such an object is never returned by public methods of {@link TiffIFD}: {@link #get(int)} and
+     * {@link #map()} methods load the full array when its value is requested.
+     * But {@link #cachedTileOrStripOffset(int)} and
+     * {@link #cachedTileOrStripByteCount(int)} methods load only the page containing the requested element.</p>
+     */
+    static final class LazyLongArray {
+        @FunctionalInterface
+        interface RangeReader {
+            byte[] read(long fileOffset, int length) throws IOException;
+        }
+
+        private static final int PAGE_LOG = 12;
+        private static final int PAGE_LENGTH = 1 << PAGE_LOG;
+        // - 4096 elements (32 KB for LONG8): enough for one tiles row in most large images
+
+        private final int tag;
+        private final int length;
+        private final int bytesPerElement;
+        private final long fileOffset;
+        private final ByteOrder byteOrder;
+        private final RangeReader reader;
+        private final AtomicReferenceArray<long[]> pages;
+        private volatile long[] array = null;
+
+        LazyLongArray(int tag, TagType type, int length, long fileOffset, ByteOrder byteOrder, RangeReader reader) {
+            Objects.requireNonNull(type, "Null type");
+            Objects.requireNonNull(byteOrder, "Null byte order");
+            Objects.requireNonNull(reader, "Null reader");
+            if (type != TagType.LONG && type != TagType.LONG8) {
+                throw new IllegalArgumentException("Lazy arrays are supported only for LONG and LONG8 types");
+            }
+            if (length < 0) {
+                throw new IllegalArgumentException("Negative length = " + length);
+            }
+            if (fileOffset < 0) {
+                throw new IllegalArgumentException("Negative file offset = " + fileOffset);
+            }
+            this.tag = tag;
+            this.length = length;
+            this.bytesPerElement = type == TagType.LONG8 ? 8 : 4;
+            this.fileOffset = fileOffset;
+            this.byteOrder = byteOrder;
+            this.reader = reader;
+            this.pages = new AtomicReferenceArray<>((int) (((long) length + PAGE_LENGTH - 1) >>> PAGE_LOG));
+        }
+
+        int length() {
+            return length;
+        }
+
+        boolean isLoaded() {
+            return array != null;
+        }
+
+        long get(int index) throws TiffException {
+            Objects.checkIndex(index, length);
+            final long[] array = this.array;
+            if (array != null) {
+                return array[index];
+            }
+            final int pageIndex = index >>> PAGE_LOG;
+            long[] page = pages.get(pageIndex);
+            if (page == null) {
+                final int from = pageIndex << PAGE_LOG;
+                page = read(from, Math.min(PAGE_LENGTH, length - from));
+                pages.set(pageIndex, page);
+                // - concurrent threads can read the same page twice, but it is not a problem
+            }
+            return page[index & (PAGE_LENGTH - 1)];
+        }
+
+        long[] toArray() throws TiffException {
+            long[] result = this.array;
+            if (result == null) {
+                this.array = result = read(0, length);
+                for (int k = 0; k < pages.length(); k++) {
+                    pages.set(k, null);
+                }
+                // - all pages are not necessary more
+            }
+            return result;
+        }
+
+        long loadedPagesSizeInBytes() {
+            long result = 0;
+            for (int k = 0; k < pages.length(); k++) {
+                final long[] page = pages.get(k);
+                if (page != null) {
+                    result += 8L * page.length;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "lazy array of " + length + " elements at file offset " + fileOffset +
+                    (isLoaded() ? " (loaded)" : "");
+        }
+
+        private long[] read(int from, int count) throws TiffException {
+            final byte[] bytes;
+            try {
+                bytes = reader.read(fileOffset + (long) from * bytesPerElement, count * bytesPerElement);
+            } catch (TiffException e) {
+                throw e;
+            } catch (IOException e) {
+                throw new TiffException("Cannot read " + Tags.prettyName(tag) + " array from the file", e);
+            }
+            if (bytes.length != count * bytesPerElement) {
+                throw new AssertionError("Invalid reader: " + bytes.length + " bytes instead of " +
+                        count * bytesPerElement);
+            }
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(byteOrder);
+            final long[] result = new long[count];
+            if (bytesPerElement == 8) {
+                buffer.asLongBuffer().get(result);
+            } else {
+                final IntBuffer ints = buffer.asIntBuffer();
+                for (int k = 0; k < count; k++) {
+                    result[k] = ints.get(k) & 0xFFFFFFFFL;
+                    // - TIFF LONG is unsigned
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Unmodifiable map of IFD tags, returned by {@link #map()} if some values are {@link LazyLongArray}.
+     * Lazy arrays are loaded only when the value is requested: listing the keys does not load them.
+     */
+    private static final class MapWithLazyArrays extends AbstractMap<Integer, Object> {
+        private final Map<Integer, Object> tags;
+
+        MapWithLazyArrays(Map<Integer, Object> tags) {
+            this.tags = tags;
+        }
+
+        @Override
+        public int size() {
+            return tags.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return tags.containsKey(key);
+        }
+
+        @Override
+        public Object get(Object key) {
+            return loadedValueOrNull(tags.get(key));
+        }
+
+        @Override
+        public Set<Integer> keySet() {
+            return Collections.unmodifiableSet(tags.keySet());
+        }
+
+        @Override
+        public Set<Map.Entry<Integer, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return tags.size();
+                }
+
+                @Override
+                public Iterator<Map.Entry<Integer, Object>> iterator() {
+                    final Iterator<Map.Entry<Integer, Object>> iterator = tags.entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<Integer, Object> next() {
+                            final Map.Entry<Integer, Object> entry = iterator.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(), loadedValueOrNull(entry.getValue()));
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    /**
+     * Compact storage of IFD tags: the tags are stored in a sorted <code>int</code> array together with
+     * the parallel array of values, so the lookup is a binary search without boxing the tag.
+     * The order of adding tags is stored separately and used for iteration, like in {@link LinkedHashMap}:
+     * replacing the value of an existing tag does not change its position.
+     *
+     * <p>Usually IFD contains several tens of tags, so inserting and removing by shifting the arrays
+     * is not slower than hashing.</p>
+     *
+     * @param <V> type of values.
+     */
+    private static final class TagTable<V> {
+        private static final int[] EMPTY_TAGS = new int[0];
+        private static final Object[] EMPTY_VALUES = new Object[0];
+
+        private int[] tags = EMPTY_TAGS;
+        // - sorted in ascending order
+        private Object[] values = EMPTY_VALUES;
+        private int[] insertionOrder = EMPTY_TAGS;
+        private int size = 0;
+
+        TagTable() {
+        }
+
+        TagTable(Map<Integer, ? extends V> map, String name) {
+            for (Map.Entry<Integer, ? extends V> entry : map.entrySet()) {
+                final Integer tag = Objects.requireNonNull(entry.getKey(), name + " contains null key");
+                final V value = Objects.requireNonNull(entry.getValue(), name + " contains null value");
+                put(tag, value);
+            }
+        }
+
+        TagTable(TagTable<? extends V> other, boolean sortEntries) {
+            this.tags = Arrays.copyOf(other.tags, other.size);
+            this.values = Arrays.copyOf(other.values, other.size);
+            this.insertionOrder = sortEntries ? this.tags.clone() : Arrays.copyOf(other.insertionOrder, other.size);
+            this.size = other.size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean containsKey(int tag) {
+            return Arrays.binarySearch(tags, 0, size, tag) >= 0;
+        }
+
+        V get(int tag) {
+            final int index = Arrays.binarySearch(tags, 0, size, tag);
+            return index >= 0 ? valueAt(index) : null;
+        }
+
+        // The values are enumerated in the order of increasing tags
+        @SuppressWarnings("unchecked")
+        V valueAt(int index) {
+            return (V) values[index];
+        }
+
+        V put(int tag, V value) {
+            int index = Arrays.binarySearch(tags, 0, size, tag);
+            if (index >= 0) {
+                final V previous = valueAt(index);
+                values[index] = value;
+                return previous;
+            }
+            index = -index - 1;
+            if (size == tags.length) {
+                final int newLength = Math.max(16, 2 * size);
+                tags = Arrays.copyOf(tags, newLength);
+                values = Arrays.copyOf(values, newLength);
+                insertionOrder = Arrays.copyOf(insertionOrder, newLength);
+            }
+            System.arraycopy(tags, index, tags, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            tags[index] = tag;
+            values[index] = value;
+            insertionOrder[size++] = tag;
+            return null;
+        }
+
+        V remove(int tag) {
+            final int index = Arrays.binarySearch(tags, 0, size, tag);
+            if (index < 0) {
+                return null;
+            }
+            final V previous = valueAt(index);
+            System.arraycopy(tags, index + 1, tags, index, size - index - 1);
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            int k = 0;
+            while (insertionOrder[k] != tag) {
+                k++;
+            }
+            System.arraycopy(insertionOrder, k + 1, insertionOrder, k, size - k - 1);
+            size--;
+            values[size] = null;
+            return previous;
+        }
+
+        void clear() {
+            Arrays.fill(values, 0, size, null);
+            size = 0;
+        }
+
+        int[] tagsInInsertionOrder() {
+            return Arrays.copyOf(insertionOrder, size);
+        }
+
+        int[] sortedTags() {
+            return Arrays.copyOf(tags, size);
+        }
+
+        boolean isInsertionOrderSorted() {
+            for (int k = 1; k < size; k++) {
+                if (insertionOrder[k] < insertionOrder[k - 1]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        List<V> valuesInInsertionOrder() {
+            final List<V> result = new ArrayList<>(size);
+            for (int k = 0; k < size; k++) {
+                result.add(get(insertionOrder[k]));
+            }
+            return result;
+        }
+
+        LinkedHashMap<Integer, V> toMap() {
+            final LinkedHashMap<Integer, V> result = new LinkedHashMap<>();
+            for (int k = 0; k < size; k++) {
+                final int tag = insertionOrder[k];
+                result.put(tag, get(tag));
+            }
+            return result;
+        }
+    }
+
     /**
      * This value (0) in the {@link #getNextIFDOffset()} fields marks that this IFD is the last in the TIFF file.
      */
@@ -614,10 +960,10 @@ public final class TiffIFD {
 
     public static final int FILETYPE_REDUCED_IMAGE = 1;
 
-    private final LinkedHashMap<Integer, Object> map;
+    private final TagTable<Object> tagTable;
     private TagCompression detailedCompression = null;
     // - allows clarifying optCompression() if we have several compressions with the same code
-    private final LinkedHashMap<Integer, Entry> detailedEntries;
+    private final TagTable<Entry> detailedEntries;
     private boolean loadedFromFile = false;
     private boolean littleEndian = false;
     private boolean bigTiff = false;
@@ -633,8 +979,7 @@ public final class TiffIFD {
 
     private volatile long[] cachedTileOrStripByteCounts = null;
     private volatile long[] cachedTileOrStripOffsets = null;
-    private volatile int[] cachedLinksToPreviousSameOffset = null;
-    private volatile int[] cachedLinksToNextSameOffset = null;
+    private volatile SameOffsetLinks cachedLinksToSameOffset = null;
     private volatile TagDescription description = null;
 
     private TiffIFD(Map<Integer, Object> ifdEntries) {
@@ -642,26 +987,19 @@ public final class TiffIFD {
     }
 
     // This constructor is called while reading from the TIFF file.
-    // Note: this constructor does not clone the detailedEntries map.
-    TiffIFD(Map<Integer, Object> ifdEntries, LinkedHashMap<Integer, Entry> detailedEntries) {
+    TiffIFD(Map<Integer, Object> ifdEntries, Map<Integer, Entry> detailedEntries) {
         Objects.requireNonNull(ifdEntries, "Null IFD entries map");
-        this.map = new LinkedHashMap<>(ifdEntries);
-        for (Map.Entry<Integer, Object> entry : this.map.entrySet()) {
-            // - check in the clone (this.map)
-            Objects.requireNonNull(entry.getKey(), "IFD entries map contains null key");
-            Objects.requireNonNull(entry.getValue(), "IFD entries map contains null value");
-            // - without a guarantee that keys are not null, "new TreeSet" call in toString()
-            // or TreeMap in another constructor can throw an exception
-        }
-        this.detailedEntries = detailedEntries;
+        this.tagTable = new TagTable<>(ifdEntries, "IFD entries map");
+        // - checks that there are no null keys and values
+        this.detailedEntries = detailedEntries == null ? null : new TagTable<>(detailedEntries, "Detailed entries");
     }
 
     private TiffIFD(TiffIFD ifd, boolean sortEntries, boolean noReadingDetails) {
-        map = new LinkedHashMap<>(sortEntries ? new TreeMap<>(ifd.map) : ifd.map);
+        tagTable = new TagTable<>(ifd.tagTable, sortEntries);
         detailedCompression = ifd.detailedCompression;
         detailedEntries = noReadingDetails || ifd.detailedEntries == null ?
                 null :
-                new LinkedHashMap<>(ifd.detailedEntries);
+                new TagTable<>(ifd.detailedEntries, false);
         loadedFromFile = ifd.loadedFromFile;
         // skipping copying:
         //    littleEndian, bigTiff - they are attributes of the file, not of the IFD
@@ -697,9 +1035,9 @@ public final class TiffIFD {
      * {@code tag} &rarr; {@code value}.
      * See {@link TagValue} class about possible data values in this map.
      *
-     * <p>This method copies the given entries into an internal map, stored in this object
-     * (an immutable copy of which is available via the {@link #map()} method)
-     * using the standard copy constructor {@link LinkedHashMap#LinkedHashMap(Map)}.</p>
+     * <p>This method copies the given entries into an internal compact table, stored in this object
+     * (an immutable copy of which is available via the {@link #map()} method).
+     * The order of tags, returned by the iterator of the given map, is preserved.</p>
      *
      * @param ifdEntries the map {@code tag} &rarr; {@code value} to be copied into a new IFD.
      * @return a new IFD with the specified tags and values.
@@ -789,8 +1127,7 @@ public final class TiffIFD {
      * Returns a newly constructed copy of this IFD.
      *
      * <p>Note that IFD values from the {@link #map()} are shallow-copied.
-     * This method copies the underlying map using the standard copy constructor
-     * {@link LinkedHashMap#LinkedHashMap(Map)} and does not try to perform deep copying
+     * This method copies the internal table of tags and does not try to perform deep copying
      * of the values (such as Java arrays).</p>
      *
      * <p>Also note that the information returned by the following methods is <b>not copied</b>:</p>
@@ -828,17 +1165,7 @@ public final class TiffIFD {
      * @see #sorted()
      */
     public boolean isSorted() {
-        Integer previous = null;
-        for (Integer tag : map.keySet()) {
-            if (tag != null) {
-                // - should not occur
-                if (previous != null && tag < previous) {
-                    return false;
-                }
-                previous = tag;
-            }
-        }
-        return true;
+        return tagTable.isInsertionOrderSorted();
     }
 
     /**
@@ -1345,7 +1672,7 @@ public final class TiffIFD {
             return OptionalLong.empty();
         }
         long result = sizeOfIFDTableExcludingEntries(bigTiff);
-        final List<Entry> entries = new ArrayList<>(detailedEntries.values());
+        final List<Entry> entries = detailedEntries.valuesInInsertionOrder();
         entries.sort(Comparator.comparingLong(Entry::valueOffset));
         long lastOffsetAfter = -Long.MAX_VALUE;
         long lastOffset = 0;
@@ -1468,20 +1795,69 @@ public final class TiffIFD {
         return this;
     }
 
+    /**
+     * Returns an immutable copy of all tags of this IFD in the form of a map {@code tag} &rarr; {@code value}.
+     * The tags are iterated in the order of adding them to this IFD (or in the order of
+     * IFD entries in the file, if this IFD was read by {@link TiffReader}).
+     *
+     * <p>If this IFD was read by {@link TiffReader} in the {@link TiffReader#setLazyOffsetArrays(boolean)
+     * lazy mode}, the large TileOffsets/TileByteCounts arrays are loaded only when you request their values
+     * (via {@link Map#get(Object)} or iterating the {@link Map#entrySet() entries}):
+     * listing the tags does not load them.
+     * If such an array cannot be loaded, its value is {@code null}, like in {@link #get(int)}.</p>
+     *
+     * @return all tags of this IFD.
+     */
     public Map<Integer, Object> map() {
-        return Collections.unmodifiableMap(map);
+        final Map<Integer, Object> result = tagTable.toMap();
+        return result.values().stream().anyMatch(value -> value instanceof LazyLongArray) ?
+                new MapWithLazyArrays(result) :
+                Collections.unmodifiableMap(result);
+    }
+
+    // Unlike map(), loads all lazy arrays and throws an exception if it is impossible: used for writing IFD
+    Map<Integer, Object> loadedMap() throws TiffException {
+        final Map<Integer, Object> result = tagTable.toMap();
+        for (Map.Entry<Integer, Object> entry : result.entrySet()) {
+            if (entry.getValue() instanceof LazyLongArray lazy) {
+                entry.setValue(lazy.toArray());
+            }
+        }
+        return Collections.unmodifiableMap(result);
     }
 
     public int numberOfEntries() {
-        return map.size();
+        return tagTable.size();
     }
 
     public boolean hasTag(int key) {
-        return map.containsKey(key);
+        return tagTable.containsKey(key);
     }
 
+    /**
+     * Returns the value of the specified tag, or {@code null} if there is no such tag.
+     *
+     * <p>If this IFD was read in the {@link TiffReader#setLazyOffsetArrays(boolean) lazy mode},
+     * this method loads the full TileOffsets/TileByteCounts array (once: the next calls return the same array).
+     * If this array cannot be loaded, this method returns {@code null};
+     * the methods like {@link #getLongArray(int)} or {@link #getValue(int, Class)} throw
+     * {@link TiffException} in this case.</p>
+     *
+     * @param key the tag.
+     * @return the value of this tag; may be {@code null}.
+     */
     public Object get(int key) {
-        return map.get(key);
+        return loadedValueOrNull(tagTable.get(key));
+    }
+
+    // Returns null if this IFD was not read from a file
+    Collection<Entry> detailedEntries() {
+        return detailedEntries == null ? null : Collections.unmodifiableList(detailedEntries.valuesInInsertionOrder());
+    }
+
+    // Unlike get(), does not load lazy arrays
+    Object rawValue(int key) {
+        return tagTable.get(key);
     }
 
     public <R> Optional<R> optValue(int tag, Class<? extends R> requiredClass) {
@@ -1503,7 +1879,7 @@ public final class TiffIFD {
             Class<? extends R> requiredClass,
             TagType requiredType) throws TiffException {
         Objects.requireNonNull(requiredClass, "Null requiredClass");
-        Object value = get(tag);
+        Object value = loadedValue(tag);
         if (value == null) {
             return Optional.empty();
         }
@@ -1536,28 +1912,43 @@ public final class TiffIFD {
         return optValue(tag, Boolean.class).orElse(defaultValue);
     }
 
+    // Note: the scalar accessors below check the most typical case (a Number value) directly,
+    // without creating Optional and boxing the default value: they are called very often.
     public int reqInt(int tag) throws TiffException {
-        return checkedIntValue(reqValue(tag, Number.class), tag);
+        return tagTable.get(tag) instanceof Number number ?
+                checkedIntValue(number, tag) :
+                checkedIntValue(reqValue(tag, Number.class), tag);
     }
 
     public int getInt(int tag, int defaultValue) throws TiffException {
-        return checkedIntValue(getValue(tag, Number.class).orElse(defaultValue), tag);
+        final Object value = tagTable.get(tag);
+        if (value instanceof Number number) {
+            return checkedIntValue(number, tag);
+        }
+        return value == null ? defaultValue : checkedIntValue(getValue(tag, Number.class).orElseThrow(), tag);
+        // - for other types, getValue throws an exception
     }
 
     public int optInt(int tag, int defaultValue) {
-        return truncatedIntValue(optValue(tag, Number.class).orElse(defaultValue));
+        return tagTable.get(tag) instanceof Number number ? truncatedIntValue(number) : defaultValue;
     }
 
     public long reqLong(int tag) throws TiffException {
-        return reqValue(tag, Number.class).longValue();
+        return tagTable.get(tag) instanceof Number number ?
+                number.longValue() :
+                reqValue(tag, Number.class).longValue();
     }
 
     public long getLong(int tag, int defaultValue) throws TiffException {
-        return getValue(tag, Number.class).orElse(defaultValue).longValue();
+        final Object value = tagTable.get(tag);
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return value == null ? defaultValue : getValue(tag, Number.class).orElseThrow().longValue();
     }
 
     public long optLong(int tag, long defaultValue) {
-        return optValue(tag, Number.class).orElse(defaultValue).longValue();
+        return tagTable.get(tag) instanceof Number number ? number.longValue() : defaultValue;
     }
 
     public long[] reqLongArray(int tag) throws TiffException {
@@ -1706,21 +2097,37 @@ public final class TiffIFD {
     }
 
     public int cachedTileOrStripByteCountLength() throws TiffException {
+        if (this.cachedTileOrStripByteCounts == null) {
+            final LazyLongArray lazy = notLoadedTileOrStripArray(Tags.TILE_BYTE_COUNTS, Tags.STRIP_BYTE_COUNTS);
+            if (lazy != null) {
+                checkLazyArrayLength(lazy, "StripByteCounts/TileByteCounts");
+                return lazy.length();
+            }
+        }
         return cachedTileOrStripByteCounts().length;
     }
 
     public int cachedTileOrStripByteCount(int index) throws TiffException {
-        long[] byteCounts = cachedTileOrStripByteCounts();
+        long[] byteCounts = this.cachedTileOrStripByteCounts;
+        final LazyLongArray lazy = byteCounts != null ?
+                null :
+                notLoadedTileOrStripArray(Tags.TILE_BYTE_COUNTS, Tags.STRIP_BYTE_COUNTS);
+        if (lazy != null) {
+            checkLazyArrayLength(lazy, "StripByteCounts/TileByteCounts");
+        } else {
+            byteCounts = cachedTileOrStripByteCounts();
+        }
+        final int length = lazy != null ? lazy.length() : byteCounts.length;
         if (index < 0) {
             throw new IllegalArgumentException("Negative index = " + index);
         }
-        if (index >= byteCounts.length) {
+        if (index >= length) {
             throw new TiffException((hasTileInformation() ?
                     "Tile index is too big for TileByteCounts" :
                     "Strip index is too big for StripByteCounts") +
-                    "array: it contains only " + byteCounts.length + " elements");
+                    "array: it contains only " + length + " elements");
         }
-        long result = byteCounts[index];
+        long result = lazy != null ? lazy.get(index) : byteCounts[index];
         if (result < 0) {
             throw new TiffException(
                     "Negative value " + result + " in " +
@@ -1777,10 +2184,32 @@ public final class TiffIFD {
         return result;
     }
 
+    /**
+     * Returns the file offset of the tile or strip with the specified linear index.
+     *
+     * <p>If this IFD was read by {@link TiffReader} in the {@link TiffReader#setLazyOffsetArrays(boolean)
+     * lazy mode}, and the full TileOffsets/StripOffsets array was not loaded yet, this method loads
+     * and caches only the page of this array (several thousands elements), containing the requested offset.</p>
+     *
+     * @param index the linear index of the tile or strip.
+     * @return the offset of this tile or strip in the file.
+     * @throws IllegalArgumentException if the index is negative.
+     * @throws TiffException            if the TIFF structures are invalid or the index is out of bounds.
+     */
     public long cachedTileOrStripOffset(int index) throws TiffException {
-        long[] offsets = cachedTileOrStripOffsets();
-        checkIndexOfOffset(index, offsets.length);
-        final long result = offsets[index];
+        final long result;
+        final LazyLongArray lazy = this.cachedTileOrStripOffsets != null ?
+                null :
+                notLoadedTileOrStripArray(Tags.TILE_OFFSETS, Tags.STRIP_OFFSETS);
+        if (lazy != null) {
+            checkLazyArrayLength(lazy, "StripOffsets/TileOffsets");
+            checkIndexOfOffset(index, lazy.length());
+            result = lazy.get(index);
+        } else {
+            long[] offsets = cachedTileOrStripOffsets();
+            checkIndexOfOffset(index, offsets.length);
+            result = offsets[index];
+        }
         if (result < 0) {
             throw new TiffException("Negative value " + result + " in " +
                     (hasTileInformation() ? "TileOffsets" : "StripOffsets") + " array");
@@ -1788,28 +2217,48 @@ public final class TiffIFD {
         return result;
     }
 
+    /**
+     * Returns the array of {@link #cachedLinkToPreviousSameOffset(int) links to previous duplicates}
+     * for all tiles or strips.
+     *
+     * <p>Both this array and the array of {@link #cachedLinksToNextSameOffset() links to next duplicates}
+     * are found by a single pass and cached. If there are no duplicates in this IFD (the typical situation),
+     * only the fact of their absence is cached, and this method returns a new array filled by <code>-1</code>.
+     * You must not modify the returned array.</p>
+     *
+     * @return the links to the previous tiles/strips with the same offset.
+     * @throws TiffException if the TIFF structures are invalid.
+     */
     public int[] cachedLinksToPreviousSameOffset() throws TiffException {
-        int[] result = this.cachedLinksToPreviousSameOffset;
-        if (result == null) {
-            final long[] tileOrStripOffsets = cachedTileOrStripOffsets();
-            this.cachedLinksToPreviousSameOffset = result = findLinksToPreviousSameOffset(tileOrStripOffsets);
-        }
-        return result;
+        final SameOffsetLinks links = cachedLinksToSameOffset();
+        return links.hasDuplicates() ? links.previous : SameOffsetLinks.noLinks(links.length);
     }
 
+    /**
+     * Returns the array of {@link #cachedLinkToNextSameOffset(int) links to next duplicates}
+     * for all tiles or strips.
+     * See {@link #cachedLinksToPreviousSameOffset()}.
+     *
+     * @return the links to the next tiles/strips with the same offset.
+     * @throws TiffException if the TIFF structures are invalid.
+     */
     public int[] cachedLinksToNextSameOffset() throws TiffException {
-        int[] result = this.cachedLinksToNextSameOffset;
-        if (result == null) {
-            final long[] tileOrStripOffsets = cachedTileOrStripOffsets();
-            this.cachedLinksToNextSameOffset = result = findLinksToNextSameOffset(tileOrStripOffsets);
-        }
-        return result;
+        final SameOffsetLinks links = cachedLinksToSameOffset();
+        return links.hasDuplicates() ? links.next : SameOffsetLinks.noLinks(links.length);
     }
 
     /**
      * Returns the index of the previous duplicate: a tile or strip sharing the same file offset as the specified one,
      * or {@code -1} if there are no previous duplicates.
      *
+     * <p>Note: the duplicates can be found only by analysing the full TileOffsets/StripOffsets array.
+     * If this IFD was read in the {@link TiffReader#setLazyOffsetArrays(boolean) lazy mode},
+     * and this array was not fully loaded yet, the first call of this method
+     * or {@link #cachedLinkToNextSameOffset(int)} loads the full array.
+     * So, the result never depends on whether the array was loaded before.
+     * To avoid this loading, {@link TiffReader} calls this method only when it is really necessary:
+     * see {@link TiffReader#setLazyOffsetArrays(boolean)}.</p>
+     *
      * @param index the linear index of the tile or strip.
      * @return the index of the nearest previous tile/strip sharing the same offset,
      * or {@code -1} if this offset is unique or this is the first occurrence.
@@ -1817,8 +2266,9 @@ public final class TiffIFD {
      * @throws TiffException            if the TIFF structures are invalid or the index is out of bounds.
      */
     public int cachedLinkToPreviousSameOffset(int index) throws TiffException {
-        int[] links = cachedLinksToPreviousSameOffset();
-        return links[checkIndexOfOffset(index, links.length)];
+        final SameOffsetLinks links = cachedLinksToSameOffset();
+        checkIndexOfOffset(index, links.length);
+        return links.hasDuplicates() ? links.previous[index] : -1;
     }
 
     /**
@@ -1832,8 +2282,43 @@ public final class TiffIFD {
      * @throws TiffException            if the TIFF structures are invalid or the index is out of bounds.
      */
     public int cachedLinkToNextSameOffset(int index) throws TiffException {
-        int[] links = cachedLinksToNextSameOffset();
-        return links[checkIndexOfOffset(index, links.length)];
+        final SameOffsetLinks links = cachedLinksToSameOffset();
+        checkIndexOfOffset(index, links.length);
+        return links.hasDuplicates() ? links.next[index] : -1;
+    }
+
+    /**
+     * Returns the estimated memory in bytes, occupied by the cached arrays of this IFD:
+     * TileOffsets/StripOffsets, TileByteCounts/StripByteCounts (including partially loaded arrays
+     * in the {@link TiffReader#setLazyOffsetArrays(boolean) lazy mode}) and the links
+     * to duplicate tiles ({@link #cachedLinksToPreviousSameOffset()}, {@link #cachedLinksToNextSameOffset()}).
+     *
+     * <p>This memory is not included into the size of IFD entries and may be significant for huge images
+     * with millions of tiles.</p>
+     *
+     * @return the estimated size of cached arrays in bytes.
+     */
+    public long cachedArraysSizeInBytes() {
+        long result = 0;
+        final long[] offsets = this.cachedTileOrStripOffsets;
+        final long[] byteCounts = this.cachedTileOrStripByteCounts;
+        final SameOffsetLinks links = this.cachedLinksToSameOffset;
+        if (offsets != null) {
+            result += 8L * offsets.length;
+        }
+        if (byteCounts != null) {
+            result += 8L * byteCounts.length;
+        }
+        if (links != null && links.hasDuplicates()) {
+            result += 8L * links.length;
+        }
+        for (int k = 0, n = tagTable.size(); k < n; k++) {
+            if (tagTable.valueAt(k) instanceof LazyLongArray lazy && !lazy.isLoaded()) {
+                result += lazy.loadedPagesSizeInBytes();
+                // - fully loaded arrays are usually counted above as cached arrays
+            }
+        }
+        return result;
     }
 
     public Optional<String> optDescription() {
@@ -2717,8 +3202,9 @@ public final class TiffIFD {
 
     /**
      * Puts TIFF Predictor tag.
-     * Note that only {@link TagPredictor#HORIZONTAL} case is supported by this library
-     * (besides {@link TagPredictor#NONE}).
+     * Note that only {@link TagPredictor#HORIZONTAL} and {@link TagPredictor#HORIZONTAL_FLOATING_POINT}
+     * cases are supported by this library (besides {@link TagPredictor#NONE});
+     * the latter is allowed only for floating-point samples.
      *
      * <p>Note: if this image is binary (1 bit/pixel), we do not recommend using this tag:
      * this library supports this case, but this is non-standard, and the resulting TIFF will not be readable
@@ -3007,12 +3493,12 @@ public final class TiffIFD {
         }
         if (USE_LONG_IMAGE_DIMENSIONS) {
             // - long values enforce using LONG 32-bit format, but old TIFFs often use 16-bit SHORT here
-            map.put(Tags.IMAGE_WIDTH, dimX);
-            map.put(Tags.IMAGE_LENGTH, dimY);
+            tagTable.put(Tags.IMAGE_WIDTH, dimX);
+            tagTable.put(Tags.IMAGE_LENGTH, dimY);
         } else {
             // - but int values are also possible: they will be stored as 32-bit LONG in TiffIO when they are >0xFFFF
-            map.put(Tags.IMAGE_WIDTH, (int) dimX);
-            map.put(Tags.IMAGE_LENGTH, (int) dimY);
+            tagTable.put(Tags.IMAGE_WIDTH, (int) dimX);
+            tagTable.put(Tags.IMAGE_LENGTH, (int) dimY);
         }
         return this;
     }
@@ -3056,11 +3542,11 @@ public final class TiffIFD {
         clearCache();
         removeDetailedEntries(Tags.TILE_OFFSETS, Tags.STRIP_OFFSETS, Tags.TILE_BYTE_COUNTS, Tags.STRIP_BYTE_COUNTS);
         // - to avoid illegal detection of the type
-        map.put(tiled ? Tags.TILE_OFFSETS : Tags.STRIP_OFFSETS, offsets);
-        map.put(tiled ? Tags.TILE_BYTE_COUNTS : Tags.STRIP_BYTE_COUNTS, byteCounts);
+        tagTable.put(tiled ? Tags.TILE_OFFSETS : Tags.STRIP_OFFSETS, offsets);
+        tagTable.put(tiled ? Tags.TILE_BYTE_COUNTS : Tags.STRIP_BYTE_COUNTS, byteCounts);
         // Just in case, let's also remove extra tags:
-        map.remove(tiled ? Tags.STRIP_OFFSETS : Tags.TILE_OFFSETS);
-        map.remove(tiled ? Tags.STRIP_BYTE_COUNTS : Tags.TILE_BYTE_COUNTS);
+        tagTable.remove(tiled ? Tags.STRIP_OFFSETS : Tags.TILE_OFFSETS);
+        tagTable.remove(tiled ? Tags.STRIP_BYTE_COUNTS : Tags.TILE_BYTE_COUNTS);
     }
 
     /**
@@ -3187,7 +3673,7 @@ public final class TiffIFD {
         if (detailedEntries != null) {
             detailedEntries.clear();
         }
-        map.clear();
+        tagTable.clear();
     }
 
     public String jsonString() {
@@ -3239,22 +3725,18 @@ public final class TiffIFD {
         } else {
             sb.append("; ").append(numberOfEntries()).append(" entries:");
         }
-        final Collection<Integer> keySequence = format.sorted ? new TreeSet<>(map.keySet()) : map.keySet();
-        Integer previous = null;
+        final int[] keySequence = format.sorted ? tagTable.sortedTags() : tagTable.tagsInInsertionOrder();
         boolean sorted = true;
-        for (Integer tag : keySequence) {
-            if (tag != null) {
-                // - tag should not be null, but toString must work even in this case
-                if (previous != null && tag < previous) {
-                    sorted = false;
-                }
-                addTagInfo(sb, format, tag, previous == null);
-                // - note: this method adds line separator BEFORE the content
-                previous = tag;
+        for (int k = 0; k < keySequence.length; k++) {
+            final int tag = keySequence[k];
+            if (k > 0 && tag < keySequence[k - 1]) {
+                sorted = false;
             }
+            addTagInfo(sb, format, tag, k == 0);
+            // - note: this method adds line separator BEFORE the content
         }
         if (json) {
-            sb.append(previous == null ? "" : "\n").append("  }");
+            sb.append(keySequence.length == 0 ? "" : "\n").append("  }");
         } else if (!sorted && detailedEntries != null) {
             // - this IFD was probably loaded from file: we should warn about unsorted tags
             sb.append("%n  ".formatted()).append(
@@ -3284,24 +3766,84 @@ public final class TiffIFD {
 
     public static int[] findLinksToPreviousSameOffset(long[] tileOrStripOffsets) {
         Objects.requireNonNull(tileOrStripOffsets, "Null tileOrStripOffsets");
-        final HashMap<Long, Integer> map = new HashMap<>();
         final int[] result = new int[tileOrStripOffsets.length];
-        for (int k = 0; k < result.length; k++) {
-            final long offset = tileOrStripOffsets[k];
-            Integer p = map.put(offset, k);
-            result[k] = p != null ? p : -1;
-        }
+        findLinksToSameOffset(tileOrStripOffsets, result, new int[tileOrStripOffsets.length]);
         return result;
     }
 
     public static int[] findLinksToNextSameOffset(long[] tileOrStripOffsets) {
         Objects.requireNonNull(tileOrStripOffsets, "Null tileOrStripOffsets");
-        final HashMap<Long, Integer> map = new HashMap<>();
         final int[] result = new int[tileOrStripOffsets.length];
-        for (int k = result.length - 1; k >= 0; k--) {
+        findLinksToSameOffset(tileOrStripOffsets, new int[tileOrStripOffsets.length], result);
+        return result;
+    }
+
+    /**
+     * Finds the links between tiles/strips with the same offsets: for every index <code>k</code>,
+     * <code>linksToPrevious[k]</code> will contain the index of the nearest previous element
+     * of <code>tileOrStripOffsets</code> array, equal to <code>tileOrStripOffsets[k]</code>,
+     * and <code>linksToNext[k]</code> will contain the index of the nearest next such element
+     * (or <code>-1</code> if there is no such element).
+     *
+     * <p>This method does not allocate any objects besides a hash table of primitive arrays;
+     * if the offsets are increasing (the typical situation), it does not allocate any memory at all.</p>
+     *
+     * @param tileOrStripOffsets the offsets of tiles or strips.
+     * @param linksToPrevious    the array for the links to previous duplicates.
+     * @param linksToNext        the array for the links to next duplicates.
+     * @return whether there is at least one pair of duplicates.
+     * @throws IllegalArgumentException if the lengths of the arrays are not equal.
+     */
+    public static boolean findLinksToSameOffset(long[] tileOrStripOffsets, int[] linksToPrevious, int[] linksToNext) {
+        Objects.requireNonNull(tileOrStripOffsets, "Null tileOrStripOffsets");
+        Objects.requireNonNull(linksToPrevious, "Null linksToPrevious");
+        Objects.requireNonNull(linksToNext, "Null linksToNext");
+        final int n = tileOrStripOffsets.length;
+        if (linksToPrevious.length != n || linksToNext.length != n) {
+            throw new IllegalArgumentException("Lengths of linksToPrevious (" + linksToPrevious.length +
+                    ") and linksToNext (" + linksToNext.length + ") arrays are not equal to the number of offsets " +
+                    n);
+        }
+        if (isIncreasing(tileOrStripOffsets)) {
+            Arrays.fill(linksToPrevious, -1);
+            Arrays.fill(linksToNext, -1);
+            return false;
+        }
+        return findLinksToSameOffsetInNonIncreasing(tileOrStripOffsets, linksToPrevious, linksToNext);
+    }
+
+    // Should be called only if the offsets are not increasing (in another case, there are no duplicates)
+    private static boolean findLinksToSameOffsetInNonIncreasing(
+            long[] tileOrStripOffsets,
+            int[] linksToPrevious,
+            int[] linksToNext) {
+        final int n = tileOrStripOffsets.length;
+        Arrays.fill(linksToPrevious, -1);
+        Arrays.fill(linksToNext, -1);
+        // Open addressing hash table: offset -> the index of its last occurrence
+        final int hashBits = 64 - Long.numberOfLeadingZeros(Math.max(n, 1) * 3L / 2);
+        // - the table is filled no more than by 2/3
+        final int mask = (1 << hashBits) - 1;
+        final long[] keys = new long[mask + 1];
+        final int[] values = new int[mask + 1];
+        Arrays.fill(values, -1);
+        // - -1 means an unused entry
+        boolean result = false;
+        for (int k = 0; k < n; k++) {
             final long offset = tileOrStripOffsets[k];
-            Integer p = map.put(offset, k);
-            result[k] = p != null ? p : -1;
+            int h = (int) ((offset * 0x9E3779B97F4A7C15L) >>> (64 - hashBits));
+            while (values[h] >= 0 && keys[h] != offset) {
+                h = (h + 1) & mask;
+            }
+            final int previous = values[h];
+            if (previous >= 0) {
+                linksToPrevious[k] = previous;
+                linksToNext[previous] = k;
+                result = true;
+            } else {
+                keys[h] = offset;
+            }
+            values[h] = k;
         }
         return result;
     }
@@ -3468,7 +4010,7 @@ public final class TiffIFD {
     }
 
     private long[] getLongArray(int tag, boolean required) throws TiffException {
-        final Object value = get(tag);
+        final Object value = loadedValue(tag);
         long[] results = null;
         switch (value) {
             case null -> {
@@ -3500,7 +4042,7 @@ public final class TiffIFD {
     }
 
     private int[] getIntArray(int tag, boolean required) throws TiffException {
-        final Object value = get(tag);
+        final Object value = loadedValue(tag);
         int[] results = null;
         switch (value) {
             case null -> {
@@ -3537,11 +4079,85 @@ public final class TiffIFD {
         return results;
     }
 
+    private Object loadedValue(int tag) throws TiffException {
+        final Object value = tagTable.get(tag);
+        return value instanceof LazyLongArray lazy ? lazy.toArray() : value;
+        // - like for other tags, we return the stored array without cloning
+    }
+
+    // Returns null if the lazy array cannot be loaded: the exception is thrown by loadedValue(int)
+    private static Object loadedValueOrNull(Object value) {
+        if (value instanceof LazyLongArray lazy) {
+            try {
+                return lazy.toArray();
+            } catch (TiffException e) {
+                return null;
+            }
+        }
+        return value;
+    }
+
+    // Returns true if finding links to the same offset requires loading the full lazy TileOffsets/StripOffsets
+    boolean linksToSameOffsetRequireLoading() {
+        return cachedLinksToSameOffset == null && cachedTileOrStripOffsets == null &&
+                notLoadedTileOrStripArray(Tags.TILE_OFFSETS, Tags.STRIP_OFFSETS) != null;
+    }
+
+    // Returns non-null result only if this array was not loaded yet
+    private LazyLongArray notLoadedTileOrStripArray(int tileTag, int stripTag) {
+        final boolean tiled = hasTileInformation();
+        Object value = tagTable.get(tiled ? tileTag : stripTag);
+        if (tiled && value == null) {
+            value = tagTable.get(stripTag);
+        }
+        return value instanceof LazyLongArray lazy && !lazy.isLoaded() ? lazy : null;
+    }
+
+    private SameOffsetLinks cachedLinksToSameOffset() throws TiffException {
+        SameOffsetLinks result = this.cachedLinksToSameOffset;
+        if (result == null) {
+            final long[] tileOrStripOffsets = cachedTileOrStripOffsets();
+            final int n = tileOrStripOffsets.length;
+            result = new SameOffsetLinks(n, null, null);
+            if (!isIncreasing(tileOrStripOffsets)) {
+                // - the typical increasing offsets are checked only once, without allocating the link arrays
+                final int[] previous = new int[n];
+                final int[] next = new int[n];
+                if (findLinksToSameOffsetInNonIncreasing(tileOrStripOffsets, previous, next)) {
+                    result = new SameOffsetLinks(n, previous, next);
+                }
+                // - if there are no duplicates, the arrays are not stored
+            }
+            this.cachedLinksToSameOffset = result;
+        }
+        return result;
+    }
+
+    private static boolean isIncreasing(long[] values) {
+        for (int k = 1; k < values.length; k++) {
+            if (values[k] <= values[k - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkLazyArrayLength(LazyLongArray lazy, String name) throws TiffException {
+        final long numberOfTilesInChunkedMode = (long) getTileCountX() * (long) getTileCountY();
+        if (lazy.length() < numberOfTilesInChunkedMode) {
+            throw new TiffException(name + " length (" + lazy.length() +
+                    ") does not match expected number of strips/tiles (" + numberOfTilesInChunkedMode + ")");
+        }
+        if (lazy.length() > MAX_NUMBER_OF_TILES) {
+            throw new TiffException("Too large " + name + " length: " + lazy.length() +
+                    " > " + MAX_NUMBER_OF_TILES + " (maximal supported number of tiles)");
+        }
+    }
+
     private void clearCache() {
         cachedTileOrStripByteCounts = null;
         cachedTileOrStripOffsets = null;
-        cachedLinksToPreviousSameOffset = null;
-        cachedLinksToNextSameOffset = null;
+        cachedLinksToSameOffset = null;
     }
 
     private void clearSpecificCache(int key) {
@@ -3578,7 +4194,7 @@ public final class TiffIFD {
         // - necessary to avoid possible bugs with detection of the type
         clearSpecificCache(tag);
         clearCache();
-        map.put(tag, value);
+        tagTable.put(tag, value);
     }
 
     private void remove(int tag, boolean ignoringFreeze) {
@@ -3588,7 +4204,7 @@ public final class TiffIFD {
         removeDetailedEntries(tag);
         clearSpecificCache(tag);
         clearCache();
-        map.remove(tag);
+        tagTable.remove(tag);
     }
 
     private void removeDetailedEntries(int... tags) {
@@ -3607,7 +4223,8 @@ public final class TiffIFD {
         if (detailedEntries == null) {
             return false;
         }
-        for (Entry entry : detailedEntries.values()) {
+        for (int k = 0, n = detailedEntries.size(); k < n; k++) {
+            final Entry entry = detailedEntries.valueAt(k);
             if (offset == entry.valueOffset()) {
                 return true;
                 // - This position is already occupied by some IFD.
@@ -589,8 +589,13 @@ public sealed abstract class TiffIO implements Closeable permits TiffReader, Tif
      */
     public final TiffReader newSharedReader() {
         try {
-            return new TiffReader(
+            final TiffReader reader = new TiffReader(
                     originalStream(), filePath, TiffReader.OpenMode.NO_CHECKS, false);
+            if (this instanceof TiffWriter) {
+                reader.setPositionalReading(false);
+                // - the writer may modify the file via the stream at any moment
+            }
+            return reader;
         } catch (IOException e) {
             throw new AssertionError("IOException is impossible in NO_CHECKS mode", e);
         }
@@ -804,12 +809,20 @@ public sealed abstract class TiffIO implements Closeable permits TiffReader, Tif
                     long tEntry2 = debugTime();
                     timeEntries += tEntry2 - tEntry1;
 
-                    final Object value = readIFDValueAtEntryOffset(
-                            ifdStream,
-                            stream,
-                            entry.isDataEmbeddedInEntry(),
-                            info.offsetOfFirstEntry(),
-                            entry);
+                    final Object value = isLazyIFDArray(entry, info.fileLength()) ?
+                            new TiffIFD.LazyLongArray(
+                                    tag,
+                                    entry.type(),
+                                    entry.valueCount(),
+                                    entry.valueOffset(),
+                                    info.littleEndian() ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN,
+                                    this::readLazyIFDArrayRange) :
+                            readIFDValueAtEntryOffset(
+                                    ifdStream,
+                                    stream,
+                                    entry.isDataEmbeddedInEntry(),
+                                    info.offsetOfFirstEntry(),
+                                    entry);
                     long tEntry3 = debugTime();
                     timeArrays += tEntry3 - tEntry2;
 //            System.err.printf("%d values from %d: %.6f ms%n", valueCount, valueOffset, (tEntry3 - tEntry2) * 1e-6);
@@ -2246,6 +2259,34 @@ public sealed abstract class TiffIO implements Closeable permits TiffReader, Tif
         }
     }
 
+    private boolean isLazyIFDArray(TiffIFD.Entry entry, long fileLength) {
+        if (!(this instanceof TiffReader reader && reader.isLazyOffsetArrays())) {
+            return false;
+        }
+        final int tag = entry.tag();
+        if (tag != Tags.TILE_OFFSETS && tag != Tags.STRIP_OFFSETS
+                && tag != Tags.TILE_BYTE_COUNTS && tag != Tags.STRIP_BYTE_COUNTS) {
+            return false;
+        }
+        final TagType type = entry.type();
+        if ((type != TagType.LONG && type != TagType.LONG8)
+                || entry.isDataEmbeddedInEntry()
+                || entry.valueCount() < TiffReader.MIN_LAZY_OFFSET_ARRAY_LENGTH) {
+            return false;
+        }
+        final long length = (type == TagType.LONG8 ? 8L : 4L) * entry.valueCount();
+        return entry.valueOffset() >= 0 && entry.valueOffset() <= fileLength - length;
+        // - if the array is outside the file, we prefer to read it immediately and to get the usual exception
+    }
+
+    private byte[] readLazyIFDArrayRange(long fileOffset, int length) throws IOException {
+        synchronized (fileLock) {
+            checkFileOpen();
+            stream.seek(fileOffset);
+            return readBytes(stream, length);
+        }
+    }
+
     private static byte[] readBytes(DataHandle<?> stream, long length) throws IOException {
         if (length > Integer.MAX_VALUE) {
             throw new TiffException("Too large IFD value: " + length + " >= 2^31 bytes");
@@ -31,6 +31,8 @@ import net.algart.matrices.tiff.bits.TiffJPEGDecodingHelper;
 import net.algart.matrices.tiff.bits.TiffPrediction;
 import net.algart.matrices.tiff.bits.TiffUnpacking;
 import net.algart.matrices.tiff.bits.TiffUnpackingPrecisions;
+import net.algart.matrices.tiff.io.ByteArrayPool;
+import net.algart.matrices.tiff.io.MappedFileSegments;
 import net.algart.matrices.tiff.io.ReadBufferDataHandle;
 import net.algart.matrices.tiff.tags.TagCompression;
 import net.algart.matrices.tiff.tags.TagPhotometric;
@@ -45,9 +47,22 @@ import java.io.IOException;
 import java.lang.ref.Reference;
 import java.lang.ref.SoftReference;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
 /**
@@ -143,15 +158,35 @@ public non-sealed class TiffReader extends TiffIO {
     // - 256 MB maximal cache by default: enough to store 256 RGBA tiles 512x512
     // (for example, one tiles row in the image 131072x131072)
 
+    public static final int DEFAULT_MAX_COALESCING_GAP = Math.max(0,
+            net.algart.arrays.Arrays.SystemSettings.getIntProperty(
+                    "net.algart.matrices.tiff.defaultMaxCoalescingGap", 32768));
+    // - 32 KB: reading such a gap is usually faster than an additional read operation
+    public static final long DEFAULT_MAX_PREFETCHED_BYTES = Math.max(0,
+            net.algart.arrays.Arrays.SystemSettings.getLongProperty(
+                    "net.algart.matrices.tiff.defaultMaxPrefetchedBytes", 64 * 1048576L));
+    // - 64 MB: several coalesced ranges, which can be decoded simultaneously
+
     static final boolean USE_LEGACY_UNPACK_BYTES = false;
     // - should be false for better performance; necessary for debugging needs only
     // (together with uncommenting unpackBytesLegacy call)
     private static final boolean AUTO_BUFFERING_INPUT_STREAM = true;
     // - should be true for good performance
+    private static final boolean DEFAULT_POSITIONAL_READING = !getBooleanProperty(
+            "net.algart.matrices.tiff.disablePositionalReading");
+    static final int MIN_LAZY_OFFSET_ARRAY_LENGTH = 16384;
+    // - smaller TileOffsets/TileByteCounts arrays are always loaded while reading IFD
+    private static final int MAX_COALESCED_READ_LENGTH = 16 * 1048576;
+    // - we should not load too large ranges in a single array
+    private static final double PROTECTED_CACHE_FRACTION = 0.8;
+    // - part of maxCacheMemory, which can be occupied by the "protected" segment of the tile cache:
+    // the tiles that were requested at least twice
 
     private final DataHandle<?> originalStream;
     private volatile boolean caching = true;
     private volatile long maxCacheMemory = DEFAULT_MAX_CACHING_MEMORY;
+    private volatile TiffSharedTileCache sharedTileCache = null;
+    private volatile ByteArrayPool bufferPool = null;
     private boolean rescaleWhenIncreasingBitDepth = DEFAULT_RESCALE_WHEN_INCREASING_BIT_DEPTH;
     private boolean colorCorrection = DEFAULT_COLOR_CORRECTION;
     private TiffCodec.Customizer codecCustomizer = null;
@@ -159,6 +194,19 @@ public non-sealed class TiffReader extends TiffIO {
     private boolean cropTilesToImageBoundaries = true;
     private boolean cachingIFDs = true;
     private boolean missingTilesAllowed = true;
+    private volatile boolean positionalReading = DEFAULT_POSITIONAL_READING;
+    private volatile FileChannel positionalChannel = null;
+    private volatile long positionalChannelLength = -1;
+    private volatile boolean memoryMapping = false;
+    private volatile MappedFileSegments mappedFile = null;
+    private volatile int maxCoalescingGap = DEFAULT_MAX_COALESCING_GAP;
+    private volatile long maxPrefetchedBytes = DEFAULT_MAX_PREFETCHED_BYTES;
+    private final AtomicLong prefetchedBytes = new AtomicLong();
+    private volatile boolean lazyOffsetArrays = false;
+    private volatile Path indexFile = null;
+    private final Map<TiffTileIndex, PrefetchedTile> prefetchedTiles = new ConcurrentHashMap<>();
+    private volatile Executor asyncExecutor = null;
+    private final Map<TiffTileIndex, AsyncTileReading> asyncTileReadings = new ConcurrentHashMap<>();
 
     private final IOException openingException;
     private volatile boolean existingFile;
@@ -169,10 +217,17 @@ public non-sealed class TiffReader extends TiffIO {
     private volatile List<TiffIFD> allIFDs;
     private volatile List<TiffIFD> mainIFDs;
 
-    private final Map<TiffTileIndex, CachedTile> tileCacheMap = new HashMap<>();
-    private final Queue<CachedTile> tileCache = new LinkedList<>();
+    private final Map<TiffTileIndex, CachedTile> tileCacheMap = new ConcurrentHashMap<>();
+    private final CachedTileList probationTileCache = new CachedTileList();
+    private final CachedTileList protectedTileCache = new CachedTileList();
+    // - segmented LRU: new tiles are added to the probation segment and
+    // are promoted to the protected segment if they were requested again before eviction
     private volatile long cacheMemoryUsage = 0;
     private final Object tileCacheLock = new Object();
+    private final LongAdder cacheHitCount = new LongAdder();
+    private final LongAdder cacheMissCount = new LongAdder();
+    private final LongAdder cacheEvictionCount = new LongAdder();
+    private volatile TiffSharedTileCache.FileIdentity fileIdentity = null;
 
     private volatile TiffReadMap lastMap = null;
 
@@ -449,6 +504,301 @@ public non-sealed class TiffReader extends TiffIO {
         return this;
     }
 
+    public final TiffSharedTileCache getSharedTileCache() {
+        return sharedTileCache;
+    }
+
+    /**
+     * Sets the cache of decoded tiles, which is shared with other readers, possibly of other files.
+     * If it is not {@code null} and {@link #isCaching() caching} is enabled,
+     * {@link #readCachedTile(TiffTileIndex)} method uses this cache instead of the private tile cache of
+     * this reader, so the decoded tiles remain available after closing this reader
+     * for new readers of the same file.
+     *
+     * <p>The shared cache is used only if this reader was created for a file {@link #filePath() path}
+     * and the IFD was read from this file. In other cases, as well as when the
+     * {@link #setCodecCustomizer(TiffCodec.Customizer) codec customizer} is set,
+     * the private tile cache is used as usual.</p>
+     *
+     * <p>By default, the shared cache is not used (<code>null</code>).</p>
+     *
+     * @param sharedTileCache the shared tile cache; may be {@code null}.
+     * @return a reference to this object.
+     * @see TiffSharedTileCache#global()
+     */
+    public TiffReader setSharedTileCache(TiffSharedTileCache sharedTileCache) {
+        this.sharedTileCache = sharedTileCache;
+        return this;
+    }
+
+    public final ByteArrayPool getBufferPool() {
+        return bufferPool;
+    }
+
+    /**
+     * Sets the pool of <code>byte[]</code> arrays for the data of the tiles, created by this reader.
+     * If it is not {@code null}, the tiles, returned by {@link #readEncodedTile(TiffTileIndex)},
+     * {@link #readTile(TiffTileIndex)} and similar methods, are {@link TiffTile#setBufferPool(ByteArrayPool)
+     * connected} to this pool: the encoded data and the results of the built-in codecs are allocated there,
+     * and the encoded data and intermediate arrays, which become unnecessary while
+     * {@link #decode(TiffTile) decoding}, are returned back to the pool.
+     * So, you must not use the array, returned by {@link TiffTile#getEncodedData()}, after decoding the tile.
+     * When {@link #readTile(TiffTileIndex)} reads the tile by {@link #setPositionalReading(boolean)
+     * positional reading} and the codec implements {@link TiffCodec.ByteBufferDecompressor},
+     * the encoded data are read into a temporary array from the pool, allocated by
+     * {@link ByteArrayPool#allocateAtLeast(int)}: such arrays can be reused for the tiles
+     * with different compressed lengths.
+     *
+     * <p>The decoded tile data are returned to the pool by {@link TiffTile#releaseData()} method.
+     * {@link TiffIOMap#loadSampleBytes(int, int, int, int, boolean)} and other methods, reading
+     * rectangular regions, call it automatically for the tiles that are not
+     * {@link #isCaching() cached} and not stored in the map.
+     * So, reading a sequence of regions of the same image without caching
+     * (for example, while scanning the image in a viewer)
+     * uses the same arrays for the data of all tiles.</p>
+     *
+     * <p>By default, the pool is not used (<code>null</code>).</p>
+     *
+     * @param bufferPool the pool of arrays for tile data; may be {@code null}.
+     * @return a reference to this object.
+     * @see ByteArrayPool#global()
+     */
+    public TiffReader setBufferPool(ByteArrayPool bufferPool) {
+        this.bufferPool = bufferPool;
+        return this;
+    }
+
+    public final boolean isPositionalReading() {
+        return positionalReading;
+    }
+
+    /**
+     * Enables or disables positional reading of the encoded tile data.
+     * If it is enabled and this reader was created for a file {@link #filePath() path},
+     * the tiles are read via a separate {@link FileChannel} by the method
+     * {@link FileChannel#read(java.nio.ByteBuffer, long)}, which does not change any shared file position.
+     * In this case, {@link #readEncodedTile(TiffTileIndex, TiffTile.DuplicateHandling)} does not
+     * synchronize on the {@link #fileLock() file lock}, and several threads can read tiles from the same file
+     * simultaneously. In other cases, the tiles are read from the {@link #stream() stream} under the lock.
+     * Note that the file lock is a Java monitor: reading under it pins a virtual thread to its carrier thread,
+     * so positional reading is also preferable when the tiles are read by virtual threads.
+     *
+     * <p>By default, positional reading is enabled, excepting readers
+     * {@link #newSharedReader() sharing} the stream with a {@link TiffWriter}.</p>
+     *
+     * @param positionalReading whether the tiles should be read via positional reading.
+     * @return a reference to this object.
+     */
+    public TiffReader setPositionalReading(boolean positionalReading) {
+        this.positionalReading = positionalReading;
+        return this;
+    }
+
+    public final boolean isMemoryMapping() {
+        return memoryMapping;
+    }
+
+    /**
+     * Enables or disables memory-mapped reading of the encoded tile data.
+     * If it is enabled together with {@link #setPositionalReading(boolean) positional reading},
+     * the file is mapped into memory by {@link MappedFileSegments} (in segments of 1 GB,
+     * which allows mapping large BigTIFF files), and the encoded tiles are copied directly from the mapping
+     * without any system calls. It can be useful for read-heavy applications like image viewers.
+     * The tiles, which are outside the mapped part of the file (if the file was extended after mapping),
+     * are read in the usual way.
+     * If the tile is compressed by a built-in codec, which can decompress a {@link java.nio.ByteBuffer}
+     * (see {@link TiffCodec.ByteBufferDecompressor}), {@link #readTile(TiffTileIndex)} passes
+     * the mapped bytes directly to the codec without copying them into a Java array.
+     *
+     * <p>Warning: the file must not be truncated by other processes while this reader is open.
+     * Access to the mapped bytes beyond the new end of the file leads to the SIGBUS signal:
+     * inside Java code it is reported as {@link IOException}, but inside native code
+     * (like zlib, used by {@link java.util.zip.Inflater}) it may crash the JVM.
+     * See also {@link MappedFileSegments}.</p>
+     *
+     * <p>By default, memory mapping is disabled.</p>
+     *
+     * @param memoryMapping whether the file should be mapped into memory.
+     * @return a reference to this object.
+     */
+    public TiffReader setMemoryMapping(boolean memoryMapping) {
+        this.memoryMapping = memoryMapping;
+        return this;
+    }
+
+    public final Executor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * Sets the executor used by {@link #readTileAsync(TiffTileIndex)} and {@link #readTilesAsync(Collection)}
+     * methods for reading and decoding tiles.
+     * If it is <code>null</code> (the default value), these methods use {@link ForkJoinPool#commonPool()},
+     * like the default parallel executors of {@link TiffIOMap} and {@link TiffWriter}.
+     *
+     * <p>You may also use an executor starting a virtual thread per task, for example,
+     * {@link Executors#newVirtualThreadPerTaskExecutor()}, which is convenient when many tiles are requested
+     * by asynchronous servers. But in this case, {@link #setPositionalReading(boolean) positional reading}
+     * should be enabled (this is the default for file-based readers): reading from the {@link #stream() stream}
+     * occurs under the monitor {@link #fileLock()}, which pins the virtual threads to their carrier threads.</p>
+     *
+     * @param asyncExecutor the executor for asynchronous reading tiles; may be <code>null</code>.
+     * @return a reference to this object.
+     */
+    public TiffReader setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+        return this;
+    }
+
+    public final int getMaxCoalescingGap() {
+        return maxCoalescingGap;
+    }
+
+    /**
+     * Sets the maximal gap in bytes between the data of two tiles in the file, which
+     * {@link #prefetchEncodedTiles(Collection)} method reads by a single read operation.
+     * The zero value means that only the tiles stored in the file without gaps are read together.
+     *
+     * <p>By default, this value is {@link #DEFAULT_MAX_COALESCING_GAP}.</p>
+     *
+     * @param maxCoalescingGap maximal gap between tiles, read by one operation.
+     * @return a reference to this object.
+     */
+    public TiffReader setMaxCoalescingGap(int maxCoalescingGap) {
+        if (maxCoalescingGap < 0) {
+            throw new IllegalArgumentException("Negative maxCoalescingGap = " + maxCoalescingGap);
+        }
+        this.maxCoalescingGap = maxCoalescingGap;
+        return this;
+    }
+
+    public final long getMaxPrefetchedBytes() {
+        return maxPrefetchedBytes;
+    }
+
+    /**
+     * Sets the maximal total size in bytes of the ranges, loaded by {@link #prefetchEncodedTiles(Collection)}
+     * and not yet consumed, in all threads using this reader. When this limit is reached,
+     * the following tiles are read in the usual way, one by one, until some ranges are consumed.
+     * The zero value disables prefetching.
+     *
+     * <p>By default, this value is {@link #DEFAULT_MAX_PREFETCHED_BYTES}.</p>
+     *
+     * @param maxPrefetchedBytes maximal amount of memory for prefetched data.
+     * @return a reference to this object.
+     */
+    public TiffReader setMaxPrefetchedBytes(long maxPrefetchedBytes) {
+        if (maxPrefetchedBytes < 0) {
+            throw new IllegalArgumentException("Negative maxPrefetchedBytes = " + maxPrefetchedBytes);
+        }
+        this.maxPrefetchedBytes = maxPrefetchedBytes;
+        return this;
+    }
+
+    /**
+     * Returns the buffering stream, which replaced the input stream passed to the constructor:
+     * the same object as {@link #stream()}.
+     * You may use it to get the statistics of the buffer (like {@link ReadBufferDataHandle#bytesRead()}).
+     *
+     * @return the buffering input stream.
+     */
+    public final ReadBufferDataHandle<?> readBuffer() {
+        if (!(stream instanceof ReadBufferDataHandle<?> readBuffer)) {
+            throw new AssertionError("Input stream was not correctly replaced in the constructor");
+        }
+        return readBuffer;
+    }
+
+    /**
+     * Changes the size and the number of pages in the {@link #readBuffer() buffering stream}.
+     * See {@link ReadBufferDataHandle#setPaging(int, int)}.
+     *
+     * @param pageSize      the size of every page in bytes.
+     * @param numberOfPages the number of cached pages.
+     * @return a reference to this object.
+     */
+    public TiffReader setReadBufferPaging(int pageSize, int numberOfPages) {
+        synchronized (fileLock) {
+            readBuffer().setPaging(pageSize, numberOfPages);
+        }
+        return this;
+    }
+
+    /**
+     * Sets the maximal number of pages read together by the {@link #readBuffer() buffering stream}
+     * while sequential reading. See {@link ReadBufferDataHandle#setMaxReadAheadPages(int)}.
+     *
+     * @param maxReadAheadPages the maximal number of pages read by one operation.
+     * @return a reference to this object.
+     */
+    public TiffReader setMaxReadAheadPages(int maxReadAheadPages) {
+        synchronized (fileLock) {
+            readBuffer().setMaxReadAheadPages(maxReadAheadPages);
+        }
+        return this;
+    }
+
+    public final boolean isLazyOffsetArrays() {
+        return lazyOffsetArrays;
+    }
+
+    /**
+     * Enables or disables lazy loading of large TileOffsets, StripOffsets, TileByteCounts and
+     * StripByteCounts arrays.
+     * If it is enabled, these arrays (when they contain many elements) are not read while reading IFD,
+     * but remain references to the file: {@link TiffIFD#cachedTileOrStripOffset(int)} and
+     * {@link TiffIFD#cachedTileOrStripByteCount(int)} methods load only the pages of these arrays
+     * containing the requested tiles. It can significantly accelerate opening very large BigTIFF images,
+     * containing millions of tiles, when you need to read only a few of them.
+     * The full arrays are loaded on the first call of {@link TiffIFD#get(int)},
+     * {@link TiffIFD#map()} or the methods like {@link TiffIFD#cachedTileOrStripOffsets()}.
+     *
+     * <p>Note that such IFDs can load the arrays only while this reader is open.
+     * Also note that detecting {@link TiffIFD#cachedLinkToPreviousSameOffset(int) duplicate tiles}
+     * requires the full TileOffsets/StripOffsets array. So, while the array is not loaded,
+     * {@link #readTile(TiffTileIndex, TiffTile.DuplicateHandling)} and similar methods
+     * in the {@link TiffTile.DuplicateHandling#COPY_CONTENT} mode do not detect duplicates: the returned
+     * tiles have no links to other duplicates, though their content is read correctly.
+     * Only the {@link TiffTile.DuplicateHandling#LINK_REFERENCE} mode, which is used, for example,
+     * by {@link TiffCopier}, loads the full offsets array (by a single read operation) to find the links.</p>
+     *
+     * <p>This setting affects only IFDs that will be read after this call
+     * (see also {@link #setCachingIFDs(boolean)}).
+     * By default, lazy loading is disabled.</p>
+     *
+     * @param lazyOffsetArrays whether the large arrays of tile offsets and byte counts should be loaded lazily.
+     * @return a reference to this object.
+     */
+    public TiffReader setLazyOffsetArrays(boolean lazyOffsetArrays) {
+        this.lazyOffsetArrays = lazyOffsetArrays;
+        return this;
+    }
+
+    public final Path getIndexFile() {
+        return indexFile;
+    }
+
+    /**
+     * Sets the file for storing the {@link TiffSidecarIndex persistent index} of IFDs of this TIFF.
+     * If it is not <code>null</code>, {@link #allIFDs()} method first tries to load all IFDs from this index file
+     * instead of walking the chain of IFDs in the TIFF file. If the index file does not exist
+     * or does not correspond to the current TIFF file (the file was modified),
+     * the IFDs are read from the TIFF file in the usual way, and then the index file is created or rewritten.
+     * Errors while writing the index file are logged and ignored.
+     *
+     * <p>The index file is used only for readers created for a file {@link #filePath() path}.
+     * Usually the index file is {@link TiffSidecarIndex#sidecarFile(Path)} or
+     * {@link TiffSidecarIndex#fileInDirectory(Path, Path)}.
+     * By default, the index file is <code>null</code> (not used).</p>
+     *
+     * @param indexFile the index file; may be <code>null</code>.
+     * @return a reference to this object.
+     */
+    public TiffReader setIndexFile(Path indexFile) {
+        this.indexFile = indexFile;
+        return this;
+    }
+
     /**
      * Invalidates all internal caches and initializes the reader by re-reading the TIFF header.
      *
@@ -505,25 +855,69 @@ public non-sealed class TiffReader extends TiffIO {
         return cacheMemoryUsage;
     }
 
+    /**
+     * Returns the number of calls of {@link #readCachedTile(TiffTileIndex)}, which found the tile in the cache,
+     * since creating this reader or the last call of {@link #resetCacheStatistics()}.
+     *
+     * @return the number of cache hits.
+     */
+    public final long cacheHitCount() {
+        return cacheHitCount.sum();
+    }
+
+    /**
+     * Returns the number of calls of {@link #readCachedTile(TiffTileIndex)}, which did not find the tile
+     * in the cache and read it from the file,
+     * since creating this reader or the last call of {@link #resetCacheStatistics()}.
+     * Calls performed while caching is {@link #setCaching(boolean) disabled} are not counted.
+     *
+     * @return the number of cache misses.
+     */
+    public final long cacheMissCount() {
+        return cacheMissCount.sum();
+    }
+
+    /**
+     * Returns the number of tiles removed from the cache because of exceeding
+     * {@link #getMaxCacheMemory()} limit,
+     * since creating this reader or the last call of {@link #resetCacheStatistics()}.
+     *
+     * @return the number of cache evictions.
+     */
+    public final long cacheEvictionCount() {
+        return cacheEvictionCount.sum();
+    }
+
+    /**
+     * Resets the counters returned by {@link #cacheHitCount()}, {@link #cacheMissCount()}
+     * and {@link #cacheEvictionCount()}.
+     */
+    public final void resetCacheStatistics() {
+        cacheHitCount.reset();
+        cacheMissCount.reset();
+        cacheEvictionCount.reset();
+    }
+
     private void clearAllCache() {
         clearTileCache();
         this.allIFDs = null;
         this.mainIFDs = null;
+        this.fileIdentity = null;
+        // - the file could be modified, so its shared cache key should be recalculated
+        this.prefetchedTiles.clear();
+        closePositionalChannel();
         invalidateLinkage(false, null);
         // - theoretically, this is not necessary while calling from close(),
         // but it is necessary while calling from clearCache()
-        if (!(stream instanceof ReadBufferDataHandle<?>)) {
-            throw new AssertionError(
-                    "Input stream was not correctly replaced in the constructor");
-        }
-        ((ReadBufferDataHandle<?>) stream).clearCache();
+        readBuffer().clearCache();
     }
 
     private void clearTileCache() {
         synchronized (tileCacheLock) {
             synchronized (fileLock) {
                 this.tileCacheMap.clear();
-                this.tileCache.clear();
+                this.probationTileCache.clear();
+                this.protectedTileCache.clear();
                 this.cacheMemoryUsage = 0;
             }
         }
@@ -985,6 +1379,11 @@ public non-sealed class TiffReader extends TiffIO {
                 return allIFDs;
             }
 
+            final Path indexFile = this.filePath == null ? null : this.indexFile;
+            final TiffSidecarIndex.Stamp indexStamp = validTiff && indexFile != null ? indexStamp() : null;
+            if (indexStamp != null && loadIFDsFromIndex(indexFile, indexStamp)) {
+                return this.allIFDs;
+            }
             TiffIFD.Linkage linkage = null;
             final long[] offsets;
             if (validTiff) {
@@ -1024,6 +1423,9 @@ public non-sealed class TiffReader extends TiffIO {
             this.allIFDs = Collections.unmodifiableList(allIFDs);
             this.mainIFDs = Collections.unmodifiableList(mainIFDs);
             // note: storing it in any case, regardless caching is enabled or not
+            if (indexStamp != null) {
+                saveIFDsToIndex(indexFile, indexStamp, linkage, allIFDs);
+            }
         }
         if (BUILT_IN_TIMING && LOGGABLE_DEBUG) {
             long t2 = debugTime();
@@ -1035,6 +1437,79 @@ public non-sealed class TiffReader extends TiffIO {
         return allIFDs;
     }
 
+    // Must be called under fileLock
+    private TiffSidecarIndex.Stamp indexStamp() throws IOException {
+        final long savedOffset = stream.offset();
+        try {
+            return TiffSidecarIndex.stamp(this, filePath);
+        } finally {
+            stream.seek(savedOffset);
+        }
+    }
+
+    // Must be called under fileLock
+    private boolean loadIFDsFromIndex(Path indexFile, TiffSidecarIndex.Stamp stamp) {
+        final TiffSidecarIndex index = TiffSidecarIndex.read(indexFile, stamp);
+        if (index == null) {
+            return false;
+        }
+        long t1 = debugTime();
+        final TiffIFD.Linkage linkage = index.linkage();
+        final List<TiffIFD> allIFDs;
+        final List<TiffIFD> mainIFDs = new ArrayList<>();
+        try {
+            allIFDs = index.ifds();
+            for (int i = 0; i < allIFDs.size(); i++) {
+                final TiffIFD ifd = allIFDs.get(i);
+                if (ifd.isMainIFD()) {
+                    linkage.correctInvalidLinkage(ifd);
+                    ifd.setGlobalIndexes(i, mainIFDs.size());
+                    mainIFDs.add(ifd);
+                } else {
+                    ifd.setGlobalIndexes(i, null);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // - the index has a valid structure, but its values are invalid (corrupted):
+            // the caller will read IFDs from the TIFF file and rebuild the index
+            LOG.log(System.Logger.Level.DEBUG, () -> "Invalid TIFF index file " + indexFile + ": " + e);
+            return false;
+        }
+        if (mainIFDs.size() != linkage.numberOfMainIFDs()) {
+            LOG.log(System.Logger.Level.DEBUG, () -> "Inconsistent TIFF index file " + indexFile);
+            return false;
+        }
+        this.linkage = linkage;
+        this.allIFDs = Collections.unmodifiableList(allIFDs);
+        this.mainIFDs = Collections.unmodifiableList(mainIFDs);
+        if (BUILT_IN_TIMING && LOGGABLE_DEBUG) {
+            long t2 = debugTime();
+            LOG.log(System.Logger.Level.DEBUG, String.format(Locale.ROOT,
+                    "%s loaded %d IFDs from index file %s: %.3f ms",
+                    getClass().getSimpleName(), allIFDs.size(), indexFile, (t2 - t1) * 1e-6));
+        }
+        return true;
+    }
+
+    // Must be called under fileLock
+    private void saveIFDsToIndex(
+            Path indexFile,
+            TiffSidecarIndex.Stamp stamp,
+            TiffIFD.Linkage linkage,
+            List<TiffIFD> allIFDs) {
+        final long savedOffset = stream.offset();
+        try {
+            TiffSidecarIndex.build(this, stamp, linkage, allIFDs).write(indexFile);
+        } catch (IOException | RuntimeException e) {
+            LOG.log(System.Logger.Level.WARNING, "Cannot write TIFF index file " + indexFile, e);
+        } finally {
+            try {
+                stream.seek(savedOffset);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
     public final List<TiffIFD> mainIFDs() throws IOException {
         synchronized (fileLock) {
             allIFDs();
@@ -1074,12 +1549,79 @@ public non-sealed class TiffReader extends TiffIO {
      * @throws IOException in the case of any problems with the input file.
      */
     public TiffTile readCachedTile(TiffTileIndex tileIndex) throws IOException {
-        if (!caching || maxCacheMemory == 0) {
+        if (!caching) {
+            return readTile(tileIndex);
+        }
+        final TiffSharedTileCache sharedTileCache = this.sharedTileCache;
+        if (sharedTileCache != null) {
+            final TiffSharedTileCache.Key key = sharedTileCacheKey(tileIndex);
+            if (key != null) {
+                return readSharedCachedTile(sharedTileCache, key, tileIndex);
+            }
+        }
+        if (maxCacheMemory == 0) {
             return readTile(tileIndex);
         }
         return getCachedTile(tileIndex).readIfNecessary();
     }
 
+    /**
+     * Asynchronous version of {@link #readCachedTile(TiffTileIndex)}: reads and decodes the tile
+     * in the {@link #getAsyncExecutor() async executor} and returns a future, which will contain the tile.
+     *
+     * <p>If the same tile is requested again while it is still being read, the second request does not
+     * start a new reading: both futures will be completed by the same result (and, so, will contain
+     * the same {@link TiffTile} object, which should not be modified, as the tiles returned from the cache).
+     * Cancelling the returned future does not affect other requests of the same tile;
+     * but if all requests of this tile are cancelled before the reading has started, the tile is not read.
+     * Note that cancelling only skips the readings that have not started yet: the reading in progress
+     * is not interrupted, and its result is stored in the cache as usual.</p>
+     *
+     * <p>If reading fails, the returned future is completed exceptionally with {@link CompletionException},
+     * the cause of which is the occurred exception, usually {@link IOException}.</p>
+     *
+     * @param tileIndex coordinates of the tile.
+     * @return a future, which will contain the loaded tile.
+     */
+    public CompletableFuture<TiffTile> readTileAsync(TiffTileIndex tileIndex) {
+        Objects.requireNonNull(tileIndex, "Null tile index");
+        for (; ; ) {
+            final AsyncTileReading reading = asyncTileReadings.computeIfAbsent(tileIndex, AsyncTileReading::new);
+            final CompletableFuture<TiffTile> result = reading.subscribe();
+            if (result != null) {
+                return result;
+            }
+            // - this reading was just cancelled by all previous requests: we need to start it again
+            asyncTileReadings.remove(tileIndex, reading);
+        }
+    }
+
+    /**
+     * Calls {@link #readTileAsync(TiffTileIndex)} for all specified tiles and returns a future,
+     * which will contain the list of all loaded tiles in the same order.
+     * Cancelling the returned future cancels all these requests
+     * (with the same limitation: the tiles that are already being read are still read).
+     *
+     * @param tileIndexes coordinates of the tiles.
+     * @return a future, which will contain the list of loaded tiles.
+     */
+    public CompletableFuture<List<TiffTile>> readTilesAsync(Collection<TiffTileIndex> tileIndexes) {
+        Objects.requireNonNull(tileIndexes, "Null tile indexes");
+        final List<CompletableFuture<TiffTile>> futures = new ArrayList<>(tileIndexes.size());
+        for (TiffTileIndex tileIndex : tileIndexes) {
+            futures.add(readTileAsync(tileIndex));
+        }
+        final CompletableFuture<List<TiffTile>> result = CompletableFuture
+                .allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
+        result.whenComplete((tiles, exception) -> {
+            if (result.isCancelled()) {
+                futures.forEach(future -> future.cancel(false));
+            }
+        });
+        return result;
+    }
+
     /**
      * Equivalent to <code>{@link #readTile(TiffTileIndex, TiffTile.DuplicateHandling)
      * readTile}(tileIndex, {@link TiffTile.DuplicateHandling#COPY_CONTENT})</code>.
@@ -1120,7 +1662,9 @@ public non-sealed class TiffReader extends TiffIO {
      * {@link TiffTile#hasNextDuplicate()}, {@link TiffTile#getLinearIndexOfNextDuplicate()}.</p>
      *
      * <p>If the {@code duplicateHandling} argument is {@link TiffTile.DuplicateHandling#COPY_CONTENT}
-     * (the typical case), the duplicated tile is read and processed in the usual way.</p>
+     * (the typical case), the duplicated tile is read and processed in the usual way.
+     * In this case, if the IFD was read in the {@link #setLazyOffsetArrays(boolean) lazy mode}
+     * and its offsets array was not fully loaded yet, the duplicates are not detected.</p>
      *
      * <p>Note: the loaded tile is always {@link TiffTile#isSeparated() separated}.</p>
      *
@@ -1135,12 +1679,13 @@ public non-sealed class TiffReader extends TiffIO {
      */
     public TiffTile readTile(TiffTileIndex tileIndex, TiffTile.DuplicateHandling duplicateHandling)
             throws IOException {
-        final TiffTile tile = readEncodedTile(tileIndex, duplicateHandling);
+        final TiffTile tile = readEncodedTile(tileIndex, duplicateHandling, true);
         if (tile.isEmpty()) {
             // - in particular, because it is recognized as a duplicate in the LINK_REFERENCE mode
             return tile;
         }
         decode(tile);
+        // - does nothing if the tile was already decoded directly from the memory-mapped file or prefetched range
         return tile;
     }
 
@@ -1150,6 +1695,13 @@ public non-sealed class TiffReader extends TiffIO {
 
     public TiffTile readEncodedTile(TiffTileIndex tileIndex, TiffTile.DuplicateHandling duplicateHandling)
             throws IOException {
+        return readEncodedTile(tileIndex, duplicateHandling, false);
+    }
+
+    private TiffTile readEncodedTile(
+            TiffTileIndex tileIndex,
+            TiffTile.DuplicateHandling duplicateHandling,
+            boolean decodeDirectly) throws IOException {
         Objects.requireNonNull(tileIndex, "Null tile index");
         Objects.requireNonNull(duplicateHandling, "Null duplicate handling");
         long t1 = debugTime();
@@ -1179,11 +1731,16 @@ public non-sealed class TiffReader extends TiffIO {
             byteCount = cachedByteCountWithCompatibilityTrick(ifd, index);
             assert byteCount >= 0 : "byte-count " + byteCount + " was not checked in TiffIFD";
             byteCount = applySingleStripZeroByteCountTrick(tileIndex, byteCount, offset);
-            previousDuplicate = ifd.cachedLinkToPreviousSameOffset(index);
-            nextDuplicate = ifd.cachedLinkToNextSameOffset(index);
+            if (duplicateHandling.isLinking() || !ifd.linksToSameOffsetRequireLoading()) {
+                previousDuplicate = ifd.cachedLinkToPreviousSameOffset(index);
+                nextDuplicate = ifd.cachedLinkToNextSameOffset(index);
+            } else {
+                previousDuplicate = nextDuplicate = -1;
+                // - COPY_CONTENT mode does not need the links: we should not load the full lazy offsets array
+            }
         }
 
-        final TiffTile result = new TiffTile(tileIndex);
+        final TiffTile result = new TiffTile(tileIndex).setBufferPool(bufferPool);
         // - No reasons to put it into the map: this class does not provide access to a temporarily created map.
         assert result.isEmpty();
 
@@ -1205,19 +1762,31 @@ public non-sealed class TiffReader extends TiffIO {
         result.setOrClearLinearIndexOfPreviousDuplicate(previousDuplicate);
         result.setOrClearLinearIndexOfNextDuplicate(nextDuplicate);
         result.setDuplicateAutomatically();
-        synchronized (fileLock) {
-            if (offset >= stream.length()) {
-                throw new TiffException("Offset of TIFF tile/strip " + offset + " is out of file length " +
-                        stream.length() + " (tile " + tileIndex + ")");
-                // - note: old SCIFIO code allowed such offsets and returned zero-filled tile
-            }
+        final PrefetchedTile prefetched = alreadyStored ? null : prefetchedTiles.remove(tileIndex);
+        final FileChannel channel = alreadyStored ? null : positionalChannel();
+        // - for TiffWriteMap, the file is being modified via the stream: we should not bypass it
+        final boolean readData = previousDuplicate == -1 || !duplicateHandling.isLinking();
+        if (prefetched != null && readPrefetched(result, prefetched, offset, byteCount, readData, decodeDirectly)) {
+            // - the data were taken from the prefetched range
+        } else if (channel != null) {
             if (previousDuplicate == -1 || !duplicateHandling.isLinking()) {
-                // if previousDuplicate == -1 and duplicateHandling=COPY_CONTENT,
-                // we will read the same portion of the file and then will decompress it;
-                // we do not try to optimize this (but the stream is usually cached)
-                TiffTileIO.readAt(result, stream, offset, byteCount);
-                if (alreadyStored) {
-                    result.expandStoredInFileDataCapacity(existing.getStoredInFileDataCapacity());
+                readAtPosition(result, channel, offset, byteCount, decodeDirectly);
+            }
+        } else {
+            synchronized (fileLock) {
+                if (offset >= stream.length()) {
+                    throw new TiffException("Offset of TIFF tile/strip " + offset + " is out of file length " +
+                            stream.length() + " (tile " + tileIndex + ")");
+                    // - note: old SCIFIO code allowed such offsets and returned zero-filled tile
+                }
+                if (previousDuplicate == -1 || !duplicateHandling.isLinking()) {
+                    // if previousDuplicate == -1 and duplicateHandling=COPY_CONTENT,
+                    // we will read the same portion of the file and then will decompress it;
+                    // we do not try to optimize this (but the stream is usually cached)
+                    TiffTileIO.readAt(result, stream, offset, byteCount);
+                    if (alreadyStored) {
+                        result.expandStoredInFileDataCapacity(existing.getStoredInFileDataCapacity());
+                    }
                 }
             }
         }
@@ -1226,6 +1795,91 @@ public non-sealed class TiffReader extends TiffIO {
         return result;
     }
 
+    /**
+     * Prepares reading the encoded data of the specified tiles, combining the tiles
+     * stored in the file near each other into large read operations.
+     * The tiles are sorted by their file offsets, and the ranges separated by no more than
+     * {@link #getMaxCoalescingGap()} bytes are merged; every merged range is read by a single operation
+     * when one of its tiles is requested for the first time
+     * by {@link #readEncodedTile(TiffTileIndex, TiffTile.DuplicateHandling)}
+     * (and, so, {@link #readTile(TiffTileIndex)} or {@link #readCachedTile(TiffTileIndex)}).
+     * The other tiles of this range are then taken from the loaded range without accessing the file,
+     * and the range is freed when all its tiles are read. So, reading the file is interleaved with
+     * decoding the tiles, and several ranges can be read simultaneously by parallel threads.
+     * If the tile is compressed by a built-in codec, which implements {@link TiffCodec.ByteBufferDecompressor},
+     * {@link #readTile(TiffTileIndex)} decodes it directly from the loaded range without copying.
+     *
+     * <p>The total size of loaded ranges is limited by {@link #getMaxPrefetchedBytes()}:
+     * if the limit is reached, the tiles are read in the usual way.
+     * The tiles that are already cached, missing in the file or
+     * cannot be merged with other tiles are not prefetched by this method.</p>
+     *
+     * <p>The returned object must be {@link PrefetchedTiles#close() closed} after reading the tiles:
+     * it frees the memory occupied by the tiles that were prefetched but not read (if any).
+     * Closing does not affect the tiles, prefetched by other calls of this method.</p>
+     *
+     * <p>This method is used by {@link TiffIOMap#loadSampleBytes(int, int, int, int, boolean)}
+     * for reading regions, consisting of several tiles.</p>
+     *
+     * @param tileIndexes indexes of the tiles that will be read soon.
+     * @return the prefetched tiles, which should be closed after reading.
+     * @throws IOException in the case of any problems with the input file.
+     */
+    public PrefetchedTiles prefetchEncodedTiles(Collection<TiffTileIndex> tileIndexes) throws IOException {
+        Objects.requireNonNull(tileIndexes, "Null tile indexes");
+        final PrefetchedTiles result = new PrefetchedTiles();
+        final long maxPrefetchedBytes = this.maxPrefetchedBytes;
+        if (maxPrefetchedBytes == 0 || tileIndexes.size() <= 1) {
+            return result;
+        }
+        if (memoryMapping && positionalChannel() != null) {
+            // - no sense to combine reading operations: there are no system calls
+            return result;
+        }
+        final List<PrefetchedTile> planned = new ArrayList<>();
+        for (TiffTileIndex tileIndex : tileIndexes) {
+            final TiffTile existing = tileIndex.existingTile();
+            if ((existing != null && existing.isStoredInFile()) || isTileCached(tileIndex)) {
+                continue;
+            }
+            final long offset = encodedTileOffset(tileIndex);
+            final int byteCount = encodedTileByteCount(tileIndex, offset);
+            if (offset > 0 && byteCount > 0) {
+                planned.add(new PrefetchedTile(tileIndex, offset, byteCount, null));
+            }
+        }
+        planned.sort(Comparator.comparingLong(PrefetchedTile::offset));
+        final long fileLength = fileLengthForPrefetching();
+        final int maxGap = maxCoalescingGap;
+        final long maxRangeLength = Math.min(MAX_COALESCED_READ_LENGTH, maxPrefetchedBytes);
+        for (int from = 0, n = planned.size(); from < n; ) {
+            final long rangeOffset = planned.get(from).offset;
+            long rangeEnd = rangeOffset + planned.get(from).length;
+            int to = from + 1;
+            for (; to < n; to++) {
+                final PrefetchedTile next = planned.get(to);
+                final long nextEnd = Math.max(rangeEnd, next.offset + next.length);
+                if (next.offset - rangeEnd > maxGap || nextEnd - rangeOffset > maxRangeLength) {
+                    break;
+                }
+                rangeEnd = nextEnd;
+            }
+            if (to - from > 1 && rangeEnd <= fileLength) {
+                // - single tiles are read in the usual way
+                final PrefetchedRange range = new PrefetchedRange(rangeOffset, (int) (rangeEnd - rangeOffset),
+                        to - from);
+                result.ranges.add(range);
+                for (int k = from; k < to; k++) {
+                    final PrefetchedTile tile = planned.get(k).withRange(range);
+                    result.tiles.add(tile);
+                    prefetchedTiles.put(tile.tileIndex, tile);
+                }
+            }
+            from = to;
+        }
+        return result;
+    }
+
     // Note: the result is usually interleaved (RGBRGB...) or monochrome; it is always so in UNCOMPRESSED, LZW, DEFLATE
     public boolean decode(TiffTile tile) throws TiffException {
         Objects.requireNonNull(tile, "Null tile");
@@ -1234,8 +1888,15 @@ public non-sealed class TiffReader extends TiffIO {
         }
         long t1 = debugTime();
         prepareDecoding(tile);
+        decodeData(tile, tile.getEncodedData(), null, t1);
+        return true;
+    }
 
-        final byte[] encodedData = tile.getEncodedData();
+    // Exactly one of encodedData and encodedBuffer must be non-null;
+    // in the second case, the built-in codec must implement TiffCodec.ByteBufferDecompressor
+    private void decodeData(TiffTile tile, byte[] encodedData, ByteBuffer encodedBuffer, long t1)
+            throws TiffException {
+        assert (encodedData == null) != (encodedBuffer == null);
         final TagCompression compression = tile.optCompressionOrNoneForMissing().orElse(null);
         // - tile.compressionOrNoneForMissing() returns Optional.of(TagCompression.NONE) if this tag is absent!
         TiffCodec codec = null;
@@ -1244,6 +1905,8 @@ public non-sealed class TiffReader extends TiffIO {
             // - we are sure that this codec does not require SCIFIO context
         }
         TiffCodec.Options options = buildOptions(tile);
+        byte[] decodedData = null;
+        // - result of the built-in codec
         long t2 = debugTime();
 
         if (codec != null) {
@@ -1263,13 +1926,16 @@ public non-sealed class TiffReader extends TiffIO {
                 timing.setTiming(BUILT_IN_TIMING && LOGGABLE_DEBUG);
                 timing.resetTiming();
             }
-            final byte[] decodedData = codec.decompress(encodedData, options);
+            decodedData = encodedBuffer != null ?
+                    ((TiffCodec.ByteBufferDecompressor) codec).decompress(encodedBuffer, options) :
+                    codec.decompress(encodedData, options);
             setLastCodecReport(options.getReport());
             tile.setPartiallyDecodedData(decodedData);
             tile.setReport(options.getReport());
         } else {
-            final Optional<byte[]> decodedData = decodeByExternalCodec(tile, encodedData, options);
-            if (decodedData.isEmpty()) {
+            assert encodedData != null : "external codecs cannot process ByteBuffer";
+            final Optional<byte[]> externalDecodedData = decodeByExternalCodec(tile, encodedData, options);
+            if (externalDecodedData.isEmpty()) {
                 throw new UnsupportedTiffFormatException("TIFF compression with code " +
                         tile.compressionCode() +
                         (tile.optCompressionOrNoneForMissing().isPresent() ?
@@ -1277,12 +1943,18 @@ public non-sealed class TiffReader extends TiffIO {
                                 "") +
                         " is not supported and cannot be decoded (even by an external codec)");
             }
-            tile.setPartiallyDecodedData(decodedData.get());
+            tile.setPartiallyDecodedData(externalDecodedData.get());
         }
         tile.setInterleaved(options.isInterleaved());
         long t3 = debugTime();
 
         completeDecoding(tile);
+        final ByteArrayPool bufferPool = tile.getBufferPool();
+        if (bufferPool != null && decodedData != null && decodedData != encodedData
+                && decodedData != tile.getDecodedData()) {
+            // - the built-in codec created this array, but completeDecoding replaced it with new data
+            bufferPool.release(decodedData);
+        }
         long t4 = debugTime();
         assert tile.isSeparated() : "was already checked in the final method completeDecoding";
 
@@ -1296,7 +1968,6 @@ public non-sealed class TiffReader extends TiffIO {
             timeDecodingMain += t3 - t2;
         }
         timeCompleteDecoding += t4 - t3;
-        return true;
     }
 
     public final void prepareDecoding(TiffTile tile) throws TiffException {
@@ -1529,6 +2200,11 @@ public non-sealed class TiffReader extends TiffIO {
 
     @Override
     public void close() throws IOException {
+        synchronized (fileLock) {
+            fileOpen = false;
+            // - must be cleared before closing the positional channel:
+            // a parallel positionalChannel() call must not reopen it
+        }
         lastMap = null;
         clearAllCache();
         super.close();
@@ -1637,25 +2313,394 @@ public non-sealed class TiffReader extends TiffIO {
     }
 
     private CachedTile getCachedTile(TiffTileIndex tileIndex) {
-        synchronized (tileCacheLock) {
-            CachedTile tile = tileCacheMap.get(tileIndex);
-            if (tile == null) {
-                tile = new CachedTile(tileIndex);
-                tileCacheMap.put(tileIndex, tile);
+        final CachedTile tile = tileCacheMap.get(tileIndex);
+        // - fast lock-free check: it is the typical situation for a repeated access
+        return tile != null ? tile : tileCacheMap.computeIfAbsent(tileIndex, CachedTile::new);
+        // So, we store (without an ability to remove) all CachedTile objects in the cache tileMap.
+        // It is not a problem because CachedTile is a very lightweight object.
+        // In any case, "this.ifds" already contains a comparable amount of data:
+        // strip offsets and strip byte counts for all tiles.
+    }
+
+    private TiffSharedTileCache.Key sharedTileCacheKey(TiffTileIndex tileIndex) {
+        final TiffIFD ifd = tileIndex.ifd();
+        if (filePath == null || !ifd.isLoadedFromFile() || !ifd.hasFileOffsetOfIFD() || codecCustomizer != null) {
+            return null;
+        }
+        final TiffTile existing = tileIndex.existingTile();
+        if (existing != null && existing.isStoredInFile()) {
+            // - re-reading tiles written by TiffWriteMap: the file is being modified
+            return null;
+        }
+        TiffSharedTileCache.FileIdentity fileIdentity = this.fileIdentity;
+        if (fileIdentity == null) {
+            try {
+                this.fileIdentity = fileIdentity = TiffSharedTileCache.fileIdentity(filePath);
+            } catch (IOException e) {
+                LOG.log(System.Logger.Level.DEBUG, () -> "Cannot use shared tile cache for " + filePath, e);
+                return null;
             }
-            return tile;
-            // So, we store (without an ability to remove) all CachedTile objects in the cache tileMap.
-            // It is not a problem because CachedTile is a very lightweight object.
-            // In any case, "this.ifds" already contains a comparable amount of data:
-            // strip offsets and strip byte counts for all tiles.
         }
+        final int decodingOptions = (rescaleWhenIncreasingBitDepth ? 1 : 0)
+                | (colorCorrection ? 2 : 0)
+                | (enforceUseExternalCodec ? 4 : 0)
+                | (cropTilesToImageBoundaries ? 8 : 0);
+        return new TiffSharedTileCache.Key(
+                fileIdentity,
+                ifd.getFileOffsetOfIFD(),
+                tileIndex.separatedPlaneIndex(),
+                tileIndex.xIndex(),
+                tileIndex.yIndex(),
+                getClass(),
+                decodingOptions);
+    }
+
+    private TiffTile readSharedCachedTile(
+            TiffSharedTileCache sharedTileCache,
+            TiffSharedTileCache.Key key,
+            TiffTileIndex tileIndex) throws IOException {
+        final TiffTile cached = sharedTileCache.get(key);
+        if (cached != null) {
+            cacheHitCount.increment();
+            LOG.log(System.Logger.Level.TRACE, () -> "SHARED CACHED tile: " + tileIndex);
+            if (cached.index().equals(tileIndex)) {
+                return cached;
+            }
+            // - the tile was decoded by another reader: we need a tile in our map, sharing the same data
+            final TiffTile result = new TiffTile(tileIndex).setEqualSizes(cached);
+            result.copyData(cached, TiffTile.CopyMode.COPY_REFERENCE);
+            result.setInterleaved(cached.isInterleaved());
+            result.copyUnsetArea(cached);
+            result.copyStoredInFileDataRange(cached);
+            result.setOrClearLinearIndexOfPreviousDuplicate(cached.optLinearIndexOfPreviousDuplicate().orElse(-1));
+            result.setOrClearLinearIndexOfNextDuplicate(cached.optLinearIndexOfNextDuplicate().orElse(-1));
+            result.setDuplicateAutomatically();
+            return result;
+        }
+        cacheMissCount.increment();
+        final TiffTile result = readTile(tileIndex);
+        if (!result.isEmpty()) {
+            sharedTileCache.put(key, result);
+        }
+        return result;
+    }
+
+    private FileChannel positionalChannel() {
+        if (!positionalReading || filePath == null) {
+            return null;
+        }
+        FileChannel channel = this.positionalChannel;
+        if (channel != null) {
+            return channel;
+        }
+        synchronized (fileLock) {
+            channel = this.positionalChannel;
+            if (channel == null && fileOpen) {
+                FileChannel opened = null;
+                try {
+                    opened = FileChannel.open(filePath, StandardOpenOption.READ);
+                    this.positionalChannelLength = opened.size();
+                    this.positionalChannel = channel = opened;
+                } catch (IOException | UnsupportedOperationException e) {
+                    closeQuietly(opened);
+                    LOG.log(System.Logger.Level.DEBUG, () -> "Cannot use positional reading for " + filePath, e);
+                    this.positionalReading = false;
+                    // - we will use the usual stream
+                }
+            }
+            return channel;
+        }
+    }
+
+    private void readAtPosition(TiffTile tile, FileChannel channel, long offset, int byteCount, boolean decodeDirectly)
+            throws IOException {
+        try {
+            readAtPositionAndCheck(tile, channel, offset, byteCount, decodeDirectly);
+        } catch (ClosedChannelException e) {
+            // - the channel was probably closed because another thread was interrupted while reading
+            if (Thread.currentThread().isInterrupted()) {
+                throw e;
+            }
+            synchronized (fileLock) {
+                if (this.positionalChannel == channel) {
+                    this.positionalChannel = null;
+                }
+            }
+            final FileChannel newChannel = positionalChannel();
+            if (newChannel == null) {
+                throw e;
+            }
+            readAtPositionAndCheck(tile, newChannel, offset, byteCount, decodeDirectly);
+        }
+    }
+
+    private void readAtPositionAndCheck(
+            TiffTile tile,
+            FileChannel channel,
+            long offset,
+            int byteCount,
+            boolean decodeDirectly) throws IOException {
+        final MappedFileSegments mappedFile = memoryMapping ? mappedFile(channel) : null;
+        if (mappedFile != null && mappedFile.contains(offset, byteCount)) {
+            if (!(decodeDirectly && decodeMappedTile(tile, mappedFile, offset, byteCount))) {
+                TiffTileIO.readAt(tile, mappedFile, offset, byteCount);
+            }
+            return;
+        }
+        long length = this.positionalChannelLength;
+        if (offset >= length) {
+            // - the file could grow since opening the channel: checking its actual length only in this rare case
+            length = channel.size();
+            this.positionalChannelLength = length;
+        }
+        if (offset >= length) {
+            throw new TiffException("Offset of TIFF tile/strip " + offset + " is out of file length " +
+                    length + " (tile " + tile.index() + ")");
+        }
+        final ByteArrayPool bufferPool = tile.getBufferPool();
+        if (decodeDirectly && bufferPool != null && canDecodeDirectly(tile)) {
+            // - the encoded data are necessary only while decoding: we read them into a temporary buffer
+            // of the suitable size class, which can be reused for other tiles with different encoded lengths
+            final byte[] buffer = bufferPool.allocateAtLeast(byteCount);
+            try {
+                readFully(channel, offset, buffer, byteCount);
+                decodeDirectly(tile, ByteBuffer.wrap(buffer, 0, byteCount), offset, byteCount);
+            } finally {
+                bufferPool.release(buffer);
+            }
+            return;
+        }
+        TiffTileIO.readAt(tile, channel, offset, byteCount);
+    }
+
+    // Returns false if the tile should be read in the usual way
+    private boolean readPrefetched(
+            TiffTile tile,
+            PrefetchedTile prefetched,
+            long offset,
+            int byteCount,
+            boolean readData,
+            boolean decodeDirectly) throws IOException {
+        final PrefetchedRange range = prefetched.range;
+        try {
+            if (!readData || prefetched.offset != offset || prefetched.length != byteCount) {
+                return false;
+            }
+            final byte[] data = range.acquire();
+            if (data == null) {
+                // - the limit of prefetched memory is reached
+                return false;
+            }
+            if (decodeDirectly && canDecodeDirectly(tile)) {
+                decodeDirectly(tile, ByteBuffer.wrap(data, (int) (offset - range.offset), byteCount),
+                        offset, byteCount);
+            } else {
+                TiffTileIO.readAt(tile, data, range.offset, offset, byteCount);
+            }
+            return true;
+        } finally {
+            range.tileDone();
+        }
+    }
+
+    // Decodes the tile directly from the mapped file without copying the encoded data, if the codec allows this
+    private boolean decodeMappedTile(TiffTile tile, MappedFileSegments mappedFile, long offset, int byteCount)
+            throws IOException {
+        if (!canDecodeDirectly(tile)) {
+            return false;
+        }
+        final ByteBuffer encodedBuffer = mappedFile.slice(offset, byteCount).orElse(null);
+        if (encodedBuffer == null) {
+            return false;
+        }
+        try {
+            decodeDirectly(tile, encodedBuffer, offset, byteCount);
+        } catch (InternalError e) {
+            // - SIGBUS inside Java code: the file was probably truncated by another process
+            throw new IOException("Cannot read TIFF tile/strip at " + offset + " from the " + mappedFile +
+                    ": the file was probably truncated after mapping (tile " + tile.index() + ")", e);
+        }
+        return true;
+    }
+
+    private boolean canDecodeDirectly(TiffTile tile) throws TiffException {
+        if (enforceUseExternalCodec || tile.ifd().isReversedFillOrder()) {
+            // - reversing bit order requires modifying the encoded data
+            return false;
+        }
+        final TagCompression compression = tile.optCompressionOrNoneForMissing().orElse(null);
+        return compression != null && compression.codec() instanceof TiffCodec.ByteBufferDecompressor;
+    }
+
+    private void decodeDirectly(TiffTile tile, ByteBuffer encodedBuffer, long offset, int byteCount)
+            throws TiffException {
+        tile.setStoredInFileDataRange(offset, byteCount);
+        decodeData(tile, null, encodedBuffer, debugTime());
+        tile.markWholeTileAsSet();
+    }
+
+    private MappedFileSegments mappedFile(FileChannel channel) {
+        MappedFileSegments mappedFile = this.mappedFile;
+        if (mappedFile != null) {
+            return mappedFile;
+        }
+        synchronized (fileLock) {
+            mappedFile = this.mappedFile;
+            if (mappedFile == null && this.positionalChannel == channel) {
+                try {
+                    this.mappedFile = mappedFile = MappedFileSegments.map(channel);
+                } catch (IOException | UnsupportedOperationException e) {
+                    LOG.log(System.Logger.Level.DEBUG, () -> "Cannot map " + filePath + " into memory", e);
+                    this.memoryMapping = false;
+                    // - we will use the usual positional reading
+                }
+            }
+            return mappedFile;
+        }
+    }
+
+    private boolean isTileCached(TiffTileIndex tileIndex) {
+        if (!caching) {
+            return false;
+        }
+        final TiffSharedTileCache sharedTileCache = this.sharedTileCache;
+        if (sharedTileCache != null) {
+            final TiffSharedTileCache.Key key = sharedTileCacheKey(tileIndex);
+            if (key != null) {
+                return sharedTileCache.contains(key);
+            }
+        }
+        final CachedTile cachedTile = tileCacheMap.get(tileIndex);
+        return cachedTile != null && cachedTile.cached() != null;
+    }
+
+    private boolean reservePrefetchedBytes(int length) {
+        final long max = maxPrefetchedBytes;
+        for (; ; ) {
+            final long used = prefetchedBytes.get();
+            if (used + length > max) {
+                return false;
+            }
+            if (prefetchedBytes.compareAndSet(used, used + length)) {
+                return true;
+            }
+        }
+    }
+
+    private long fileLengthForPrefetching() throws IOException {
+        final FileChannel channel = positionalChannel();
+        if (channel != null) {
+            return channel.size();
+        }
+        synchronized (fileLock) {
+            return stream.length();
+        }
+    }
+
+    private byte[] readRange(long offset, int length) throws IOException {
+        final byte[] data = new byte[length];
+        final FileChannel channel = positionalChannel();
+        if (channel != null) {
+            readFully(channel, offset, data, length);
+        } else {
+            synchronized (fileLock) {
+                stream.seek(offset);
+                final int result = stream.read(data);
+                if (result < length) {
+                    throw new IOException("File exhausted at " + offset +
+                            ": loaded " + result + " bytes instead of " + length);
+                }
+            }
+        }
+        return data;
+    }
+
+    private static void readFully(FileChannel channel, long offset, byte[] data, int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(data, 0, length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("File exhausted at " + offset +
+                        ": loaded " + buffer.position() + " bytes instead of " + length);
+            }
+        }
+    }
+
+    private void closePositionalChannel() {
+        synchronized (fileLock) {
+            final FileChannel channel = this.positionalChannel;
+            this.positionalChannel = null;
+            this.positionalChannelLength = -1;
+            this.mappedFile = null;
+            // - the mapping itself will be released by the garbage collector
+            closeQuietly(channel);
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.log(System.Logger.Level.DEBUG, () -> "Cannot close positional channel", e);
+            }
+        }
+    }
+
+    // Must be called under tileCacheLock
+    private void evictCachedTilesIfNecessary() {
+        final long maxProtectedMemory = (long) (maxCacheMemory * PROTECTED_CACHE_FRACTION);
+        while (cacheMemoryUsage > maxCacheMemory) {
+            final CachedTile candidate = probationTileCache.isEmpty() ?
+                    protectedTileCache.first() :
+                    probationTileCache.first();
+            assert candidate != null : "non-zero memory usage " + cacheMemoryUsage + " for empty cache";
+            if (candidate.accessed && candidate.owner == probationTileCache) {
+                // - second request of this tile: it deserves to stay in the cache longer
+                candidate.accessed = false;
+                probationTileCache.remove(candidate);
+                protectedTileCache.addLast(candidate);
+                while (protectedTileCache.memoryUsage > maxProtectedMemory) {
+                    final CachedTile demoted = protectedTileCache.first();
+                    protectedTileCache.remove(demoted);
+                    if (demoted.accessed) {
+                        demoted.accessed = false;
+                        protectedTileCache.addLast(demoted);
+                        // - second chance for the tiles that are actively used
+                    } else {
+                        probationTileCache.addLast(demoted);
+                    }
+                }
+                continue;
+            }
+            candidate.owner.remove(candidate);
+            cacheMemoryUsage -= candidate.cachedDataLength;
+            candidate.cachedTile = null;
+            cacheEvictionCount.increment();
+            Runtime runtime = Runtime.getRuntime();
+            LOG.log(System.Logger.Level.TRACE, () -> String.format(Locale.ROOT,
+                    "REMOVING tile from cache (limit %.1f MB exceeded, used memory %.1f MB): %s",
+                    maxCacheMemory / 1048576.0,
+                    (runtime.totalMemory() - runtime.freeMemory()) / 1048576.0,
+                    candidate.tileIndex));
+        }
+    }
+
+    // Used by TiffCopier for transferring encoded tiles without reading them
+    long encodedTileOffset(TiffTileIndex tileIndex) throws TiffException {
+        return tileIndex.ifd().cachedTileOrStripOffset(tileIndex.linear());
+    }
+
+    int encodedTileByteCount(TiffTileIndex tileIndex, long offset) throws IOException {
+        final int byteCount = cachedByteCountWithCompatibilityTrick(tileIndex.ifd(), tileIndex.linear());
+        return applySingleStripZeroByteCountTrick(tileIndex, byteCount, offset);
     }
 
     // Compatibility with SCIFIO TiffParser
     private static int cachedByteCountWithCompatibilityTrick(TiffIFD ifd, int index) throws TiffException {
         final boolean tiled = ifd.hasTileInformation();
         final int tag = tiled ? Tags.TILE_BYTE_COUNTS : Tags.STRIP_BYTE_COUNTS;
-        final Object value = ifd.get(tag);
+        final Object value = ifd.rawValue(tag);
+        // - must not load the lazy array (it is never a case of a single strip)
         if (value instanceof long[] byteCounts && byteCounts.length == 1) {
             // - Here we process a rare case of using TiffParser compatibility class:
             // we call TiffParser.getIFD to read this IFD,
@@ -1705,70 +2750,307 @@ public non-sealed class TiffReader extends TiffIO {
     class CachedTile {
         private final TiffTileIndex tileIndex;
 
-        private final Object onlyThisTileLock = new Object();
-        private Reference<TiffTile> cachedTile = null;
+        private final ReentrantLock onlyThisTileLock = new ReentrantLock();
+        // - not a monitor: it is held while reading the tile, and a monitor would pin a virtual thread
+        private volatile Reference<TiffTile> cachedTile = null;
         // - we use SoftReference to be on the safe side in addition to our own memory control
+        private volatile boolean accessed = false;
+        // - set by the cache hits without any synchronization
         private long cachedDataLength;
 
+        // The following fields are accessed under tileCacheLock only
+        private CachedTileList owner = null;
+        private CachedTile previous = null;
+        private CachedTile next = null;
+
         CachedTile(TiffTileIndex tileIndex) {
             this.tileIndex = Objects.requireNonNull(tileIndex, "Null tileIndex");
         }
 
         TiffTile readIfNecessary() throws IOException {
-            synchronized (onlyThisTileLock) {
-                final TiffTile cachedData = cached();
-                if (cachedData != null) {
-                    LOG.log(System.Logger.Level.TRACE, () -> "CACHED tile: " + tileIndex);
-                    return cachedData;
-                } else {
-                    final TiffTile result = readTile(tileIndex);
-                    if (!result.isEmpty()) {
-                        // - possible for zero tile offset/byte count
-                        saveCache(result);
+            TiffTile cachedData = cached();
+            if (cachedData == null) {
+                onlyThisTileLock.lock();
+                try {
+                    cachedData = cached();
+                    // - maybe another thread has just read this tile
+                    if (cachedData == null) {
+                        cacheMissCount.increment();
+                        final TiffTile result = readTile(tileIndex);
+                        if (!result.isEmpty()) {
+                            // - possible for zero tile offset/byte count
+                            saveCache(result);
+                        }
+                        return result;
                     }
-                    return result;
+                } finally {
+                    onlyThisTileLock.unlock();
                 }
             }
+            cacheHitCount.increment();
+            if (!accessed) {
+                accessed = true;
+            }
+            LOG.log(System.Logger.Level.TRACE, () -> "CACHED tile: " + tileIndex);
+            return cachedData;
         }
 
         private TiffTile cached() {
-            synchronized (tileCacheLock) {
-                if (cachedTile == null) {
-                    return null;
-                }
-                final TiffTile tile = cachedTile.get();
-                if (tile == null) {
-                    LOG.log(System.Logger.Level.DEBUG,
-                            () -> "CACHED tile is freed by garbage collector due to " +
-                                    "insufficiency of memory: " + tileIndex);
-                }
-                return tile;
+            final Reference<TiffTile> reference = cachedTile;
+            if (reference == null) {
+                return null;
             }
+            final TiffTile tile = reference.get();
+            if (tile == null) {
+                LOG.log(System.Logger.Level.DEBUG,
+                        () -> "CACHED tile is freed by garbage collector due to " +
+                                "insufficiency of memory: " + tileIndex);
+            }
+            return tile;
         }
 
         private void saveCache(TiffTile tile) {
             Objects.requireNonNull(tile);
             synchronized (tileCacheLock) {
                 if (caching && maxCacheMemory > 0) {
+                    if (owner != null) {
+                        // - the previous data were freed by garbage collector, but this object is still in the list
+                        cacheMemoryUsage -= cachedDataLength;
+                        owner.remove(this);
+                    }
                     this.cachedTile = new SoftReference<>(tile);
                     this.cachedDataLength = tile.getDecodedDataLength();
+                    this.accessed = false;
                     cacheMemoryUsage += this.cachedDataLength;
-                    tileCache.add(this);
+                    probationTileCache.addLast(this);
                     LOG.log(System.Logger.Level.TRACE, () -> "STORING tile in cache: " + tileIndex);
-                    while (cacheMemoryUsage > maxCacheMemory) {
-                        final CachedTile cached = tileCache.remove();
-                        assert cached != null;
-                        cacheMemoryUsage -= cached.cachedDataLength;
-                        cached.cachedTile = null;
-                        Runtime runtime = Runtime.getRuntime();
-                        LOG.log(System.Logger.Level.TRACE, () -> String.format(Locale.ROOT,
-                                "REMOVING tile from cache (limit %.1f MB exceeded, used memory %.1f MB): %s",
-                                maxCacheMemory / 1048576.0,
-                                (runtime.totalMemory() - runtime.freeMemory()) / 1048576.0,
-                                cached.tileIndex));
+                    evictCachedTilesIfNecessary();
+                }
+            }
+        }
+    }
+
+    // Single-flight reading of one tile for all concurrent requests of readTileAsync
+    final class AsyncTileReading {
+        private final TiffTileIndex tileIndex;
+        private final CompletableFuture<TiffTile> future = new CompletableFuture<>();
+        private int numberOfRequests = 0;
+        private boolean started = false;
+
+        AsyncTileReading(TiffTileIndex tileIndex) {
+            this.tileIndex = tileIndex;
+        }
+
+        CompletableFuture<TiffTile> subscribe() {
+            final boolean start;
+            final CompletableFuture<TiffTile> result;
+            synchronized (this) {
+                if (future.isCancelled()) {
+                    return null;
+                }
+                numberOfRequests++;
+                start = !started;
+                started = true;
+                result = future.copy();
+                // - cancelling the copy does not cancel the shared future
+            }
+            result.whenComplete((tile, exception) -> {
+                if (result.isCancelled()) {
+                    unsubscribe();
+                }
+            });
+            if (start) {
+                final Executor executor = asyncExecutor;
+                try {
+                    (executor != null ? executor : ForkJoinPool.commonPool()).execute(this::read);
+                } catch (RuntimeException e) {
+                    // - for example, RejectedExecutionException
+                    asyncTileReadings.remove(tileIndex, this);
+                    future.completeExceptionally(e);
+                }
+            }
+            return result;
+        }
+
+        private synchronized void unsubscribe() {
+            if (--numberOfRequests == 0 && future.cancel(false)) {
+                asyncTileReadings.remove(tileIndex, this);
+            }
+        }
+
+        private void read() {
+            try {
+                if (!future.isDone()) {
+                    // - the reading is not cancelled yet
+                    future.complete(readCachedTile(tileIndex));
+                }
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                asyncTileReadings.remove(tileIndex, this);
+            }
+        }
+    }
+
+    /**
+     * The tiles, prepared for reading by {@link #prefetchEncodedTiles(Collection)} method.
+     */
+    public final class PrefetchedTiles implements AutoCloseable {
+        private final List<PrefetchedTile> tiles = new ArrayList<>();
+        private final List<PrefetchedRange> ranges = new ArrayList<>();
+
+        private PrefetchedTiles() {
+        }
+
+        public int numberOfTiles() {
+            return tiles.size();
+        }
+
+        public int numberOfRanges() {
+            return ranges.size();
+        }
+
+        /**
+         * Frees the memory occupied by the tiles that were prefetched, but were not requested after this.
+         * The tiles, prefetched by other calls of {@link #prefetchEncodedTiles(Collection)}, are not affected.
+         */
+        @Override
+        public void close() {
+            for (PrefetchedTile tile : tiles) {
+                prefetchedTiles.remove(tile.tileIndex, tile);
+            }
+            for (PrefetchedRange range : ranges) {
+                range.free();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return tiles.size() + " prefetched tiles in " + ranges.size() + " ranges";
+        }
+    }
+
+    private record PrefetchedTile(TiffTileIndex tileIndex, long offset, int length, PrefetchedRange range) {
+        PrefetchedTile withRange(PrefetchedRange range) {
+            return new PrefetchedTile(tileIndex, offset, length, range);
+        }
+    }
+
+    private final class PrefetchedRange {
+        private final long offset;
+        private final int length;
+        private final ReentrantLock lock = new ReentrantLock();
+        // - not a monitor: acquire() reads the file under this lock, and a monitor would pin a virtual thread
+        private int remainingTiles;
+        private byte[] data = null;
+
+        private PrefetchedRange(long offset, int length, int numberOfTiles) {
+            this.offset = offset;
+            this.length = length;
+            this.remainingTiles = numberOfTiles;
+        }
+
+        // Loads the range at the first call; returns null if the limit of prefetched memory is reached
+        byte[] acquire() throws IOException {
+            lock.lock();
+            try {
+                if (data == null && remainingTiles > 0 && reservePrefetchedBytes(length)) {
+                    try {
+                        data = readRange(offset, length);
+                    } catch (IOException | RuntimeException e) {
+                        prefetchedBytes.addAndGet(-length);
+                        throw e;
                     }
                 }
+                return data;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void tileDone() {
+            lock.lock();
+            try {
+                if (--remainingTiles <= 0) {
+                    free();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void free() {
+            lock.lock();
+            try {
+                remainingTiles = 0;
+                if (data != null) {
+                    data = null;
+                    prefetchedBytes.addAndGet(-length);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Intrusive doubly-linked list; must be accessed under tileCacheLock only
+    static final class CachedTileList {
+        private CachedTile first = null;
+        private CachedTile last = null;
+        private long memoryUsage = 0;
+
+        boolean isEmpty() {
+            return first == null;
+        }
+
+        CachedTile first() {
+            return first;
+        }
+
+        void addLast(CachedTile tile) {
+            assert tile.owner == null;
+            tile.owner = this;
+            tile.previous = last;
+            tile.next = null;
+            if (last == null) {
+                first = tile;
+            } else {
+                last.next = tile;
+            }
+            last = tile;
+            memoryUsage += tile.cachedDataLength;
+        }
+
+        void remove(CachedTile tile) {
+            assert tile.owner == this;
+            if (tile.previous == null) {
+                first = tile.next;
+            } else {
+                tile.previous.next = tile.next;
+            }
+            if (tile.next == null) {
+                last = tile.previous;
+            } else {
+                tile.next.previous = tile.previous;
+            }
+            tile.owner = null;
+            tile.previous = null;
+            tile.next = null;
+            memoryUsage -= tile.cachedDataLength;
+        }
+
+        void clear() {
+            for (CachedTile tile = first; tile != null; ) {
+                final CachedTile next = tile.next;
+                tile.owner = null;
+                tile.previous = null;
+                tile.next = null;
+                tile.cachedTile = null;
+                tile = next;
             }
+            first = null;
+            last = null;
+            memoryUsage = 0;
         }
     }
 }
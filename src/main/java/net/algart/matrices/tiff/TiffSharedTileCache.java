@@ -0,0 +1,277 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.matrices.tiff;
+
+import net.algart.matrices.tiff.tiles.TiffTile;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memory-bounded cache of decoded TIFF tiles, which can be shared between several {@link TiffReader} instances,
+ * including readers of different files.
+ *
+ * <p>Unlike the private tile cache of every {@link TiffReader}, this cache survives closing the reader:
+ * a new reader, opened for the same file and {@link TiffReader#setSharedTileCache(TiffSharedTileCache)
+ * connected} to the same cache, will find the tiles decoded by the previous readers.
+ * The tiles are identified by the file path, its last modification time and length,
+ * the offset of the IFD in the file and the tile position inside the IFD.
+ * So, if the file is modified, the old cached tiles are not used anymore
+ * (and are removed from the cache later, when the memory is exceeded).</p>
+ *
+ * <p>The total memory occupied by the cached tiles in all files is limited by {@link #getMaxMemory()}.
+ * When this limit is exceeded, the least recently used tiles are removed from the cache.
+ * You can use the single {@link #global() global} cache for the whole application or create
+ * several independent caches.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ */
+public final class TiffSharedTileCache {
+    public static final long DEFAULT_MAX_MEMORY = Math.max(0,
+            net.algart.arrays.Arrays.SystemSettings.getLongProperty(
+                    "net.algart.matrices.tiff.defaultMaxSharedCachingMemory", 1024 * 1048576L));
+
+    private static final System.Logger LOG = System.getLogger(TiffSharedTileCache.class.getName());
+
+    private static final TiffSharedTileCache GLOBAL = new TiffSharedTileCache(DEFAULT_MAX_MEMORY);
+
+    private volatile long maxMemory;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+    // - "clock" queue in the order of adding tiles; accessed under lock only
+    private volatile long memoryUsage = 0;
+    private final Object lock = new Object();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public TiffSharedTileCache(long maxMemory) {
+        setMaxMemory(maxMemory);
+    }
+
+    /**
+     * Returns the global shared cache with the memory limit {@link #DEFAULT_MAX_MEMORY}.
+     * Note that this cache is not used automatically: you should explicitly pass it to
+     * {@link TiffReader#setSharedTileCache(TiffSharedTileCache)}.
+     *
+     * @return the global shared cache.
+     */
+    public static TiffSharedTileCache global() {
+        return GLOBAL;
+    }
+
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    public TiffSharedTileCache setMaxMemory(long maxMemory) {
+        if (maxMemory < 0) {
+            throw new IllegalArgumentException("Negative maxMemory = " + maxMemory);
+        }
+        synchronized (lock) {
+            this.maxMemory = maxMemory;
+            evictIfNecessary();
+        }
+        return this;
+    }
+
+    /**
+     * Returns the estimated memory size in bytes currently occupied by cached tiles of all files.
+     *
+     * @return the current size of cached tile data in bytes.
+     */
+    public long memoryUsage() {
+        return memoryUsage;
+    }
+
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    public void resetStatistics() {
+        hitCount.reset();
+        missCount.reset();
+        evictionCount.reset();
+    }
+
+    /**
+     * Removes all tiles from this cache.
+     */
+    public void clear() {
+        synchronized (lock) {
+            entries.clear();
+            queue.clear();
+            memoryUsage = 0;
+        }
+    }
+
+    /**
+     * Removes from this cache all tiles of the specified file.
+     * Usually there is no need to call this method: the modified file has another
+     * last modification time, so its old tiles are never returned.
+     *
+     * @param file the path to TIFF file.
+     */
+    public void invalidate(Path file) {
+        Objects.requireNonNull(file, "Null file");
+        final Path normalized = file.toAbsolutePath().normalize();
+        synchronized (lock) {
+            entries.values().removeIf(entry -> {
+                if (entry.key.file.path.equals(normalized)) {
+                    entry.removed = true;
+                    memoryUsage -= entry.dataLength;
+                    return true;
+                }
+                return false;
+            });
+            queue.removeIf(entry -> entry.removed);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "shared tile cache: %d tiles, %.1f MB of %.1f MB",
+                entries.size(), memoryUsage / 1048576.0, maxMemory / 1048576.0);
+    }
+
+    static FileIdentity fileIdentity(Path file) throws IOException {
+        final Path normalized = file.toAbsolutePath().normalize();
+        return new FileIdentity(normalized, Files.getLastModifiedTime(normalized).toMillis(), Files.size(normalized));
+    }
+
+    TiffTile get(Key key) {
+        final Entry entry = entries.get(key);
+        final TiffTile result = entry == null ? null : entry.tile.get();
+        if (result == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        if (!entry.accessed) {
+            entry.accessed = true;
+        }
+        return result;
+    }
+
+    boolean contains(Key key) {
+        final Entry entry = entries.get(key);
+        return entry != null && entry.tile.get() != null;
+    }
+
+    void put(Key key, TiffTile tile) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(tile);
+        final Entry entry = new Entry(key, tile);
+        synchronized (lock) {
+            if (maxMemory == 0 || entry.dataLength > maxMemory) {
+                return;
+            }
+            final Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                // - another reader has just decoded the same tile, or the previous data were freed by GC
+                previous.removed = true;
+                memoryUsage -= previous.dataLength;
+            }
+            queue.addLast(entry);
+            memoryUsage += entry.dataLength;
+            evictIfNecessary();
+        }
+    }
+
+    // Must be called under lock
+    private void evictIfNecessary() {
+        while (memoryUsage > maxMemory) {
+            final Entry candidate = queue.pollFirst();
+            assert candidate != null : "non-zero memory usage " + memoryUsage + " for empty cache";
+            if (candidate.removed) {
+                continue;
+            }
+            if (candidate.accessed && candidate.tile.get() != null) {
+                candidate.accessed = false;
+                queue.addLast(candidate);
+                // - second chance for the tiles that were requested after adding to the cache
+                continue;
+            }
+            entries.remove(candidate.key, candidate);
+            candidate.removed = true;
+            memoryUsage -= candidate.dataLength;
+            evictionCount.increment();
+            LOG.log(System.Logger.Level.TRACE, () -> String.format(Locale.ROOT,
+                    "REMOVING tile from shared cache (limit %.1f MB exceeded): %s",
+                    maxMemory / 1048576.0, candidate.key));
+        }
+        if (queue.size() > 2 * entries.size() + 16) {
+            queue.removeIf(entry -> entry.removed);
+            // - avoiding accumulation of removed entries in the queue
+        }
+    }
+
+    record FileIdentity(Path path, long lastModifiedTime, long length) {
+    }
+
+    record Key(
+            FileIdentity file,
+            long ifdOffset,
+            int separatedPlaneIndex,
+            int xIndex,
+            int yIndex,
+            Class<?> readerClass,
+            int decodingOptions) {
+        // - readerClass and decodingOptions are necessary because the decoded data depend on the reader settings
+    }
+
+    private static final class Entry {
+        private final Key key;
+        private final Reference<TiffTile> tile;
+        // - we use SoftReference to be on the safe side in addition to our own memory control
+        private final long dataLength;
+        private volatile boolean accessed = false;
+        private boolean removed = false;
+        // - accessed under lock only
+
+        Entry(Key key, TiffTile tile) {
+            this.key = key;
+            this.tile = new SoftReference<>(tile);
+            this.dataLength = tile.getDecodedDataLength();
+        }
+    }
+}
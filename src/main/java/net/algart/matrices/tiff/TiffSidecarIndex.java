@@ -0,0 +1,366 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.matrices.tiff;
+
+import net.algart.matrices.tiff.tags.TagType;
+import org.scijava.io.handle.DataHandle;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent index of the IFD structure of a TIFF file, which is stored in a separate file
+ * (a "sidecar" file near the TIFF or a file in some cache directory).
+ *
+ * <p>Opening a multipage TIFF requires walking the full chain of IFDs: every IFD is stored in its own
+ * place of the file, and reading tens of thousands of IFDs leads to tens of thousands of random read
+ * operations, which is very slow for network file systems. If you specify
+ * {@link TiffReader#setIndexFile(Path) the index file} for {@link TiffReader}, the reader saves all
+ * IFDs (including their entries, tile offsets and byte counts) in this file on the first opening,
+ * and the following readers load the IFDs from the index by a single sequential read operation,
+ * without accessing the TIFF file structures.</p>
+ *
+ * <p>The index is used only if it corresponds to the TIFF file: the length of the file,
+ * its last modification time and a checksum of the file header must be the same as when creating the index.
+ * In another case, the index is ignored and rewritten.</p>
+ *
+ * <p>This class contains only static methods for choosing the location of the index file.</p>
+ */
+public final class TiffSidecarIndex {
+    /**
+     * The suffix added to the TIFF file name to get the name of the index file.
+     */
+    public static final String SUFFIX = ".tiffindex";
+
+    private static final System.Logger LOG = System.getLogger(TiffSidecarIndex.class.getName());
+
+    private static final long MAGIC = 0x416C674152544958L;
+    // - "AlgARTIX"
+    private static final int VERSION = 1;
+    private static final int HEADER_CHECKSUM_LENGTH = 4096;
+
+    private final Stamp stamp;
+    private final TiffIFD.Linkage linkage;
+    private final List<IFDRecord> ifdRecords;
+
+    private TiffSidecarIndex(Stamp stamp, TiffIFD.Linkage linkage, List<IFDRecord> ifdRecords) {
+        this.stamp = stamp;
+        this.linkage = linkage;
+        this.ifdRecords = ifdRecords;
+    }
+
+    /**
+     * Returns the sidecar index file for the given TIFF file: the file in the same directory
+     * with the name, built by adding {@link #SUFFIX} to the TIFF file name.
+     *
+     * @param tiffFile the path to TIFF file.
+     * @return the path to the corresponding index file.
+     */
+    public static Path sidecarFile(Path tiffFile) {
+        Objects.requireNonNull(tiffFile, "Null TIFF file");
+        final Path fileName = tiffFile.getFileName();
+        if (fileName == null) {
+            throw new IllegalArgumentException("TIFF file path " + tiffFile + " has no file name");
+        }
+        return tiffFile.resolveSibling(fileName + SUFFIX);
+    }
+
+    /**
+     * Returns the index file for the given TIFF file inside the specified cache directory.
+     * The file name contains the TIFF file name and a hash of its full normalized path,
+     * so the different TIFF files with the same name have different index files.
+     *
+     * @param cacheDirectory the directory for storing index files.
+     * @param tiffFile       the path to TIFF file.
+     * @return the path to the corresponding index file.
+     */
+    public static Path fileInDirectory(Path cacheDirectory, Path tiffFile) {
+        Objects.requireNonNull(cacheDirectory, "Null cache directory");
+        Objects.requireNonNull(tiffFile, "Null TIFF file");
+        final Path normalized = tiffFile.toAbsolutePath().normalize();
+        final Path fileName = normalized.getFileName();
+        final CRC32 crc32 = new CRC32();
+        crc32.update(normalized.toString().getBytes(StandardCharsets.UTF_8));
+        return cacheDirectory.resolve("%s.%08x%s".formatted(
+                fileName == null ? "" : fileName, crc32.getValue(), SUFFIX));
+    }
+
+    static Stamp stamp(TiffReader reader, Path tiffFile) throws IOException {
+        final DataHandle<?> stream = reader.stream;
+        final long length = stream.length();
+        final byte[] header = new byte[(int) Math.min(length, HEADER_CHECKSUM_LENGTH)];
+        stream.seek(0);
+        stream.readFully(header);
+        final CRC32 crc32 = new CRC32();
+        crc32.update(header);
+        return new Stamp(
+                length,
+                Files.getLastModifiedTime(tiffFile).toMillis(),
+                crc32.getValue(),
+                reader.isBigTiff(),
+                reader.isLittleEndian());
+    }
+
+    static TiffSidecarIndex build(TiffReader reader, Stamp stamp, TiffIFD.Linkage linkage, List<TiffIFD> allIFDs)
+            throws IOException {
+        final DataHandle<?> stream = reader.stream;
+        final List<IFDRecord> ifdRecords = new ArrayList<>();
+        for (TiffIFD ifd : allIFDs) {
+            final Collection<TiffIFD.Entry> entries = ifd.detailedEntries();
+            if (entries == null || !ifd.hasFileOffsetOfIFD()) {
+                throw new IllegalArgumentException("IFD was not read from the file: " + ifd);
+            }
+            final List<EntryRecord> entryRecords = new ArrayList<>();
+            for (TiffIFD.Entry entry : entries) {
+                final long valueLength = entry.valueLength();
+                if (valueLength > Integer.MAX_VALUE) {
+                    throw new TiffException("Too large IFD value: " + valueLength + " >= 2^31 bytes");
+                }
+                final byte[] bytes = new byte[(int) valueLength];
+                stream.seek(entry.valueOffset());
+                stream.readFully(bytes);
+                entryRecords.add(new EntryRecord(entry, bytes));
+            }
+            ifdRecords.add(new IFDRecord(
+                    ifd.getFileOffsetOfIFD(),
+                    ifd.getSubIFDType(),
+                    ifd.hasFileOffsetOfNextIFDOffset() ? ifd.getFileOffsetOfNextIFDOffset() : -1,
+                    ifd.hasNextIFDOffset() ? ifd.getNextIFDOffset() : -1,
+                    entryRecords));
+        }
+        return new TiffSidecarIndex(stamp, linkage, ifdRecords);
+    }
+
+    // Returns null if the index file does not exist, is invalid or does not match the stamp of TIFF file
+    static TiffSidecarIndex read(Path indexFile, Stamp expectedStamp) {
+        Objects.requireNonNull(expectedStamp, "Null expected stamp");
+        final DataInputStream in;
+        try {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile), 65536));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LOG.log(System.Logger.Level.DEBUG, () -> "Cannot open TIFF index file " + indexFile + ": " + e);
+            return null;
+        }
+        try (in) {
+            if (in.readLong() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            final Stamp stamp = new Stamp(
+                    in.readLong(), in.readLong(), in.readLong(), in.readBoolean(), in.readBoolean());
+            if (!stamp.equals(expectedStamp)) {
+                return null;
+                // - the TIFF file was changed: no sense to parse the rest of the index
+            }
+            final long fileLength = stamp.length;
+            // - all values and IFDs are stored inside the TIFF file, so its length limits all sizes below
+            final long offsetOfChainTerminator = in.readLong();
+            final long chainTerminator = in.readLong();
+            final int numberOfMainIFDs = checkedCount(in.readInt(), fileLength, "number of IFDs");
+            final List<TiffIFD.Linkage.OffsetPair> pairs = new ArrayList<>();
+            for (int k = 0; k < numberOfMainIFDs; k++) {
+                pairs.add(new TiffIFD.Linkage.OffsetPair(in.readLong(), in.readLong()));
+            }
+            final TiffIFD.Linkage linkage = new TiffIFD.Linkage(offsetOfChainTerminator, pairs);
+            linkage.setChainTerminator(chainTerminator);
+            final int numberOfIFDs = checkedCount(in.readInt(), fileLength, "number of IFDs");
+            final List<IFDRecord> ifdRecords = new ArrayList<>();
+            for (int k = 0; k < numberOfIFDs; k++) {
+                final long fileOffsetOfIFD = in.readLong();
+                final int subIFDType = in.readInt();
+                final long fileOffsetOfNextIFDOffset = in.readLong();
+                final long nextIFDOffset = in.readLong();
+                final int numberOfEntries = checkedCount(in.readInt(), fileLength, "number of IFD entries");
+                final List<EntryRecord> entryRecords = new ArrayList<>();
+                for (int i = 0; i < numberOfEntries; i++) {
+                    final int tag = in.readInt();
+                    final int rawType = in.readInt();
+                    if (rawType < 0 || rawType > 0xFFFF) {
+                        throw new TiffException("IFD entry type " + rawType + " is not a 16-bit TIFF type code");
+                    }
+                    final int valueCount = in.readInt();
+                    final long valueOffset = in.readLong();
+                    final long embeddedValueOrOffset = in.readLong();
+                    final TiffIFD.Entry entry = new TiffIFD.Entry(
+                            tag, TagType.fromTypeCode(rawType).orElse(null), rawType,
+                            valueCount, valueOffset, embeddedValueOrOffset, stamp.bigTiff);
+                    // - null type is possible for an unknown type code: it is stored as UnsupportedTypeValue
+                    final byte[] bytes = new byte[checkedCount(in.readInt(), fileLength, "IFD value length")];
+                    // - checking before allocation: a corrupted length must not lead to OutOfMemoryError
+                    in.readFully(bytes);
+                    entryRecords.add(new EntryRecord(entry, bytes));
+                }
+                ifdRecords.add(new IFDRecord(
+                        fileOffsetOfIFD,
+                        subIFDType < 0 ? null : subIFDType,
+                        fileOffsetOfNextIFDOffset,
+                        nextIFDOffset,
+                        entryRecords));
+            }
+            return new TiffSidecarIndex(stamp, linkage, ifdRecords);
+        } catch (IOException | RuntimeException e) {
+            // - any problem (EOFException, TiffException, IllegalArgumentException from TiffIFD.Entry, etc.)
+            // means an invalid or partially written index: the caller will rebuild it
+            LOG.log(System.Logger.Level.DEBUG, () -> "Invalid TIFF index file " + indexFile + ": " + e);
+            return null;
+        }
+    }
+
+    void write(Path indexFile) throws IOException {
+        final Path parent = indexFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        final Path temporary = Files.createTempFile(parent, indexFile.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary), 65536))) {
+                out.writeLong(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(stamp.length);
+                out.writeLong(stamp.lastModifiedTime);
+                out.writeLong(stamp.headerChecksum);
+                out.writeBoolean(stamp.bigTiff);
+                out.writeBoolean(stamp.littleEndian);
+                out.writeLong(linkage.offsetOfChainTerminator());
+                out.writeLong(linkage.chainTerminator());
+                final List<TiffIFD.Linkage.OffsetPair> pairs = linkage.mainIFDOffsetPairs();
+                out.writeInt(pairs.size());
+                for (TiffIFD.Linkage.OffsetPair pair : pairs) {
+                    out.writeLong(pair.offsetOfThisIFDStart());
+                    out.writeLong(pair.offsetOfNextIFDOffset());
+                }
+                out.writeInt(ifdRecords.size());
+                for (IFDRecord ifdRecord : ifdRecords) {
+                    out.writeLong(ifdRecord.fileOffsetOfIFD);
+                    out.writeInt(ifdRecord.subIFDType == null ? -1 : ifdRecord.subIFDType);
+                    out.writeLong(ifdRecord.fileOffsetOfNextIFDOffset);
+                    out.writeLong(ifdRecord.nextIFDOffset);
+                    out.writeInt(ifdRecord.entries.size());
+                    for (EntryRecord entryRecord : ifdRecord.entries) {
+                        final TiffIFD.Entry entry = entryRecord.entry;
+                        out.writeInt(entry.tag());
+                        out.writeInt(entry.rawType());
+                        out.writeInt(entry.valueCount());
+                        out.writeLong(entry.valueOffset());
+                        out.writeLong(entry.embeddedValueOrOffset());
+                        out.writeInt(entryRecord.bytes.length);
+                        out.write(entryRecord.bytes);
+                    }
+                }
+            }
+            try {
+                Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                // - atomic replacement: parallel readers never see partially written index
+            } catch (AtomicMoveNotSupportedException e) {
+                LOG.log(System.Logger.Level.DEBUG, () -> "Atomic move is not supported for " + indexFile, e);
+                Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING);
+                // - a parallel reader can see a partially written index, but it will be rejected as invalid:
+                // its stamp or structure will not match
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    TiffIFD.Linkage linkage() {
+        return linkage;
+    }
+
+    List<TiffIFD> ifds() throws IOException {
+        final List<TiffIFD> result = new ArrayList<>();
+        for (IFDRecord ifdRecord : ifdRecords) {
+            result.add(ifdRecord.toIFD(stamp));
+        }
+        return result;
+    }
+
+    private static int checkedCount(int count, long limit, String name) throws TiffException {
+        if (count < 0 || count > limit) {
+            throw new TiffException("Invalid " + name + " " + count + " (TIFF file length is " + limit + ")");
+        }
+        return count;
+    }
+
+    record Stamp(long length, long lastModifiedTime, long headerChecksum, boolean bigTiff, boolean littleEndian) {
+    }
+
+    private record EntryRecord(TiffIFD.Entry entry, byte[] bytes) {
+    }
+
+    private record IFDRecord(
+            long fileOffsetOfIFD,
+            Integer subIFDType,
+            long fileOffsetOfNextIFDOffset,
+            long nextIFDOffset,
+            List<EntryRecord> entries) {
+        TiffIFD toIFD(Stamp stamp) throws IOException {
+            final Map<Integer, Object> map = new LinkedHashMap<>();
+            final LinkedHashMap<Integer, TiffIFD.Entry> detailedEntries = new LinkedHashMap<>();
+            for (EntryRecord entryRecord : entries) {
+                final TiffIFD.Entry entry = entryRecord.entry;
+                final Object value;
+                if (entry.type() == null) {
+                    value = new TiffIFD.UnsupportedTypeValue(entry.rawType(), entry.valueCount(),
+                            entry.embeddedValueOrOffset());
+                    // - the same value as while reading IFD from the TIFF file
+                } else {
+                    final boolean embedded = entry.isDataEmbeddedInEntry();
+                    final TiffIFD.Entry entryInBytes = new TiffIFD.Entry(
+                            entry.tag(), entry.type(), entry.rawType(), entry.valueCount(),
+                            0, embedded ? entry.embeddedValueOrOffset() : 0, stamp.bigTiff);
+                    // - the same entry, but the value is stored at the start of entryRecord.bytes
+                    final DataHandle<?> bytes = TiffIO.getBytesHandle(entryRecord.bytes, stamp.littleEndian);
+                    value = TiffIO.readIFDValueAtEntryOffset(bytes, bytes, false, 0, entryInBytes);
+                }
+                if (value != null && !map.containsKey(entry.tag())) {
+                    map.put(entry.tag(), value);
+                    detailedEntries.put(entry.tag(), entry);
+                }
+            }
+            final TiffIFD ifd = new TiffIFD(map, detailedEntries);
+            ifd.setLoadedFromFile(true);
+            ifd.setLittleEndian(stamp.littleEndian);
+            ifd.setBigTiff(stamp.bigTiff);
+            ifd.setFileOffsetOfIFD(fileOffsetOfIFD);
+            ifd.setSubIFDType(subIFDType);
+            if (fileOffsetOfNextIFDOffset >= 0) {
+                ifd.setFileOffsetOfNextIFDOffset(fileOffsetOfNextIFDOffset);
+            }
+            if (nextIFDOffset >= 0) {
+                ifd.setNextIFDOffset(nextIFDOffset);
+            }
+            return ifd;
+        }
+    }
+}
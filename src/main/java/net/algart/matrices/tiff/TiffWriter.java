@@ -31,9 +31,11 @@ import net.algart.matrices.tiff.TiffIFD.Linkage;
 import net.algart.matrices.tiff.bits.TiffPacking;
 import net.algart.matrices.tiff.bits.TiffPrediction;
 import net.algart.matrices.tiff.codecs.TiffCodec;
+import net.algart.matrices.tiff.io.WriteCombiningDataHandle;
 import net.algart.matrices.tiff.samples.TiffSampleType;
 import net.algart.matrices.tiff.tags.TagCompression;
 import net.algart.matrices.tiff.tags.TagPhotometric;
+import net.algart.matrices.tiff.tags.TagPredictor;
 import net.algart.matrices.tiff.tags.TagType;
 import net.algart.matrices.tiff.tags.Tags;
 import net.algart.matrices.tiff.tiles.*;
@@ -45,12 +47,18 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.ByteOrder;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.*;
 import java.util.stream.Collectors;
 
@@ -61,6 +69,16 @@ import java.util.stream.Collectors;
  * However, you should not modify objects, passed to the methods of this class, from a parallel thread;
  * in particular, it concerns the {@link TiffIFD} arguments and Java-arrays with samples.
  * The same is true for the result of {@link #stream()} method.</p>
+ *
+ * <p>By default, the constructors with a {@link Path} argument write to the file handle, created by
+ * {@link TiffIO#getFileHandle(Path)}, and {@link #stream()} returns this handle.
+ * Writing many small portions of data (like IFD entries and small tiles) can be accelerated by
+ * {@link WriteCombiningDataHandle}, which keeps the last written range of the file in memory.
+ * This mode is opt-in: it is enabled by the system property, described in {@link #DEFAULT_WRITE_BUFFER_SIZE},
+ * or by passing such a handle to the {@link #TiffWriter(DataHandle)} constructor.
+ * In this mode, {@link #stream()} returns the {@link WriteCombiningDataHandle} (its declared type is still
+ * {@link DataHandle}), and the written data become visible to other readers of the file after
+ * {@link #completeWriting(TiffWriteMap)}, {@link #flushStream()} or {@link #close()}.</p>
  */
 public non-sealed class TiffWriter extends TiffIO {
     /**
@@ -149,6 +167,22 @@ public non-sealed class TiffWriter extends TiffIO {
      */
     public static final long MAXIMAL_ALLOWED_32BIT_IFD_OFFSET = 4_000_000_000L;
 
+    public static final int DEFAULT_MAX_ENCODED_TILES_IN_FLIGHT = Math.max(1,
+            net.algart.arrays.Arrays.SystemSettings.getIntProperty(
+                    "net.algart.matrices.tiff.defaultMaxEncodedTilesInFlight", 64));
+
+    /**
+     * Size of the buffer of {@link WriteCombiningDataHandle}, used by the constructors with a {@link Path}
+     * argument for combining sequential writes to the file.
+     * Zero value (the default) means that the writer works with the file stream directly.
+     * You can enable write combining by the system property
+     * <code>net.algart.matrices.tiff.defaultWriteBufferSize</code> (for example, 1048576);
+     * see also the comments to this class.
+     */
+    public static final int DEFAULT_WRITE_BUFFER_SIZE = Math.max(0,
+            net.algart.arrays.Arrays.SystemSettings.getIntProperty(
+                    "net.algart.matrices.tiff.defaultWriteBufferSize", 0));
+
     private static final boolean AUTO_INTERLEAVE_SOURCE = true;
     // - Must be true. The alternative mode (false), where the source data may already be interleaved,
     // was implemented in the past for compatibility with TiffSaver class.
@@ -171,6 +205,8 @@ public non-sealed class TiffWriter extends TiffIO {
     private boolean alwaysWriteToFileEnd = false;
     private boolean missingTilesAllowed = false;
     private TiffReader.Factory companionReaderFactory = this::newSharedReader;
+    private volatile Executor encodingExecutor = null;
+    private volatile int maxEncodedTilesInFlight = DEFAULT_MAX_ENCODED_TILES_IN_FLIGHT;
 
     private volatile TiffReader reader = null;
 
@@ -178,12 +214,13 @@ public non-sealed class TiffWriter extends TiffIO {
     private volatile boolean lastMapPrewritten = false;
 
     private long timeWriting = 0;
-    private long timePreparingEncoding = 0;
-    private long timeCustomizingEncoding = 0;
-    private long timeEncoding = 0;
-    private long timeEncodingMain = 0;
-    private long timeEncodingBridge = 0;
-    private long timeEncodingAdditional = 0;
+    private final LongAdder timePreparingEncoding = new LongAdder();
+    private final LongAdder timeCustomizingEncoding = new LongAdder();
+    private final LongAdder timeEncoding = new LongAdder();
+    private final LongAdder timeEncodingMain = new LongAdder();
+    private final LongAdder timeEncodingBridge = new LongAdder();
+    private final LongAdder timeEncodingAdditional = new LongAdder();
+    // - encode() may be called simultaneously from several threads (encoding pipeline, encode(Collection))
 
     /**
      * Equivalent to <code>new {@link #TiffWriter(Path, OpenMode)
@@ -199,12 +236,13 @@ public non-sealed class TiffWriter extends TiffIO {
      *
      * <p>This constructor is equivalent to calling the universal constructor
      * {@link #TiffWriter(DataHandle)} for the stream created by
-     * {@link TiffIO#getFileHandle(Path) TiffIO.getFileHandle(file)}.</p>
+     * {@link TiffIO#getFileHandle(Path) TiffIO.getFileHandle(file)}, wrapped with
+     * {@link WriteCombiningDataHandle} (if {@link #DEFAULT_WRITE_BUFFER_SIZE} is not zero).</p>
      *
      * @param file output TIFF file.
      */
     public TiffWriter(Path file) {
-        this(getFileHandle(file), file);
+        this(getWriteFileHandle(file), file);
     }
 
     /**
@@ -252,7 +290,8 @@ public non-sealed class TiffWriter extends TiffIO {
      *
      * <p>In the case of {@link OpenMode#NO_ACTIONS}, this method is equivalent to calling the universal constructor
      * {@link #TiffWriter(DataHandle)} for the stream created by the call
-     * {@link TiffIO#getFileHandle(Path) TiffIO.getFileHandle(file)}.
+     * {@link TiffIO#getFileHandle(Path) TiffIO.getFileHandle(file)},
+     * wrapped with {@link WriteCombiningDataHandle} (if {@link #DEFAULT_WRITE_BUFFER_SIZE} is not zero).
      *
      * <p>This constructor is the simplest way to create a new TIFF file and automatically open
      * it by writing the standard TIFF header. After that, this object is ready for adding new TIFF images.
@@ -298,7 +337,6 @@ public non-sealed class TiffWriter extends TiffIO {
 
     TiffWriter(DataHandle<?> outputStream, Path file) {
         super(outputStream, file);
-        // - we do not use WriteBufferDataHandle here: this is not too important for efficiency
     }
 
     /**
@@ -604,6 +642,75 @@ public non-sealed class TiffWriter extends TiffIO {
         return this;
     }
 
+    public final Executor getEncodingExecutor() {
+        return encodingExecutor;
+    }
+
+    /**
+     * Sets the executor used for parallel encoding tiles in {@link #writeTiles(Collection, Predicate, boolean)}
+     * and {@link #completeWriting(TiffWriteMap)} methods (and in all methods of {@link TiffWriteMap}
+     * based on them).
+     * If it is <code>null</code> (the default value), the tiles are encoded sequentially in the current thread.
+     *
+     * <p>In the parallel mode, these methods work as a pipeline. Preparing (interleaving, packing bits,
+     * subtracting prediction) and compressing the tiles are performed by the threads of the specified executor,
+     * but the encoded tiles are written into the file by the current thread in the same order as in
+     * the sequential mode. So, the resulting TIFF file is identical to the file created without parallelism.
+     * The number of tiles that are encoded, but not written yet, never exceeds
+     * {@link #getMaxEncodedTilesInFlight()}: this limits the memory used by the pipeline.</p>
+     *
+     * <p>Note: if you specify a custom {@link #setCodecCustomizer(TiffCodec.Customizer) codec customizer},
+     * it must be thread-safe in the parallel mode.</p>
+     *
+     * @param encodingExecutor the executor for parallel encoding tiles; may be <code>null</code>.
+     * @return a reference to this object.
+     */
+    public TiffWriter setEncodingExecutor(Executor encodingExecutor) {
+        this.encodingExecutor = encodingExecutor;
+        return this;
+    }
+
+    /**
+     * Equivalent to
+     * <code>{@link #setEncodingExecutor(Executor) setEncodingExecutor}(ForkJoinPool.commonPool())</code>.
+     *
+     * @return a reference to this object.
+     */
+    public TiffWriter enableParallelEncoding() {
+        return setEncodingExecutor(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Equivalent to <code>{@link #setEncodingExecutor(Executor) setEncodingExecutor}(null)</code>.
+     *
+     * @return a reference to this object.
+     */
+    public TiffWriter disableParallelEncoding() {
+        return setEncodingExecutor(null);
+    }
+
+    public final int getMaxEncodedTilesInFlight() {
+        return maxEncodedTilesInFlight;
+    }
+
+    /**
+     * Sets the maximal number of tiles that can be encoded in parallel, but not written to the file yet,
+     * while using the {@link #setEncodingExecutor(Executor) parallel encoding}.
+     * The default value is {@link #DEFAULT_MAX_ENCODED_TILES_IN_FLIGHT}.
+     *
+     * @param maxEncodedTilesInFlight maximal number of tiles in the encoding pipeline.
+     * @return a reference to this object.
+     * @throws IllegalArgumentException if the argument is zero or negative.
+     */
+    public TiffWriter setMaxEncodedTilesInFlight(int maxEncodedTilesInFlight) {
+        if (maxEncodedTilesInFlight <= 0) {
+            throw new IllegalArgumentException("Zero or negative maxEncodedTilesInFlight = " +
+                    maxEncodedTilesInFlight);
+        }
+        this.maxEncodedTilesInFlight = maxEncodedTilesInFlight;
+        return this;
+    }
+
     public final TiffReader.Factory getCompanionReaderFactory() {
         return companionReaderFactory;
     }
@@ -1038,7 +1145,7 @@ public non-sealed class TiffWriter extends TiffIO {
             }
             checkFileOffsetForWriting(ifdOffset);
 
-            final Map<Integer, Object> sortedIFD = new TreeMap<>(ifd.map());
+            final Map<Integer, Object> sortedIFD = new TreeMap<>(ifd.loadedMap());
             // -  TIFF 6.0 standard, Sort Order:
             // "The entries in an IFD must be sorted in ascending order by Tag"
             final int numberOfEntries = sortedIFD.size();
@@ -1174,7 +1281,7 @@ public non-sealed class TiffWriter extends TiffIO {
             final long ifdOffset = ifd.assignedFileOffsetOfIFDForWriting();
             // - note: unlike writeIFD(), here we DO NOT NEED to call checkFileOffsetForWriting(ifdOffset)
             // for (int k = 0; k < 500; k++) rewriteTagsAt(ifd.map(), tagsToUpdate, ifdOffset); // - timing
-            final IFDCommonInformation info = rewriteSelectedTagsAt(ifd.map(), tagsToUpdate, ifdOffset);
+            final IFDCommonInformation info = rewriteSelectedTagsAt(ifd.loadedMap(), tagsToUpdate, ifdOffset);
             assert info.nextIFDOffset() != null :
                     "prepareReadingIFD with includeNextOffset=true has not read nextIFDOffset";
             ifd.setFileOffsetOfNextIFDOffset(info.offsetOfNextIFDOffset());
@@ -1317,11 +1424,25 @@ public non-sealed class TiffWriter extends TiffIO {
         long t1 = debugTime();
         int count = 0;
         long sizeInBytes = 0;
-        for (TiffTile tile : tiles) {
-            if (needToWrite.test(tile)) {
-                writeTile(tile, freeAndFreezeAfterWriting);
-                count++;
-                sizeInBytes += tile.getSizeInBytes();
+        final EncodingPipeline pipeline = newEncodingPipeline();
+        try {
+            for (TiffTile tile : tiles) {
+                if (needToWrite.test(tile)) {
+                    if (pipeline != null) {
+                        pipeline.add(tile, freeAndFreezeAfterWriting);
+                    } else {
+                        writeTile(tile, freeAndFreezeAfterWriting);
+                    }
+                    count++;
+                    sizeInBytes += tile.getSizeInBytes();
+                }
+            }
+            if (pipeline != null) {
+                pipeline.flush();
+            }
+        } finally {
+            if (pipeline != null) {
+                pipeline.cancel();
             }
         }
         long t2 = debugTime();
@@ -1403,19 +1524,75 @@ public non-sealed class TiffWriter extends TiffIO {
         }
         long t4 = debugTime();
 
-        timePreparingEncoding += t2 - t1;
-        timeCustomizingEncoding += t3 - t2;
-        timeEncoding += t4 - t3;
+        timePreparingEncoding.add(t2 - t1);
+        timeCustomizingEncoding.add(t3 - t2);
+        timeEncoding.add(t4 - t3);
         if (codec instanceof TiffCodec.Timing timing) {
-            timeEncodingMain += timing.timeMain();
-            timeEncodingBridge += timing.timeBridge();
-            timeEncodingAdditional += timing.timeAdditional();
+            timeEncodingMain.add(timing.timeMain());
+            timeEncodingBridge.add(timing.timeBridge());
+            timeEncodingAdditional.add(timing.timeAdditional());
         } else {
-            timeEncodingMain += t4 - t3;
+            timeEncodingMain.add(t4 - t3);
         }
         return true;
     }
 
+    /**
+     * Encodes all tiles from the specified collection by {@link #encode(TiffTile)} method
+     * and returns the list of tiles that were actually encoded (i.e., for which that method returned
+     * {@code true}), in the same order.
+     *
+     * <p>If the {@link #setEncodingExecutor(Executor) encoding executor} is specified,
+     * the tiles are encoded in parallel by the threads of that executor.</p>
+     *
+     * @param tiles tiles to encode.
+     * @return the tiles that were encoded by this call.
+     * @throws TiffException in the case of invalid TIFF IFD.
+     */
+    public final List<TiffTile> encode(Collection<TiffTile> tiles) throws TiffException {
+        Objects.requireNonNull(tiles, "Null tiles");
+        final List<TiffTile> result = new ArrayList<>();
+        final Executor executor = this.encodingExecutor;
+        if (executor == null) {
+            for (TiffTile tile : tiles) {
+                if (encode(tile)) {
+                    result.add(tile);
+                }
+            }
+            return result;
+        }
+        final List<TiffTile> list = new ArrayList<>(tiles);
+        final List<CompletableFuture<Boolean>> futures = new ArrayList<>(list.size());
+        for (TiffTile tile : list) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return encode(tile);
+                } catch (TiffException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executor));
+        }
+        boolean success = false;
+        try {
+            for (int k = 0, n = list.size(); k < n; k++) {
+                if (awaitEncoding(futures.get(k))) {
+                    result.add(list.get(k));
+                }
+            }
+            success = true;
+        } catch (TiffException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new AssertionError("Unexpected " + e);
+        } finally {
+            if (!success) {
+                awaitAllIgnoringExceptions(futures);
+                // - no one continues to modify the tiles after throwing the exception
+            }
+        }
+        return result;
+    }
+
     public final void prepareEncoding(TiffTile tile) throws TiffException {
         Objects.requireNonNull(tile, "Null tile");
         if (AUTO_INTERLEAVE_SOURCE) {
@@ -1454,6 +1631,9 @@ public non-sealed class TiffWriter extends TiffIO {
      *     if the actual number of bits per sample is not 1, 8, 16, 32, 64;</li>
      *     <li><code>Compression</code> (259) &mdash; if it is not specified,
      *     it is set to {@link TiffIFD#COMPRESSION_NONE} (1);</li>
+     *     <li><code>Predictor</code> (317) &mdash; in the smart mode, if the floating-point predictor
+     *     {@link TagPredictor#HORIZONTAL_FLOATING_POINT} (3) is specified for integer samples,
+     *     it is replaced with {@link TagPredictor#HORIZONTAL} (2);</li>
      *     <li><code>PhotometricInterpretation</code> (262) &mdash; if it is not specified or in the smart mode;</li>
      *     <li><code>SubIFD</code> (330), <code>Exif IFD</code> (34665), <code>GPSInfo</code> (34853) &mdash;
      *     these tags are always removed (both by this method and by {@link #correctForEntireTiff(TiffIFD)}),
@@ -1859,6 +2039,8 @@ public non-sealed class TiffWriter extends TiffIO {
         // - This seeking to the file end is not necessary, but can help to avoid accidental bugs
         // (this is much better than keeping file offset in the middle of the last image
         // between IFD and newly written TIFF tiles).
+        flushStream();
+        // - the completed image becomes visible for other readers of this file
         return count;
     }
 
@@ -2086,6 +2268,24 @@ public non-sealed class TiffWriter extends TiffIO {
         return linkage;
     }
 
+    /**
+     * Writes to the file all data, accumulated by the {@link #stream() stream}
+     * if it is a {@link WriteCombiningDataHandle}; in other case, does nothing.
+     *
+     * <p>This method is called automatically at the end of {@link #completeWriting(TiffWriteMap)}
+     * and while closing the file. You need to call it only if you are going to access the
+     * file by other means before completing the image, for example, via a separate {@link TiffReader}.</p>
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public final void flushStream() throws IOException {
+        synchronized (fileLock) {
+            if (stream instanceof WriteCombiningDataHandle<?> combining) {
+                combining.flush();
+            }
+        }
+    }
+
     @Override
     public void close() throws IOException {
         synchronized (fileLock) {
@@ -2106,12 +2306,12 @@ public non-sealed class TiffWriter extends TiffIO {
      */
     public final void resetTiming() {
         timeWriting = 0;
-        timeCustomizingEncoding = 0;
-        timePreparingEncoding = 0;
-        timeEncoding = 0;
-        timeEncodingMain = 0;
-        timeEncodingBridge = 0;
-        timeEncodingAdditional = 0;
+        timeCustomizingEncoding.reset();
+        timePreparingEncoding.reset();
+        timeEncoding.reset();
+        timeEncodingMain.reset();
+        timeEncodingBridge.reset();
+        timeEncodingAdditional.reset();
     }
 
     /**
@@ -2123,14 +2323,14 @@ public non-sealed class TiffWriter extends TiffIO {
                         "%.3f customize, " +
                         "%.3f encode [%.3f main%s], " +
                         "%.3f write",
-                timePreparingEncoding * 1e-6,
-                timeCustomizingEncoding * 1e-6,
-                timeEncoding * 1e-6,
-                timeEncodingMain * 1e-6,
-                timeEncodingBridge + timeEncodingAdditional > 0 ?
+                timePreparingEncoding.sum() * 1e-6,
+                timeCustomizingEncoding.sum() * 1e-6,
+                timeEncoding.sum() * 1e-6,
+                timeEncodingMain.sum() * 1e-6,
+                timeEncodingBridge.sum() + timeEncodingAdditional.sum() > 0 ?
                         String.format(Locale.ROOT, " + %.3f encode-bridge + %.3f encode-additional",
-                                timeEncodingBridge * 1e-6,
-                                timeEncodingAdditional * 1e-6) :
+                                timeEncodingBridge.sum() * 1e-6,
+                                timeEncodingAdditional.sum() * 1e-6) :
                         "",
                 timeWriting * 1e-6);
     }
@@ -2554,6 +2754,16 @@ public non-sealed class TiffWriter extends TiffIO {
             }
         }
 
+        if (ifd.getPredictor() == TagPredictor.HORIZONTAL_FLOATING_POINT && !sampleType.isFloatingPoint()) {
+            if (smartCorrection) {
+                ifd.putPredictor(TagPredictor.HORIZONTAL);
+                // - the nearest standard predictor for integer samples
+            } else {
+                throw new UnsupportedTiffFormatException("Cannot write TIFF, because " +
+                        "floating-point predictor is not allowed for " + sampleType.prettyName() + " samples");
+            }
+        }
+
         if (!ifd.hasTag(Tags.COMPRESSION)) {
             ifd.put(Tags.COMPRESSION, TiffIFD.COMPRESSION_NONE);
             // - We prefer to explicitly specify this case
@@ -2754,6 +2964,39 @@ public non-sealed class TiffWriter extends TiffIO {
         return count;
     }
 
+    private EncodingPipeline newEncodingPipeline() {
+        final Executor executor = this.encodingExecutor;
+        return executor == null ? null : new EncodingPipeline(executor, maxEncodedTilesInFlight);
+    }
+
+    private static <T> T awaitEncoding(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException ioException) {
+                throw ioException.getCause();
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static void awaitAllIgnoringExceptions(Collection<? extends CompletableFuture<?>> futures) {
+        for (CompletableFuture<?> future : futures) {
+            try {
+                future.join();
+            } catch (RuntimeException ignored) {
+                // - CompletionException or CancellationException: the task is finished anyway
+            }
+        }
+    }
+
     private void seekToEnd() throws IOException {
         synchronized (fileLock) {
             stream.seek(stream.length());
@@ -2881,6 +3124,71 @@ public non-sealed class TiffWriter extends TiffIO {
         if (openMode.isForceCreateNewFile()) {
             Files.deleteIfExists(file);
         }
-        return getFileHandle(file);
+        return getWriteFileHandle(file);
+    }
+
+    private static DataHandle<?> getWriteFileHandle(Path file) {
+        final DataHandle<?> fileHandle = getFileHandle(file);
+        if (DEFAULT_WRITE_BUFFER_SIZE == 0) {
+            return fileHandle;
+        }
+        final WriteCombiningDataHandle<?> result = new WriteCombiningDataHandle<>(
+                fileHandle, DEFAULT_WRITE_BUFFER_SIZE);
+        result.setLittleEndian(false);
+        // - the same default byte order as in getFileHandle
+        return result;
+    }
+
+    private final class EncodingPipeline {
+        private record PendingTile(
+                TiffTile tile,
+                boolean freeAndFreezeAfterWriting,
+                CompletableFuture<Boolean> encoding) {
+        }
+
+        private final Executor executor;
+        private final int maxTilesInFlight;
+        private final Queue<PendingTile> queue = new ArrayDeque<>();
+
+        private EncodingPipeline(Executor executor, int maxTilesInFlight) {
+            this.executor = Objects.requireNonNull(executor);
+            assert maxTilesInFlight > 0;
+            this.maxTilesInFlight = maxTilesInFlight;
+        }
+
+        void add(TiffTile tile, boolean freeAndFreezeAfterWriting) throws IOException {
+            Objects.requireNonNull(tile, "Null tile");
+            while (queue.size() >= maxTilesInFlight) {
+                writeNext();
+            }
+            final CompletableFuture<Boolean> encoding = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return encode(tile);
+                } catch (TiffException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executor);
+            queue.add(new PendingTile(tile, freeAndFreezeAfterWriting, encoding));
+        }
+
+        void flush() throws IOException {
+            while (!queue.isEmpty()) {
+                writeNext();
+            }
+        }
+
+        void cancel() {
+            awaitAllIgnoringExceptions(queue.stream().map(PendingTile::encoding).toList());
+            // - after an exception, we must not leave tasks that still modify the tiles
+            queue.clear();
+        }
+
+        private void writeNext() throws IOException {
+            final PendingTile pending = queue.remove();
+            awaitEncoding(pending.encoding);
+            writeEncodedTile(pending.tile, pending.freeAndFreezeAfterWriting);
+            // - the tiles are written strictly in the order of adding: the file layout does not depend
+            // on the number of threads
+        }
     }
 }
\ No newline at end of file
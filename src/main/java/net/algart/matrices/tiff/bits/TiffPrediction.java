@@ -24,17 +24,26 @@
 
 package net.algart.matrices.tiff.bits;
 
-import net.algart.arrays.JArrays;
 import net.algart.arrays.PackedBitArraysPer8;
 import net.algart.matrices.tiff.TiffException;
 import net.algart.matrices.tiff.tags.TagPredictor;
 import net.algart.matrices.tiff.tiles.TiffTile;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
 import java.util.Objects;
 
 /**
  * Processing TIFF Tag Predictor.
  *
+ * <p>Both standard predictors are supported: horizontal differencing ({@link TagPredictor#HORIZONTAL})
+ * and floating-point horizontal differencing ({@link TagPredictor#HORIZONTAL_FLOATING_POINT}),
+ * described in Adobe Photoshop TIFF Technical Note 3. The second one is allowed only for
+ * floating-point samples (16, 24, 32 or 64 bits).</p>
+ *
  * <p>Note that we support a non-standard case of prediction for binary images (1 sample, 1 bit/pixel).
  * Images, written with this prediction, will not be readable by usual TIFF applications.
  * We do not recommend this mode for creating new TIFF images.</p>
@@ -51,6 +60,7 @@ public class TiffPrediction {
             case NONE -> {
             }
             case HORIZONTAL -> subtractPrediction(tile);
+            case HORIZONTAL_FLOATING_POINT -> subtractFloatingPointPrediction(tile);
             default -> throw new TiffException("Unsupported TIFF Predictor tag: " +
                     tile.ifd().optPredictorCode() + " (" + predictor.prettyName() + ")");
         }
@@ -64,6 +74,7 @@ public class TiffPrediction {
             case NONE -> {
             }
             case HORIZONTAL -> unsubtractPrediction(tile);
+            case HORIZONTAL_FLOATING_POINT -> unsubtractFloatingPointPrediction(tile);
             default -> throw new TiffException("Unsupported TIFF Predictor tag: " +
                     tile.ifd().optPredictorCode() + " (" + predictor.prettyName() + ")");
         }
@@ -92,21 +103,12 @@ public class TiffPrediction {
                 PackedBitArraysPer8.packBitsInReverseOrder(data, 0, a, 0, a.length);
             }
             case 8 -> subtractByteMatrix(data, xSize, ySize, samplesPerPixel);
-            case 16 -> {
-                final short[] a = JArrays.bytesToShortArray(data, tile.byteOrder());
-                subtractShortMatrix(a, xSize, ySize, samplesPerPixel);
-                JArrays.shortArrayToBytes(data, a, a.length, tile.byteOrder());
-            }
-            case 32 -> {
-                final int[] a = JArrays.bytesToIntArray(data, tile.byteOrder());
-                subtractIntMatrix(a, xSize, ySize, samplesPerPixel);
-                JArrays.intArrayToBytes(data, a, a.length, tile.byteOrder());
-            }
-            case 64 -> {
-                final long[] a = JArrays.bytesToLongArray(data, tile.byteOrder());
-                subtractLongMatrix(a, xSize, ySize, samplesPerPixel);
-                JArrays.longArrayToBytes(data, a, a.length, tile.byteOrder());
-            }
+            case 16 -> subtractShortMatrix(
+                    ByteBuffer.wrap(data).order(tile.byteOrder()).asShortBuffer(), xSize, ySize, samplesPerPixel);
+            case 32 -> subtractIntMatrix(
+                    ByteBuffer.wrap(data).order(tile.byteOrder()).asIntBuffer(), xSize, ySize, samplesPerPixel);
+            case 64 -> subtractLongMatrix(
+                    ByteBuffer.wrap(data).order(tile.byteOrder()).asLongBuffer(), xSize, ySize, samplesPerPixel);
             default -> throw new AssertionError("Must be checked in checkBitDepthForPrediction");
         }
         // Legacy solution:
@@ -142,21 +144,12 @@ public class TiffPrediction {
                 PackedBitArraysPer8.packBitsInReverseOrder(data, 0, a, 0, a.length);
             }
             case 8 -> unsubtractByteMatrix(data, xSize, ySize, samplesPerPixel);
-            case 16 -> {
-                final short[] a = JArrays.bytesToShortArray(data, tile.byteOrder());
-                unsubtractShortMatrix(a, xSize, ySize, samplesPerPixel);
-                JArrays.shortArrayToBytes(data, a, a.length, tile.byteOrder());
-            }
-            case 32 -> {
-                final int[] a = JArrays.bytesToIntArray(data, tile.byteOrder());
-                unsubtractIntMatrix(a, xSize, ySize, samplesPerPixel);
-                JArrays.intArrayToBytes(data, a, a.length, tile.byteOrder());
-            }
-            case 64 -> {
-                final long[] a = JArrays.bytesToLongArray(data, tile.byteOrder());
-                unsubtractLongMatrix(a, xSize, ySize, samplesPerPixel);
-                JArrays.longArrayToBytes(data, a, a.length, tile.byteOrder());
-            }
+            case 16 -> unsubtractShortMatrix(
+                    ByteBuffer.wrap(data).order(tile.byteOrder()).asShortBuffer(), xSize, ySize, samplesPerPixel);
+            case 32 -> unsubtractIntMatrix(
+                    ByteBuffer.wrap(data).order(tile.byteOrder()).asIntBuffer(), xSize, ySize, samplesPerPixel);
+            case 64 -> unsubtractLongMatrix(
+                    ByteBuffer.wrap(data).order(tile.byteOrder()).asLongBuffer(), xSize, ySize, samplesPerPixel);
             default -> throw new AssertionError("Must be checked in checkBitDepthForPrediction");
         }
         // Legacy solution:
@@ -171,6 +164,85 @@ public class TiffPrediction {
 //            }
     }
 
+    public static void subtractFloatingPointPrediction(TiffTile tile) throws TiffException {
+        Objects.requireNonNull(tile, "Null tile");
+        final byte[] data = tile.getDecodedData();
+        final int bytesPerSample = checkFloatingPointForPrediction(tile, "for writing");
+        final int samplesPerPixel = tile.samplesPerPixel();
+        final int xSize = tile.getSizeX();
+        final int xSizeInBytes = tile.getLineSizeInBytesInsideTIFF();
+        final int ySize = data.length / xSizeInBytes;
+        final boolean littleEndian = tile.byteOrder() == ByteOrder.LITTLE_ENDIAN;
+        final int lineLength = xSize * samplesPerPixel * bytesPerSample;
+        final byte[] line = new byte[lineLength];
+        for (int y = 0; y < ySize; y++) {
+            final int lineOffset = y * xSizeInBytes;
+            System.arraycopy(data, lineOffset, line, 0, lineLength);
+            shuffleFloatingPointBytes(line, data, lineOffset, xSize * samplesPerPixel, bytesPerSample, littleEndian);
+            final int minOffset = lineOffset + samplesPerPixel;
+            for (int k = lineOffset + lineLength - 1; k >= minOffset; k--) {
+                data[k] -= data[k - samplesPerPixel];
+            }
+        }
+    }
+
+    public static void unsubtractFloatingPointPrediction(TiffTile tile) throws TiffException {
+        Objects.requireNonNull(tile, "Null tile");
+        final byte[] data = tile.getDecodedData();
+        final int bytesPerSample = checkFloatingPointForPrediction(tile, "for reading");
+        final int samplesPerPixel = tile.samplesPerPixel();
+        final int xSize = tile.getSizeX();
+        final int xSizeInBytes = tile.getLineSizeInBytesInsideTIFF();
+        final int ySize = data.length / xSizeInBytes;
+        final boolean littleEndian = tile.byteOrder() == ByteOrder.LITTLE_ENDIAN;
+        final int lineLength = xSize * samplesPerPixel * bytesPerSample;
+        final byte[] line = new byte[lineLength];
+        for (int y = 0; y < ySize; y++) {
+            final int lineOffset = y * xSizeInBytes;
+            final int toOffset = lineOffset + lineLength;
+            for (int k = lineOffset + samplesPerPixel; k < toOffset; k++) {
+                data[k] += data[k - samplesPerPixel];
+            }
+            System.arraycopy(data, lineOffset, line, 0, lineLength);
+            unshuffleFloatingPointBytes(line, data, lineOffset, xSize * samplesPerPixel, bytesPerSample, littleEndian);
+        }
+    }
+
+    // Floating-point predictor stores all most significant bytes of the line samples first,
+    // then all next bytes, etc. (independently of the byte order of the file)
+    private static void shuffleFloatingPointBytes(
+            byte[] line,
+            byte[] result,
+            int resultOffset,
+            int numberOfSamples,
+            int bytesPerSample,
+            boolean littleEndian) {
+        for (int b = 0; b < bytesPerSample; b++) {
+            final int significance = littleEndian ? bytesPerSample - 1 - b : b;
+            // - 0 for the most significant byte
+            for (int i = 0, disp = resultOffset + significance * numberOfSamples, k = b;
+                 i < numberOfSamples; i++, disp++, k += bytesPerSample) {
+                result[disp] = line[k];
+            }
+        }
+    }
+
+    private static void unshuffleFloatingPointBytes(
+            byte[] line,
+            byte[] result,
+            int resultOffset,
+            int numberOfSamples,
+            int bytesPerSample,
+            boolean littleEndian) {
+        for (int b = 0; b < bytesPerSample; b++) {
+            final int significance = littleEndian ? bytesPerSample - 1 - b : b;
+            for (int i = 0, k = significance * numberOfSamples, disp = resultOffset + b;
+                 i < numberOfSamples; i++, k++, disp += bytesPerSample) {
+                result[disp] = line[k];
+            }
+        }
+    }
+
     private static void subtractByteMatrix(byte[] a, int xSize, int ySize, int samplesPerPixel) {
         final int xSizeInSamples = xSize * samplesPerPixel;
         for (int y = 0; y < ySize; y++) {
@@ -187,82 +259,244 @@ public class TiffPrediction {
         final int xSizeInSamples = xSize * samplesPerPixel;
         for (int y = 0; y < ySize; y++) {
             final int lineOffset = y * xSizeInSamples;
-            int toOffset = lineOffset + xSizeInSamples;
+            final int toOffset = lineOffset + xSizeInSamples;
             // - cannot be >Integer.MAX_VALUE: see limitation for tile sizes in TiffTile.setSizes() method
-            for (int k = lineOffset + samplesPerPixel; k < toOffset; k++) {
-                a[k] += a[k - samplesPerPixel];
+            switch (samplesPerPixel) {
+                // - for typical numbers of channels, we keep the running sums in local variables:
+                // it is much faster than reading the just written elements, especially in a ByteBuffer
+                case 1 -> {
+                    byte s = a[lineOffset];
+                    for (int k = lineOffset + 1; k < toOffset; k++) {
+                        s += a[k];
+                        a[k] = s;
+                    }
+                }
+                case 3 -> {
+                    byte s0 = a[lineOffset];
+                    byte s1 = a[lineOffset + 1];
+                    byte s2 = a[lineOffset + 2];
+                    for (int k = lineOffset + 3; k < toOffset; k += 3) {
+                        s0 += a[k];
+                        s1 += a[k + 1];
+                        s2 += a[k + 2];
+                        a[k] = s0;
+                        a[k + 1] = s1;
+                        a[k + 2] = s2;
+                    }
+                }
+                case 4 -> {
+                    byte s0 = a[lineOffset];
+                    byte s1 = a[lineOffset + 1];
+                    byte s2 = a[lineOffset + 2];
+                    byte s3 = a[lineOffset + 3];
+                    for (int k = lineOffset + 4; k < toOffset; k += 4) {
+                        s0 += a[k];
+                        s1 += a[k + 1];
+                        s2 += a[k + 2];
+                        s3 += a[k + 3];
+                        a[k] = s0;
+                        a[k + 1] = s1;
+                        a[k + 2] = s2;
+                        a[k + 3] = s3;
+                    }
+                }
+                default -> {
+                    for (int k = lineOffset + samplesPerPixel; k < toOffset; k++) {
+                        a[k] += a[k - samplesPerPixel];
+                    }
+                }
             }
         }
     }
 
-    private static void subtractShortMatrix(short[] a, int xSize, int ySize, int samplesPerPixel) {
+    private static void subtractShortMatrix(ShortBuffer a, int xSize, int ySize, int samplesPerPixel) {
         final int xSizeInSamples = xSize * samplesPerPixel;
         for (int y = 0; y < ySize; y++) {
             final int lineOffset = y * xSizeInSamples;
             final int minOffset = lineOffset + samplesPerPixel;
             // - cannot be >Integer.MAX_VALUE: see limitation for tile sizes in TiffTile.setSizes() method
             for (int k = lineOffset + xSizeInSamples - 1; k >= minOffset; k--) {
-                a[k] -= a[k - samplesPerPixel];
+                a.put(k, (short) (a.get(k) - a.get(k - samplesPerPixel)));
             }
         }
     }
 
-    private static void unsubtractShortMatrix(short[] a, int xSize, int ySize, int samplesPerPixel) {
+    private static void unsubtractShortMatrix(ShortBuffer a, int xSize, int ySize, int samplesPerPixel) {
         final int xSizeInSamples = xSize * samplesPerPixel;
         for (int y = 0; y < ySize; y++) {
             final int lineOffset = y * xSizeInSamples;
-            int toOffset = lineOffset + xSizeInSamples;
+            final int toOffset = lineOffset + xSizeInSamples;
             // - cannot be >Integer.MAX_VALUE: see limitation for tile sizes in TiffTile.setSizes() method
-            for (int k = lineOffset + samplesPerPixel; k < toOffset; k++) {
-                a[k] += a[k - samplesPerPixel];
+            switch (samplesPerPixel) {
+                case 1 -> {
+                    short s = a.get(lineOffset);
+                    for (int k = lineOffset + 1; k < toOffset; k++) {
+                        s += a.get(k);
+                        a.put(k, s);
+                    }
+                }
+                case 3 -> {
+                    short s0 = a.get(lineOffset);
+                    short s1 = a.get(lineOffset + 1);
+                    short s2 = a.get(lineOffset + 2);
+                    for (int k = lineOffset + 3; k < toOffset; k += 3) {
+                        s0 += a.get(k);
+                        s1 += a.get(k + 1);
+                        s2 += a.get(k + 2);
+                        a.put(k, s0);
+                        a.put(k + 1, s1);
+                        a.put(k + 2, s2);
+                    }
+                }
+                case 4 -> {
+                    short s0 = a.get(lineOffset);
+                    short s1 = a.get(lineOffset + 1);
+                    short s2 = a.get(lineOffset + 2);
+                    short s3 = a.get(lineOffset + 3);
+                    for (int k = lineOffset + 4; k < toOffset; k += 4) {
+                        s0 += a.get(k);
+                        s1 += a.get(k + 1);
+                        s2 += a.get(k + 2);
+                        s3 += a.get(k + 3);
+                        a.put(k, s0);
+                        a.put(k + 1, s1);
+                        a.put(k + 2, s2);
+                        a.put(k + 3, s3);
+                    }
+                }
+                default -> {
+                    for (int k = lineOffset + samplesPerPixel; k < toOffset; k++) {
+                        a.put(k, (short) (a.get(k) + a.get(k - samplesPerPixel)));
+                    }
+                }
             }
         }
     }
 
-    private static void subtractIntMatrix(int[] a, int xSize, int ySize, int samplesPerPixel) {
+    private static void subtractIntMatrix(IntBuffer a, int xSize, int ySize, int samplesPerPixel) {
         final int xSizeInSamples = xSize * samplesPerPixel;
         for (int y = 0; y < ySize; y++) {
             final int lineOffset = y * xSizeInSamples;
             final int minOffset = lineOffset + samplesPerPixel;
             // - cannot be >Integer.MAX_VALUE: see limitation for tile sizes in TiffTile.setSizes() method
             for (int k = lineOffset + xSizeInSamples - 1; k >= minOffset; k--) {
-                a[k] -= a[k - samplesPerPixel];
+                a.put(k, a.get(k) - a.get(k - samplesPerPixel));
             }
         }
     }
 
-    private static void unsubtractIntMatrix(int[] a, int xSize, int ySize, int samplesPerPixel) {
+    private static void unsubtractIntMatrix(IntBuffer a, int xSize, int ySize, int samplesPerPixel) {
         final int xSizeInSamples = xSize * samplesPerPixel;
         for (int y = 0; y < ySize; y++) {
             final int lineOffset = y * xSizeInSamples;
-            int toOffset = lineOffset + xSizeInSamples;
+            final int toOffset = lineOffset + xSizeInSamples;
             // - cannot be >Integer.MAX_VALUE: see limitation for tile sizes in TiffTile.setSizes() method
-            for (int k = lineOffset + samplesPerPixel; k < toOffset; k++) {
-                a[k] += a[k - samplesPerPixel];
+            switch (samplesPerPixel) {
+                case 1 -> {
+                    int s = a.get(lineOffset);
+                    for (int k = lineOffset + 1; k < toOffset; k++) {
+                        s += a.get(k);
+                        a.put(k, s);
+                    }
+                }
+                case 3 -> {
+                    int s0 = a.get(lineOffset);
+                    int s1 = a.get(lineOffset + 1);
+                    int s2 = a.get(lineOffset + 2);
+                    for (int k = lineOffset + 3; k < toOffset; k += 3) {
+                        s0 += a.get(k);
+                        s1 += a.get(k + 1);
+                        s2 += a.get(k + 2);
+                        a.put(k, s0);
+                        a.put(k + 1, s1);
+                        a.put(k + 2, s2);
+                    }
+                }
+                case 4 -> {
+                    int s0 = a.get(lineOffset);
+                    int s1 = a.get(lineOffset + 1);
+                    int s2 = a.get(lineOffset + 2);
+                    int s3 = a.get(lineOffset + 3);
+                    for (int k = lineOffset + 4; k < toOffset; k += 4) {
+                        s0 += a.get(k);
+                        s1 += a.get(k + 1);
+                        s2 += a.get(k + 2);
+                        s3 += a.get(k + 3);
+                        a.put(k, s0);
+                        a.put(k + 1, s1);
+                        a.put(k + 2, s2);
+                        a.put(k + 3, s3);
+                    }
+                }
+                default -> {
+                    for (int k = lineOffset + samplesPerPixel; k < toOffset; k++) {
+                        a.put(k, a.get(k) + a.get(k - samplesPerPixel));
+                    }
+                }
             }
         }
     }
 
-    private static void subtractLongMatrix(long[] a, int xSize, int ySize, int samplesPerPixel) {
+    private static void subtractLongMatrix(LongBuffer a, int xSize, int ySize, int samplesPerPixel) {
         final int xSizeInSamples = xSize * samplesPerPixel;
         for (int y = 0; y < ySize; y++) {
             final int lineOffset = y * xSizeInSamples;
             final int minOffset = lineOffset + samplesPerPixel;
             // - cannot be >Integer.MAX_VALUE: see limitation for tile sizes in TiffTile.setSizes() method
             for (int k = lineOffset + xSizeInSamples - 1; k >= minOffset; k--) {
-                a[k] -= a[k - samplesPerPixel];
+                a.put(k, a.get(k) - a.get(k - samplesPerPixel));
             }
         }
     }
 
-    private static void unsubtractLongMatrix(long[] a, int xSize, int ySize, int samplesPerPixel) {
+    private static void unsubtractLongMatrix(LongBuffer a, int xSize, int ySize, int samplesPerPixel) {
         final int xSizeInSamples = xSize * samplesPerPixel;
         for (int y = 0; y < ySize; y++) {
             final int lineOffset = y * xSizeInSamples;
-            int toOffset = lineOffset + xSizeInSamples;
+            final int toOffset = lineOffset + xSizeInSamples;
             // - cannot be >Integer.MAX_VALUE: see limitation for tile sizes in TiffTile.setSizes() method
-            for (int k = lineOffset + samplesPerPixel; k < toOffset; k++) {
-                a[k] += a[k - samplesPerPixel];
+            switch (samplesPerPixel) {
+                case 1 -> {
+                    long s = a.get(lineOffset);
+                    for (int k = lineOffset + 1; k < toOffset; k++) {
+                        s += a.get(k);
+                        a.put(k, s);
+                    }
+                }
+                case 3 -> {
+                    long s0 = a.get(lineOffset);
+                    long s1 = a.get(lineOffset + 1);
+                    long s2 = a.get(lineOffset + 2);
+                    for (int k = lineOffset + 3; k < toOffset; k += 3) {
+                        s0 += a.get(k);
+                        s1 += a.get(k + 1);
+                        s2 += a.get(k + 2);
+                        a.put(k, s0);
+                        a.put(k + 1, s1);
+                        a.put(k + 2, s2);
+                    }
+                }
+                case 4 -> {
+                    long s0 = a.get(lineOffset);
+                    long s1 = a.get(lineOffset + 1);
+                    long s2 = a.get(lineOffset + 2);
+                    long s3 = a.get(lineOffset + 3);
+                    for (int k = lineOffset + 4; k < toOffset; k += 4) {
+                        s0 += a.get(k);
+                        s1 += a.get(k + 1);
+                        s2 += a.get(k + 2);
+                        s3 += a.get(k + 3);
+                        a.put(k, s0);
+                        a.put(k + 1, s1);
+                        a.put(k + 2, s2);
+                        a.put(k + 3, s3);
+                    }
+                }
+                default -> {
+                    for (int k = lineOffset + samplesPerPixel; k < toOffset; k++) {
+                        a.put(k, a.get(k) + a.get(k - samplesPerPixel));
+                    }
+                }
             }
         }
     }
@@ -301,4 +535,14 @@ public class TiffPrediction {
                     " for bit depth " + bitsPerSample);
         }
     }
+
+    private static int checkFloatingPointForPrediction(TiffTile tile, String where) throws TiffException {
+        final int bitsPerSample = tile.normalizedBitDepth();
+        if (!tile.sampleType().isFloatingPoint() ||
+                (bitsPerSample != 16 && bitsPerSample != 24 && bitsPerSample != 32 && bitsPerSample != 64)) {
+            throw new TiffException("Cannot use TIFF floating-point prediction " + where +
+                    " for " + bitsPerSample + "-bit " + tile.sampleType().prettyName() + " samples");
+        }
+        return bitsPerSample >>> 3;
+    }
 }
@@ -43,8 +43,8 @@ public class TiffUnpacking {
     // - should be true for good performance; false value can help while debugging
     private static final boolean DISABLE_TOO_LARGE_TILE_OR_STRIP = true;
     // - should be true
-    private static final boolean THOROUGHLY_TEST_Y_CB_CR_LOOP = false;
-    // - can be set to true for thoroughly testing
+    private static final int YCBCR_FRACTION_BITS = 16;
+    // - precision of fixed-point YCbCr->RGB conversion: enough for rounding 8-bit results as in double arithmetic
 
     private TiffUnpacking() {
     }
@@ -149,7 +149,7 @@ public class TiffUnpacking {
         final int sizeY = tile.getSizeY();
         final int numberOfPixels = tile.getSizeInPixels();
 
-        final byte[] unpacked = new byte[3 * numberOfPixels];
+        final byte[] unpacked = tile.allocateData(3 * numberOfPixels);
 
         double lumaRed = 0.299;
         double lumaGreen = 0.587;
@@ -183,77 +183,109 @@ public class TiffUnpacking {
         final double crCoefficient = 2.0 - 2.0 * lumaRed;
         final double cbCoefficient = 2.0 - 2.0 * lumaBlue;
         final double lumaGreenInv = 1.0 / lumaGreen;
+        // Every term of the formulas below is a linear function of one of the raw 8-bit values Y, Cb, Cr,
+        // so we precompute all terms in the fixed-point form (see YCBCR_FRACTION_BITS):
+        //     red = y + cr * crCoefficient
+        //     blue = y + cb * cbCoefficient
+        //     green = (y - lumaBlue * blue - lumaRed * red) / lumaGreen
+        final long[] lumaTable = new long[256];
+        final long[] lumaGreenTable = new long[256];
+        final long[] crRedTable = new long[256];
+        final long[] cbBlueTable = new long[256];
+        final long[] crGreenTable = new long[256];
+        final long[] cbGreenTable = new long[256];
+        for (int v = 0; v < 256; v++) {
+            final double y = (v - yBlack) * yScale;
+            final double cb = (v - 128 - cbShiftedBlack) * cbScale * cbCoefficient;
+            final double cr = (v - 128 - crShiftedBlack) * crScale * crCoefficient;
+            lumaTable[v] = toFixedPoint(y);
+            lumaGreenTable[v] = toFixedPoint(y * (1.0 - lumaBlue - lumaRed) * lumaGreenInv);
+            crRedTable[v] = toFixedPoint(cr);
+            cbBlueTable[v] = toFixedPoint(cb);
+            crGreenTable[v] = toFixedPoint(-lumaRed * cr * lumaGreenInv);
+            cbGreenTable[v] = toFixedPoint(-lumaBlue * cb * lumaGreenInv);
+        }
         final int subXLog = subsamplingLog[0];
         final int subYLog = subsamplingLog[1];
-        final int subXMinus1 = (1 << subXLog) - 1;
-        final int blockLog = subXLog + subYLog;
-        final int block = 1 << blockLog;
-        final int numberOfXBlocks = (sizeX + subXMinus1) >>> subXLog;
+        final int subX = 1 << subXLog;
+        final int subY = 1 << subYLog;
+        final int block = subX * subY;
+        final int blockLength = block + 2;
+        final boolean subsampling2x2 = subXLog == 1 && subYLog == 1;
+        final boolean subsampling2x1 = subXLog == 1 && subYLog == 0;
+        final int numberOfXBlocks = (sizeX + subX - 1) >>> subXLog;
+        final int numberOfYBlocks = (sizeY + subY - 1) >>> subYLog;
+        final int greenOffset = numberOfPixels;
+        final int blueOffset = 2 * numberOfPixels;
+        // Every block contains "block" Luma (Y) values, 1 Cb value and 1 Cr value, for example (2x2):
+        //    YYYYbrYYYYbrYYYYbr...
+        // Luma values inside the block are stored row by row; blocks cover the tile row by row.
+        // If the tile sizes are not multiples of subX/subY, the last blocks in every row/column are padded.
         UnpackingLoop:
-        for (int yIndex = 0, i = 0; yIndex < sizeY; yIndex++) {
-            final int yBlockIndex = yIndex >>> subYLog;
-            final int yAligned = yBlockIndex << subYLog;
-            final int lineAligned = yBlockIndex * numberOfXBlocks;
-            for (int xIndex = 0; xIndex < sizeX; xIndex++, i++) {
-                // unpack non-YCbCr samples
-                // unpack YCbCr unpacked; these need special handling, as
-                // each of the RGB components depends upon two or more of the YCbCr
-                // components
-                final int blockIndex = i >>> blockLog; // = i / block
-                final int aligned = blockIndex << blockLog;
-                final int indexInBlock = i - aligned;
-                assert indexInBlock < block;
-                final int blockIndexTwice = 2 * blockIndex; // 1 block for Cb + 1 block for Cr
-                final int blockStart = aligned + blockIndexTwice;
-                final int lumaIndex = blockStart + indexInBlock;
-                final int chromaIndex = blockStart + block;
-                // Every block contains block Luma (Y) values, 1 Cb value and 1 Cr value, for example (2x2):
-                //    YYYYbrYYYYbrYYYYbr...
-                //                |"blockStart" position
-
-                if (chromaIndex + 1 >= data.length || lumaIndex >= data.length) {
+        for (int yBlockIndex = 0, p = 0; yBlockIndex < numberOfYBlocks; yBlockIndex++) {
+            final int fromY = yBlockIndex << subYLog;
+            final int blockSizeY = Math.min(subY, sizeY - fromY);
+            for (int xBlockIndex = 0; xBlockIndex < numberOfXBlocks; xBlockIndex++, p += blockLength) {
+                if (p + blockLength > data.length) {
                     break UnpackingLoop;
                 }
-
-                final int yIndexInBlock = indexInBlock >>> subXLog;
-                final int xIndexInBlock = indexInBlock - (yIndexInBlock << subXLog);
-                final int resultYIndex = yAligned + yIndexInBlock;
-                final int resultXIndex = ((blockIndex - lineAligned) << subXLog) + xIndexInBlock;
-                if (THOROUGHLY_TEST_Y_CB_CR_LOOP) {
-                    final int subX = 1 << subXLog;
-                    final int subY = 1 << subYLog;
-                    final int t = i / block;
-                    final int pixel = i % block;
-                    final long r = (long) subY * (t / numberOfXBlocks) + (pixel / subX);
-                    final long c = (long) subX * (t % numberOfXBlocks) + (pixel % subX);
-                    // - these formulas were used in the original SCIFIO code
-                    assert t / numberOfXBlocks == yBlockIndex;
-                    assert t % numberOfXBlocks == blockIndex - lineAligned;
-                    assert c == resultXIndex;
-                    assert r == resultYIndex;
+                final int cb = data[p + block] & 0xff;
+                final int cr = data[p + block + 1] & 0xff;
+                final long redChroma = crRedTable[cr];
+                final long greenChroma = cbGreenTable[cb] + crGreenTable[cr];
+                final long blueChroma = cbBlueTable[cb];
+                final int fromX = xBlockIndex << subXLog;
+                final int blockSizeX = Math.min(subX, sizeX - fromX);
+                if (subsampling2x2 && blockSizeX == 2 && blockSizeY == 2) {
+                    // - the most typical case: 2x2 subsampling
+                    final int resultIndex = fromY * sizeX + fromX;
+                    final int y00 = data[p] & 0xff;
+                    final int y01 = data[p + 1] & 0xff;
+                    final int y10 = data[p + 2] & 0xff;
+                    final int y11 = data[p + 3] & 0xff;
+                    unpacked[resultIndex] = fixedPointToUnsignedByte(lumaTable[y00] + redChroma);
+                    unpacked[resultIndex + 1] = fixedPointToUnsignedByte(lumaTable[y01] + redChroma);
+                    unpacked[resultIndex + sizeX] = fixedPointToUnsignedByte(lumaTable[y10] + redChroma);
+                    unpacked[resultIndex + sizeX + 1] = fixedPointToUnsignedByte(lumaTable[y11] + redChroma);
+                    final int greenIndex = greenOffset + resultIndex;
+                    unpacked[greenIndex] = fixedPointToUnsignedByte(lumaGreenTable[y00] + greenChroma);
+                    unpacked[greenIndex + 1] = fixedPointToUnsignedByte(lumaGreenTable[y01] + greenChroma);
+                    unpacked[greenIndex + sizeX] = fixedPointToUnsignedByte(lumaGreenTable[y10] + greenChroma);
+                    unpacked[greenIndex + sizeX + 1] = fixedPointToUnsignedByte(lumaGreenTable[y11] + greenChroma);
+                    final int blueIndex = blueOffset + resultIndex;
+                    unpacked[blueIndex] = fixedPointToUnsignedByte(lumaTable[y00] + blueChroma);
+                    unpacked[blueIndex + 1] = fixedPointToUnsignedByte(lumaTable[y01] + blueChroma);
+                    unpacked[blueIndex + sizeX] = fixedPointToUnsignedByte(lumaTable[y10] + blueChroma);
+                    unpacked[blueIndex + sizeX + 1] = fixedPointToUnsignedByte(lumaTable[y11] + blueChroma);
+                    continue;
                 }
-                if (resultXIndex >= sizeX || resultYIndex >= sizeY) {
-                    // - for a case when the sizes are not aligned by subX/subY
+                if (subsampling2x1 && blockSizeX == 2) {
+                    final int resultIndex = fromY * sizeX + fromX;
+                    final int y0 = data[p] & 0xff;
+                    final int y1 = data[p + 1] & 0xff;
+                    unpacked[resultIndex] = fixedPointToUnsignedByte(lumaTable[y0] + redChroma);
+                    unpacked[resultIndex + 1] = fixedPointToUnsignedByte(lumaTable[y1] + redChroma);
+                    final int greenIndex = greenOffset + resultIndex;
+                    unpacked[greenIndex] = fixedPointToUnsignedByte(lumaGreenTable[y0] + greenChroma);
+                    unpacked[greenIndex + 1] = fixedPointToUnsignedByte(lumaGreenTable[y1] + greenChroma);
+                    final int blueIndex = blueOffset + resultIndex;
+                    unpacked[blueIndex] = fixedPointToUnsignedByte(lumaTable[y0] + blueChroma);
+                    unpacked[blueIndex + 1] = fixedPointToUnsignedByte(lumaTable[y1] + blueChroma);
                     continue;
                 }
-                final int resultIndex = resultYIndex * sizeX + resultXIndex;
-                final int yRaw = data[lumaIndex] & 0xff;
-                final int cbRaw = (data[chromaIndex] & 0xff) - 128;
-                final int crRaw = (data[chromaIndex + 1] & 0xff) - 128;
-                final double y = (yRaw - yBlack) * yScale;
-                final double cb = (cbRaw - cbShiftedBlack) * cbScale;
-                final double cr = (crRaw - crShiftedBlack) * crScale;
-
-                final double red = cr * crCoefficient + y;
-                final double blue = cb * cbCoefficient + y;
-                final double green = (y - lumaBlue * blue - lumaRed * red) * lumaGreenInv;
-                unpacked[resultIndex] = (byte) toUnsignedByte(red);
-                unpacked[numberOfPixels + resultIndex] = (byte) toUnsignedByte(green);
-                unpacked[2 * numberOfPixels + resultIndex] = (byte) toUnsignedByte(blue);
-            }
-            while ((i & subXMinus1) != 0) {
-                i++;
-                // - horizontal alignment
+                for (int yInBlock = 0; yInBlock < blockSizeY; yInBlock++) {
+                    final int lumaIndex = p + (yInBlock << subXLog);
+                    final int resultIndex = (fromY + yInBlock) * sizeX + fromX;
+                    // - 2x1, 4x2 and other subsamplings, and also blocks, partially lying outside the tile
+                    for (int xInBlock = 0; xInBlock < blockSizeX; xInBlock++) {
+                        final int luma = data[lumaIndex + xInBlock] & 0xff;
+                        final long y = lumaTable[luma];
+                        final int i = resultIndex + xInBlock;
+                        unpacked[i] = fixedPointToUnsignedByte(y + redChroma);
+                        unpacked[greenOffset + i] = fixedPointToUnsignedByte(lumaGreenTable[luma] + greenChroma);
+                        unpacked[blueOffset + i] = fixedPointToUnsignedByte(y + blueChroma);
+                    }
+                }
             }
         }
         tile.setDecodedData(unpacked);
@@ -299,7 +331,7 @@ public class TiffUnpacking {
         assert tile.getSizeInPixels() == sizeX * sizeY;
 //        debugPrintBits(tile);
         final byte[] source = tile.getDecodedData();
-        final byte[] result = new byte[tile.getSizeInBytes()];
+        final byte[] result = tile.allocateData(tile.getSizeInBytes());
         OptionalInt bytesPerSample = tile.bytesPerSample();
         if (tile.sampleType().isWholeBytes()) {
             unpackWholeBytesAndInvertValues(
@@ -494,8 +526,17 @@ public class TiffUnpacking {
         }
     }
 
-    private static int toUnsignedByte(double v) {
-        return v < 0.0 ? 0 : v > 255.0 ? 255 : (int) Math.round(v);
+    private static long toFixedPoint(double v) {
+        return Math.round(v * (1 << YCBCR_FRACTION_BITS));
+    }
+
+    private static byte fixedPointToUnsignedByte(long v) {
+        long result = (v + (1 << (YCBCR_FRACTION_BITS - 1))) >> YCBCR_FRACTION_BITS;
+        // - rounding, like Math.round for double values
+        result &= ~(result >> 63);
+        result |= (255 - result) >> 63;
+        // - branchless clamping to 0..255: out-of-range values are not rare in YCbCr
+        return (byte) result;
     }
 
     private static void debugPrintBits(TiffTile tile) throws TiffException {
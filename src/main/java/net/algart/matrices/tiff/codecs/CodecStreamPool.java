@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.matrices.tiff.codecs;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of reusable codec objects like {@link java.util.zip.Inflater}, used by the built-in codecs
+ * instead of thread-local instances.
+ *
+ * <p>The objects are taken by {@link #acquire()} and returned by {@link #release(Object)}.
+ * No more than {@link #MAX_POOLED_STREAMS} free objects are stored; the extra objects are finished
+ * immediately by the <code>end</code> function (for example, {@link java.util.zip.Inflater#end()}).
+ * So, the memory is not held by every thread that ever used a codec, which is important
+ * for a lot of short-lived (for example, virtual) threads.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ *
+ * @param <T> the type of pooled objects.
+ */
+final class CodecStreamPool<T> {
+    /**
+     * Maximal number of free objects, stored in every pool. By default, it is the number of available processors.
+     */
+    static final int MAX_POOLED_STREAMS = Math.max(1,
+            net.algart.arrays.Arrays.SystemSettings.getIntProperty(
+                    "net.algart.matrices.tiff.maxPooledCodecStreams", Runtime.getRuntime().availableProcessors()));
+
+    private final ArrayDeque<T> free = new ArrayDeque<>();
+    private final Supplier<T> factory;
+    private final Consumer<T> reset;
+    private final Consumer<T> end;
+
+    CodecStreamPool(Supplier<T> factory, Consumer<T> reset, Consumer<T> end) {
+        this.factory = factory;
+        this.reset = reset;
+        this.end = end;
+    }
+
+    T acquire() {
+        synchronized (free) {
+            final T result = free.pollLast();
+            if (result != null) {
+                return result;
+            }
+        }
+        return factory.get();
+    }
+
+    void release(T stream) {
+        reset.accept(stream);
+        synchronized (free) {
+            if (free.size() < MAX_POOLED_STREAMS) {
+                free.addLast(stream);
+                return;
+            }
+        }
+        end.accept(stream);
+        // - releasing native memory immediately, without waiting for the garbage collector
+    }
+}
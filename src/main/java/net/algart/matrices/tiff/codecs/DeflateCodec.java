@@ -22,11 +22,15 @@
  * SOFTWARE.
  */
 
+
 package net.algart.matrices.tiff.codecs;
 
 import net.algart.matrices.tiff.TiffException;
+import net.algart.matrices.tiff.io.ByteArrayPool;
 
-import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
@@ -34,64 +38,248 @@ import java.util.zip.Inflater;
 
 /**
  * This class implements ZLIB compression/decompression.
+ *
+ * <p>Native zlib streams ({@link Deflater} and {@link Inflater} objects) are not created for every tile:
+ * they are taken from small static pools and returned there after each call
+ * (after {@link Inflater#reset() resetting}).
+ * The number of free streams in every pool is limited by {@link #MAX_POOLED_STREAMS};
+ * the extra streams are {@link Inflater#end() ended} immediately, so the native memory is released
+ * even when the codec is used from a lot of short-lived (for example, virtual) threads.
+ * Decompression is performed directly into the resulting array of
+ * {@link Options#getMaxUnpackedSizeInBytes()} bytes (allocated by {@link Options#newByteArrayForOverwrite(int)}:
+ * if the unpacked data are shorter, the result is truncated),
+ * without intermediate buffers.</p>
  */
-public class DeflateCodec implements TiffCodec {
+public class DeflateCodec implements TiffCodec, TiffCodec.ByteBufferDecompressor {
+    /**
+     * Maximal number of free {@link Inflater} objects, and of free {@link Deflater} objects
+     * for every compression level, stored for reuse.
+     * By default, it is the number of available processors.
+     */
+    public static final int MAX_POOLED_STREAMS = CodecStreamPool.MAX_POOLED_STREAMS;
+
+    private static final int DEFAULT_LEVEL_INDEX = 0;
+    // - index of Deflater.DEFAULT_COMPRESSION in DEFLATERS; other indexes are level + 1
+
+    private static final CodecStreamPool<Deflater>[] DEFLATERS = deflaterPools();
+    private static final CodecStreamPool<Inflater> INFLATERS =
+            new CodecStreamPool<>(Inflater::new, Inflater::reset, Inflater::end);
+
     @Override
     public byte[] compress(byte[] data, Options options) {
         Objects.requireNonNull(data, "Null data");
         Objects.requireNonNull(options, "Null codec options");
-        final Double compressionLevel = options.getLosslessCompressionLevel();
-        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        final byte[] buffer = new byte[65536];
-        final Deflater deflater;
-        if (compressionLevel != null) {
-            final int level = compressionLevel <= 0.0 ? 0 :
-                    Math.max(1, (int) Math.round(9.0 * Math.min(compressionLevel, 1.0)));
-            assert level <= 9;
-            deflater = new Deflater(level);
-        } else {
-            deflater = new Deflater();
+        final CodecStreamPool<Deflater> pool = deflaterPool(options);
+        final Deflater deflater = pool.acquire();
+        byte[] result = new byte[maxCompressedLength(data.length)];
+        int compressedSize = 0;
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            for (; ; ) {
+                compressedSize += deflater.deflate(result, compressedSize, result.length - compressedSize);
+                if (deflater.finished()) {
+                    break;
+                }
+                result = Arrays.copyOf(result, grownLength(result.length));
+                // - should not occur: the initial length is enough even for incompressible data
+            }
+        } finally {
+            pool.release(deflater);
+            // - resetting also releases the reference to data
         }
+        return compressedSize == result.length ? result : Arrays.copyOf(result, compressedSize);
+    }
+
+    /**
+     * Compresses all remaining bytes of the <code>data</code> buffer into the <code>result</code> buffer,
+     * starting from its current position.
+     * On return, the position of <code>data</code> is equal to its limit,
+     * and the position of <code>result</code> is advanced by the number of written bytes.
+     *
+     * @param data    the source data.
+     * @param result  the buffer for compressed data.
+     * @param options the codec options; only {@link Options#getLosslessCompressionLevel()} is used.
+     * @return the number of compressed bytes written into <code>result</code>.
+     * @throws BufferOverflowException if there is not enough space in <code>result</code> buffer.
+     */
+    public int compress(ByteBuffer data, ByteBuffer result, Options options) {
+        Objects.requireNonNull(data, "Null data");
+        Objects.requireNonNull(result, "Null result buffer");
+        Objects.requireNonNull(options, "Null codec options");
+        final CodecStreamPool<Deflater> pool = deflaterPool(options);
+        final Deflater deflater = pool.acquire();
         try {
             deflater.setInput(data);
             deflater.finish();
+            int compressedSize = 0;
             while (!deflater.finished()) {
-                final int compressedSize = deflater.deflate(buffer);
-                // - compressedSize == 0 only occurs when the deflater has finished producing output,
-                // so this loop cannot become infinite
-                outputStream.write(buffer, 0, compressedSize);
+                if (!result.hasRemaining()) {
+                    throw new BufferOverflowException();
+                }
+                compressedSize += deflater.deflate(result);
             }
+            return compressedSize;
         } finally {
-            deflater.end();
+            pool.release(deflater);
         }
-        return outputStream.toByteArray();
     }
 
+    /**
+     * If {@link Options#getMaxUnpackedSizeInBytes()} is specified (positive), it is used
+     * as the length of the resulting array; if the unpacked data are shorter, the result is truncated.
+     */
     @Override
     public byte[] decompress(byte[] data, Options options) throws TiffException {
+        Objects.requireNonNull(data, "Null data");
+        return decompress(ByteBuffer.wrap(data), options);
+    }
+
+    /**
+     * Analog of {@link #decompress(byte[], Options)}, which decompresses all remaining bytes
+     * of the <code>data</code> buffer; it may be a direct buffer, for example, a slice of a memory-mapped file.
+     * On return, the position of <code>data</code> is unspecified.
+     */
+    @Override
+    public byte[] decompress(ByteBuffer data, Options options) throws TiffException {
         Objects.requireNonNull(data, "Null data");
         Objects.requireNonNull(options, "Null codec options");
-        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        final byte[] buffer = new byte[65536];
-        Inflater inflater = new Inflater();
+        final int maxUnpackedSizeInBytes = options.getMaxUnpackedSizeInBytes();
+        final int compressedLength = data.remaining();
+        final Inflater inflater = INFLATERS.acquire();
+        byte[] result = maxUnpackedSizeInBytes > 0 ?
+                options.newByteArrayForOverwrite(maxUnpackedSizeInBytes) :
+                new byte[grownLength(compressedLength)];
+        final byte[] allocated = result;
+        int decompressedSize = 0;
         try {
             inflater.setInput(data);
             while (!inflater.finished()) {
-                final int decompressedSize = inflater.inflate(buffer);
-                if (decompressedSize == 0) {
-                    throw new TiffException("Invalid TIFF format: Deflate (ZIP) block of " + data.length +
-                            " bytes is corrupted" +
-                            (inflater.needsDictionary() ? " (missing dictionary)" :
-                                    inflater.needsInput() ? " (unexpected end of stream)" : ""));
+                if (decompressedSize == result.length) {
+                    result = Arrays.copyOf(result, grownLength(result.length));
+                    // - possible when maxUnpackedSizeInBytes is not specified or is too small
                 }
-                outputStream.write(buffer, 0, decompressedSize);
+                final int size = inflater.inflate(result, decompressedSize, result.length - decompressedSize);
+                if (size == 0 && !inflater.finished()) {
+                    throw corruptedException(inflater, compressedLength);
+                }
+                decompressedSize += size;
             }
         } catch (DataFormatException e) {
             throw new TiffException("Invalid TIFF format: broken compressed data in ZIP (Deflate) block", e);
         } finally {
-            inflater.end();
+            INFLATERS.release(inflater);
+        }
+        final byte[] exactResult = decompressedSize == result.length ?
+                result :
+                Arrays.copyOf(result, decompressedSize);
+        // - typical situation: the full tile, no need to copy
+        final ByteArrayPool bufferPool = options.getBufferPool();
+        if (bufferPool != null && maxUnpackedSizeInBytes > 0 && exactResult != allocated) {
+            bufferPool.release(allocated);
         }
-        return outputStream.toByteArray();
+        return exactResult;
+    }
+
+    /**
+     * Equivalent to <code>{@link #decompress(ByteBuffer, ByteBuffer, Options)
+     * decompress}(data, result, new Options())</code>.
+     *
+     * @param data   the compressed data.
+     * @param result the buffer for decompressed data.
+     * @return the number of decompressed bytes written into <code>result</code>.
+     * @throws TiffException           if the compressed data are corrupted.
+     * @throws BufferOverflowException if there is not enough space in <code>result</code> buffer.
+     */
+    public int decompress(ByteBuffer data, ByteBuffer result) throws TiffException {
+        return decompress(data, result, new Options());
+    }
+
+    /**
+     * Decompresses all remaining bytes of the <code>data</code> buffer into the <code>result</code> buffer,
+     * starting from its current position.
+     * On return, the position of <code>result</code> is advanced by the number of written bytes.
+     *
+     * @param data    the compressed data.
+     * @param result  the buffer for decompressed data.
+     * @param options the codec options; only {@link Options#getMaxUnpackedSizeInBytes()} is used:
+     *                if it is specified (positive), no more than this number of bytes can be written.
+     * @return the number of decompressed bytes written into <code>result</code>.
+     * @throws TiffException           if the compressed data are corrupted.
+     * @throws BufferOverflowException if there is not enough space in <code>result</code> buffer
+     *                                 or the unpacked data are longer than the specified maximum.
+     */
+    public int decompress(ByteBuffer data, ByteBuffer result, Options options) throws TiffException {
+        Objects.requireNonNull(data, "Null data");
+        Objects.requireNonNull(result, "Null result buffer");
+        Objects.requireNonNull(options, "Null codec options");
+        final int maxUnpackedSizeInBytes = options.getMaxUnpackedSizeInBytes();
+        final int limit = result.limit();
+        if (maxUnpackedSizeInBytes > 0 && maxUnpackedSizeInBytes < result.remaining()) {
+            result.limit(result.position() + maxUnpackedSizeInBytes);
+        }
+        final Inflater inflater = INFLATERS.acquire();
+        final int compressedLength = data.remaining();
+        try {
+            inflater.setInput(data);
+            int decompressedSize = 0;
+            while (!inflater.finished()) {
+                if (!result.hasRemaining()) {
+                    throw new BufferOverflowException();
+                }
+                final int size = inflater.inflate(result);
+                if (size == 0 && !inflater.finished()) {
+                    throw corruptedException(inflater, compressedLength);
+                }
+                decompressedSize += size;
+            }
+            return decompressedSize;
+        } catch (DataFormatException e) {
+            throw new TiffException("Invalid TIFF format: broken compressed data in ZIP (Deflate) block", e);
+        } finally {
+            INFLATERS.release(inflater);
+            result.limit(limit);
+        }
+    }
+
+    private static CodecStreamPool<Deflater> deflaterPool(Options options) {
+        final Double compressionLevel = options.getLosslessCompressionLevel();
+        final int index;
+        if (compressionLevel != null) {
+            final int level = compressionLevel <= 0.0 ? 0 :
+                    Math.max(1, (int) Math.round(9.0 * Math.min(compressionLevel, 1.0)));
+            assert level <= 9;
+            index = level + 1;
+        } else {
+            index = DEFAULT_LEVEL_INDEX;
+        }
+        return DEFLATERS[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CodecStreamPool<Deflater>[] deflaterPools() {
+        final CodecStreamPool<Deflater>[] result = new CodecStreamPool[11];
+        for (int index = 0; index < result.length; index++) {
+            final int level = index == DEFAULT_LEVEL_INDEX ? Deflater.DEFAULT_COMPRESSION : index - 1;
+            result[index] = new CodecStreamPool<>(() -> new Deflater(level), Deflater::reset, Deflater::end);
+        }
+        return result;
+    }
+
+    private static TiffException corruptedException(Inflater inflater, int compressedLength) {
+        return new TiffException("Invalid TIFF format: Deflate (ZIP) block of " + compressedLength +
+                " bytes is corrupted" +
+                (inflater.needsDictionary() ? " (missing dictionary)" :
+                        inflater.needsInput() ? " (unexpected end of stream)" : ""));
     }
-}
 
+    private static int maxCompressedLength(int length) {
+        // - the same estimate as deflateBound() in zlib, with a small reserve for the zlib header
+        final long result = (long) length + (length >>> 12) + (length >>> 14) + (length >>> 25) + 64;
+        return (int) Math.min(result, Integer.MAX_VALUE - 16);
+    }
+
+    private static int grownLength(int length) {
+        return (int) Math.min(Math.max(2L * length, 1024), Integer.MAX_VALUE - 16);
+    }
+}
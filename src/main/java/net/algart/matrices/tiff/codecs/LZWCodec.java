@@ -25,11 +25,10 @@
 package net.algart.matrices.tiff.codecs;
 
 import net.algart.matrices.tiff.TiffException;
-import org.scijava.io.handle.BytesHandle;
 import org.scijava.io.handle.DataHandle;
-import org.scijava.io.location.BytesLocation;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Objects;
 
@@ -65,16 +64,18 @@ public class LZWCodec implements TiffCodec {
      */
 
     /**
-     * Size of hash table. Must be greater 3837 (the number of possible codes).
-     * Bigger size reduces the number of rehashing steps -- at the expense of
+     * Size of hash table. Must be a power of 2, greater than 3837 (the number of possible codes).
+     * Bigger size reduces the number of probing steps -- at the expense of
      * initialization time.
      */
-    private static final int HASH_SIZE = 7349;
+    private static final int HASH_SIZE = 8192;
 
-    /**
-     * Rehashing step. HASH_SIZE and HASH_STEP should be coprime.
-     */
-    private static final int HASH_STEP = 257;
+    private static final int HASH_SHIFT = 32 - 13;
+    // - HASH_SIZE = 2^13
+
+    private static final int HASH_MULTIPLIER = 0x9E3779B1;
+
+    private static final int TABLE_SIZE = 4096;
 
     private static final int CLEAR_CODE = 256;
 
@@ -83,16 +84,9 @@ public class LZWCodec implements TiffCodec {
     private static final int FIRST_CODE = 258;
 
     /**
-     * Masks for writing bits in compressor.
-     */
-    private static final int[] COMPR_MASKS = {0xff, 0x7f, 0x3f, 0x1f, 0x0f, 0x07,
-            0x03, 0x01};
-
-    /**
-     * Masks for reading bits in decompressor.
+     * Strings not longer than this are copied by a simple loop instead of <code>System.arraycopy</code>.
      */
-    private static final int[] DECOMPR_MASKS = {0x00, 0x01, 0x03, 0x07, 0x0f,
-            0x1f, 0x3f, 0x7f};
+    private static final int SHORT_STRING_LENGTH = 16;
 
     @Override
     public byte[] compress(byte[] data, Options options) throws TiffException {
@@ -111,21 +105,17 @@ public class LZWCodec implements TiffCodec {
 
         // Current size of output buffer (and position to write next byte).
         int outSize = 0;
-        // The output always starts with CLEAR code
-        output[outSize++] = (byte) (CLEAR_CODE >> 1);
-        // Last incomplete byte to be written to output (bits shifted to the
-        // right).
-        // Always contains at least 1 bit, and may contain 8 bits.
-        int currOutByte = CLEAR_CODE & 0x01;
-        // Number of unused bits in currOutByte (from 0 to 7).
-        int freeBits = 7;
+        // Bit buffer: the lowest bitCount bits are not written to output yet (0..7 bits between codes).
+        long bitBuffer = CLEAR_CODE;
+        int bitCount = 9;
+        // - the output always starts with CLEAR code
 
         // Hash table.
         // Keys in the table are pairs (code,byte) and values are codes.
         // Pair (code,byte) is represented as ( (code<<8) | byte ).
         // Unused table entries have key=-1.
         final int[] htKeys = new int[HASH_SIZE];
-        final int[] htValues = new int[HASH_SIZE];
+        final short[] htValues = new short[HASH_SIZE];
         // Initialize hash table: mark all entries as unused
         Arrays.fill(htKeys, -1);
 
@@ -136,86 +126,61 @@ public class LZWCodec implements TiffCodec {
 
         // Names of these variables are taken from TIFF specification.
         // The first byte of input is handled specially.
-        int tiffK = data[0] & 0xff;
-        int tiffOmega = tiffK;
+        int tiffOmega = data[0] & 0xff;
 
         // Main loop.
         for (int currInPos = 1; currInPos < data.length; currInPos++) {
-            tiffK = data[currInPos] & 0xff;
+            final int tiffK = data[currInPos] & 0xff;
             final int hashKey = (tiffOmega << 8) | tiffK;
-            int hashCode = hashKey % HASH_SIZE;
-            do {
-                if (htKeys[hashCode] == hashKey) {
-                    // Omega+K in the table
-                    tiffOmega = htValues[hashCode];
-                    break;
-                } else if (htKeys[hashCode] < 0) {
-                    // Omega+K not in the table
-                    // 1) add new entry to hash table
-                    htKeys[hashCode] = hashKey;
-                    htValues[hashCode] = nextCode++;
-                    // 2) output last code
-                    int shift = currCodeLength - freeBits;
-                    output[outSize++] = (byte) ((currOutByte << freeBits) |
-                            (tiffOmega >> shift));
-                    if (shift > 8) {
-                        output[outSize++] = (byte) (tiffOmega >> (shift - 8));
-                        shift -= 8;
-                    }
-                    freeBits = 8 - shift;
-                    currOutByte = tiffOmega & COMPR_MASKS[freeBits];
-                    // 3) omega = K
-                    tiffOmega = tiffK;
-                    break;
-                } else {
-                    // we have to rehash
-                    hashCode = (hashCode + HASH_STEP) % HASH_SIZE;
-                }
+            int hashCode = (hashKey * HASH_MULTIPLIER) >>> HASH_SHIFT;
+            int key;
+            while ((key = htKeys[hashCode]) != hashKey && key >= 0) {
+                // linear probing: the table is never filled more than by 1/2
+                hashCode = (hashCode + 1) & (HASH_SIZE - 1);
+            }
+            if (key == hashKey) {
+                // Omega+K in the table
+                tiffOmega = htValues[hashCode];
+                continue;
             }
-            while (true);
+            // Omega+K not in the table
+            // 1) add new entry to hash table
+            htKeys[hashCode] = hashKey;
+            htValues[hashCode] = (short) nextCode++;
+            // 2) output last code
+            bitBuffer = (bitBuffer << currCodeLength) | tiffOmega;
+            bitCount += currCodeLength;
+            while (bitCount >= 8) {
+                bitCount -= 8;
+                output[outSize++] = (byte) (bitBuffer >>> bitCount);
+            }
+            // 3) omega = K
+            tiffOmega = tiffK;
 
             switch (nextCode) {
-                case 512:
-                    currCodeLength = 10;
-                    break;
-                case 1024:
-                    currCodeLength = 11;
-                    break;
-                case 2048:
-                    currCodeLength = 12;
-                    break;
-                case 4096: // write CLEAR code and reinitialize hash table
-                    int shift = currCodeLength - freeBits;
-                    output[outSize++] = (byte) ((currOutByte << freeBits) |
-                            (CLEAR_CODE >> shift));
-                    if (shift > 8) {
-                        output[outSize++] = (byte) (CLEAR_CODE >> (shift - 8));
-                        shift -= 8;
+                case 512 -> currCodeLength = 10;
+                case 1024 -> currCodeLength = 11;
+                case 2048 -> currCodeLength = 12;
+                case TABLE_SIZE -> {
+                    // write CLEAR code and reinitialize hash table
+                    bitBuffer = (bitBuffer << currCodeLength) | CLEAR_CODE;
+                    bitCount += currCodeLength;
+                    while (bitCount >= 8) {
+                        bitCount -= 8;
+                        output[outSize++] = (byte) (bitBuffer >>> bitCount);
                     }
-                    freeBits = 8 - shift;
-                    currOutByte = CLEAR_CODE & COMPR_MASKS[freeBits];
                     Arrays.fill(htKeys, -1);
                     nextCode = FIRST_CODE;
                     currCodeLength = 9;
-                    break;
+                }
             }
         }
 
         // End of input:
         // 1) write code from tiff_Omega
-        {
-            int shift = currCodeLength - freeBits;
-            output[outSize++] = (byte) ((currOutByte << freeBits) |
-                    (tiffOmega >> shift));
-            if (shift > 8) {
-                output[outSize++] = (byte) (tiffOmega >> (shift - 8));
-                shift -= 8;
-            }
-            freeBits = 8 - shift;
-            currOutByte = tiffOmega & COMPR_MASKS[freeBits];
-        }
+        bitBuffer = (bitBuffer << currCodeLength) | tiffOmega;
+        bitCount += currCodeLength;
         // 2) write END_OF_INFORMATION code
-        // -- we write the last incomplete byte here as well
         // !!! We have to increase the length of code if needed !!!
         currCodeLength = switch (nextCode) {
             case 511 -> 10;
@@ -223,23 +188,18 @@ public class LZWCodec implements TiffCodec {
             case 2047 -> 12;
             default -> currCodeLength;
         };
-
-        {
-            int shift = currCodeLength - freeBits;
-            output[outSize++] = (byte) ((currOutByte << freeBits) |
-                    (EOI_CODE >> shift));
-            if (shift > 8) {
-                output[outSize++] = (byte) (EOI_CODE >> (shift - 8));
-                shift -= 8;
-            }
-            freeBits = 8 - shift;
-            currOutByte = EOI_CODE & COMPR_MASKS[freeBits];
-            output[outSize++] = (byte) (currOutByte << freeBits);
+        bitBuffer = (bitBuffer << currCodeLength) | EOI_CODE;
+        bitCount += currCodeLength;
+        // - no more than 7 + 12 + 12 bits: the bit buffer cannot overflow
+        while (bitCount >= 8) {
+            bitCount -= 8;
+            output[outSize++] = (byte) (bitBuffer >>> bitCount);
         }
-
-        final byte[] result = new byte[outSize];
-        System.arraycopy(output, 0, result, 0, outSize);
-        return result;
+        // 3) write the last incomplete byte
+        if (bitCount > 0) {
+            output[outSize++] = (byte) (bitBuffer << (8 - bitCount));
+        }
+        return Arrays.copyOf(output, outSize);
     }
 
     /**
@@ -250,153 +210,214 @@ public class LZWCodec implements TiffCodec {
     public byte[] decompress(byte[] data, Options options) throws TiffException {
         Objects.requireNonNull(data, "Null data");
         Objects.requireNonNull(options, "Null codec options");
-        try {
-            try (DataHandle<?> handle = new BytesHandle(new BytesLocation(data))) {
-                return decompress(handle, options);
-            }
-        } catch (IOException e) {
-            throw e instanceof TiffException tiffException ? tiffException : new TiffException(e);
-            // - last variant is very improbable
+        if (data.length == 0) {
+            return new byte[0];
         }
+        final byte[] output = options.newByteArray(options.getMaxUnpackedSizeInBytes());
+        decompress(data, 0, data.length, output, 0, output.length);
+        return output;
     }
 
+    /**
+     * Decompresses LZW data, starting from the current position of the stream.
+     * Decompression stops at the end-of-information code, at the end of the stream or when
+     * {@link Options#getMaxUnpackedSizeInBytes()} bytes are unpacked.
+     * On return, the stream is positioned after the last byte containing the bits of the processed codes
+     * (in particular, right after the end-of-information code, if decompression stopped at this code).
+     *
+     * <p>Note: for better performance, this method loads all remaining bytes of the stream into memory.
+     * Usually the stream contains only the compressed tile.</p>
+     *
+     * @param in      the stream with compressed data.
+     * @param options the codec options.
+     * @return the decompressed data; its length is {@link Options#getMaxUnpackedSizeInBytes()}.
+     * @throws IOException if an I/O error occurs or the compressed data are corrupted.
+     */
     public byte[] decompress(DataHandle<?> in, Options options) throws IOException {
         Objects.requireNonNull(in, "Null input stream");
         Objects.requireNonNull(options, "Null codec options");
-        if (in.length() == 0) {
+        final long start = in.offset();
+        final long length = in.length() - start;
+        if (length > Integer.MAX_VALUE) {
+            throw new TiffException("Too large LZW data: " + length + " bytes >= 2^31");
+        }
+        final byte[] data = new byte[(int) Math.max(length, 0)];
+        in.readFully(data);
+        if (data.length == 0) {
             return new byte[0];
         }
+        final byte[] output = options.newByteArray(options.getMaxUnpackedSizeInBytes());
+        final int[] inputEnd = new int[1];
+        decompress(data, 0, data.length, output, 0, output.length, inputEnd);
+        in.seek(start + inputEnd[0]);
+        // - like in the usual stream decoders, the bytes after the end-of-information code are not consumed
+        return output;
+    }
+
+    /**
+     * Decompresses all remaining bytes of the <code>data</code> buffer into the caller-supplied array.
+     * Decompression stops at the end-of-information code, at the end of data or when
+     * the <code>output</code> array is filled.
+     * On return, the position of <code>data</code> is equal to its limit.
+     *
+     * @param data   the compressed data.
+     * @param output the array for decompressed data.
+     * @return the number of decompressed bytes written into <code>output</code>.
+     * @throws TiffException if the compressed data are corrupted.
+     */
+    public int decompress(ByteBuffer data, byte[] output) throws TiffException {
+        Objects.requireNonNull(data, "Null data");
+        Objects.requireNonNull(output, "Null output");
+        final int result;
+        if (data.hasArray()) {
+            final int from = data.arrayOffset() + data.position();
+            result = decompress(data.array(), from, from + data.remaining(), output, 0, output.length);
+        } else {
+            final byte[] bytes = new byte[data.remaining()];
+            data.duplicate().get(bytes);
+            result = decompress(bytes, 0, bytes.length, output, 0, output.length);
+        }
+        data.position(data.limit());
+        return result;
+    }
 
-        // Output buffer
-        final byte[] output = new byte[options.getMaxUnpackedSizeInBytes()];
+    /**
+     * Decompresses <code>data[from..to-1]</code> into
+     * <code>output[outputOffset..outputOffset+outputLength-1]</code>.
+     * Decompression stops at the end-of-information code, at the end of data or when
+     * the output range is filled (an LZW string, which does not fit in the output, is truncated).
+     *
+     * @param data         the compressed data.
+     * @param from         the start index of the compressed data, inclusive.
+     * @param to           the end index of the compressed data, exclusive.
+     * @param output       the array for decompressed data.
+     * @param outputOffset the start index in <code>output</code>.
+     * @param outputLength the maximal number of decompressed bytes.
+     * @return the number of decompressed bytes written into <code>output</code>.
+     * @throws TiffException if the compressed data are corrupted.
+     */
+    public static int decompress(byte[] data, int from, int to, byte[] output, int outputOffset, int outputLength)
+            throws TiffException {
+        return decompress(data, from, to, output, outputOffset, outputLength, null);
+    }
+
+    // If inputEnd != null, stores in inputEnd[0] the index after the last byte containing the bits of processed codes
+    private static int decompress(
+            byte[] data,
+            int from,
+            int to,
+            byte[] output,
+            int outputOffset,
+            int outputLength,
+            int[] inputEnd) throws TiffException {
+        Objects.requireNonNull(data, "Null data");
+        Objects.requireNonNull(output, "Null output");
+        Objects.checkFromToIndex(from, to, data.length);
+        Objects.checkFromIndexSize(outputOffset, outputLength, output.length);
+        if (to - from >= 2 && data[from] == 0x00 && data[from + 1] == 0x01) {
+            throw new TiffException("TIFF 5.0-style LZW compression (very old format) is not supported");
+        }
+        final int outputEnd = outputOffset + outputLength;
         // Position in the output buffer to write the next byte to
-        int currOutPos = 0;
+        int currOutPos = outputOffset;
 
         // Table mapping codes to strings.
-        // Its structure is based on the fact that a string for a code has form:
-        // (string for another code) + (new byte).
-        // Thus, at index 'code': the first array contains 'another code', the second array
-        // contains 'new byte', and the third array contains the length of the string.
-        // The length is needed to make retrieving the string faster.
-        final int[] anotherCodes = new int[4096];
-        final byte[] newBytes = new byte[4096];
-        final int[] lengths = new int[4096];
-        // We need to initialize only firt 256 entries in the table
-        for (int i = 0; i < 256; i++) {
-            newBytes[i] = (byte) i;
-            lengths[i] = 1;
-        }
+        // Every string in the table (excepting single bytes 0..255) is a sequence of bytes, which was
+        // already written to the output; so, it is enough to store its position and length.
+        final int[] offsets = new int[TABLE_SIZE];
+        final int[] lengths = new int[TABLE_SIZE];
 
         // Length of the code to be read from input
         int currCodeLength = 9;
         // Next code to be added to the table
         int nextCode = FIRST_CODE;
 
-        // Variables to handle reading bit stream:
-        // Byte from 'input[curr_in_pos-1]' -- only 'bits_read' bits on the
-        // right
-        // are non-zero
-        int currRead = 0;
-        // Number of bits in 'curr_read' that were not consumed yet
-        int bitsRead = 0;
+        // Position of the next unread bit: the byte index and the number of bits, already read in it
+        int inPos = from;
+        int bitOffset = 0;
 
-        // Current code being processed by decompressor.
-        int currCode;
-        // Previous code processed by decompressor.
-        int oldCode = 0; // without initializer, Java reports error later
+        // Position and length of the previous string, written to the output;
+        // negative oldPos means that there is no previous string (after CLEAR code)
+        int oldPos = -1;
+        int oldLength = 0;
 
-        boolean startDecoding = true;
         try {
-            do {
-                // read next code
-                {
-                    int bitsLeft = currCodeLength - bitsRead;
-                    int firstByte = -1;
-                    if (bitsLeft > 8) {
-                        firstByte = in.read() & 0xff;
-                        currRead = (currRead << 8) | firstByte;
-                        bitsLeft -= 8;
-                    }
-                    bitsRead = 8 - bitsLeft;
-                    final int nextByte = in.read() & 0xff;
-                    if (startDecoding && firstByte == 0x00 && nextByte == 0x01) {
-                        throw new TiffException("TIFF 5.0-style LZW compression (very old format) is not " +
-                                "supported");
-                    }
-                    currCode = (currRead << bitsLeft) | (nextByte >> bitsRead);
-                    currRead = nextByte & DECOMPR_MASKS[bitsRead];
+            while (currOutPos < outputEnd && (bitOffset == 0 ? inPos : inPos + 1) < to) {
+                // read next code: 24 bits, containing it, are loaded into the bit buffer
+                final int bitBuffer;
+                if (inPos + 2 < to) {
+                    bitBuffer = (data[inPos] & 0xff) << 16 | (data[inPos + 1] & 0xff) << 8 | data[inPos + 2] & 0xff;
+                } else {
+                    // bytes after the end of data are read as 0xFF
+                    bitBuffer = (inPos < to ? data[inPos] & 0xff : 0xff) << 16 |
+                            (inPos + 1 < to ? data[inPos + 1] & 0xff : 0xff) << 8 | 0xff;
                 }
-                startDecoding = false;
-
-                if (currCode == EOI_CODE) break;
+                final int currCode = (bitBuffer >>> (24 - bitOffset - currCodeLength)) & ((1 << currCodeLength) - 1);
+                bitOffset += currCodeLength;
+                inPos += bitOffset >>> 3;
+                bitOffset &= 7;
 
+                if (currCode == EOI_CODE) {
+                    break;
+                }
                 if (currCode == CLEAR_CODE) {
                     // initialize table -- nothing to do
                     nextCode = FIRST_CODE;
                     currCodeLength = 9;
-                    // read next code
-                    {
-                        int bitsLeft = currCodeLength - bitsRead;
-                        if (bitsLeft > 8) {
-                            currRead = (currRead << 8) | (in.read() & 0xff);
-                            bitsLeft -= 8;
-                        }
-                        bitsRead = 8 - bitsLeft;
-
-                        final int nextByte = in.read() & 0xff;
-                        currCode = (currRead << bitsLeft) | (nextByte >> bitsRead);
-                        currRead = nextByte & DECOMPR_MASKS[bitsRead];
+                    oldPos = -1;
+                    continue;
+                }
+                if (oldPos < 0) {
+                    // the first code after CLEAR: we are sure that string consists of a single byte
+                    if (currCode > 0xff) {
+                        break;
+                        // - invalid code: ignoring the rest of data
                     }
-                    if (currCode == EOI_CODE) break;
-                    // write string[curr_code] to output
-                    // -- but here we are sure that string consists of a single
-                    // byte
-                    if (currOutPos >= output.length - 1) break;
-                    output[currOutPos++] = newBytes[currCode];
-                    oldCode = currCode;
-                } else if (currCode < nextCode) {
-                    // Code is already in the table
-                    // 1) Write strin[curr_code] to output
-                    final int outLength = lengths[currCode];
-                    int i = currOutPos + outLength;
-                    int tablePos = currCode;
-                    if (i > output.length) break;
-                    while (i > currOutPos) {
-                        output[--i] = newBytes[tablePos];
-                        tablePos = anotherCodes[tablePos];
+                    output[currOutPos] = (byte) currCode;
+                    oldPos = currOutPos++;
+                    oldLength = 1;
+                    continue;
+                }
+                final int outLength;
+                if (currCode < nextCode) {
+                    // Code is already in the table: write string[curr_code] to output
+                    if (currCode <= 0xff) {
+                        outLength = 1;
+                        output[currOutPos] = (byte) currCode;
+                    } else {
+                        outLength = lengths[currCode];
+                        if (outLength > outputEnd - currOutPos) {
+                            // the last string does not fit in the output: writing its beginning
+                            copyString(output, offsets[currCode], currOutPos, outputEnd - currOutPos);
+                            currOutPos = outputEnd;
+                            break;
+                        }
+                        copyString(output, offsets[currCode], currOutPos, outLength);
                     }
-                    currOutPos += outLength;
-                    // 2) Add string[old_code]+firstByte(string[curr_code]) to
-                    // the table
-                    if (nextCode >= anotherCodes.length) break;
-                    anotherCodes[nextCode] = oldCode;
-                    newBytes[nextCode] = output[i];
-                    lengths[nextCode] = lengths[oldCode] + 1;
-                    oldCode = currCode;
-                    nextCode++;
                 } else {
-                    // Special case: code is not in the table
-                    // 1) Write string[old_code] to output
-                    final int outLength = lengths[oldCode];
-                    int i = currOutPos + outLength;
-                    int tablePos = oldCode;
-                    if (i > output.length) break;
-                    while (i > currOutPos) {
-                        output[--i] = newBytes[tablePos];
-                        tablePos = anotherCodes[tablePos];
+                    // Special case: code is not in the table;
+                    // write string[old_code] + firstByte(string[old_code]) to output
+                    outLength = oldLength + 1;
+                    if (outLength > outputEnd - currOutPos) {
+                        copyString(output, oldPos, currOutPos, outputEnd - currOutPos);
+                        currOutPos = outputEnd;
+                        break;
                     }
-                    currOutPos += outLength;
-                    // 2) Write firstByte(string[old_code]) to output
-                    if (currOutPos >= output.length) break;
-                    output[currOutPos++] = output[i];
-                    // 3) Add string[old_code]+firstByte(string[old_code]) to
-                    // the table
-                    anotherCodes[nextCode] = oldCode;
-                    newBytes[nextCode] = output[i];
-                    lengths[nextCode] = outLength + 1;
-                    oldCode = currCode;
-                    nextCode++;
+                    copyString(output, oldPos, currOutPos, oldLength);
+                    output[currOutPos + oldLength] = output[oldPos];
+                }
+                final int currPos = currOutPos;
+                currOutPos += outLength;
+                if (nextCode >= TABLE_SIZE) {
+                    break;
                 }
+                // Add string[old_code]+firstByte(string[curr_code]) to the table:
+                // it is already written to the output after the old string
+                offsets[nextCode] = oldPos;
+                lengths[nextCode] = oldLength + 1;
+                nextCode++;
+                oldPos = currPos;
+                oldLength = outLength;
                 // Increase the length of code if needed
                 currCodeLength = switch (nextCode) {
                     case 511 -> 10;
@@ -405,10 +426,22 @@ public class LZWCodec implements TiffCodec {
                     default -> currCodeLength;
                 };
             }
-            while (currOutPos < output.length && in.offset() < in.length());
         } catch (final ArrayIndexOutOfBoundsException e) {
             throw new TiffException("Invalid LZW data", e);
         }
-        return output;
+        if (inputEnd != null) {
+            inputEnd[0] = Math.min(bitOffset == 0 ? inPos : inPos + 1, to);
+        }
+        return currOutPos - outputOffset;
+    }
+
+    private static void copyString(byte[] output, int srcPos, int destPos, int length) {
+        if (length <= SHORT_STRING_LENGTH) {
+            for (int k = 0; k < length; k++) {
+                output[destPos + k] = output[srcPos + k];
+            }
+        } else {
+            System.arraycopy(output, srcPos, output, destPos, length);
+        }
     }
 }
@@ -27,12 +27,14 @@ package net.algart.matrices.tiff.codecs;
 import net.algart.matrices.tiff.TiffException;
 import net.algart.matrices.tiff.TiffIFD;
 import net.algart.matrices.tiff.TiffIO;
+import net.algart.matrices.tiff.io.ByteArrayPool;
 import net.algart.matrices.tiff.samples.TiffSampleType;
 import net.algart.matrices.tiff.tags.TagCompression;
 import net.algart.matrices.tiff.tags.TagPhotometric;
 import net.algart.matrices.tiff.tiles.TiffTile;
 
 import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.Objects;
@@ -64,6 +66,24 @@ public interface TiffCodec {
         void customize(Options options);
     }
 
+    /**
+     * Additional interface of codecs, which can decompress data directly from a {@link ByteBuffer},
+     * in particular, from a direct buffer like a slice of a memory-mapped file,
+     * without copying the compressed data into a Java array.
+     */
+    interface ByteBufferDecompressor {
+        /**
+         * Analog of {@link TiffCodec#decompress(byte[], Options)}, which decompresses all remaining bytes
+         * of the <code>data</code> buffer. On return, the position of <code>data</code> is unspecified.
+         *
+         * @param data    the compressed data.
+         * @param options the codec options.
+         * @return the decompressed data.
+         * @throws TiffException if the compressed data are corrupted.
+         */
+        byte[] decompress(ByteBuffer data, Options options) throws TiffException;
+    }
+
     /**
      * Options for compressing and decompressing data.
      */
@@ -93,6 +113,7 @@ public interface TiffCodec {
         // - used only if other information is not enough
         private TiffIO io = null;
         // - used only while reading if other information is not enough
+        private ByteArrayPool bufferPool = null;
         private TiffIO.CodecReport report = null;
 
         public Options() {
@@ -251,7 +272,7 @@ public interface TiffCodec {
          * Sets the maximum expected size (in bytes) of decompressed data. Used for reading only.
          *
          * <p>This limit is used by some codecs (such as {@link LZWCodec}, {@link PackBitsCodec},
-         * {@link ThunderScanCodec}, and {@link ZstdCodec})
+         * {@link ThunderScanCodec}, {@link DeflateCodec}, and {@link ZstdCodec})
          * to allocate memory buffers or limit decoding size.
          * It serves as a <b>safe upper bound</b>: it must be sufficient
          * to hold all decompressed bytes, but <b>may</b> be larger.</p>
@@ -375,6 +396,42 @@ public interface TiffCodec {
             return this;
         }
 
+        public ByteArrayPool getBufferPool() {
+            return bufferPool;
+        }
+
+        public Options setBufferPool(ByteArrayPool bufferPool) {
+            this.bufferPool = bufferPool;
+            return this;
+        }
+
+        /**
+         * Returns <code>{@link #getBufferPool()}.{@link ByteArrayPool#allocate(int) allocate}(length)</code>
+         * or <code>new byte[length]</code> if there is no buffer pool.
+         * Codecs should use this method for allocating the resulting unpacked data.
+         *
+         * @param length the length of the array.
+         * @return new zero-filled array.
+         */
+        public byte[] newByteArray(int length) {
+            final ByteArrayPool bufferPool = this.bufferPool;
+            return bufferPool != null ? bufferPool.allocate(length) : new byte[length];
+        }
+
+        /**
+         * Analog of {@link #newByteArray(int)}, which uses {@link ByteArrayPool#allocateForOverwrite(int)}:
+         * the content of the returned array is undefined.
+         * Codecs may use this method only if they never return the elements, that were not written:
+         * for example, if they truncate the result to the actual number of unpacked bytes.
+         *
+         * @param length the length of the array.
+         * @return new array with undefined content.
+         */
+        public byte[] newByteArrayForOverwrite(int length) {
+            final ByteArrayPool bufferPool = this.bufferPool;
+            return bufferPool != null ? bufferPool.allocateForOverwrite(length) : new byte[length];
+        }
+
         public TiffIO.CodecReport getReport() {
             return report;
         }
@@ -408,6 +465,7 @@ public interface TiffCodec {
             // - default value can be not-null
             this.setYCbCrSubsampling(tile.getYCbCrSubsampling());
             this.setIfd(tile.ifd());
+            this.setBufferPool(tile.getBufferPool());
             return this;
         }
 
@@ -433,6 +491,7 @@ public interface TiffCodec {
             this.yCbCrSubsampling = options.yCbCrSubsampling == null ? null : options.yCbCrSubsampling.clone();
             this.ifd = options.ifd;
             this.io = options.io;
+            this.bufferPool = options.bufferPool;
             // but without codec report
             return this;
         }
@@ -22,50 +22,236 @@
  * SOFTWARE.
  */
 
+
 package net.algart.matrices.tiff.codecs;
 
+import io.airlift.compress.MalformedInputException;
 import io.airlift.compress.zstd.ZstdCompressor;
 import io.airlift.compress.zstd.ZstdDecompressor;
 import net.algart.matrices.tiff.TiffException;
+import net.algart.matrices.tiff.io.ByteArrayPool;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Objects;
 
 /**
  * This class implements ZStandard compression/decompression.
+ *
+ * <p>The compressor is stateless and shared between all threads. The decompressors (together with their
+ * internal buffers) are taken from a small static pool, like the zlib streams in {@link DeflateCodec};
+ * the temporary buffers for compressed data are taken from the {@link Options#getBufferPool() buffer pool}
+ * of the options or from the {@link ByteArrayPool#global() global pool}.
+ * So, no memory is held by every thread that used this codec. When the decompressed size is stored in the frame header
+ * (it is so for all frames, written by this class), the data are decompressed directly into
+ * the resulting array of the exact size, allocated by {@link Options#newByteArrayForOverwrite(int)}.</p>
+ *
+ * <p>Compression levels are not supported: {@link Options#getLosslessCompressionLevel()} is ignored,
+ * and the data are always compressed with the same settings (the level 3 of the pure-Java encoder
+ * from <code>io.airlift.compress</code> library).</p>
+ *
+ * <p>If {@link Options#getMaxUnpackedSizeInBytes()} is not specified, the decompressed size, declared
+ * in the frame header, cannot exceed {@link #DEFAULT_MAX_UNPACKED_SIZE}: this protects against allocating
+ * huge arrays for corrupted or malicious data.</p>
  */
-public class ZstdCodec implements TiffCodec {
+public class ZstdCodec implements TiffCodec, TiffCodec.ByteBufferDecompressor {
+    /**
+     * Maximal decompressed size, which is allowed when {@link Options#getMaxUnpackedSizeInBytes()}
+     * is not specified. By default, it is 256 MB.
+     */
+    public static final int DEFAULT_MAX_UNPACKED_SIZE = Math.max(1,
+            net.algart.arrays.Arrays.SystemSettings.getIntProperty(
+                    "net.algart.matrices.tiff.defaultZstdMaxUnpackedSize", 256 * 1048576));
+
+    private static final ZstdCompressor COMPRESSOR = new ZstdCompressor();
+    private static final CodecStreamPool<ZstdDecompressor> DECOMPRESSORS =
+            new CodecStreamPool<>(ZstdDecompressor::new, decompressor -> {}, decompressor -> {});
+    // - ZstdDecompressor has no native resources and does not require resetting between frames
+
     @Override
     public byte[] compress(byte[] data, Options options) {
         Objects.requireNonNull(data, "Null data");
         Objects.requireNonNull(options, "Null codec options");
+        final int maxCompressedLength = COMPRESSOR.maxCompressedLength(data.length);
+        final ByteArrayPool bufferPool = options.getBufferPool() != null ?
+                options.getBufferPool() :
+                ByteArrayPool.global();
+        final byte[] compressed = bufferPool.allocateAtLeast(maxCompressedLength);
+        try {
+            final int compressedSize = COMPRESSOR.compress(
+                    data, 0, data.length,
+                    compressed, 0, compressed.length);
+            return Arrays.copyOf(compressed, compressedSize);
+        } finally {
+            bufferPool.release(compressed);
+        }
+    }
 
-        // options.getLosslessCompressionLevel() is not used yet;
-        // it will be used in aircompressor-v3
-
-        final ZstdCompressor compressor = new ZstdCompressor();
-        final byte[] compressed = new byte[compressor.maxCompressedLength(data.length)];
-        final int compressedSize = compressor.compress(
-                data, 0, data.length,
-                compressed, 0, compressed.length);
-        return Arrays.copyOf(compressed, compressedSize);
+    /**
+     * Compresses all remaining bytes of the <code>data</code> buffer into the <code>result</code> buffer,
+     * starting from its current position.
+     * On return, the position of <code>data</code> is equal to its limit,
+     * and the position of <code>result</code> is advanced by the number of written bytes.
+     * The <code>result</code> buffer should have at least {@link ZstdCompressor#maxCompressedLength(int)}
+     * remaining bytes.
+     *
+     * @param data    the source data.
+     * @param result  the buffer for compressed data.
+     * @param options the codec options; they are not used, in particular, the compression level is ignored.
+     * @return the number of compressed bytes written into <code>result</code>.
+     */
+    public int compress(ByteBuffer data, ByteBuffer result, Options options) {
+        Objects.requireNonNull(data, "Null data");
+        Objects.requireNonNull(result, "Null result buffer");
+        Objects.requireNonNull(options, "Null codec options");
+        final int position = result.position();
+        COMPRESSOR.compress(data, result);
+        return result.position() - position;
     }
 
+    /**
+     * If the decompressed size is not stored in the frame header, the Options parameter
+     * should have the following fields set:
+     * {@link Options#getMaxUnpackedSizeInBytes()}.
+     * If this field is not specified, the size, stored in the frame header,
+     * must not exceed {@link #DEFAULT_MAX_UNPACKED_SIZE}.
+     */
     @Override
     public byte[] decompress(byte[] data, Options options) throws TiffException {
         Objects.requireNonNull(data, "Null data");
         Objects.requireNonNull(options, "Null codec options");
-        final ZstdDecompressor decompressor = new ZstdDecompressor();
-        final byte[] decompressed = new byte[options.getMaxUnpackedSizeInBytes()];
+        return decompress(data, 0, data.length, options);
+    }
+
+    /**
+     * Analog of {@link #decompress(byte[], Options)}, which decompresses all remaining bytes
+     * of the <code>data</code> buffer; it may be a direct buffer, for example, a slice of a memory-mapped file.
+     * A direct buffer is decompressed without copying only if {@link Options#getMaxUnpackedSizeInBytes()}
+     * is specified (positive): the decompressed size, stored in the frame header, can be retrieved
+     * only from a Java array. In another case, the data are copied into a Java array,
+     * and {@link #DEFAULT_MAX_UNPACKED_SIZE} limit is applied as in {@link #decompress(byte[], Options)}.
+     * On return, the position of <code>data</code> is equal to its limit.
+     */
+    @Override
+    public byte[] decompress(ByteBuffer data, Options options) throws TiffException {
+        Objects.requireNonNull(data, "Null data");
+        Objects.requireNonNull(options, "Null codec options");
+        final int maxUnpackedSizeInBytes = options.getMaxUnpackedSizeInBytes();
+        if (data.hasArray() || maxUnpackedSizeInBytes <= 0) {
+            final byte[] result;
+            if (data.hasArray()) {
+                result = decompress(data.array(), data.arrayOffset() + data.position(), data.remaining(), options);
+                data.position(data.limit());
+            } else {
+                final byte[] bytes = new byte[data.remaining()];
+                data.get(bytes);
+                result = decompress(bytes, 0, bytes.length, options);
+            }
+            return result;
+        }
+        final byte[] decompressed = options.newByteArrayForOverwrite(maxUnpackedSizeInBytes);
+        final ByteBuffer result = ByteBuffer.wrap(decompressed);
+        final ZstdDecompressor decompressor = DECOMPRESSORS.acquire();
+        try {
+            decompressor.decompress(data, result);
+        } catch (MalformedInputException e) {
+            throw new TiffException("Invalid TIFF format: broken compressed data in ZSTD block", e);
+        }
+        DECOMPRESSORS.release(decompressor);
+        // - after an exception, the decompressor is not returned to the pool: its state may be inconsistent
+        return truncate(decompressed, result.position(), options);
+    }
+
+    /**
+     * Equivalent to <code>{@link #decompress(ByteBuffer, ByteBuffer, Options)
+     * decompress}(data, result, new Options())</code>.
+     *
+     * @param data   the compressed data.
+     * @param result the buffer for decompressed data.
+     * @return the number of decompressed bytes written into <code>result</code>.
+     * @throws TiffException if the compressed data are corrupted or <code>result</code> is too small.
+     */
+    public int decompress(ByteBuffer data, ByteBuffer result) throws TiffException {
+        return decompress(data, result, new Options());
+    }
+
+    /**
+     * Decompresses all remaining bytes of the <code>data</code> buffer into the <code>result</code> buffer,
+     * starting from its current position.
+     * On return, the position of <code>result</code> is advanced by the number of written bytes.
+     *
+     * @param data    the compressed data.
+     * @param result  the buffer for decompressed data.
+     * @param options the codec options; only {@link Options#getMaxUnpackedSizeInBytes()} is used:
+     *                if it is specified (positive), no more than this number of bytes can be written.
+     * @return the number of decompressed bytes written into <code>result</code>.
+     * @throws TiffException if the compressed data are corrupted, or <code>result</code> is too small,
+     *                       or the unpacked data are longer than the specified maximum.
+     */
+    public int decompress(ByteBuffer data, ByteBuffer result, Options options) throws TiffException {
+        Objects.requireNonNull(data, "Null data");
+        Objects.requireNonNull(result, "Null result buffer");
+        Objects.requireNonNull(options, "Null codec options");
+        final int maxUnpackedSizeInBytes = options.getMaxUnpackedSizeInBytes();
+        final int limit = result.limit();
+        if (maxUnpackedSizeInBytes > 0 && maxUnpackedSizeInBytes < result.remaining()) {
+            result.limit(result.position() + maxUnpackedSizeInBytes);
+        }
+        final int position = result.position();
+        final ZstdDecompressor decompressor = DECOMPRESSORS.acquire();
+        try {
+            decompressor.decompress(data, result);
+        } catch (MalformedInputException e) {
+            throw new TiffException("Invalid TIFF format: broken compressed data in ZSTD block", e);
+        } finally {
+            result.limit(limit);
+        }
+        DECOMPRESSORS.release(decompressor);
+        return result.position() - position;
+    }
+
+    private static byte[] decompress(byte[] data, int offset, int length, Options options) throws TiffException {
+        final int maxUnpackedSizeInBytes = options.getMaxUnpackedSizeInBytes();
+        final long declaredSize = length == 0 ? -1 : ZstdDecompressor.getDecompressedSize(data, offset, length);
+        final int resultLength;
+        if (maxUnpackedSizeInBytes > 0) {
+            resultLength = declaredSize >= 0 && declaredSize <= maxUnpackedSizeInBytes ?
+                    (int) declaredSize :
+                    maxUnpackedSizeInBytes;
+        } else if (declaredSize < 0) {
+            throw new TiffException("Cannot decompress ZSTD block: the decompressed size is not stored " +
+                    "in the frame header, and the maximal unpacked size is not specified in the codec options");
+        } else if (declaredSize > DEFAULT_MAX_UNPACKED_SIZE) {
+            throw new TiffException("Invalid TIFF format: ZSTD block declares too large decompressed size " +
+                    declaredSize + " > " + DEFAULT_MAX_UNPACKED_SIZE + " bytes (maximal unpacked size " +
+                    "is not specified in the codec options)");
+        } else {
+            resultLength = (int) declaredSize;
+        }
+        final byte[] decompressed = options.newByteArrayForOverwrite(resultLength);
         final int decompressedBytes;
+        final ZstdDecompressor decompressor = DECOMPRESSORS.acquire();
         try {
             decompressedBytes = decompressor.decompress(
-                    data, 0, data.length,
+                    data, offset, length,
                     decompressed, 0, decompressed.length);
-        } catch (io.airlift.compress.MalformedInputException e) {
+        } catch (MalformedInputException e) {
             throw new TiffException("Invalid TIFF format: broken compressed data in ZSTD block", e);
         }
-        return Arrays.copyOf(decompressed, decompressedBytes);
+        DECOMPRESSORS.release(decompressor);
+        return truncate(decompressed, decompressedBytes, options);
     }
-}
 
+    private static byte[] truncate(byte[] decompressed, int decompressedBytes, Options options) {
+        if (decompressedBytes == decompressed.length) {
+            return decompressed;
+            // - typical situation: no need to copy the full tile
+        }
+        final byte[] result = Arrays.copyOf(decompressed, decompressedBytes);
+        final ByteArrayPool bufferPool = options.getBufferPool();
+        if (bufferPool != null) {
+            bufferPool.release(decompressed);
+        }
+        return result;
+    }
+}
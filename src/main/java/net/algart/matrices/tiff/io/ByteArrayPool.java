@@ -0,0 +1,276 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package net.algart.matrices.tiff.io;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memory-bounded pool of <code>byte[]</code> arrays, allowing to reuse the buffers for tile data
+ * instead of allocating new arrays for every tile.
+ *
+ * <p>The free arrays are grouped by their lengths. There are two ways to allocate an array.</p>
+ *
+ * <ol>
+ *     <li>{@link #allocate(int)} returns an array with the exact requested length.
+ *     It is used for the tile data, which are represented by <code>byte[]</code> arrays without a separate
+ *     length field. All decoded tiles of one image (besides the cropped boundary strips) have the same length,
+ *     so, while reading a sequence of tiles of the same image, the arrays, released after processing
+ *     the previous tiles, are returned by this method for the next tiles.</li>
+ *
+ *     <li>{@link #allocateAtLeast(int)} returns an array, the length of which is the
+ *     {@link #sizeClass(int) size class} of the requested length: the nearest power of two.
+ *     The caller should store the actual (logical) length of the data separately.
+ *     It is used for temporary buffers with varying lengths, like the compressed tile data,
+ *     which usually have different lengths for different tiles: the array, released after one tile,
+ *     can be reused for any other tile with the same size class.</li>
+ * </ol>
+ *
+ * <p>The total memory occupied by the free arrays in the pool is limited by {@link #getMaxMemory()}.
+ * If this limit is exceeded, the released array is just ignored (and will be freed by the garbage collector).
+ * Arrays shorter than {@link #MIN_POOLED_LENGTH} are never pooled: their allocation is cheap.</p>
+ *
+ * <p>Important: you must not use the array after its {@link #release(byte[]) releasing}.
+ * The pool does not and cannot check this.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ */
+public final class ByteArrayPool {
+    public static final int MIN_POOLED_LENGTH = 4096;
+
+    public static final long DEFAULT_MAX_MEMORY = Math.max(0,
+            net.algart.arrays.Arrays.SystemSettings.getLongProperty(
+                    "net.algart.matrices.tiff.defaultMaxBufferPoolMemory", 64 * 1048576L));
+
+    private static final ByteArrayPool GLOBAL = new ByteArrayPool(DEFAULT_MAX_MEMORY);
+
+    private volatile long maxMemory;
+    private final Map<Integer, ArrayDeque<byte[]>> freeArrays = new HashMap<>();
+    private long memoryUsage = 0;
+    private final Object lock = new Object();
+    private final LongAdder reuseCount = new LongAdder();
+    private final LongAdder allocationCount = new LongAdder();
+
+    public ByteArrayPool(long maxMemory) {
+        setMaxMemory(maxMemory);
+    }
+
+    /**
+     * Returns the global pool with the memory limit {@link #DEFAULT_MAX_MEMORY}.
+     *
+     * @return the global pool.
+     */
+    public static ByteArrayPool global() {
+        return GLOBAL;
+    }
+
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    public ByteArrayPool setMaxMemory(long maxMemory) {
+        if (maxMemory < 0) {
+            throw new IllegalArgumentException("Negative maxMemory = " + maxMemory);
+        }
+        synchronized (lock) {
+            this.maxMemory = maxMemory;
+            if (memoryUsage > maxMemory) {
+                freeArrays.clear();
+                memoryUsage = 0;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns a zero-filled array with the specified length: either an array from the pool,
+     * or a newly allocated one. The result is identical to <code>new byte[length]</code>.
+     *
+     * @param length the length of the array.
+     * @return new zero-filled array.
+     * @throws IllegalArgumentException if <code>length&lt;0</code>.
+     */
+    public byte[] allocate(int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Negative array length = " + length);
+        }
+        if (length >= MIN_POOLED_LENGTH) {
+            final byte[] result = pollFree(length);
+            if (result != null) {
+                reuseCount.increment();
+                Arrays.fill(result, (byte) 0);
+                return result;
+            }
+        }
+        allocationCount.increment();
+        return new byte[length];
+    }
+
+    /**
+     * Analog of {@link #allocate(int)}, which does not clear the array, taken from the pool:
+     * its content is undefined and may contain the data of the previous user.
+     * Use this method for arrays, that will be fully overwritten by the caller,
+     * for example, by the data read from the file: it allows avoiding extra filling the array by zeros.
+     *
+     * @param length the length of the array.
+     * @return new array with undefined content.
+     * @throws IllegalArgumentException if <code>length&lt;0</code>.
+     */
+    public byte[] allocateForOverwrite(int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Negative array length = " + length);
+        }
+        final byte[] result = length >= MIN_POOLED_LENGTH ? pollFree(length) : null;
+        if (result != null) {
+            reuseCount.increment();
+            return result;
+        }
+        allocationCount.increment();
+        return new byte[length];
+    }
+
+    /**
+     * Returns an array with the length {@link #sizeClass(int) sizeClass(minLength)}, which is not less
+     * than <code>minLength</code>: either an array from the pool, or a newly allocated one.
+     * Unlike {@link #allocate(int)}, the content of the returned array is undefined: it may contain
+     * the data of the previous user. The caller should store the actual length of the data separately
+     * and should not use the elements after it.
+     *
+     * @param minLength the minimal required length of the array.
+     * @return an array of the size class, corresponding to <code>minLength</code>.
+     * @throws IllegalArgumentException if <code>minLength&lt;0</code>.
+     */
+    public byte[] allocateAtLeast(int minLength) {
+        if (minLength < 0) {
+            throw new IllegalArgumentException("Negative array length = " + minLength);
+        }
+        final int length = sizeClass(minLength);
+        final byte[] result = length >= MIN_POOLED_LENGTH ? pollFree(length) : null;
+        if (result != null) {
+            reuseCount.increment();
+            return result;
+        }
+        allocationCount.increment();
+        return new byte[length];
+    }
+
+    /**
+     * Returns the length of arrays, returned by {@link #allocateAtLeast(int) allocateAtLeast(minLength)}:
+     * the minimal power of two&nbsp;&ge;&nbsp;<code>minLength</code>, or <code>minLength</code> itself
+     * if it is less than {@link #MIN_POOLED_LENGTH} (such arrays are not pooled) or greater than 2<sup>30</sup>.
+     * So, the length of the array exceeds the required length less than twice.
+     *
+     * @param minLength the required length.
+     * @return the length of the array, allocated for this required length.
+     * @throws IllegalArgumentException if <code>minLength&lt;0</code>.
+     */
+    public static int sizeClass(int minLength) {
+        if (minLength < 0) {
+            throw new IllegalArgumentException("Negative array length = " + minLength);
+        }
+        if (minLength < MIN_POOLED_LENGTH || minLength > 1 << 30) {
+            return minLength;
+        }
+        return Integer.highestOneBit(minLength - 1) << 1;
+    }
+
+    /**
+     * Returns the array into the pool for future reuse by {@link #allocate(int)} or {@link #allocateAtLeast(int)}.
+     * After this call, the caller must not access this array anymore.
+     *
+     * @param array the array that is no longer used; may be {@code null}, then the method does nothing.
+     */
+    public void release(byte[] array) {
+        if (array == null || array.length < MIN_POOLED_LENGTH) {
+            return;
+        }
+        synchronized (lock) {
+            if (memoryUsage + array.length > maxMemory) {
+                return;
+            }
+            freeArrays.computeIfAbsent(array.length, k -> new ArrayDeque<>()).addLast(array);
+            memoryUsage += array.length;
+        }
+    }
+
+    /**
+     * Returns the total length of all free arrays, stored in the pool.
+     *
+     * @return the memory occupied by this pool in bytes.
+     */
+    public long memoryUsage() {
+        synchronized (lock) {
+            return memoryUsage;
+        }
+    }
+
+    public long reuseCount() {
+        return reuseCount.sum();
+    }
+
+    public long allocationCount() {
+        return allocationCount.sum();
+    }
+
+    public void resetStatistics() {
+        reuseCount.reset();
+        allocationCount.reset();
+    }
+
+    /**
+     * Removes all arrays from this pool.
+     */
+    public void clear() {
+        synchronized (lock) {
+            freeArrays.clear();
+            memoryUsage = 0;
+        }
+    }
+
+    private byte[] pollFree(int length) {
+        synchronized (lock) {
+            final ArrayDeque<byte[]> arrays = freeArrays.get(length);
+            final byte[] result = arrays == null ? null : arrays.pollLast();
+            if (result != null) {
+                memoryUsage -= length;
+                if (arrays.isEmpty()) {
+                    freeArrays.remove(length);
+                }
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "byte array pool: %.1f MB of %.1f MB, %d reused, %d allocated",
+                memoryUsage() / 1048576.0, maxMemory / 1048576.0, reuseCount(), allocationCount());
+    }
+}
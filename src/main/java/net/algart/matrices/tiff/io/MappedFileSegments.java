@@ -0,0 +1,170 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.matrices.tiff.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Read-only memory mapping of a file, split into several {@link MappedByteBuffer} segments:
+ * a single buffer cannot be larger than 2 GB, but BigTIFF files are often larger.
+ *
+ * <p>Note that Java does not provide a way to unmap the file explicitly: the mapping is released
+ * by the garbage collector when this object becomes unreachable.</p>
+ *
+ * <p>This class is thread-safe: it uses only absolute (positional) access to the buffers.</p>
+ *
+ * <p>Warning: the file must not be truncated while it is mapped. Access to the mapped bytes,
+ * which are beyond the new end of the file, leads to the SIGBUS signal: inside Java code
+ * it is reported as {@link InternalError}, which {@link #read(long, byte[], int, int)} translates
+ * into {@link IOException}, but native code like zlib, processing a {@link #slice(long, int) slice},
+ * may crash the JVM. So, do not map files, which can be truncated by other processes.</p>
+ */
+public final class MappedFileSegments {
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+    private final MappedByteBuffer[] segments;
+    private final int segmentSize;
+    private final long length;
+
+    private MappedFileSegments(FileChannel channel, long length, int segmentSize) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("Negative length = " + length);
+        }
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Zero or negative segment size = " + segmentSize);
+        }
+        final long numberOfSegments = (length + segmentSize - 1) / segmentSize;
+        if (numberOfSegments > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too large file length " + length + " for segments " + segmentSize);
+        }
+        this.segments = new MappedByteBuffer[(int) numberOfSegments];
+        this.segmentSize = segmentSize;
+        this.length = length;
+        for (int k = 0; k < segments.length; k++) {
+            final long position = (long) k * segmentSize;
+            segments[k] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(segmentSize, length - position));
+        }
+    }
+
+    public static MappedFileSegments map(FileChannel channel) throws IOException {
+        Objects.requireNonNull(channel, "Null channel");
+        return new MappedFileSegments(channel, channel.size(), DEFAULT_SEGMENT_SIZE);
+    }
+
+    public static MappedFileSegments map(FileChannel channel, long length, int segmentSize) throws IOException {
+        Objects.requireNonNull(channel, "Null channel");
+        return new MappedFileSegments(channel, length, segmentSize);
+    }
+
+    /**
+     * Returns the number of mapped bytes, i.e. the file length at the moment of mapping.
+     *
+     * @return the length of the mapped part of the file.
+     */
+    public long length() {
+        return length;
+    }
+
+    public int segmentSize() {
+        return segmentSize;
+    }
+
+    public boolean contains(long position, int count) {
+        return position >= 0 && count >= 0 && position <= length - count;
+    }
+
+    /**
+     * Copies <code>count</code> bytes, starting from the specified file position, into the specified array.
+     * The range may cross the boundary between segments.
+     *
+     * @param position    position in the file.
+     * @param destination destination array.
+     * @param offset      starting index in the destination array.
+     * @param count       number of bytes to copy.
+     * @throws IndexOutOfBoundsException if the specified range is out of the mapped part of the file
+     *                                   or out of the destination array.
+     * @throws IOException               if the file was truncated after mapping, and the range
+     *                                   is beyond its current end.
+     */
+    public void read(long position, byte[] destination, int offset, int count) throws IOException {
+        Objects.requireNonNull(destination, "Null destination");
+        Objects.checkFromIndexSize(offset, count, destination.length);
+        checkRange(position, count);
+        try {
+            while (count > 0) {
+                final int segmentIndex = (int) (position / segmentSize);
+                final int positionInSegment = (int) (position - (long) segmentIndex * segmentSize);
+                final int len = Math.min(count, segmentSize - positionInSegment);
+                segments[segmentIndex].get(positionInSegment, destination, offset, len);
+                position += len;
+                offset += len;
+                count -= len;
+            }
+        } catch (InternalError e) {
+            // - SIGBUS: the file was probably truncated by another process
+            throw new IOException("Cannot read the " + this + " at position " + position +
+                    ": the file was probably truncated after mapping", e);
+        }
+    }
+
+    /**
+     * Returns a read-only view of <code>count</code> bytes, starting from the specified file position,
+     * without copying them, or {@link Optional#empty()} if the range crosses the boundary between segments
+     * (it is a rare case: segments are large). The position of the returned buffer is 0,
+     * and its limit is <code>count</code>.
+     *
+     * @param position position in the file.
+     * @param count    number of bytes.
+     * @return a view of the specified range of the file, if it lies inside a single segment.
+     * @throws IndexOutOfBoundsException if the specified range is out of the mapped part of the file.
+     */
+    public Optional<ByteBuffer> slice(long position, int count) {
+        checkRange(position, count);
+        final int segmentIndex = (int) (position / segmentSize);
+        final int positionInSegment = (int) (position - (long) segmentIndex * segmentSize);
+        if (count > segmentSize - positionInSegment) {
+            return Optional.empty();
+        }
+        return Optional.of(segments[segmentIndex].slice(positionInSegment, count));
+    }
+
+    private void checkRange(long position, int count) {
+        if (!contains(position, count)) {
+            throw new IndexOutOfBoundsException("Range " + position + ".." + (position + count) +
+                    " is out of the mapped file length " + length);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "mapped file: " + length + " bytes in " + segments.length + " segments";
+    }
+}
@@ -29,7 +29,7 @@ import org.scijava.io.handle.DataHandle;
 import org.scijava.io.location.Location;
 
 import java.io.IOException;
-import java.util.*;
+import java.util.Arrays;
 
 /**
  * An adapted version of <code>org.scijava.io.handle.ReadBufferDataHandle</code>,
@@ -70,12 +70,19 @@ public class ReadBufferDataHandle<L extends Location> extends AbstractHigherOrde
 	private static final int DEFAULT_PAGE_SIZE = 8192;
 	// - too large page slow down simple reading a sequence of offsets
 	private static final int DEFAULT_NUM_PAGES = 32;
-
-	private final int pageSize;
-	private final List<byte[]> pages;
-	private final int[] slotToPage;
-	private LRUReplacementStrategy replacementStrategy;
-	private Map<Integer, Integer> pageToSlot;
+	private static final int DEFAULT_MAX_READ_AHEAD_PAGES = 16;
+	// - up to 128 KB by one read operation while sequential reading with default page size
+
+	private int pageSize;
+	private byte[][] pages;
+	private long[] slotToPage;
+	private long[] slotAccessTime;
+	private long accessCounter = 0;
+	private PageTable pageToSlot;
+	private int maxReadAheadPages = DEFAULT_MAX_READ_AHEAD_PAGES;
+	private int readAheadPages = 1;
+	private long nextSequentialPageID = -1;
+	private byte[] readAheadBuffer = null;
 
 	/**
 	 * Cached length value, for performance. When reading data, length is not
@@ -85,7 +92,11 @@ public class ReadBufferDataHandle<L extends Location> extends AbstractHigherOrde
 	private long length = -1;
 	private long offset = 0L;
 	private byte[] currentPage;
-	private int currentPageID = -1;
+	private long currentPageID = -1;
+
+	private long hitCount = 0;
+	private long missCount = 0;
+	private long bytesRead = 0;
 
 	/**
 	 * Creates a {@link ReadBufferDataHandle} wrapping the provided handle using the
@@ -124,110 +135,236 @@ public class ReadBufferDataHandle<L extends Location> extends AbstractHigherOrde
 	 */
 	public ReadBufferDataHandle(final DataHandle<L> handle, final int pageSize, final int numPages) {
 		super(handle);
-		this.pageSize = pageSize;
+		checkPaging(pageSize, numPages);
+		initPages(pageSize, numPages);
+	}
 
-		// init maps
-		slotToPage = new int[numPages];
-		pages = new ArrayList<>(numPages);
+	public DataHandle<L> handle() {
+		return super.handle();
+	}
 
-		Arrays.fill(slotToPage, -1);
-		for (int i = 0; i < numPages; i++) {
-			pages.add(null);
+	public int pageSize() {
+		return pageSize;
+	}
+
+	public int numberOfPages() {
+		return pages.length;
+	}
+
+	/**
+	 * Changes the size and the number of the cached pages. All cached data are removed,
+	 * but the current position is preserved.
+	 *
+	 * <p>Small pages (like the default {@value #DEFAULT_PAGE_SIZE} bytes) are good for reading IFDs,
+	 * which consist of many little values in different places of the file.
+	 * Note that sequential reading is accelerated automatically by read-ahead
+	 * (see {@link #setMaxReadAheadPages(int)}), and large read operations bypass the cache at all.</p>
+	 *
+	 * @param pageSize
+	 *            the size of the used pages
+	 * @param numPages
+	 *            the number of pages to use
+	 */
+	public void setPaging(final int pageSize, final int numPages) {
+		checkPaging(pageSize, numPages);
+		initPages(pageSize, numPages);
+		currentPage = null;
+		currentPageID = -1;
+	}
+
+	public int getMaxReadAheadPages() {
+		return maxReadAheadPages;
+	}
+
+	/**
+	 * Sets the maximal number of pages, which are read by one operation when sequential access is detected.
+	 * When the reading continues from the end of the previously read pages, the number of pages,
+	 * read together, is doubled (but not greater than this value and than the half of all pages);
+	 * any random access resets this number to 1.
+	 * The value 1 disables read-ahead.
+	 *
+	 * @param maxReadAheadPages
+	 *            the maximal number of pages read by one operation
+	 */
+	public void setMaxReadAheadPages(final int maxReadAheadPages) {
+		if (maxReadAheadPages <= 0) {
+			throw new IllegalArgumentException("Zero or negative maxReadAheadPages = " + maxReadAheadPages);
 		}
+		this.maxReadAheadPages = maxReadAheadPages;
+	}
+
+	/**
+	 * Returns the number of switching to another page, which was already present in the cache.
+	 *
+	 * @return the number of page hits.
+	 */
+	public long hitCount() {
+		return hitCount;
+	}
 
-		pageToSlot = new HashMap<>();
-		replacementStrategy = new LRUReplacementStrategy(numPages);
+	/**
+	 * Returns the number of switching to another page, which was absent in the cache and was read
+	 * (possibly together with some following pages).
+	 *
+	 * @return the number of page misses.
+	 */
+	public long missCount() {
+		return missCount;
 	}
 
-	public DataHandle<L> handle() {
-		return super.handle();
+	/**
+	 * Returns the total number of bytes read from the underlying {@link #handle()},
+	 * including the pages and the large blocks read without caching.
+	 *
+	 * @return the number of bytes read from the underlying handle.
+	 */
+	public long bytesRead() {
+		return bytesRead;
+	}
+
+	public void resetStatistics() {
+		hitCount = 0;
+		missCount = 0;
+		bytesRead = 0;
 	}
 
 	/**
 	 * Removes the cached data and seeks to the zero position.
 	 */
 	public void clearCache() {
-		final int numPages = slotToPage.length;
-		Arrays.fill(slotToPage, -1);
-		for (int i = 0; i < numPages; i++) {
-			pages.set(i, null);
-		}
+		initPages(pageSize, pages.length);
 		length = -1;
 		currentPage = null;
 		currentPageID = -1;
 		offset = 0;
-		pageToSlot = new HashMap<>();
-		replacementStrategy = new LRUReplacementStrategy(numPages);
 		// note: we MUST NOT try to work with the handle() here, for example, seek to zero position:
 		// it can create an empty file when this file does not actually exist
 	}
 
+	private void initPages(final int pageSize, final int numPages) {
+		this.pageSize = pageSize;
+		this.pages = new byte[numPages][];
+		this.slotToPage = new long[numPages];
+		Arrays.fill(slotToPage, -1);
+		this.slotAccessTime = new long[numPages];
+		this.accessCounter = 0;
+		this.pageToSlot = new PageTable(numPages);
+		this.readAheadPages = 1;
+		this.nextSequentialPageID = -1;
+		this.readAheadBuffer = null;
+	}
+
 	/**
 	 * Ensures that the byte at the given offset is buffered, and sets the current
 	 * page to be the one containing the specified location.
 	 */
 	private void ensureBuffered(final long globalOffset) throws IOException {
 		ensureOpen();
-		final int pageID = (int) (globalOffset / pageSize);
+		final long pageID = globalOffset / pageSize;
 		if (pageID == currentPageID)
 			return;
 
-		final int slotID = pageToSlot.computeIfAbsent(pageID, replacementStrategy::pickVictim);
-		final int inSlotID = slotToPage[slotID];
-
-		if (inSlotID != pageID) { // desired page is not buffered
-			// update the mappings
-			slotToPage[slotID] = pageID;
-			pageToSlot.put(pageID, slotID);
-			pageToSlot.remove(inSlotID);
-
-			// read the page
-			currentPage = readPage(pageID, slotID);
+		int slotID = pageToSlot.get(pageID);
+		if (slotID >= 0) { // desired page is buffered
+			hitCount++;
 		} else {
-			currentPage = pages.get(slotID);
+			missCount++;
+			slotID = readPages(pageID);
 		}
-		replacementStrategy.accessed(slotID);
+		slotAccessTime[slotID] = ++accessCounter;
+		currentPage = pages[slotID];
 		currentPageID = pageID;
 	}
 
 	/**
-	 * Reads the page with the id <code>pageID</code> into the slot with the id
-	 * <code>slotID</code>.
+	 * Reads the page with the id <code>pageID</code> and, in the case of sequential access,
+	 * several following pages.
 	 *
 	 * @param pageID
 	 *            the id of the page to read
-	 * @param slotID
-	 *            the id of the slot to read the page into
-	 * @return the read page
+	 * @return the slot containing the read page
 	 * @throws IOException
 	 *             if the reading fails
 	 */
-	private byte[] readPage(final int pageID, final int slotID) throws IOException {
-		replacementStrategy.accessed(slotID);
-		byte[] page = pages.get(slotID);
-		if (page == null) {
+	private int readPages(final long pageID) throws IOException {
+		readAheadPages = pageID == nextSequentialPageID ?
+				Math.min(2 * readAheadPages, maxReadAheadPages) :
+				1;
+		final long startOfPage = pageID * pageSize;
+		final long pagesToEnd = (length() - startOfPage + pageSize - 1) / pageSize;
+		int count = (int) Math.max(1, Math.min(Math.min(readAheadPages, pages.length / 2), pagesToEnd));
+		for (int k = 1; k < count; k++) {
+			if (pageToSlot.get(pageID + k) >= 0) {
+				count = k;
+				// - no sense to read again already buffered pages
+				break;
+			}
+		}
+		nextSequentialPageID = pageID + count;
+		final int firstSlotID = allocateSlot(pageID);
+		if (count == 1) {
+			// NB: we read repeatedly until the page is full or EOF is reached
+			readFromHandle(startOfPage, pages[firstSlotID], 0, pageSize);
+			return firstSlotID;
+		}
+		final int bufferLength = count * pageSize;
+		if (readAheadBuffer == null || readAheadBuffer.length < bufferLength) {
+			readAheadBuffer = new byte[bufferLength];
+		}
+		readFromHandle(startOfPage, readAheadBuffer, 0, bufferLength);
+		System.arraycopy(readAheadBuffer, 0, pages[firstSlotID], 0, pageSize);
+		for (int k = 1; k < count; k++) {
+			final int slotID = allocateSlot(pageID + k);
+			System.arraycopy(readAheadBuffer, k * pageSize, pages[slotID], 0, pageSize);
+		}
+		return firstSlotID;
+	}
+
+	/**
+	 * Assigns the least recently used slot to the specified page.
+	 */
+	private int allocateSlot(final long pageID) {
+		int slotID = 0;
+		for (int i = 1; i < slotAccessTime.length; i++) {
+			if (slotAccessTime[i] < slotAccessTime[slotID]) {
+				slotID = i;
+			}
+		}
+		final long previousPageID = slotToPage[slotID];
+		if (previousPageID >= 0) {
+			pageToSlot.remove(previousPageID);
+			if (previousPageID == currentPageID) {
+				currentPage = null;
+				currentPageID = -1;
+			}
+		}
+		slotToPage[slotID] = pageID;
+		pageToSlot.put(pageID, slotID);
+		slotAccessTime[slotID] = ++accessCounter;
+		// - protects this slot against replacement by the following pages of the same read-ahead
+		if (pages[slotID] == null) {
 			// lazy initialization
-			page = new byte[pageSize];
-			pages.set(slotID, page);
+			pages[slotID] = new byte[pageSize];
 		}
+		return slotID;
+	}
 
-		final long startOfPage = pageID * (long) pageSize;
+	private int readFromHandle(final long position, final byte[] b, final int off, final int len) throws IOException {
 		@SuppressWarnings("resource") DataHandle<L> handle = handle();
-		if (handle.offset() != startOfPage) {
-			handle.seek(startOfPage);
+		if (handle.offset() != position) {
+			handle.seek(position);
 		}
-
-		// NB: we read repeatedly until the page is full or EOF is reached
-		// handle().read(..) might read less bytes than requested
-		int off = 0;
-		while (off < pageSize) {
-			final int read = handle.read(page, off, pageSize - off);
+		// NB: handle().read(..) might read less bytes than requested
+		int result = 0;
+		while (result < len) {
+			final int read = handle.read(b, off + result, len - result);
 			if (read == -1) { // EOF
 				break;
 			}
-			off += read;
+			result += read;
 		}
-		return page;
+		bytesRead += result;
+		return result;
 	}
 
 	/**
@@ -264,14 +401,26 @@ public class ReadBufferDataHandle<L extends Location> extends AbstractHigherOrde
 		int localTargetOff = targetOffset;
 
 		while (read < readLength) {
+			final int rest = Math.min(readLength - read, b.length - localTargetOff);
+			final long pageID = offset / pageSize;
+			if (rest >= pageSize && pageID != currentPageID && pageToSlot.get(pageID) < 0) {
+				// large block (usually a tile): reading directly into the caller's buffer without caching
+				ensureOpen();
+				final int directLength = readFromHandle(offset, b, localTargetOff, rest);
+				if (directLength <= 0) break;
+				read += directLength;
+				offset += directLength;
+				localTargetOff += directLength;
+				nextSequentialPageID = offset / pageSize;
+				continue;
+			}
 			ensureBuffered(offset);
 
 			// calculate local offsets
 			final int pageOffset = globalToLocalOffset(offset);
 			int localLength = pageSize - pageOffset;
-			localLength = Math.min(localLength, readLength - read);
-			localLength = Math.min(localLength, b.length - localTargetOff);
-			if (localLength == 0) break; // we've read all we can
+			localLength = Math.min(localLength, rest);
+			if (localLength <= 0) break; // we've read all we can
 
 			// copy the data
 			System.arraycopy(currentPage, pageOffset, b, localTargetOff, localLength);
@@ -303,8 +452,9 @@ public class ReadBufferDataHandle<L extends Location> extends AbstractHigherOrde
 
 	@Override
 	protected void cleanup() {
-		pages.clear();
+		Arrays.fill(pages, null);
 		currentPage = null;
+		readAheadBuffer = null;
 	}
 
 	@Override
@@ -322,50 +472,79 @@ public class ReadBufferDataHandle<L extends Location> extends AbstractHigherOrde
 		throw readOnlyException();
 	}
 
+	private static void checkPaging(final int pageSize, final int numPages) {
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException("Zero or negative page size = " + pageSize);
+		}
+		if (numPages <= 0) {
+			throw new IllegalArgumentException("Zero or negative number of pages = " + numPages);
+		}
+		if ((long) pageSize * (long) numPages > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too large total size of pages: " + pageSize + "*" + numPages);
+		}
+	}
+
 	private static IOException readOnlyException() {
 		return new IOException("This handle is read-only!");
 	}
 
 
 	/**
-	 * Simple strategy to pick the slot that gets evicted from the cache. This
-	 * strategy always picks the least recently used slot.
+	 * Simple hash table, mapping page ids to slot ids without boxing (open addressing with linear probing).
+	 * Negative keys mean free cells.
 	 */
-	@SuppressWarnings("ClassCanBeRecord")
-    private static class LRUReplacementStrategy {
-
-		private final Deque<Integer> queue;
-
-		/**
-		 * Creates a {@link LRUReplacementStrategy} with the specified number of slots.
-		 *
-		 * @param numSlots
-		 *            the number of slots to use
-		 */
-		public LRUReplacementStrategy(final int numSlots) {
-			queue = new ArrayDeque<>(numSlots);
-
-			// fill the queue
-			for (int i = 0; i < numSlots; i++) {
-				queue.add(i);
+	private static final class PageTable {
+		private final long[] keys;
+		private final int[] values;
+		private final int mask;
+
+		PageTable(final int numSlots) {
+			final int size = Integer.highestOneBit(Math.max(2, numSlots) * 2 - 1) << 1;
+			// - at least 2*numSlots: the load factor is not greater than 0.5
+			keys = new long[size];
+			values = new int[size];
+			mask = size - 1;
+			Arrays.fill(keys, -1);
+		}
+
+		int get(final long pageID) {
+			for (int i = index(pageID); ; i = (i + 1) & mask) {
+				if (keys[i] == pageID) return values[i];
+				if (keys[i] < 0) return -1;
 			}
 		}
 
-		/**
-		 * Notifies this strategy that a slot has been accessed, pushing it to the end
-		 * of the queue.
-		 *
-		 * @param slotID
-		 *            the id of the slot that has been accessed
-		 */
-		public void accessed(final int slotID) {
-			// put accessed element to the end of the queue
-			queue.remove(slotID);
-			queue.add(slotID);
+		void put(final long pageID, final int slotID) {
+			int i = index(pageID);
+			while (keys[i] >= 0 && keys[i] != pageID) {
+				i = (i + 1) & mask;
+			}
+			keys[i] = pageID;
+			values[i] = slotID;
+		}
+
+		void remove(final long pageID) {
+			int i = index(pageID);
+			while (keys[i] != pageID) {
+				if (keys[i] < 0) return;
+				i = (i + 1) & mask;
+			}
+			keys[i] = -1;
+			// backward-shift deletion: moving the following elements of the same probe sequence
+			for (int j = (i + 1) & mask; keys[j] >= 0; j = (j + 1) & mask) {
+				final int home = index(keys[j]);
+				final boolean homeInsideGap = i <= j ? i < home && home <= j : i < home || home <= j;
+				if (!homeInsideGap) {
+					keys[i] = keys[j];
+					values[i] = values[j];
+					keys[j] = -1;
+					i = j;
+				}
+			}
 		}
 
-		public int pickVictim(@SuppressWarnings("unused") final int pageID) {
-			return queue.peek();
+		private int index(final long pageID) {
+			return (int) ((pageID * 0x9E3779B97F4A7C15L) >>> 32) & mask;
 		}
 	}
 }
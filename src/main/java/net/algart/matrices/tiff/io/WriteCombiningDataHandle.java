@@ -0,0 +1,212 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.matrices.tiff.io;
+
+import org.scijava.io.handle.AbstractHigherOrderHandle;
+import org.scijava.io.handle.DataHandle;
+import org.scijava.io.location.Location;
+
+import java.io.IOException;
+
+/**
+ * Output stream wrapper, which collects sequential writes into a large memory buffer and
+ * passes them to the underlying handle by a single write operation.
+ *
+ * <p>The buffer contains a single contiguous range of the file. Writing inside this range or
+ * directly after its end is performed in memory; any other writing flushes the buffer first.
+ * Writing a block not less than the buffer is performed directly.
+ * Reading, {@link #setLength(long)} and {@link #close()} also flush the buffer,
+ * so the data, read via this handle, are always actual. Besides, you can flush the buffer
+ * explicitly by the {@link #flush()} method: it is necessary if you are going to access the same file
+ * by other means (for example, via a {@link java.nio.channels.FileChannel}).</p>
+ *
+ * <p>Seeking itself never performs any I/O operations. So, a typical sequence of
+ * <code>seek(position)</code> + <code>write(data)</code>, used by TIFF writers for sequential
+ * tiles and IFDs, is transformed into a few large writes.</p>
+ *
+ * <p>This class is not thread-safe, like most of other {@link DataHandle} implementations.</p>
+ *
+ * @param <L> type of the location.
+ */
+public class WriteCombiningDataHandle<L extends Location> extends AbstractHigherOrderHandle<L> {
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private final byte[] buffer;
+    private long bufferStart = 0;
+    private int bufferLength = 0;
+    private long offset = 0;
+    private long flushCount = 0;
+
+    public WriteCombiningDataHandle(DataHandle<L> handle) {
+        this(handle, DEFAULT_BUFFER_SIZE);
+    }
+
+    public WriteCombiningDataHandle(DataHandle<L> handle, int bufferSize) {
+        super(handle);
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Zero or negative buffer size = " + bufferSize);
+        }
+        this.buffer = new byte[bufferSize];
+    }
+
+    @Override
+    public DataHandle<L> handle() {
+        return super.handle();
+    }
+
+    public int bufferSize() {
+        return buffer.length;
+    }
+
+    /**
+     * Returns the number of actual write operations, performed by {@link #flush()} method
+     * with the underlying handle.
+     *
+     * @return the number of non-empty flushes.
+     */
+    public long flushCount() {
+        return flushCount;
+    }
+
+    /**
+     * Writes all data, accumulated in the buffer, to the underlying handle.
+     * Does nothing if the buffer is empty.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public void flush() throws IOException {
+        if (bufferLength == 0) {
+            return;
+        }
+        final DataHandle<L> handle = handle();
+        handle.seek(bufferStart);
+        handle.write(buffer, 0, bufferLength);
+        bufferLength = 0;
+        flushCount++;
+    }
+
+    @Override
+    public boolean exists() throws IOException {
+        return bufferLength > 0 || handle().exists();
+    }
+
+    @Override
+    public long offset() {
+        return offset;
+    }
+
+    @Override
+    public void seek(long pos) throws IOException {
+        this.offset = pos;
+    }
+
+    @Override
+    public long length() throws IOException {
+        final long length = handle().length();
+        // - not cached: the file may be extended by other means after flush()
+        return bufferLength == 0 ? length : Math.max(length, bufferStart + bufferLength);
+    }
+
+    @Override
+    public void setLength(long length) throws IOException {
+        flush();
+        handle().setLength(length);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        flush();
+        final DataHandle<L> handle = handle();
+        handle.seek(offset);
+        final int result = handle.read(b, off, len);
+        if (result > 0) {
+            offset += result;
+        }
+        return result;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        flush();
+        final DataHandle<L> handle = handle();
+        handle.seek(offset);
+        final byte result = handle.readByte();
+        offset++;
+        return result;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (!isInBuffer(offset, 1)) {
+            flush();
+            bufferStart = offset;
+        }
+        final int position = (int) (offset - bufferStart);
+        buffer[position] = (byte) b;
+        bufferLength = Math.max(bufferLength, position + 1);
+        offset++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        if (len >= buffer.length) {
+            flush();
+            final DataHandle<L> handle = handle();
+            handle.seek(offset);
+            handle.write(b, off, len);
+            offset += len;
+            return;
+        }
+        if (!isInBuffer(offset, len)) {
+            flush();
+            bufferStart = offset;
+        }
+        final int position = (int) (offset - bufferStart);
+        System.arraycopy(b, off, buffer, position, len);
+        bufferLength = Math.max(bufferLength, position + len);
+        offset += len;
+    }
+
+    @Override
+    public String toString() {
+        return "write-combining handle (" + bufferLength + "/" + buffer.length + " bytes buffered) for " + handle();
+    }
+
+    @Override
+    protected void cleanup() throws IOException {
+        flush();
+    }
+
+    private boolean isInBuffer(long position, int len) {
+        return bufferLength > 0
+                && position >= bufferStart
+                && position <= bufferStart + bufferLength
+                && position - bufferStart <= buffer.length - len;
+        // - writing inside the buffered range or directly after its end
+    }
+}
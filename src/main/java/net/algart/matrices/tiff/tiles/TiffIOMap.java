@@ -30,8 +30,14 @@ import net.algart.matrices.tiff.tags.TagDescription;
 
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
 import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public abstract sealed class TiffIOMap extends TiffMap permits TiffReadMap, TiffWriteMap {
     static final boolean AUTO_INTERLEAVE_SOURCE = true;
@@ -41,7 +47,10 @@ public abstract sealed class TiffIOMap extends TiffMap permits TiffReadMap, Tiff
     private final TiffIO owner;
 
     private volatile TileSupplier tileSupplier = this::readCachedTile;
+    private volatile boolean standardTileSupplier = true;
+    // - true if tileSupplier creates new tiles (when caching is disabled), which are not referenced by anybody
     private volatile TileSupplyMode tileSupplyMode = TileSupplyMode.IF_ABSENT;
+    private volatile Executor decodingExecutor = null;
 
     public TiffIOMap(TiffIO owner, TiffIFD ifd, boolean resizable) throws TiffException {
         super(ifd, resizable);
@@ -108,16 +117,15 @@ public abstract sealed class TiffIOMap extends TiffMap permits TiffReadMap, Tiff
     }
 
     public TiffIOMap setTileSupplier(TileSupplier tileSupplier) {
-        this.tileSupplier = Objects.requireNonNull(tileSupplier,  "Null tileSupplier");
-        return this;
+        return setTileSupplier(tileSupplier, false);
     }
 
     public TiffIOMap setDefaultTileSupplier() {
-        return setTileSupplier(this::readCachedTile);
+        return setTileSupplier(this::readCachedTile, true);
     }
 
     public TiffIOMap setUncachedTileSupplier() {
-        return setTileSupplier(this::readTile);
+        return setTileSupplier(this::readTile, true);
     }
 
     public TileSupplyMode getTileSupplyMode() {
@@ -129,6 +137,57 @@ public abstract sealed class TiffIOMap extends TiffMap permits TiffReadMap, Tiff
         return this;
     }
 
+    public Executor getDecodingExecutor() {
+        return decodingExecutor;
+    }
+
+    /**
+     * Sets the executor used by {@link #loadSampleBytes(int, int, int, int, boolean)} and all reading methods
+     * based on it for supplying and decoding tiles in parallel.
+     * If it is <code>null</code> (the default value), the tiles are supplied and decoded sequentially
+     * in the current thread.
+     *
+     * <p>In the parallel mode, the {@link #getTileSupplier() tile supplier} is called from the threads
+     * of the specified executor. The default suppliers, based on {@link TiffReader#readCachedTile(TiffTileIndex)}
+     * and {@link TiffReader#readTile(TiffTileIndex)}, are thread-safe: the encoded data are read from the file
+     * under the synchronization, but decoding is performed in parallel.
+     * If you set a custom supplier or {@link TiffIO#setTileInitializer(java.util.function.Consumer)
+     * tile initializer}, they must be thread-safe as well.
+     * This map itself is accessed only in the current thread; so, the <code>storeTilesInMap</code> flag
+     * works in the same manner as in the sequential mode.</p>
+     *
+     * <p>The results of reading in the parallel mode are identical to the results of the sequential reading.</p>
+     *
+     * <p>Note: you should not use an executor, the threads of which are waiting for reading this map
+     * (like a fixed-size pool, where the current thread belongs to): this may lead to a deadlock.</p>
+     *
+     * @param decodingExecutor the executor for parallel decoding tiles; may be <code>null</code>.
+     * @return a reference to this object.
+     */
+    public TiffIOMap setDecodingExecutor(Executor decodingExecutor) {
+        this.decodingExecutor = decodingExecutor;
+        return this;
+    }
+
+    /**
+     * Equivalent to
+     * <code>{@link #setDecodingExecutor(Executor) setDecodingExecutor}(ForkJoinPool.commonPool())</code>.
+     *
+     * @return a reference to this object.
+     */
+    public TiffIOMap enableParallelDecoding() {
+        return setDecodingExecutor(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Equivalent to <code>{@link #setDecodingExecutor(Executor) setDecodingExecutor}(null)</code>.
+     *
+     * @return a reference to this object.
+     */
+    public TiffIOMap disableParallelDecoding() {
+        return setDecodingExecutor(null);
+    }
+
     @Override
     public TiffIOMap setBitImageUnpackingMode(BitImageUnpackingMode bitImageUnpackingMode) {
         super.setBitImageUnpackingMode(bitImageUnpackingMode);
@@ -201,10 +260,7 @@ public abstract sealed class TiffIOMap extends TiffMap permits TiffReadMap, Tiff
 
         final int mapTileSizeX = tileSizeX();
         final int mapTileSizeY = tileSizeY();
-        final long bitsPerSample = normalizedBitDepth();
-        // - "long" here leads to stricter requirements later on
         final int numberOfSeparatedPlanes = numberOfSeparatedPlanes();
-        final int samplesPerPixel = tileSamplesPerPixel();
 
         final int toX = Math.min(fromX + sizeX, cropTilesToImageBoundaries ? dimX() : Integer.MAX_VALUE);
         final int toY = Math.min(fromY + sizeY, cropTilesToImageBoundaries ? dimY() : Integer.MAX_VALUE);
@@ -220,43 +276,23 @@ public abstract sealed class TiffIOMap extends TiffMap permits TiffReadMap, Tiff
             // - possible when fromX < 0 or fromY < 0
             return rarePrecisionMode.unpackIfNecessary(this, sampleBytes, sizeInPixels, rescaleInt24);
         }
-        final long tileOneChannelRowSizeInBits = (long) mapTileSizeX * bitsPerSample;
-        final long samplesOneChannelRowSizeInBits = (long) sizeX * bitsPerSample;
-
-        for (int p = 0; p < numberOfSeparatedPlanes; p++) {
-            // - for a rare case PlanarConfiguration=2 (RRR...GGG...BBB...)
-            for (int yIndex = minYIndex; yIndex <= maxYIndex; yIndex++) {
-                final int tileStartY = Math.max(yIndex * mapTileSizeY, fromY);
-                final int fromYInTile = tileStartY % mapTileSizeY;
-                final int yDiff = tileStartY - fromY;
-
-                for (int xIndex = minXIndex; xIndex <= maxXIndex; xIndex++) {
-                    final int tileStartX = Math.max(xIndex * mapTileSizeX, fromX);
-                    final int fromXInTile = tileStartX % mapTileSizeX;
-                    final int xDiff = tileStartX - fromX;
-
-                    final TiffTileIndex tileIndex = index(xIndex, yIndex, p);
-                    final TiffTile tile = supplyTile(tileIndex, storeTilesInMap);
-                    final byte[] data = tile.getDecodedData();
-
-                    final int tileSizeX = tile.getSizeX();
-                    final int tileSizeY = tile.getSizeY();
-                    final int sizeXInTile = Math.min(toX - tileStartX, tileSizeX - fromXInTile);
-                    assert sizeXInTile > 0 : "sizeXInTile=" + sizeXInTile;
-                    final int sizeYInTile = Math.min(toY - tileStartY, tileSizeY - fromYInTile);
-                    assert sizeYInTile > 0 : "sizeYInTile=" + sizeYInTile;
-
-                    final long partSizeXInBits = (long) sizeXInTile * bitsPerSample;
-                    for (int s = 0; s < samplesPerPixel; s++) {
-                        long tOffset = (((s * (long) tileSizeY) + fromYInTile)
-                                * (long) tileSizeX + fromXInTile) * bitsPerSample;
-                        long sOffset = (((p + s) * (long) sizeY + yDiff) * (long) sizeX + xDiff) * bitsPerSample;
-                        // (long) cast is important for processing large bit matrices!
-                        for (int i = 0; i < sizeYInTile; i++) {
-                            assert sOffset >= 0 && tOffset >= 0 : "possibly int instead of long";
-                            PackedBitArraysPer8.copyBitsNoSync(sampleBytes, sOffset, data, tOffset, partSizeXInBits);
-                            tOffset += tileOneChannelRowSizeInBits;
-                            sOffset += samplesOneChannelRowSizeInBits;
+        final Executor executor = decodingExecutor;
+        final boolean parallel = executor != null &&
+                (long) numberOfSeparatedPlanes * (maxYIndex - minYIndex + 1) * (maxXIndex - minXIndex + 1) > 1;
+        try (TiffReader.PrefetchedTiles ignored = prefetchTiles(reader, minXIndex, minYIndex, maxXIndex, maxYIndex)) {
+            if (parallel) {
+                loadTilesInParallel(executor, sampleBytes,
+                        fromX, fromY, sizeX, sizeY, toX, toY,
+                        minXIndex, minYIndex, maxXIndex, maxYIndex, storeTilesInMap);
+            } else {
+                for (int p = 0; p < numberOfSeparatedPlanes; p++) {
+                    // - for a rare case PlanarConfiguration=2 (RRR...GGG...BBB...)
+                    for (int yIndex = minYIndex; yIndex <= maxYIndex; yIndex++) {
+                        for (int xIndex = minXIndex; xIndex <= maxXIndex; xIndex++) {
+                            final TiffTileIndex tileIndex = index(xIndex, yIndex, p);
+                            final TiffTile tile = supplyTile(tileIndex, storeTilesInMap);
+                            copyTileToSamples(sampleBytes, tileIndex, tile, fromX, fromY, sizeX, sizeY, toX, toY);
+                            releaseIfPossible(reader, tile, storeTilesInMap);
                         }
                     }
                 }
@@ -418,7 +454,209 @@ public abstract sealed class TiffIOMap extends TiffMap permits TiffReadMap, Tiff
         return reader().readEncodedTile(tileIndex, duplicateHandling);
     }
 
+    private void loadTilesInParallel(
+            Executor executor,
+            byte[] sampleBytes,
+            int fromX,
+            int fromY,
+            int sizeX,
+            int sizeY,
+            int toX,
+            int toY,
+            int minXIndex,
+            int minYIndex,
+            int maxXIndex,
+            int maxYIndex,
+            boolean storeTilesInMap) throws IOException {
+        final boolean byteAligned = normalizedBitDepth() % 8 == 0;
+        // - for non-byte-aligned samples, the neighbouring tiles can share the same bytes of the result,
+        // so we must copy them in the current thread
+        final List<TiffTileIndex> existingIndexes = new ArrayList<>();
+        final List<TiffTile> existingTiles = new ArrayList<>();
+        final List<TiffTileIndex> newIndexes = new ArrayList<>();
+        for (int p = 0, n = numberOfSeparatedPlanes(); p < n; p++) {
+            for (int yIndex = minYIndex; yIndex <= maxYIndex; yIndex++) {
+                for (int xIndex = minXIndex; xIndex <= maxXIndex; xIndex++) {
+                    final TiffTileIndex tileIndex = index(xIndex, yIndex, p);
+                    final TiffTile existing = existingTileForReuse(tileIndex);
+                    // - the map itself is not thread-safe, so we access it in the current thread only
+                    if (existing != null) {
+                        existingIndexes.add(tileIndex);
+                        existingTiles.add(existing);
+                    } else {
+                        newIndexes.add(tileIndex);
+                    }
+                }
+            }
+        }
+        final TiffTile[] newTiles = new TiffTile[newIndexes.size()];
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[newTiles.length];
+        for (int k = 0; k < futures.length; k++) {
+            final int tileK = k;
+            futures[k] = CompletableFuture.runAsync(() -> {
+                try {
+                    final TiffTileIndex tileIndex = newIndexes.get(tileK);
+                    final TiffTile tile = supplyNewTile(tileIndex);
+                    newTiles[tileK] = tile;
+                    if (byteAligned) {
+                        copyTileToSamples(sampleBytes, tileIndex, tile, fromX, fromY, sizeX, sizeY, toX, toY);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executor);
+        }
+        for (int k = 0, n = existingTiles.size(); k < n; k++) {
+            final TiffTileIndex tileIndex = existingIndexes.get(k);
+            final TiffTile tile = existingTiles.get(k);
+            copyTileToSamples(sampleBytes, tileIndex, tile, fromX, fromY, sizeX, sizeY, toX, toY);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+            // - waits for ALL tasks, even if some of them failed: no one will write into sampleBytes after this
+        } catch (CompletionException | CancellationException ignored) {
+            // - we will find the first exception below in a deterministic order
+        }
+        for (CompletableFuture<?> future : futures) {
+            if (future.isCompletedExceptionally()) {
+                try {
+                    future.join();
+                } catch (CompletionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof UncheckedIOException ioException) {
+                        throw ioException.getCause();
+                    }
+                    if (cause instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    if (cause instanceof Error error) {
+                        throw error;
+                    }
+                    throw e;
+                }
+            }
+        }
+        for (int k = 0; k < newTiles.length; k++) {
+            final TiffTileIndex tileIndex = newIndexes.get(k);
+            final TiffTile tile = newTiles[k];
+            assert tile != null;
+            if (!byteAligned) {
+                copyTileToSamples(sampleBytes, tileIndex, tile, fromX, fromY, sizeX, sizeY, toX, toY);
+            }
+            if (storeTilesInMap) {
+                put(tile);
+            }
+            releaseIfPossible(reader(), tile, storeTilesInMap);
+        }
+    }
+
+    // Returns the data of the newly supplied tile to the buffer pool of the reader
+    // (if it was set), if nobody else can use this tile
+    private void releaseIfPossible(TiffReader reader, TiffTile tile, boolean storeTilesInMap) {
+        if (!storeTilesInMap
+                && standardTileSupplier
+                && !reader.isCaching()
+                && tile.getBufferPool() != null
+                && get(tile.index()) != tile) {
+            tile.releaseData();
+        }
+    }
+
+    private void copyTileToSamples(
+            byte[] sampleBytes,
+            TiffTileIndex tileIndex,
+            TiffTile tile,
+            int fromX,
+            int fromY,
+            int sizeX,
+            int sizeY,
+            int toX,
+            int toY) {
+        final int mapTileSizeX = tileSizeX();
+        final int mapTileSizeY = tileSizeY();
+        final long bitsPerSample = normalizedBitDepth();
+        // - "long" here leads to stricter requirements later on
+        final int samplesPerPixel = tileSamplesPerPixel();
+        final long tileOneChannelRowSizeInBits = (long) mapTileSizeX * bitsPerSample;
+        final long samplesOneChannelRowSizeInBits = (long) sizeX * bitsPerSample;
+        final int p = tileIndex.separatedPlaneIndex();
+
+        final int tileStartY = Math.max(tileIndex.yIndex() * mapTileSizeY, fromY);
+        final int fromYInTile = tileStartY % mapTileSizeY;
+        final int yDiff = tileStartY - fromY;
+        final int tileStartX = Math.max(tileIndex.xIndex() * mapTileSizeX, fromX);
+        final int fromXInTile = tileStartX % mapTileSizeX;
+        final int xDiff = tileStartX - fromX;
+
+        final byte[] data = tile.getDecodedData();
+        final int tileSizeX = tile.getSizeX();
+        final int tileSizeY = tile.getSizeY();
+        final int sizeXInTile = Math.min(toX - tileStartX, tileSizeX - fromXInTile);
+        assert sizeXInTile > 0 : "sizeXInTile=" + sizeXInTile;
+        final int sizeYInTile = Math.min(toY - tileStartY, tileSizeY - fromYInTile);
+        assert sizeYInTile > 0 : "sizeYInTile=" + sizeYInTile;
+
+        final long partSizeXInBits = (long) sizeXInTile * bitsPerSample;
+        for (int s = 0; s < samplesPerPixel; s++) {
+            long tOffset = (((s * (long) tileSizeY) + fromYInTile)
+                    * (long) tileSizeX + fromXInTile) * bitsPerSample;
+            long sOffset = (((p + s) * (long) sizeY + yDiff) * (long) sizeX + xDiff) * bitsPerSample;
+            // (long) cast is important for processing large bit matrices!
+            for (int i = 0; i < sizeYInTile; i++) {
+                assert sOffset >= 0 && tOffset >= 0 : "possibly int instead of long";
+                PackedBitArraysPer8.copyBitsNoSync(sampleBytes, sOffset, data, tOffset, partSizeXInBits);
+                tOffset += tileOneChannelRowSizeInBits;
+                sOffset += samplesOneChannelRowSizeInBits;
+            }
+        }
+    }
+
+    // Prepares reading the encoded data of the tiles, which will be supplied, by several large read operations
+    private TiffReader.PrefetchedTiles prefetchTiles(
+            TiffReader reader,
+            int minXIndex,
+            int minYIndex,
+            int maxXIndex,
+            int maxYIndex) throws IOException {
+        final int numberOfSeparatedPlanes = numberOfSeparatedPlanes();
+        if (!standardTileSupplier
+                || (long) numberOfSeparatedPlanes * (maxYIndex - minYIndex + 1) * (maxXIndex - minXIndex + 1) <= 1) {
+            // - a custom tile supplier probably does not read tiles from the file at all
+            return reader.prefetchEncodedTiles(Collections.emptyList());
+        }
+        final List<TiffTileIndex> result = new ArrayList<>();
+        for (int p = 0; p < numberOfSeparatedPlanes; p++) {
+            for (int yIndex = minYIndex; yIndex <= maxYIndex; yIndex++) {
+                for (int xIndex = minXIndex; xIndex <= maxXIndex; xIndex++) {
+                    final TiffTileIndex tileIndex = index(xIndex, yIndex, p);
+                    if (existingTileForReuse(tileIndex) == null) {
+                        result.add(tileIndex);
+                    }
+                }
+            }
+        }
+        return reader.prefetchEncodedTiles(result);
+    }
+
     private TiffTile supplyTile(TiffTileIndex tileIndex, boolean storeTilesInMap) throws IOException {
+        final TiffTile existing = existingTileForReuse(tileIndex);
+        if (existing != null) {
+            return existing;
+        }
+        final TiffTile tile = supplyNewTile(tileIndex);
+        if (storeTilesInMap) {
+            put(tile);
+        }
+        return tile;
+    }
+
+    private TiffIOMap setTileSupplier(TileSupplier tileSupplier, boolean standardTileSupplier) {
+        this.tileSupplier = Objects.requireNonNull(tileSupplier,  "Null tileSupplier");
+        this.standardTileSupplier = standardTileSupplier;
+        return this;
+    }
+
+    private TiffTile existingTileForReuse(TiffTileIndex tileIndex) {
         if (tileSupplyMode.isReusingExisting()) {
             final TiffTile tile = get(tileIndex);
             if (tile != null && !tile.isEmpty()) {
@@ -429,6 +667,10 @@ public abstract sealed class TiffIOMap extends TiffMap permits TiffReadMap, Tiff
                 return tile;
             }
         }
+        return null;
+    }
+
+    private TiffTile supplyNewTile(TiffTileIndex tileIndex) throws IOException {
         final TiffTile tile = tileSupplier.getTile(tileIndex);
         if (tile == null || !tile.isSeparated()) {
             throw new IllegalStateException("Illegal behavior of the tile supplier (" + tileSupplier +
@@ -442,9 +684,6 @@ public abstract sealed class TiffIOMap extends TiffMap permits TiffReadMap, Tiff
             throw new IllegalStateException("Illegal behavior of the tile initializer (" + tileInitializer +
                     "): it returned " + (tile.isEmpty() ? "empty" : "interleaved") + " tile");
         }
-        if (storeTilesInMap) {
-            put(tile);
-        }
         return tile;
     }
 
@@ -198,7 +198,10 @@ public sealed class TiffMap permits TiffIOMap {
     private final TiffIFD ifd;
     private final boolean resizable;
 
-    private final Map<TiffTileIndex, TiffTile> tileMap = new LinkedHashMap<>();
+    private final TileTable tileTable;
+    private final Map<TiffTileIndex, TiffTile> tileMapView = new TileMapView();
+    private final Set<TiffTileIndex> indexesView = new IndexesView();
+    private final Collection<TiffTile> tilesView = new TilesView();
     private final boolean planarSeparated;
     private final int numberOfChannels;
     private final int numberOfSeparatedPlanes;
@@ -285,6 +288,7 @@ public sealed class TiffMap permits TiffIOMap {
         assert numberOfChannels > 0;
         assert numberOfChannels <= TiffIFD.MAX_NUMBER_OF_CHANNELS : "getSamplesPerPixel did not check result";
         this.numberOfSeparatedPlanes = planarSeparated ? numberOfChannels : 1;
+        this.tileTable = new TileTable(numberOfSeparatedPlanes);
         this.tileSamplesPerPixel = planarSeparated ? 1 : numberOfChannels;
         this.bitsPerSample = ifd.getBitsPerSample().clone();
         this.rawEqualBitDepth = TiffIFD.tryEqualBitDepth(bitsPerSample).orElse(-1);
@@ -384,16 +388,38 @@ public sealed class TiffMap permits TiffIOMap {
         return result;
     }
 
+    /**
+     * Returns an unmodifiable view of all tiles in this map, indexed by their {@link TiffTileIndex indexes}.
+     * The view reflects all further changes in this map.
+     *
+     * <p>The tiles are iterated in the order of increasing {@link TiffTileIndex#linear() linear index},
+     * i.e., by separated planes, then by rows, then by columns,
+     * regardless of the order of adding tiles to the map.
+     *
+     * @return tiles of this map.
+     */
     public Map<TiffTileIndex, TiffTile> tileMap() {
-        return Collections.unmodifiableMap(tileMap);
+        return tileMapView;
     }
 
+    /**
+     * Returns an unmodifiable view of indexes of all tiles in this map.
+     * The order of iteration is the same as in {@link #tileMap()}.
+     *
+     * @return indexes of all tiles.
+     */
     public Set<TiffTileIndex> indexes() {
-        return Collections.unmodifiableSet(tileMap.keySet());
+        return indexesView;
     }
 
+    /**
+     * Returns an unmodifiable view of all tiles in this map.
+     * The order of iteration is the same as in {@link #tileMap()}.
+     *
+     * @return all tiles.
+     */
     public Collection<TiffTile> tiles() {
-        return Collections.unmodifiableCollection(tileMap.values());
+        return tilesView;
     }
 
     public boolean isResizable() {
@@ -924,22 +950,34 @@ public sealed class TiffMap permits TiffIOMap {
     }
 
     public TiffTileIndex indexFromLinear(int linearIndex) {
-        if (linearIndex < 0 || linearIndex >= numberOfGridTiles) {
-            throw new IndexOutOfBoundsException("Linear index " + linearIndex +
-                    " is out of range 0.." + (numberOfGridTiles - 1));
-        }
+        checkLinearIndex(linearIndex);
         int b = linearIndex / gridCountX;
         int x = linearIndex - b * gridCountX;
         int separatedPlaneIndex = b / gridCountY;
         int y = b - separatedPlaneIndex * gridCountY;
-        return new TiffTileIndex(this, x, y, separatedPlaneIndex);
+        return index(x, y, separatedPlaneIndex);
     }
 
     public TiffTileIndex index(int x, int y) {
-        return new TiffTileIndex(this, x, y, 0);
+        return index(x, y, 0);
     }
 
+    /**
+     * Returns the index of the tile with the specified coordinates in the grid.
+     * If this map already contains a tile with these coordinates, its {@link TiffTile#index() index}
+     * is returned (if it belongs to this map); otherwise, a new index is created.
+     *
+     * @param x                   x-index of the tile (0, 1, 2, ...).
+     * @param y                   y-index of the tile (0, 1, 2, ...).
+     * @param separatedPlaneIndex channel-plane index (0 for usual case of chunked images).
+     * @return tile index.
+     */
     public TiffTileIndex index(int x, int y, int separatedPlaneIndex) {
+        final TiffTile existing = tileTable.get(x, y, separatedPlaneIndex);
+        if (existing != null && existing.index().map() == this) {
+            return existing.index();
+            // - avoiding creating a lot of identical index objects while processing the same grid
+        }
         return new TiffTileIndex(this, x, y, separatedPlaneIndex);
     }
 
@@ -969,7 +1007,7 @@ public sealed class TiffMap permits TiffIOMap {
     }
 
     public int numberOfTiles() {
-        return tileMap.size();
+        return tileTable.size;
     }
 
     public TiffTile getOrNew(int x, int y) {
@@ -977,7 +1015,8 @@ public sealed class TiffMap permits TiffIOMap {
     }
 
     public TiffTile getOrNew(int x, int y, int separatedPlaneIndex) {
-        return getOrNew(index(x, y, separatedPlaneIndex));
+        final TiffTile result = tileTable.get(x, y, separatedPlaneIndex);
+        return result != null ? result : getOrNew(index(x, y, separatedPlaneIndex));
     }
 
     public TiffTile getOrNew(TiffTileIndex tileIndex) {
@@ -990,12 +1029,18 @@ public sealed class TiffMap permits TiffIOMap {
     }
 
     public TiffTile getByLinear(int linearIndex) {
-        return get(indexFromLinear(linearIndex));
+        checkLinearIndex(linearIndex);
+        int b = linearIndex / gridCountX;
+        int x = linearIndex - b * gridCountX;
+        int separatedPlaneIndex = b / gridCountY;
+        int y = b - separatedPlaneIndex * gridCountY;
+        return tileTable.get(x, y, separatedPlaneIndex);
+        // - no need to create TiffTileIndex
     }
 
     public TiffTile get(TiffTileIndex tileIndex) {
         checkTileIndexIFD(tileIndex);
-        return tileMap.get(tileIndex);
+        return tileTable.get(tileIndex.xIndex(), tileIndex.yIndex(), tileIndex.separatedPlaneIndex());
     }
 
     public void put(TiffTile tile) {
@@ -1011,12 +1056,12 @@ public sealed class TiffMap permits TiffIOMap {
                         "(out of maximal tilemap sizes) " + dimX + "x" + dimY + ": " + tileIndex);
             }
         }
-        tileMap.put(tileIndex, tile);
+        tileTable.put(tile, gridCountX, gridCountY);
     }
 
     public TiffTile remove(TiffTileIndex tileIndex) {
         checkTileIndexIFD(tileIndex);
-        return tileMap.remove(tileIndex);
+        return tileTable.remove(tileIndex.xIndex(), tileIndex.yIndex(), tileIndex.separatedPlaneIndex());
     }
 
     public void putAll(Collection<TiffTile> tiles) {
@@ -1035,7 +1080,6 @@ public sealed class TiffMap permits TiffIOMap {
      * the tile {@link TiffTileIndex#linear() linear index}.
      */
     public void buildTileGrid() {
-        final Map<TiffTileIndex, TiffTile> newMap = new LinkedHashMap<>(this.numberOfGridTiles);
         final int numberOfSeparatedPlanes = this.numberOfSeparatedPlanes;
         final int gridCountY = this.gridCountY;
         final int gridCountX = this.gridCountX;
@@ -1043,25 +1087,23 @@ public sealed class TiffMap permits TiffIOMap {
         for (int p = 0, linear = 0; p < numberOfSeparatedPlanes; p++) {
             for (int y = 0; y < gridCountY; y++) {
                 for (int x = 0; x < gridCountX; x++, linear++) {
-                    final TiffTileIndex index = index(x, y, p);
-                    if (index.linear() != linear) {
-                        throw new ConcurrentModificationException("Invalid linear index: " + index.linear() +
+                    final int checkedLinear = linearIndex(x, y, p);
+                    if (checkedLinear != linear) {
+                        throw new ConcurrentModificationException("Invalid linear index: " + checkedLinear +
                                 " for (" + x + ", " + y + ", " + p +
                                 "),%nprobably because of growing the map by a parallel thread:%n%s"
                                         .formatted(this));
 
                     }
-                    TiffTile tile = get(index);
+                    TiffTile tile = tileTable.get(x, y, p);
                     if (tile == null) {
-                        tile = new TiffTile(index);
+                        tile = new TiffTile(new TiffTileIndex(this, x, y, p));
+                        tileTable.put(tile, gridCountX, gridCountY);
                     }
                     tile.cropStripToMap();
-                    newMap.put(index, tile);
                 }
             }
         }
-        this.tileMap.clear();
-        this.tileMap.putAll(newMap);
     }
 
     public void cropAllStrips() {
@@ -1069,19 +1111,19 @@ public sealed class TiffMap permits TiffIOMap {
     }
 
     public void cropAll(boolean strippedOnly) {
-        tileMap.values().forEach(tile -> tile.cropToMap(strippedOnly));
+        tilesView.forEach(tile -> tile.cropToMap(strippedOnly));
     }
 
     public boolean hasUnset() {
-        return tileMap.values().stream().anyMatch(TiffTile::hasUnsetArea);
+        return tilesView.stream().anyMatch(TiffTile::hasUnsetArea);
     }
 
     public void markAllAsUnset() {
-        tileMap.values().forEach(TiffTile::markWholeTileAsUnset);
+        tilesView.forEach(TiffTile::markWholeTileAsUnset);
     }
 
     public void cropAllUnset() {
-        tileMap.values().forEach(TiffTile::cropUnsetAreaToMap);
+        tilesView.forEach(TiffTile::cropUnsetAreaToMap);
     }
 
     public List<TiffTile> findCompletedTiles() {
@@ -1090,7 +1132,7 @@ public sealed class TiffMap permits TiffIOMap {
 
     public List<TiffTile> findTiles(Predicate<TiffTile> filter) {
         Objects.requireNonNull(filter, "Null filter");
-        return tileMap.values().stream().filter(filter).collect(Collectors.toList());
+        return tilesView.stream().filter(filter).collect(Collectors.toList());
     }
 
     /**
@@ -1099,7 +1141,7 @@ public sealed class TiffMap permits TiffIOMap {
      * some special tile information like {@link TiffTile#getStoredInFileDataLength()} stays available.
      */
     public void freeAllData() {
-        tileMap.values().forEach(TiffTile::freeData);
+        tilesView.forEach(TiffTile::freeData);
     }
 
     public void clear() {
@@ -1112,7 +1154,7 @@ public sealed class TiffMap permits TiffIOMap {
      * @param clearDimensions whether we need also to set map dimensions to 0x0.
      */
     public void clear(boolean clearDimensions) {
-        tileMap.clear();
+        tileTable.clear();
         if (clearDimensions) {
             setDimensions(0, 0);
             // - exception if !resizable
@@ -1403,7 +1445,7 @@ public sealed class TiffMap permits TiffIOMap {
                 resizable ? "resizable " : "",
                 mapKindName(),
                 dimX, dimY, numberOfChannels, normalizedBitDepth,
-                tileMap.size(),
+                tileTable.size,
                 isTiled() ? "tiles" : "strips",
                 tileSizeX, tileSizeY, gridCountX, gridCountY,
                 numberOfSeparatedPlanes == 1 ? "" : "x" + numberOfSeparatedPlanes,
@@ -1422,7 +1464,7 @@ public sealed class TiffMap permits TiffIOMap {
         return ifd == that.ifd &&
                 resizable == that.resizable &&
                 dimX == that.dimX && dimY == that.dimY &&
-                Objects.equals(tileMap, that.tileMap) &&
+                Objects.equals(tileMapView, that.tileMapView) &&
                 planarSeparated == that.planarSeparated &&
                 numberOfChannels == that.numberOfChannels &&
                 normalizedBitDepth == that.normalizedBitDepth &&
@@ -1436,7 +1478,7 @@ public sealed class TiffMap permits TiffIOMap {
 
     @Override
     public int hashCode() {
-        return Objects.hash(System.identityHashCode(ifd), tileMap, resizable, dimX, dimY);
+        return Objects.hash(System.identityHashCode(ifd), tileMapView, resizable, dimX, dimY);
     }
 
     public static long checkRequestedArea(long fromX, long fromY, long sizeX, long sizeY) {
@@ -1540,6 +1582,13 @@ public sealed class TiffMap permits TiffIOMap {
         this.numberOfGridTiles = gridCountX * gridCountY * numberOfSeparatedPlanes;
     }
 
+    private void checkLinearIndex(int linearIndex) {
+        if (linearIndex < 0 || linearIndex >= numberOfGridTiles) {
+            throw new IndexOutOfBoundsException("Linear index " + linearIndex +
+                    " is out of range 0.." + (numberOfGridTiles - 1));
+        }
+    }
+
     static long debugTime() {
         return BUILT_IN_TIMING && LOGGABLE_DEBUG ? System.nanoTime() : 0;
     }
@@ -1572,4 +1621,230 @@ public sealed class TiffMap permits TiffIOMap {
             return 0.299 * r + 0.587 * g + 0.114 * b;
         }
     }
+
+    private final class TileMapView extends AbstractMap<TiffTileIndex, TiffTile> {
+        private final Set<Entry<TiffTileIndex, TiffTile>> entrySet = new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<TiffTileIndex, TiffTile>> iterator() {
+                final Iterator<TiffTile> iterator = tileTable.iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<TiffTileIndex, TiffTile> next() {
+                        final TiffTile tile = iterator.next();
+                        return Map.entry(tile.index(), tile);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return tileTable.size;
+            }
+        };
+
+        @Override
+        public Set<Entry<TiffTileIndex, TiffTile>> entrySet() {
+            return entrySet;
+        }
+
+        @Override
+        public int size() {
+            return tileTable.size;
+        }
+
+        @Override
+        public TiffTile get(Object key) {
+            return key instanceof TiffTileIndex index && index.ifd() == ifd ?
+                    tileTable.get(index.xIndex(), index.yIndex(), index.separatedPlaneIndex()) :
+                    null;
+            // - like in TiffTileIndex.equals, comparing references to IFD
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<TiffTileIndex> keySet() {
+            return indexesView;
+        }
+
+        @Override
+        public Collection<TiffTile> values() {
+            return tilesView;
+        }
+    }
+
+    private final class IndexesView extends AbstractSet<TiffTileIndex> {
+        @Override
+        public Iterator<TiffTileIndex> iterator() {
+            final Iterator<TiffTile> iterator = tileTable.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public TiffTileIndex next() {
+                    return iterator.next().index();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return tileTable.size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return tileMapView.containsKey(o);
+        }
+    }
+
+    private final class TilesView extends AbstractCollection<TiffTile> {
+        @Override
+        public Iterator<TiffTile> iterator() {
+            return tileTable.iterator();
+        }
+
+        @Override
+        public int size() {
+            return tileTable.size;
+        }
+    }
+
+    /**
+     * Dense table of tiles: <code>planes[p][y][x]</code> is the tile with the given separated plane index
+     * and x/y-indexes in the grid. Every row is allocated only when the first tile is added into it,
+     * so a sparse map does not occupy memory for empty rows.
+     *
+     * <p>Note that we cannot use the linear index of the tile as a key: in a resizable map
+     * it changes while expanding the grid, unlike (x, y, p) coordinates.
+     */
+    private static final class TileTable {
+        private final TiffTile[][][] planes;
+        private int size = 0;
+        private int modCount = 0;
+        // - changed only when a tile is added to an empty cell or removed, like in usual collections
+
+        TileTable(int numberOfPlanes) {
+            this.planes = new TiffTile[numberOfPlanes][][];
+        }
+
+        TiffTile get(int x, int y, int p) {
+            if (p < 0 || p >= planes.length) {
+                return null;
+            }
+            final TiffTile[][] rows = planes[p];
+            if (rows == null || y < 0 || y >= rows.length) {
+                return null;
+            }
+            final TiffTile[] row = rows[y];
+            return row == null || x < 0 || x >= row.length ? null : row[x];
+        }
+
+        void put(TiffTile tile, int gridCountX, int gridCountY) {
+            final TiffTileIndex index = tile.index();
+            final int x = index.xIndex();
+            final int y = index.yIndex();
+            final int p = index.separatedPlaneIndex();
+            // - all indexes are already checked in TiffTileIndex constructor
+            TiffTile[][] rows = planes[p];
+            if (rows == null || y >= rows.length) {
+                planes[p] = rows = rows == null ?
+                        new TiffTile[Math.max(y + 1, gridCountY)][] :
+                        Arrays.copyOf(rows, newLength(rows.length, y + 1, gridCountY));
+            }
+            TiffTile[] row = rows[y];
+            if (row == null || x >= row.length) {
+                rows[y] = row = row == null ?
+                        new TiffTile[Math.max(x + 1, gridCountX)] :
+                        Arrays.copyOf(row, newLength(row.length, x + 1, gridCountX));
+            }
+            if (row[x] == null) {
+                size++;
+                modCount++;
+            }
+            row[x] = tile;
+        }
+
+        TiffTile remove(int x, int y, int p) {
+            final TiffTile result = get(x, y, p);
+            if (result != null) {
+                planes[p][y][x] = null;
+                size--;
+                modCount++;
+            }
+            return result;
+        }
+
+        void clear() {
+            Arrays.fill(planes, null);
+            size = 0;
+            modCount++;
+        }
+
+        Iterator<TiffTile> iterator() {
+            return new Iterator<>() {
+                private final int expectedModCount = modCount;
+                private int p = 0;
+                private int y = 0;
+                private int x = 0;
+                private TiffTile next = findNext();
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public TiffTile next() {
+                    if (modCount != expectedModCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    final TiffTile result = next;
+                    x++;
+                    next = findNext();
+                    return result;
+                }
+
+                private TiffTile findNext() {
+                    for (; p < planes.length; p++, y = 0) {
+                        final TiffTile[][] rows = planes[p];
+                        if (rows == null) {
+                            continue;
+                        }
+                        for (; y < rows.length; y++, x = 0) {
+                            final TiffTile[] row = rows[y];
+                            if (row == null) {
+                                continue;
+                            }
+                            for (; x < row.length; x++) {
+                                if (row[x] != null) {
+                                    return row[x];
+                                }
+                            }
+                        }
+                    }
+                    return null;
+                }
+            };
+        }
+
+        private static int newLength(int length, int required, int gridCount) {
+            return Math.max(Math.max(required, gridCount), length + (length >> 1));
+            // - amortized growth while adding tiles one by one into a resizable map
+        }
+    }
 }
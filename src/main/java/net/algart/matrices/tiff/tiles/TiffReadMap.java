@@ -34,7 +34,11 @@ import net.algart.matrices.tiff.tags.TagDescription;
 
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public final class TiffReadMap extends TiffIOMap {
     private final TiffReader reader;
@@ -106,6 +110,24 @@ public final class TiffReadMap extends TiffIOMap {
         return this;
     }
 
+    @Override
+    public TiffReadMap setDecodingExecutor(Executor decodingExecutor) {
+        super.setDecodingExecutor(decodingExecutor);
+        return this;
+    }
+
+    @Override
+    public TiffReadMap enableParallelDecoding() {
+        super.enableParallelDecoding();
+        return this;
+    }
+
+    @Override
+    public TiffReadMap disableParallelDecoding() {
+        super.disableParallelDecoding();
+        return this;
+    }
+
     @Override
     public TiffReadMap setDescription(TagDescription description) {
         super.setDescription(description);
@@ -214,6 +236,35 @@ public final class TiffReadMap extends TiffIOMap {
         return readBufferedImage(fromX, fromY, sizeX, sizeY, false);
     }
 
+    /**
+     * Equivalent to <code>{@link #reader()}.{@link TiffReader#readTileAsync(TiffTileIndex)
+     * readTileAsync}(tileIndex)</code>, but also checks that the tile index belongs to this map.
+     *
+     * @param tileIndex index of the tile.
+     * @return a future, which will contain the loaded tile.
+     */
+    public CompletableFuture<TiffTile> readTileAsync(TiffTileIndex tileIndex) {
+        checkTileIndexIFD(tileIndex);
+        return reader.readTileAsync(tileIndex);
+    }
+
+    public CompletableFuture<TiffTile> readTileAsync(int xIndex, int yIndex) {
+        return readTileAsync(index(xIndex, yIndex));
+    }
+
+    /**
+     * Equivalent to <code>{@link #reader()}.{@link TiffReader#readTilesAsync(Collection)
+     * readTilesAsync}(tileIndexes)</code>, but also checks that all tile indexes belong to this map.
+     *
+     * @param tileIndexes indexes of the tiles.
+     * @return a future, which will contain the list of loaded tiles in the same order.
+     */
+    public CompletableFuture<List<TiffTile>> readTilesAsync(Collection<TiffTileIndex> tileIndexes) {
+        Objects.requireNonNull(tileIndexes, "Null tile indexes");
+        tileIndexes.forEach(this::checkTileIndexIFD);
+        return reader.readTilesAsync(tileIndexes);
+    }
+
     @Override
     public int hashCode() {
         return super.hashCode() ^ 'r';
@@ -28,6 +28,7 @@ import net.algart.arrays.*;
 import net.algart.math.IRectangularArea;
 import net.algart.matrices.tiff.*;
 import net.algart.matrices.tiff.bits.TiffUnpackingPrecisions;
+import net.algart.matrices.tiff.io.ByteArrayPool;
 import net.algart.matrices.tiff.samples.TiffSampleType;
 import net.algart.matrices.tiff.samples.TiffSamples;
 import net.algart.matrices.tiff.tags.TagCompression;
@@ -99,6 +100,9 @@ public final class TiffTile {
     // it helps to defer actual subtracting until the moment when we know the correct tile sizes
     private boolean frozenEmpty = false;
     private TiffIO.CodecReport report = null;
+    private ByteArrayPool bufferPool = null;
+    private boolean ownedData = false;
+    // - the data array was taken from bufferPool while reading and is not shared with other tiles
 
     /**
      * Creates new tile with given index.
@@ -865,6 +869,10 @@ public final class TiffTile {
             checkRarePrecision("copy unpacked samples");
             // - for a rare precision 24-bit, we have no simple way to change byte order and prefer to disable it
         }
+        if (copyMode != CopyMode.COPY_CONTENT) {
+            source.ownedData = false;
+            // - the source data can become shared with this tile
+        }
         if (source.isEmpty()) {
             freeData();
         } else {
@@ -916,7 +924,86 @@ public final class TiffTile {
         return this;
     }
 
+    /**
+     * Returns the pool of arrays, used by {@link #allocateData(int)} and {@link #releaseData()} methods.
+     * Usually it is set by {@link TiffReader#setBufferPool(ByteArrayPool)} for the tiles created by the reader.
+     *
+     * <p>If the pool is set, the encoded data, loaded from the file by {@link TiffTileIO} read methods,
+     * are stored in an array taken from this pool.
+     * Such an array is automatically returned to the pool when it is no longer necessary:
+     * when the tile is freed by {@link #freeData()} or {@link #freeAndFreeze()} methods, or when
+     * the data are replaced with other data, for example, with the decoded data while reading TIFF.
+     * So, the pool allows reusing the memory of the encoded data of the read tiles for the next tiles.
+     * The array is excluded from this mechanism if it is shared with another tile by
+     * {@link #copyData(TiffTile, CopyMode)}.</p>
+     *
+     * @return the buffer pool of this tile; may be {@code null}.
+     */
+    public ByteArrayPool getBufferPool() {
+        return bufferPool;
+    }
+
+    public TiffTile setBufferPool(ByteArrayPool bufferPool) {
+        if (bufferPool != this.bufferPool) {
+            this.ownedData = false;
+        }
+        this.bufferPool = bufferPool;
+        return this;
+    }
+
+    /**
+     * Returns a zero-filled array with the specified length, taken from the {@link #getBufferPool() buffer pool}
+     * of this tile, or a new array <code>new byte[length]</code> if there is no pool.
+     * This method does not change the data of this tile.
+     *
+     * @param length the length of the array.
+     * @return new zero-filled array.
+     */
+    public byte[] allocateData(int length) {
+        final ByteArrayPool bufferPool = this.bufferPool;
+        return bufferPool != null ? bufferPool.allocate(length) : new byte[length];
+    }
+
+    // Sets the encoded data, allocated by allocateData method and not shared with anybody:
+    // this array will be returned to the pool when it is replaced (for example, after decoding) or freed
+    void setAllocatedEncodedData(byte[] data) {
+        setEncodedData(data, true);
+        this.ownedData = bufferPool != null;
+    }
+
+    /**
+     * Analog of {@link #allocateData(int)}, which does not clear the array, taken from the pool
+     * (see {@link ByteArrayPool#allocateForOverwrite(int)}).
+     * Use this method only if the caller fills all elements of the returned array.
+     *
+     * @param length the length of the array.
+     * @return new array with undefined content.
+     */
+    public byte[] allocateDataForOverwrite(int length) {
+        final ByteArrayPool bufferPool = this.bufferPool;
+        return bufferPool != null ? bufferPool.allocateForOverwrite(length) : new byte[length];
+    }
+
+    /**
+     * Calls {@link #freeData()} and returns the data array (encoded or decoded) to the
+     * {@link #getBufferPool() buffer pool} of this tile, if it exists.
+     *
+     * <p>Call this method only when there are no other references to the data of this tile:
+     * after this call, the same array may be returned by the pool as data of another tile.
+     * In particular, you must not use this method for tiles, returned by
+     * {@link TiffReader#readCachedTile(TiffTileIndex)} while caching is enabled, or for tiles
+     * that share data with other tiles by {@link CopyMode#COPY_REFERENCE}.</p>
+     */
+    public void releaseData() {
+        this.ownedData = bufferPool != null && data != null;
+        freeData();
+    }
+
     public void freeData() {
+        if (ownedData) {
+            this.ownedData = false;
+            bufferPool.release(data);
+        }
         this.data = null;
         this.interleaved = false;
         // - before possibly setting new decoded data, we should restore the default status interleaved = false
@@ -1479,6 +1566,10 @@ public final class TiffTile {
             throw new IllegalArgumentException("Cannot store " + numberOfPixels +
                     " pixels: very large TIFF tiles >= 2^31 pixels are not supported");
         }
+        if (ownedData && this.data != data) {
+            this.ownedData = false;
+            bufferPool.release(this.data);
+        }
         this.encoded = encoded;
         this.data = data;
         // this.storedInFileDataLength = data.length;
@@ -24,9 +24,12 @@
 
 package net.algart.matrices.tiff.tiles;
 
+import net.algart.matrices.tiff.io.MappedFileSegments;
 import org.scijava.io.handle.DataHandle;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Objects;
 
 public class TiffTileIO {
@@ -50,7 +53,8 @@ public class TiffTileIO {
             throw new IllegalArgumentException("Zero data length indicates a missing tile: such tiles cannot be read");
         }
         tile.setStoredInFileDataRange(fileOffset, dataLength);
-        final byte[] data = new byte[dataLength];
+        final byte[] data = tile.allocateDataForOverwrite(dataLength);
+        // - the array is fully overwritten below (or an exception is thrown)
         inputStream.seek(fileOffset);
         final int result = inputStream.read(data);
         if (result < data.length) {
@@ -58,7 +62,97 @@ public class TiffTileIO {
                     ": loaded " + result + " bytes instead of " + data.length +
                     " (" + inputStream.get() + ")");
         }
-        tile.setEncodedData(data, true);
+        tile.setAllocatedEncodedData(data);
+        tile.markWholeTileAsSet();
+    }
+
+    /**
+     * Analog of {@link #readAt(TiffTile, DataHandle, long, int)}, which uses positional reading
+     * from the file channel instead of the stream.
+     * Unlike the stream, the channel has no shared file position, so this method may be called
+     * simultaneously from several threads without synchronization.
+     *
+     * @param tile       the tile.
+     * @param channel    the file channel.
+     * @param fileOffset offset of the tile data in the file.
+     * @param dataLength length of the tile data.
+     * @throws IOException in the case of any problems with the file.
+     */
+    public static void readAt(TiffTile tile, FileChannel channel, long fileOffset, int dataLength)
+            throws IOException {
+        Objects.requireNonNull(tile, "Null tile");
+        Objects.requireNonNull(channel, "Null channel");
+        if (tile.index().checkMissingTileInSparseTIFF(fileOffset, dataLength, true)) {
+            throw new IllegalArgumentException("Zero data length indicates a missing tile: such tiles cannot be read");
+        }
+        tile.setStoredInFileDataRange(fileOffset, dataLength);
+        final byte[] data = tile.allocateDataForOverwrite(dataLength);
+        final ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            final int result = channel.read(buffer, fileOffset + buffer.position());
+            if (result < 0) {
+                throw new IOException("File exhausted at " + fileOffset +
+                        ": loaded " + buffer.position() + " bytes instead of " + data.length);
+            }
+        }
+        tile.setAllocatedEncodedData(data);
+        tile.markWholeTileAsSet();
+    }
+
+    /**
+     * Analog of {@link #readAt(TiffTile, DataHandle, long, int)}, which copies the tile data
+     * from the memory-mapped file.
+     * This method may be called simultaneously from several threads without synchronization.
+     *
+     * @param tile       the tile.
+     * @param mapping    the memory-mapped file.
+     * @param fileOffset offset of the tile data in the file.
+     * @param dataLength length of the tile data.
+     * @throws IOException in the case of any problems with the file.
+     */
+    public static void readAt(TiffTile tile, MappedFileSegments mapping, long fileOffset, int dataLength)
+            throws IOException {
+        Objects.requireNonNull(tile, "Null tile");
+        Objects.requireNonNull(mapping, "Null mapping");
+        if (tile.index().checkMissingTileInSparseTIFF(fileOffset, dataLength, true)) {
+            throw new IllegalArgumentException("Zero data length indicates a missing tile: such tiles cannot be read");
+        }
+        if (!mapping.contains(fileOffset, dataLength)) {
+            throw new IOException("File exhausted at " + fileOffset + ": cannot load " + dataLength +
+                    " bytes from " + mapping);
+        }
+        tile.setStoredInFileDataRange(fileOffset, dataLength);
+        final byte[] data = tile.allocateDataForOverwrite(dataLength);
+        mapping.read(fileOffset, data, 0, dataLength);
+        tile.setAllocatedEncodedData(data);
+        tile.markWholeTileAsSet();
+    }
+
+    /**
+     * Analog of {@link #readAt(TiffTile, DataHandle, long, int)}, which copies the tile data
+     * from the array, containing the bytes of the file, starting from the position <code>rangeOffset</code>.
+     * It allows reading several tiles by a single read operation and then slicing them from the result.
+     *
+     * @param tile        the tile.
+     * @param range       some part of the file, containing the tile data.
+     * @param rangeOffset position of the <code>range</code> in the file.
+     * @param fileOffset  offset of the tile data in the file.
+     * @param dataLength  length of the tile data.
+     */
+    public static void readAt(TiffTile tile, byte[] range, long rangeOffset, long fileOffset, int dataLength) {
+        Objects.requireNonNull(tile, "Null tile");
+        Objects.requireNonNull(range, "Null range");
+        if (tile.index().checkMissingTileInSparseTIFF(fileOffset, dataLength, true)) {
+            throw new IllegalArgumentException("Zero data length indicates a missing tile: such tiles cannot be read");
+        }
+        if (fileOffset < rangeOffset || fileOffset - rangeOffset > range.length - dataLength) {
+            throw new IllegalArgumentException("Tile data " + fileOffset + ".." + (fileOffset + dataLength) +
+                    " is out of the range " + rangeOffset + ".." + (rangeOffset + range.length));
+        }
+        tile.setStoredInFileDataRange(fileOffset, dataLength);
+        final byte[] data = tile.allocateDataForOverwrite(dataLength);
+        System.arraycopy(range, (int) (fileOffset - rangeOffset), data, 0, dataLength);
+        tile.setAllocatedEncodedData(data);
         tile.markWholeTileAsSet();
     }
 
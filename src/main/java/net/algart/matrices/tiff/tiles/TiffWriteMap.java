@@ -36,6 +36,7 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -107,6 +108,24 @@ public final class TiffWriteMap extends TiffIOMap {
         return this;
     }
 
+    @Override
+    public TiffWriteMap setDecodingExecutor(Executor decodingExecutor) {
+        super.setDecodingExecutor(decodingExecutor);
+        return this;
+    }
+
+    @Override
+    public TiffWriteMap enableParallelDecoding() {
+        super.enableParallelDecoding();
+        return this;
+    }
+
+    @Override
+    public TiffWriteMap disableParallelDecoding() {
+        super.disableParallelDecoding();
+        return this;
+    }
+
     @Override
     public TiffWriteMap setDescription(TagDescription description) {
         super.setDescription(description);
@@ -694,14 +713,12 @@ public final class TiffWriteMap extends TiffIOMap {
 
     public void encode() throws TiffException {
         long t1 = debugTime();
-        int count = 0;
+        final List<TiffTile> encoded = owner.encode(tiles());
+        // - in the parallel mode (see TiffWriter.setEncodingExecutor), the tiles are encoded in parallel threads
+        final int count = encoded.size();
         long sizeInBytes = 0;
-        for (TiffTile tile : tiles()) {
-            final boolean wasNotEncodedYet = owner.encode(tile);
-            if (wasNotEncodedYet) {
-                count++;
-                sizeInBytes += tile.getSizeInBytes();
-            }
+        for (TiffTile tile : encoded) {
+            sizeInBytes += tile.getSizeInBytes();
         }
         long t2 = debugTime();
         logTiles(null, count, sizeInBytes, t1, t2);
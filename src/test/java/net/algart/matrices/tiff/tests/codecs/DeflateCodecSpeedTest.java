@@ -0,0 +1,142 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package net.algart.matrices.tiff.tests.codecs;
+
+import net.algart.matrices.tiff.codecs.DeflateCodec;
+import net.algart.matrices.tiff.codecs.TiffCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public class DeflateCodecSpeedTest {
+    public static void main(String... args) throws IOException, DataFormatException {
+        if (args.length < 1) {
+            System.out.println("Usage:");
+            System.out.printf("    %s source_file [tile_size [number_of_tests]]%n",
+                    DeflateCodecSpeedTest.class.getName());
+            return;
+        }
+        final Path sourceFile = Path.of(args[0]);
+        final int tileSize = args.length > 1 ? Integer.parseInt(args[1]) : 256 * 256 * 3;
+        final int numberOfTests = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        final byte[] source = Files.readAllBytes(sourceFile);
+        final int numberOfTiles = (source.length + tileSize - 1) / tileSize;
+        final byte[][] tiles = new byte[numberOfTiles][];
+        for (int k = 0; k < numberOfTiles; k++) {
+            tiles[k] = Arrays.copyOfRange(source, k * tileSize, Math.min(source.length, (k + 1) * tileSize));
+        }
+        final DeflateCodec codec = new DeflateCodec();
+        final TiffCodec.Options options = new TiffCodec.Options();
+        options.setMaxUnpackedSizeInBytes(tileSize);
+        final byte[][] packed = new byte[numberOfTiles][];
+        final ByteBuffer directBuffer = ByteBuffer.allocateDirect(tileSize);
+        System.out.printf("%d tiles, %d bytes each%n", numberOfTiles, tileSize);
+        for (int test = 1; test <= numberOfTests; test++) {
+            System.out.printf("Test %d/%d...%n", test, numberOfTests);
+            long t1 = System.nanoTime();
+            for (int k = 0; k < numberOfTiles; k++) {
+                packed[k] = legacyCompress(tiles[k]);
+            }
+            long t2 = System.nanoTime();
+            for (int k = 0; k < numberOfTiles; k++) {
+                packed[k] = codec.compress(tiles[k], options);
+            }
+            long t3 = System.nanoTime();
+            for (int k = 0; k < numberOfTiles; k++) {
+                check(tiles[k], legacyDecompress(packed[k]));
+            }
+            long t4 = System.nanoTime();
+            for (int k = 0; k < numberOfTiles; k++) {
+                check(tiles[k], codec.decompress(packed[k], options));
+            }
+            long t5 = System.nanoTime();
+            for (int k = 0; k < numberOfTiles; k++) {
+                directBuffer.clear();
+                codec.decompress(ByteBuffer.wrap(packed[k]), directBuffer);
+                if (directBuffer.position() != tiles[k].length) {
+                    throw new AssertionError("Invalid length of unpacked tile #" + k);
+                }
+            }
+            long t6 = System.nanoTime();
+            System.out.printf("Packing:   %.3f ms legacy, %.3f ms new (%.3f MB/sec)%n",
+                    (t2 - t1) * 1e-6, (t3 - t2) * 1e-6, source.length / 1048576.0 / ((t3 - t2) * 1e-9));
+            System.out.printf("Unpacking: %.3f ms legacy, %.3f ms new (%.3f MB/sec), %.3f ms into direct buffer%n",
+                    (t4 - t3) * 1e-6, (t5 - t4) * 1e-6, source.length / 1048576.0 / ((t5 - t4) * 1e-9),
+                    (t6 - t5) * 1e-6);
+            System.out.println();
+        }
+        System.out.println("OK");
+    }
+
+    private static void check(byte[] expected, byte[] unpacked) {
+        if (!Arrays.equals(expected, unpacked)) {
+            throw new AssertionError("Unpacking failed!");
+        }
+    }
+
+    // The previous implementation of DeflateCodec: new zlib streams and intermediate buffers for every tile
+    private static byte[] legacyCompress(byte[] data) {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[65536];
+        final Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            while (!deflater.finished()) {
+                outputStream.write(buffer, 0, deflater.deflate(buffer));
+            }
+        } finally {
+            deflater.end();
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] legacyDecompress(byte[] data) throws DataFormatException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[65536];
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            while (!inflater.finished()) {
+                final int decompressedSize = inflater.inflate(buffer);
+                if (decompressedSize == 0) {
+                    throw new DataFormatException("corrupted data");
+                }
+                outputStream.write(buffer, 0, decompressedSize);
+            }
+        } finally {
+            inflater.end();
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package net.algart.matrices.tiff.tests.codecs;
+
+import net.algart.matrices.tiff.codecs.LZWCodec;
+import net.algart.matrices.tiff.codecs.TiffCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class LZWCodecSpeedTest {
+    public static void main(String... args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage:");
+            System.out.printf("    %s source_file [tile_size [number_of_tests]]%n",
+                    LZWCodecSpeedTest.class.getName());
+            return;
+        }
+        final Path sourceFile = Path.of(args[0]);
+        final int tileSize = args.length > 1 ? Integer.parseInt(args[1]) : 256 * 256 * 3;
+        final int numberOfTests = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        final byte[] source = Files.readAllBytes(sourceFile);
+        final int numberOfTiles = (source.length + tileSize - 1) / tileSize;
+        final byte[][] tiles = new byte[numberOfTiles][];
+        for (int k = 0; k < numberOfTiles; k++) {
+            tiles[k] = Arrays.copyOfRange(source, k * tileSize, Math.min(source.length, (k + 1) * tileSize));
+        }
+        final LZWCodec codec = new LZWCodec();
+        final TiffCodec.Options options = new TiffCodec.Options();
+        options.setMaxUnpackedSizeInBytes(tileSize);
+        final byte[][] packed = new byte[numberOfTiles][];
+        final byte[] output = new byte[tileSize];
+        System.out.printf("%d tiles, %d bytes each%n", numberOfTiles, tileSize);
+        for (int test = 1; test <= numberOfTests; test++) {
+            System.out.printf("Test %d/%d...%n", test, numberOfTests);
+            long packedLength = 0;
+            long t1 = System.nanoTime();
+            for (int k = 0; k < numberOfTiles; k++) {
+                packed[k] = codec.compress(tiles[k], options);
+                packedLength += packed[k].length;
+            }
+            long t2 = System.nanoTime();
+            for (int k = 0; k < numberOfTiles; k++) {
+                final byte[] unpacked = codec.decompress(packed[k], options);
+                if (!Arrays.equals(unpacked, 0, tiles[k].length, tiles[k], 0, tiles[k].length)) {
+                    throw new AssertionError("Unpacking tile #" + k + " failed!");
+                }
+            }
+            long t3 = System.nanoTime();
+            for (int k = 0; k < numberOfTiles; k++) {
+                final int length = codec.decompress(ByteBuffer.wrap(packed[k]), output);
+                if (length != tiles[k].length) {
+                    throw new AssertionError("Invalid length of unpacked tile #" + k + ": " + length);
+                }
+            }
+            long t4 = System.nanoTime();
+            System.out.printf("%d bytes packed to %d bytes%n", source.length, packedLength);
+            System.out.printf("Packing:   %.3f ms, %.3f MB/sec%n",
+                    (t2 - t1) * 1e-6, source.length / 1048576.0 / ((t2 - t1) * 1e-9));
+            System.out.printf("Unpacking: %.3f ms, %.3f MB/sec; %.3f ms into a ready array%n",
+                    (t3 - t2) * 1e-6, source.length / 1048576.0 / ((t3 - t2) * 1e-9), (t4 - t3) * 1e-6);
+            System.out.println();
+        }
+        System.out.println("OK");
+    }
+}
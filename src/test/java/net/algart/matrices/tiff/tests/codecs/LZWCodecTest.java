@@ -0,0 +1,169 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package net.algart.matrices.tiff.tests.codecs;
+
+import net.algart.matrices.tiff.codecs.LZWCodec;
+import net.algart.matrices.tiff.codecs.TiffCodec;
+import org.scijava.io.handle.BytesHandle;
+import org.scijava.io.handle.DataHandle;
+import org.scijava.io.location.BytesLocation;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+public class LZWCodecTest {
+    // LZW strip of the 8-bit grayscale image 32x4, written by libtiff 4.x (TIFFWriteEncodedStrip);
+    // the pixels are described by libtiffPixel method
+    private static final int LIBTIFF_DIM_X = 32;
+    private static final int LIBTIFF_DIM_Y = 4;
+    private static final byte[] LIBTIFF_LZW = {
+            (byte) 0x80, 0x00, 0x20, 0x40, 0x00, (byte) 0x84, 0x14, 0x20, 0x20, (byte) 0x84, 0x08, 0x06, 0x10,
+            (byte) 0xB1, (byte) 0x81, 0x02, 0x1C, 0x40, 0x28, 0x44, 0x4A, 0x06, 0x08, (byte) 0xA1, (byte) 0x80,
+            (byte) 0xE1, 0x17, 0x38, 0x00, (byte) 0xC0, (byte) 0x80, 0x50, 0x30, 0x5C, 0x26, 0x14, 0x0A,
+            (byte) 0x89, (byte) 0x84, (byte) 0xE2, 0x31, 0x20, (byte) 0xD4, 0x6C, 0x37, 0x19, (byte) 0x91, 0x08,
+            (byte) 0xA4, 0x62, 0x39, 0x4C, (byte) 0xA8, 0x55, 0x2B, 0x19, (byte) 0xCC, 0x66, 0x43, 0x29,
+            (byte) 0xD8, (byte) 0xEE, 0x73, 0x3A, 0x01, (byte) 0x81, 0x00, (byte) 0xA0, 0x38, 0x64, 0x2C, 0x18,
+            0x0D, 0x09, (byte) 0xC5, 0x22, 0x61, 0x40, (byte) 0xE8, 0x6E, 0x39, 0x1B, 0x12, 0x09, 0x44, 0x72,
+            0x49, 0x58, (byte) 0xB0, 0x5A, 0x2B, (byte) 0x9A, 0x4C, (byte) 0xC6, (byte) 0x83, 0x51, (byte) 0xDC,
+            (byte) 0xF2, 0x76, 0x3C, 0x02, 0x41, (byte) 0x80, (byte) 0xA0, 0x68, 0x6C, 0x32, 0x1C, 0x0D, 0x0B,
+            0x45, 0x62, (byte) 0x91, 0x60, (byte) 0xE8, 0x7A, 0x3B, 0x1C, (byte) 0x93, 0x09, 0x44, (byte) 0xD2,
+            0x59, 0x64, (byte) 0xB8, 0x5A, 0x2E, (byte) 0x9A, (byte) 0xCD, 0x26, (byte) 0xC3, 0x51, (byte) 0xF4,
+            (byte) 0xF6, 0x79, 0x3E, 0x40, 0x40
+    };
+
+    private static byte libtiffPixel(int x, int y) {
+        return (byte) ((x / 4) * 16 + y * 3 + (x * y) % 5);
+    }
+
+    private static void testLibtiffStream() throws IOException {
+        final byte[] expected = new byte[LIBTIFF_DIM_X * LIBTIFF_DIM_Y];
+        for (int y = 0, k = 0; y < LIBTIFF_DIM_Y; y++) {
+            for (int x = 0; x < LIBTIFF_DIM_X; x++) {
+                expected[k++] = libtiffPixel(x, y);
+            }
+        }
+        final TiffCodec.Options options = new TiffCodec.Options().setMaxUnpackedSizeInBytes(expected.length);
+        final byte[] unpacked = new LZWCodec().decompress(LIBTIFF_LZW, options);
+        if (!Arrays.equals(unpacked, expected)) {
+            throw new AssertionError("Invalid decoding of libtiff LZW data:%n%s%ninstead of%n%s".formatted(
+                    Arrays.toString(unpacked), Arrays.toString(expected)));
+        }
+        final byte[] packed = new LZWCodec().compress(expected, options);
+        if (!Arrays.equals(packed, LIBTIFF_LZW)) {
+            System.out.printf("Note: our LZW encoder produced %d bytes instead of %d bytes in libtiff%n",
+                    packed.length, LIBTIFF_LZW.length);
+            // - not an error: LZW encoders may differ, for example, in the moment of writing CLEAR code
+        }
+
+        // Decoding from a stream: the bytes after the end-of-information code must not be consumed
+        final byte[] withTail = Arrays.copyOf(LIBTIFF_LZW, LIBTIFF_LZW.length + 10);
+        Arrays.fill(withTail, LIBTIFF_LZW.length, withTail.length, (byte) 0xAB);
+        try (DataHandle<?> in = new BytesHandle(new BytesLocation(withTail))) {
+            final byte[] fromStream = new LZWCodec().decompress(in,
+                    new TiffCodec.Options().setMaxUnpackedSizeInBytes(expected.length + 100));
+            // - larger output: decompression stops at the end-of-information code
+            if (!Arrays.equals(fromStream, 0, expected.length, expected, 0, expected.length)) {
+                throw new AssertionError("Invalid decoding of libtiff LZW data from the stream");
+            }
+            if (in.offset() != LIBTIFF_LZW.length) {
+                throw new AssertionError("Stream position after decoding is " + in.offset() +
+                        " instead of " + LIBTIFF_LZW.length);
+            }
+        }
+        System.out.println("libtiff LZW stream is decoded correctly");
+    }
+
+    private static byte[] randomData(Random rnd, int length) {
+        final byte[] data = new byte[length];
+        final int alphabet = 1 + rnd.nextInt(rnd.nextBoolean() ? 4 : 256);
+        // - small alphabet leads to long LZW strings
+        for (int k = 0; k < length; ) {
+            final byte b = (byte) rnd.nextInt(alphabet);
+            final int len = rnd.nextInt(5) == 0 ? rnd.nextInt(100) : 1;
+            for (int i = 0; i < len && k < length; i++) {
+                data[k++] = b;
+            }
+        }
+        return data;
+    }
+
+    public static void main(String... args) throws IOException {
+        testLibtiffStream();
+        final int numberOfTests = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        final Random rnd = new Random(157);
+        final LZWCodec codec = new LZWCodec();
+        for (int test = 1; test <= numberOfTests; test++) {
+            if (test % 100 == 0) {
+                System.out.printf("\rTest #%d...\r", test);
+            }
+            final int length = rnd.nextInt(4) == 0 ? rnd.nextInt(100000) : rnd.nextInt(1000);
+            // - large arrays lead to 12-bit codes and CLEAR codes inside the stream
+            final byte[] data = randomData(rnd, length);
+            final TiffCodec.Options options = new TiffCodec.Options().setMaxUnpackedSizeInBytes(length);
+            final byte[] packed = codec.compress(data, options);
+
+            // Testing round trip
+            final byte[] unpacked = codec.decompress(packed, options);
+            if (!Arrays.equals(unpacked, data)) {
+                throw new AssertionError("Round trip failed for " + length + " bytes");
+            }
+
+            // Testing truncated output: the last string, which does not fit, is truncated
+            final int outputLength = length == 0 ? 0 : rnd.nextInt(length);
+            final int outputOffset = rnd.nextInt(10);
+            final byte[] output = new byte[outputOffset + outputLength + 10];
+            final int result = LZWCodec.decompress(packed, 0, packed.length, output, outputOffset, outputLength);
+            if (result != outputLength) {
+                throw new AssertionError("Truncated decoding returned " + result + " instead of " + outputLength);
+            }
+            if (!Arrays.equals(output, outputOffset, outputOffset + outputLength, data, 0, outputLength)) {
+                throw new AssertionError("Truncated decoding produced other data for " +
+                        outputLength + "/" + length + " bytes");
+            }
+            for (int k = 0; k < output.length; k++) {
+                if ((k < outputOffset || k >= outputOffset + outputLength) && output[k] != 0) {
+                    throw new AssertionError("Truncated decoding modified byte #" + k + " outside the output range");
+                }
+            }
+
+            // Testing corrupted data: exception is possible, but not other behaviour
+            if (packed.length > 0) {
+                final byte[] corrupted = packed.clone();
+                corrupted[rnd.nextInt(corrupted.length)] ^= (byte) (1 + rnd.nextInt(255));
+                try {
+                    final int n = LZWCodec.decompress(corrupted, 0, corrupted.length, output, 0, output.length);
+                    if (n < 0 || n > output.length) {
+                        throw new AssertionError("Invalid result for corrupted data: " + n);
+                    }
+                } catch (IOException ignored) {
+                    // - TiffException is a normal reaction to invalid data
+                }
+            }
+        }
+        System.out.println("O'k           ");
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.matrices.tiff.tests.io;
+
+import net.algart.matrices.tiff.TiffReader;
+import net.algart.matrices.tiff.tiles.TiffReadMap;
+import net.algart.matrices.tiff.tiles.TiffTile;
+import net.algart.matrices.tiff.tiles.TiffTileIndex;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class TiffAsyncReadTest {
+    public static void main(String... args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage:");
+            System.out.println("    " + TiffAsyncReadTest.class.getName() +
+                    " source.tif [ifdIndex [numberOfRepeats]]");
+            return;
+        }
+        final Path sourceFile = Paths.get(args[0]);
+        final int ifdIndex = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        final int numberOfRepeats = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        try (TiffReader reader = new TiffReader(sourceFile)) {
+            final TiffReadMap map = reader.map(ifdIndex);
+            final List<TiffTileIndex> indexes = new ArrayList<>();
+            for (int repeat = 0; repeat < numberOfRepeats; repeat++) {
+                // - the same tiles are requested several times: they should be read only once
+                for (int k = 0, n = map.numberOfGridTiles(); k < n; k++) {
+                    indexes.add(map.indexFromLinear(k));
+                }
+            }
+            System.out.printf("Reading %d tiles asynchronously from %s...%n", indexes.size(), map);
+            long t1 = System.nanoTime();
+            final List<TiffTile> tiles = map.readTilesAsync(indexes).join();
+            long t2 = System.nanoTime();
+            System.out.printf("Done in %.3f ms: %d cache hits, %d misses%n",
+                    (t2 - t1) * 1e-6, reader.cacheHitCount(), reader.cacheMissCount());
+            for (int k = 0; k < indexes.size(); k++) {
+                final TiffTile tile = reader.readTile(indexes.get(k));
+                if (!Arrays.equals(tiles.get(k).getDecodedData(), tile.getDecodedData())) {
+                    throw new AssertionError("Asynchronously read tile " + indexes.get(k) + " differs");
+                }
+            }
+
+            reader.clearCache();
+            final CompletableFuture<TiffTile> cancelled = reader.readTileAsync(map.indexFromLinear(0));
+            final CompletableFuture<TiffTile> active = reader.readTileAsync(map.indexFromLinear(0));
+            cancelled.cancel(false);
+            System.out.printf("Cancelled request: %s; active request: %s%n", cancelled, active.join());
+        }
+    }
+}
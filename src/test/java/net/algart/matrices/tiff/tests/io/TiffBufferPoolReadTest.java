@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package net.algart.matrices.tiff.tests.io;
+
+import net.algart.matrices.tiff.TiffReader;
+import net.algart.matrices.tiff.io.ByteArrayPool;
+import net.algart.matrices.tiff.tiles.TiffReadMap;
+import net.algart.matrices.tiff.tiles.TiffTile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class TiffBufferPoolReadTest {
+    private static void testSizeClasses() {
+        final ByteArrayPool pool = new ByteArrayPool(1048576);
+        final byte[] a = pool.allocateAtLeast(5000);
+        if (a.length != 8192 || ByteArrayPool.sizeClass(5000) != 8192 || ByteArrayPool.sizeClass(8192) != 8192) {
+            throw new AssertionError("Invalid size class: " + a.length);
+        }
+        pool.release(a);
+        final byte[] b = pool.allocateAtLeast(7000);
+        if (b != a || pool.reuseCount() != 1) {
+            throw new AssertionError("Array with the same size class was not reused: " + pool);
+        }
+        if (pool.allocate(5000).length != 5000) {
+            throw new AssertionError("Invalid exact length");
+        }
+        System.out.println("Size classes: O'k");
+    }
+
+    private static void testRepeatedTileReading(TiffReader reader, TiffReadMap map, ByteArrayPool pool)
+            throws IOException {
+        for (int pass = 1; pass <= 3; pass++) {
+            pool.resetStatistics();
+            for (int k = 0; k < map.numberOfGridTiles(); k++) {
+                final TiffTile tile = reader.readTile(map.indexFromLinear(k));
+                tile.releaseData();
+            }
+            System.out.printf("Repeated reading of %d tiles, pass #%d: %s%n", map.numberOfGridTiles(), pass, pool);
+            if (pass > 1 && map.numberOfGridTiles() > 1 && pool.reuseCount() == 0) {
+                throw new AssertionError("The pool was not used while repeated reading the tiles");
+            }
+        }
+    }
+
+    public static void main(String... args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage:");
+            System.out.println("    " + TiffBufferPoolReadTest.class.getName() +
+                    " source.tif [ifdIndex [viewportSize [numberOfScans]]]");
+            return;
+        }
+        final Path sourceFile = Paths.get(args[0]);
+        final int ifdIndex = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        final int viewportSize = args.length > 2 ? Integer.parseInt(args[2]) : 512;
+        final int numberOfScans = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+        testSizeClasses();
+        final ByteArrayPool pool = new ByteArrayPool(256 * 1048576L);
+        try (TiffReader reader = new TiffReader(sourceFile);
+             TiffReader pooledReader = new TiffReader(sourceFile)) {
+            reader.setCaching(false);
+            pooledReader.setCaching(false);
+            pooledReader.setBufferPool(pool);
+            final TiffReadMap map = reader.map(ifdIndex);
+            final TiffReadMap pooledMap = pooledReader.map(ifdIndex);
+            testRepeatedTileReading(pooledReader, pooledMap, pool);
+            for (int scan = 1; scan <= numberOfScans; scan++) {
+                long timeUsual = 0;
+                long timePooled = 0;
+                pool.resetStatistics();
+                for (int y = 0; y < map.dimY(); y += viewportSize) {
+                    for (int x = 0; x < map.dimX(); x += viewportSize) {
+                        final int sizeX = Math.min(viewportSize, map.dimX() - x);
+                        final int sizeY = Math.min(viewportSize, map.dimY() - y);
+                        long t1 = System.nanoTime();
+                        final byte[] expected = map.readSampleBytes(x, y, sizeX, sizeY, false);
+                        long t2 = System.nanoTime();
+                        final byte[] actual = pooledMap.readSampleBytes(x, y, sizeX, sizeY, false);
+                        long t3 = System.nanoTime();
+                        timeUsual += t2 - t1;
+                        timePooled += t3 - t2;
+                        if (!Arrays.equals(expected, actual)) {
+                            throw new AssertionError("Different data in the region " +
+                                    x + ", " + y + ", " + sizeX + "x" + sizeY);
+                        }
+                    }
+                }
+                System.out.printf("Scan #%d: %.3f ms usual, %.3f ms with pool; %s%n",
+                        scan, timeUsual * 1e-6, timePooled * 1e-6, pool);
+            }
+        }
+        System.out.println("O'k");
+    }
+}
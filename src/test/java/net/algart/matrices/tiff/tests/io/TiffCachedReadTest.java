@@ -0,0 +1,93 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.matrices.tiff.tests.io;
+
+import net.algart.matrices.tiff.TiffReader;
+import net.algart.matrices.tiff.tiles.TiffReadMap;
+import net.algart.matrices.tiff.tiles.TiffTile;
+import net.algart.matrices.tiff.tiles.TiffTileIndex;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class TiffCachedReadTest {
+    public static void main(String... args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage:");
+            System.out.println("    " + TiffCachedReadTest.class.getName() +
+                    " source.tif [ifdIndex [maxCacheMemoryInMB [numberOfThreads [numberOfReadsPerThread]]]]");
+            return;
+        }
+        final Path sourceFile = Paths.get(args[0]);
+        final int ifdIndex = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        final long maxCacheMemory = args.length > 2 ? Long.parseLong(args[2]) * 1048576L : 16 * 1048576L;
+        final int numberOfThreads = args.length > 3 ?
+                Integer.parseInt(args[3]) :
+                Runtime.getRuntime().availableProcessors();
+        final int numberOfReads = args.length > 4 ? Integer.parseInt(args[4]) : 1000;
+
+        try (TiffReader reader = new TiffReader(sourceFile)) {
+            reader.setMaxCacheMemory(maxCacheMemory);
+            final TiffReadMap map = reader.map(ifdIndex);
+            final int numberOfTiles = map.numberOfGridTiles();
+            System.out.printf("Reading %d random tiles in %d threads from %s...%n",
+                    numberOfReads, numberOfThreads, map);
+            long t1 = System.nanoTime();
+            IntStream.range(0, numberOfThreads).parallel().forEach(thread -> {
+                final Random random = new Random(thread);
+                try {
+                    for (int k = 0; k < numberOfReads; k++) {
+                        final int linear = (int) Math.min(numberOfTiles - 1,
+                                Math.abs(random.nextGaussian()) * numberOfTiles / 8.0);
+                        // - some tiles are requested much more often than others
+                        final TiffTileIndex tileIndex = map.indexFromLinear(linear);
+                        final TiffTile cached = reader.readCachedTile(tileIndex);
+                        if (k % 100 == 0) {
+                            final TiffTile tile = reader.readTile(tileIndex);
+                            if (!Arrays.equals(cached.getDecodedData(), tile.getDecodedData())) {
+                                throw new AssertionError("Cached tile " + tileIndex + " differs from the file");
+                            }
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            long t2 = System.nanoTime();
+            System.out.printf("Done in %.3f ms: %d hits, %d misses, %d evictions, %.2f MB in cache (limit %.2f MB)%n",
+                    (t2 - t1) * 1e-6,
+                    reader.cacheHitCount(), reader.cacheMissCount(), reader.cacheEvictionCount(),
+                    reader.cacheMemoryUsage() / 1048576.0, maxCacheMemory / 1048576.0);
+            if (reader.cacheMemoryUsage() > maxCacheMemory) {
+                throw new AssertionError("Cache memory limit exceeded");
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package net.algart.matrices.tiff.tests.io;
+
+import net.algart.arrays.Matrix;
+import net.algart.arrays.UpdatablePArray;
+import net.algart.matrices.tiff.TiffCopier;
+import net.algart.matrices.tiff.TiffIFD;
+import net.algart.matrices.tiff.TiffReader;
+import net.algart.matrices.tiff.TiffWriter;
+import net.algart.matrices.tiff.samples.TiffSamples;
+import net.algart.matrices.tiff.tags.TagCompression;
+import net.algart.matrices.tiff.tiles.TiffTile;
+import net.algart.matrices.tiff.tiles.TiffWriteMap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class TiffChannelTransferCopyTest {
+    private static final int TILE_SIZE = 64;
+    private static final int TILE_COUNT_X = 4;
+    private static final int TILE_COUNT_Y = 3;
+    private static final int NUMBER_OF_CHANNELS = 3;
+    private static final int MISSING_TILE = 6;
+    private static final int DUPLICATED_TILE = 1;
+    private static final int[] DUPLICATES = {5, 10};
+
+    public static void main(String... args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage:");
+            System.out.println("    " + TiffChannelTransferCopyTest.class.getName() +
+                    " source.tif target-transfer.tif target-stream.tif [LZW|DEFLATE|...]");
+            System.out.println("The source file will be created by this test.");
+            return;
+        }
+        final Path sourceFile = Paths.get(args[0]);
+        final Path transferFile = Paths.get(args[1]);
+        final Path streamFile = Paths.get(args[2]);
+        final TagCompression compression = args.length > 3 ? TagCompression.valueOf(args[3]) : TagCompression.DEFLATE;
+
+        createSource(sourceFile, compression);
+        System.out.printf("Created %s%n", sourceFile);
+        copy(transferFile, sourceFile, true);
+        copy(streamFile, sourceFile, false);
+        if (!Arrays.equals(Files.readAllBytes(transferFile), Files.readAllBytes(streamFile))) {
+            throw new AssertionError("Copying with channel transfer produced another file!");
+        }
+        checkTarget(transferFile);
+        System.out.printf("%s and %s are identical%n", transferFile, streamFile);
+        System.out.println("O'k");
+    }
+
+    private static void createSource(Path file, TagCompression compression) throws IOException {
+        final Matrix<UpdatablePArray> image = TiffSamples.asMatrix(
+                new byte[TILE_SIZE * TILE_COUNT_X * TILE_SIZE * TILE_COUNT_Y * NUMBER_OF_CHANNELS],
+                TILE_SIZE * TILE_COUNT_X, TILE_SIZE * TILE_COUNT_Y, NUMBER_OF_CHANNELS, false);
+        try (TiffWriter writer = new TiffWriter(file, TiffWriter.OpenMode.CREATE)) {
+            writer.setMissingTilesAllowed(true);
+            final TiffIFD ifd = TiffIFD.newTiledIFD(compression, image).putTileSizes(TILE_SIZE, TILE_SIZE);
+            final TiffWriteMap map = writer.newFixedMap(ifd);
+            map.prewrite();
+            final List<TiffTile> tiles = new ArrayList<>(map.tiles());
+            for (TiffTile tile : tiles) {
+                final int k = tile.linearIndex();
+                if (k == MISSING_TILE) {
+                    continue;
+                    // - will be written as missing (zero offset and byte count)
+                }
+                if (Arrays.stream(DUPLICATES).anyMatch(d -> d == k)) {
+                    tile.linkWithPreviousDuplicate(map.getByLinear(DUPLICATED_TILE));
+                    // - the same offset as the duplicated tile, which is already written
+                    continue;
+                }
+                final byte[] samples = new byte[TILE_SIZE * TILE_SIZE * NUMBER_OF_CHANNELS];
+                final Random random = new Random(k);
+                for (int i = 0; i < samples.length; i++) {
+                    samples[i] = (byte) (i / 7 + (random.nextInt(8)));
+                    // - partially compressible data
+                }
+                final Matrix<UpdatablePArray> matrix = TiffSamples.asMatrix(
+                        samples, TILE_SIZE, TILE_SIZE, NUMBER_OF_CHANNELS, false);
+                map.flushCompletedTiles(map.updateMatrix(matrix, tile.fromX(), tile.fromY()));
+            }
+            map.completeWriting();
+        }
+    }
+
+    private static void copy(Path targetFile, Path sourceFile, boolean channelTransfer) throws IOException {
+        try (TiffReader reader = new TiffReader(sourceFile).setMissingTilesAllowed(true);
+             TiffWriter writer = new TiffWriter(targetFile, TiffWriter.OpenMode.NO_ACTIONS)) {
+            final TiffCopier copier = new TiffCopier()
+                    .setEnforceCompatibleFileFormat(true)
+                    .setChannelTransfer(channelTransfer);
+            long t1 = System.nanoTime();
+            copier.copyTiffFile(writer, reader);
+            long t2 = System.nanoTime();
+            System.out.printf("Copied to %s %s channel transfer in %.3f ms%n",
+                    targetFile, channelTransfer ? "with" : "without", (t2 - t1) * 1e-6);
+        }
+    }
+
+    private static void checkTarget(Path file) throws IOException {
+        try (TiffReader reader = new TiffReader(file).setMissingTilesAllowed(true)) {
+            final TiffIFD ifd = reader.map(0).ifd();
+            if (ifd.cachedTileOrStripOffset(MISSING_TILE) != 0) {
+                throw new AssertionError("Missing tile #" + MISSING_TILE + " was not copied as missing");
+            }
+            for (int duplicate : DUPLICATES) {
+                if (ifd.cachedTileOrStripOffset(duplicate) != ifd.cachedTileOrStripOffset(DUPLICATED_TILE)) {
+                    throw new AssertionError("Duplicate tile #" + duplicate + " was not copied as a link");
+                }
+            }
+        }
+    }
+}
@@ -51,6 +51,7 @@ public class TiffCopyTest {
     boolean fillMissing = false;
     boolean doubleCopy = false;
     boolean copyAgain = false;
+    boolean parallel = false;
 
     public static void main(String... args) throws IOException {
         TiffCopyTest copyTest = new TiffCopyTest();
@@ -59,6 +60,10 @@ public class TiffCopyTest {
             copyTest.repack = true;
             startArgIndex++;
         }
+        if (args.length > startArgIndex && args[startArgIndex].equalsIgnoreCase("-parallel")) {
+            copyTest.parallel = true;
+            startArgIndex++;
+        }
         if (args.length > startArgIndex && args[startArgIndex].equalsIgnoreCase("-smart")) {
             copyTest.smart = true;
             startArgIndex++;
@@ -94,7 +99,7 @@ public class TiffCopyTest {
         if (args.length < startArgIndex + 2) {
             System.out.println("Usage:");
             System.out.println("    " + TiffCopyTest.class.getName()
-                    + " [-repack] [-smart] [-le|-be] [-allowMissing] [-fillMissing] " +
+                    + " [-repack] [-parallel] [-smart] [-le|-be] [-allowMissing] [-fillMissing] " +
                     "source.tif target.tif [firstIFDIndex lastIFDIndex [numberOfTests]]");
             return;
         }
@@ -218,6 +223,9 @@ public class TiffCopyTest {
                200);
         // copier.setCancellationChecker(() -> copier.copiedTileCount() == 12);
         // - uncomment to cancel copying after 12 tiles
+        if (parallel) {
+            copier.enableParallelCopying();
+        }
         if (uncompress) {
             copier.setIfdCustomizer(ifd -> ifd.putCompression(TagCompression.NONE));
         }
@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.matrices.tiff.tests.io;
+
+import net.algart.matrices.tiff.TiffIFD;
+import net.algart.matrices.tiff.TiffReader;
+import net.algart.matrices.tiff.tiles.TiffReadMap;
+import net.algart.matrices.tiff.tiles.TiffTile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class TiffLazyOffsetsReadTest {
+    public static void main(String... args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage:");
+            System.out.println("    " + TiffLazyOffsetsReadTest.class.getName() + " source.tif [ifdIndex]");
+            return;
+        }
+        final Path sourceFile = Paths.get(args[0]);
+        final int ifdIndex = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+
+        for (int test = 1; test <= 3; test++) {
+            System.out.printf("%nTest #%d%n", test);
+            long t1 = System.nanoTime();
+            try (TiffReader lazyReader = new TiffReader(sourceFile).setLazyOffsetArrays(true)) {
+                final TiffReadMap lazyMap = lazyReader.map(ifdIndex);
+                long t2 = System.nanoTime();
+                final TiffTile lazyTile = lazyMap.readTile(lazyMap.indexFromLinear(lazyMap.numberOfGridTiles() - 1));
+                long t3 = System.nanoTime();
+                System.out.printf("Lazy reader: opening %.3f ms, reading the last tile %.3f ms%n",
+                        (t2 - t1) * 1e-6, (t3 - t2) * 1e-6);
+                final int numberOfTags = lazyMap.ifd().map().keySet().size();
+                final long cachedSize = lazyMap.ifd().cachedArraysSizeInBytes();
+                System.out.printf("%d tags, %d bytes in cached arrays%n", numberOfTags, cachedSize);
+                if (lazyMap.numberOfGridTiles() > 8192 && cachedSize >= 8L * lazyMap.numberOfGridTiles()) {
+                    // - 8192: two pages (offsets and byte counts) of 4096 elements are loaded
+                    throw new AssertionError("Reading one tile or listing tags loaded the full offsets array");
+                }
+
+                t1 = System.nanoTime();
+                try (TiffReader reader = new TiffReader(sourceFile)) {
+                    final TiffReadMap map = reader.map(ifdIndex);
+                    t2 = System.nanoTime();
+                    final TiffTile tile = map.readTile(map.indexFromLinear(map.numberOfGridTiles() - 1));
+                    t3 = System.nanoTime();
+                    System.out.printf("Usual reader: opening %.3f ms, reading the last tile %.3f ms%n",
+                            (t2 - t1) * 1e-6, (t3 - t2) * 1e-6);
+                    if (!Arrays.equals(lazyTile.getDecodedData(), tile.getDecodedData())) {
+                        throw new AssertionError("Lazy reader returned another tile");
+                    }
+                    final TiffIFD lazyIFD = lazyMap.ifd();
+                    final TiffIFD ifd = map.ifd();
+                    try (TiffReader anotherLazyReader = new TiffReader(sourceFile).setLazyOffsetArrays(true)) {
+                        final TiffIFD anotherLazyIFD = anotherLazyReader.map(ifdIndex).ifd();
+                        // - the offsets are not loaded yet: links must be the same in any case
+                        for (int k = 0, n = map.numberOfGridTiles(); k < n; k++) {
+                            if (anotherLazyIFD.cachedLinkToPreviousSameOffset(k) !=
+                                    ifd.cachedLinkToPreviousSameOffset(k)
+                                    || anotherLazyIFD.cachedLinkToNextSameOffset(k) !=
+                                    ifd.cachedLinkToNextSameOffset(k)) {
+                                throw new AssertionError("Different links to duplicates of tile #" + k);
+                            }
+                        }
+                    }
+                    for (int k = 0, n = map.numberOfGridTiles(); k < n; k++) {
+                        if (lazyIFD.cachedTileOrStripOffset(k) != ifd.cachedTileOrStripOffset(k)
+                                || lazyIFD.cachedTileOrStripByteCount(k) != ifd.cachedTileOrStripByteCount(k)) {
+                            throw new AssertionError("Different offset or byte count of tile #" + k);
+                        }
+                    }
+                    if (!Arrays.equals(lazyIFD.cachedTileOrStripOffsets(), ifd.cachedTileOrStripOffsets())) {
+                        throw new AssertionError("Different offsets arrays");
+                    }
+                    System.out.printf("All %d offsets and byte counts are identical%n", map.numberOfGridTiles());
+                }
+            }
+        }
+    }
+}
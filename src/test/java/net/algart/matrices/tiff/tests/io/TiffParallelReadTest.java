@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.matrices.tiff.tests.io;
+
+import net.algart.matrices.tiff.TiffReader;
+import net.algart.matrices.tiff.tiles.TiffReadMap;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TiffParallelReadTest {
+    public static void main(String... args) throws IOException {
+        int startArgIndex = 0;
+        boolean memoryMapping = false;
+        if (args.length > startArgIndex && args[startArgIndex].equalsIgnoreCase("-mapped")) {
+            memoryMapping = true;
+            startArgIndex++;
+        }
+        if (args.length < startArgIndex + 1) {
+            System.out.println("Usage:");
+            System.out.println("    " + TiffParallelReadTest.class.getName() +
+                    " [-mapped] source.tif [firstIFDIndex lastIFDIndex [numberOfThreads [numberOfTests]]]");
+            return;
+        }
+        final Path sourceFile = Paths.get(args[startArgIndex]);
+        final int firstIFDIndex = args.length > startArgIndex + 1 ? Integer.parseInt(args[startArgIndex + 1]) : 0;
+        int lastIFDIndex = args.length > startArgIndex + 2 ?
+                Integer.parseInt(args[startArgIndex + 2]) :
+                Integer.MAX_VALUE;
+        final int numberOfThreads = args.length > startArgIndex + 3 ?
+                Integer.parseInt(args[startArgIndex + 3]) :
+                Runtime.getRuntime().availableProcessors();
+        final int numberOfTests = args.length > startArgIndex + 4 ? Integer.parseInt(args[startArgIndex + 4]) : 1;
+
+        final ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        try (TiffReader reader = new TiffReader(sourceFile)) {
+            reader.setCaching(false);
+            reader.setMemoryMapping(memoryMapping);
+            lastIFDIndex = Math.min(lastIFDIndex, reader.numberOfImages() - 1);
+            for (int test = 1; test <= numberOfTests; test++) {
+                System.out.printf("Test #%d%n", test);
+                for (int ifdIndex = firstIFDIndex; ifdIndex <= lastIFDIndex; ifdIndex++) {
+                    final TiffReadMap map = reader.map(ifdIndex);
+                    System.out.printf("Reading %s...%n", map);
+                    long t1 = System.nanoTime();
+                    map.disableParallelDecoding();
+                    final byte[] serial = map.loadSampleBytes();
+                    long t2 = System.nanoTime();
+                    map.setDecodingExecutor(executor);
+                    final byte[] parallel = map.loadSampleBytes();
+                    long t3 = System.nanoTime();
+                    System.out.printf("%d bytes: %.3f ms sequential, %.3f ms in %d threads%n",
+                            serial.length, (t2 - t1) * 1e-6, (t3 - t2) * 1e-6, numberOfThreads);
+                    if (!Arrays.equals(serial, parallel)) {
+                        throw new AssertionError("Parallel reading produced another result!");
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        System.out.println("Done");
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.matrices.tiff.tests.io;
+
+import net.algart.arrays.Matrix;
+import net.algart.arrays.UpdatablePArray;
+import net.algart.matrices.tiff.TiffIFD;
+import net.algart.matrices.tiff.TiffReader;
+import net.algart.matrices.tiff.TiffWriter;
+import net.algart.matrices.tiff.tags.TagCompression;
+import net.algart.matrices.tiff.tiles.TiffWriteMap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TiffParallelWriteTest {
+    public static void main(String... args) throws IOException {
+        if (args.length < 4) {
+            System.out.println("Usage:");
+            System.out.println("    " + TiffParallelWriteTest.class.getName() +
+                    " source.tif target-sequential.tif target-parallel.tif compression " +
+                    "[ifdIndex [numberOfThreads [maxEncodedTilesInFlight]]]");
+            return;
+        }
+        final Path sourceFile = Paths.get(args[0]);
+        final Path sequentialFile = Paths.get(args[1]);
+        final Path parallelFile = Paths.get(args[2]);
+        final TagCompression compression = TagCompression.valueOf(args[3]);
+        final int ifdIndex = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+        final int numberOfThreads = args.length > 5 ?
+                Integer.parseInt(args[5]) :
+                Runtime.getRuntime().availableProcessors();
+        final int maxEncodedTilesInFlight = args.length > 6 ?
+                Integer.parseInt(args[6]) :
+                TiffWriter.DEFAULT_MAX_ENCODED_TILES_IN_FLIGHT;
+
+        final Matrix<UpdatablePArray> matrix;
+        try (TiffReader reader = new TiffReader(sourceFile)) {
+            matrix = reader.readMatrix(ifdIndex);
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            long t1 = System.nanoTime();
+            write(sequentialFile, matrix, compression, null, maxEncodedTilesInFlight);
+            long t2 = System.nanoTime();
+            write(parallelFile, matrix, compression, executor, maxEncodedTilesInFlight);
+            long t3 = System.nanoTime();
+            System.out.printf("%s written: %.3f ms sequential, %.3f ms in %d threads%n",
+                    matrix, (t2 - t1) * 1e-6, (t3 - t2) * 1e-6, numberOfThreads);
+        } finally {
+            executor.shutdown();
+        }
+        if (!Arrays.equals(Files.readAllBytes(sequentialFile), Files.readAllBytes(parallelFile))) {
+            throw new AssertionError("Parallel writing produced another file!");
+        }
+        System.out.println("Done");
+    }
+
+    private static void write(
+            Path file,
+            Matrix<UpdatablePArray> matrix,
+            TagCompression compression,
+            ExecutorService executor,
+            int maxEncodedTilesInFlight) throws IOException {
+        try (TiffWriter writer = new TiffWriter(file, TiffWriter.OpenMode.CREATE)) {
+            writer.setEncodingExecutor(executor);
+            writer.setMaxEncodedTilesInFlight(maxEncodedTilesInFlight);
+            final TiffIFD ifd = TiffIFD.newTiledIFD(compression, matrix);
+            final TiffWriteMap map = writer.newFixedMap(ifd);
+            map.writeMatrix(matrix);
+        }
+    }
+}
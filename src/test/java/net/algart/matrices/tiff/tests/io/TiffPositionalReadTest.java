@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.matrices.tiff.tests.io;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+import net.algart.matrices.tiff.TiffReader;
+import net.algart.matrices.tiff.tiles.TiffReadMap;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TiffPositionalReadTest {
+    public static void main(String... args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage:");
+            System.out.println("    " + TiffPositionalReadTest.class.getName() +
+                    " source.tif [ifdIndex [numberOfThreads [numberOfTests]]]");
+            return;
+        }
+        final Path sourceFile = Paths.get(args[0]);
+        final int ifdIndex = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        final int numberOfThreads = args.length > 2 ?
+                Integer.parseInt(args[2]) :
+                Runtime.getRuntime().availableProcessors();
+        final int numberOfTests = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+        final byte[] expected;
+        try (TiffReader reader = new TiffReader(sourceFile)) {
+            reader.setPositionalReading(false);
+            expected = reader.map(ifdIndex).loadSampleBytes();
+        }
+        System.out.printf("%d bytes loaded via the usual stream%n", expected.length);
+        final long openFiles = openFileDescriptorCount();
+        for (int test = 1; test <= numberOfTests; test++) {
+            System.out.printf("%nTest #%d%n", test);
+            for (boolean positional : new boolean[]{false, true}) {
+                try (TiffReader reader = new TiffReader(sourceFile)) {
+                    reader.setCaching(false);
+                    reader.setPositionalReading(positional);
+                    final long t1 = System.nanoTime();
+                    runInThreads(numberOfThreads, () -> {
+                        final byte[] bytes = reader.map(ifdIndex).loadSampleBytes();
+                        if (!Arrays.equals(bytes, expected)) {
+                            throw new AssertionError("Reading in " + numberOfThreads + " threads with " +
+                                    "positional reading " + positional + " produced another result!");
+                        }
+                    });
+                    final long t2 = System.nanoTime();
+                    System.out.printf("Positional reading %s: %.3f ms in %d threads%n",
+                            positional, (t2 - t1) * 1e-6, numberOfThreads);
+                }
+            }
+            testCloseWhileReading(sourceFile, ifdIndex, numberOfThreads, expected);
+        }
+        final long openFilesAfter = openFileDescriptorCount();
+        System.out.printf("%nOpen file descriptors: %d before tests, %d after tests%n", openFiles, openFilesAfter);
+        if (openFiles >= 0 && openFilesAfter > openFiles) {
+            throw new AssertionError("File descriptors leaked: " + openFiles + " -> " + openFilesAfter);
+        }
+        System.out.println("Done");
+    }
+
+    private static void testCloseWhileReading(Path sourceFile, int ifdIndex, int numberOfThreads, byte[] expected)
+            throws Exception {
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final TiffReader reader = new TiffReader(sourceFile);
+        reader.setCaching(false);
+        reader.setPositionalReading(true);
+        final TiffReadMap map = reader.map(ifdIndex);
+        final List<Thread> threads = new ArrayList<>();
+        final AtomicReference<Throwable> unexpected = new AtomicReference<>();
+        for (int k = 0; k < numberOfThreads; k++) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 100; i++) {
+                        final byte[] bytes = map.loadSampleBytes();
+                        if (!Arrays.equals(bytes, expected)) {
+                            throw new AssertionError("Reading before closing produced another result!");
+                        }
+                        completed.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    failed.incrementAndGet();
+                    // - normal situation: the file was closed
+                } catch (Throwable e) {
+                    unexpected.compareAndSet(null, e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        Thread.sleep(20);
+        reader.close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (unexpected.get() != null) {
+            throw new AssertionError("Unexpected exception while closing during reading", unexpected.get());
+        }
+        System.out.printf("Closing while reading: %d full reads before closing, %d threads stopped by closing%n",
+                completed.get(), failed.get());
+    }
+
+    private static void runInThreads(int numberOfThreads, Task task) throws Exception {
+        final List<Thread> threads = new ArrayList<>();
+        final AtomicReference<Throwable> exception = new AtomicReference<>();
+        for (int k = 0; k < numberOfThreads; k++) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    exception.compareAndSet(null, e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (exception.get() != null) {
+            throw new AssertionError("Exception in one of threads", exception.get());
+        }
+    }
+
+    private static long openFileDescriptorCount() {
+        final OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        return bean instanceof UnixOperatingSystemMXBean unix ? unix.getOpenFileDescriptorCount() : -1;
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+}
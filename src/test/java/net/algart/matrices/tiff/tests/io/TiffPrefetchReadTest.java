@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.matrices.tiff.tests.io;
+
+import net.algart.matrices.tiff.TiffReader;
+import net.algart.matrices.tiff.tiles.TiffReadMap;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TiffPrefetchReadTest {
+    public static void main(String... args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage:");
+            System.out.println("    " + TiffPrefetchReadTest.class.getName() +
+                    " source.tif [ifdIndex [numberOfTests]]");
+            return;
+        }
+        final Path sourceFile = Paths.get(args[0]);
+        final int ifdIndex = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        final int numberOfTests = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try (TiffReader reader = new TiffReader(sourceFile);
+             TiffReader prefetchingReader = new TiffReader(sourceFile);
+             TiffReader limitedReader = new TiffReader(sourceFile)) {
+            reader.setCaching(false).setMaxPrefetchedBytes(0);
+            prefetchingReader.setCaching(false);
+            final TiffReadMap map = reader.map(ifdIndex);
+            final TiffReadMap prefetchingMap = prefetchingReader.map(ifdIndex);
+            limitedReader.setCaching(false).setMaxPrefetchedBytes(2L * map.tileSizeInBytes());
+            // - only a part of ranges can be loaded simultaneously, the other tiles are read one by one
+            final TiffReadMap limitedMap = limitedReader.map(ifdIndex);
+            System.out.printf("Testing %s%n", map);
+            final Random rnd = new Random(157);
+            for (int test = 0; test <= numberOfTests; test++) {
+                final int fromX, fromY, sizeX, sizeY;
+                if (test == 0) {
+                    fromX = fromY = 0;
+                    sizeX = map.dimX();
+                    sizeY = map.dimY();
+                } else {
+                    fromX = rnd.nextInt(map.dimX());
+                    fromY = rnd.nextInt(map.dimY());
+                    sizeX = 1 + rnd.nextInt(map.dimX() - fromX);
+                    sizeY = 1 + rnd.nextInt(map.dimY() - fromY);
+                }
+                final boolean parallel = test % 2 == 1;
+                for (TiffReadMap m : new TiffReadMap[]{map, prefetchingMap, limitedMap}) {
+                    if (parallel) {
+                        m.setDecodingExecutor(executor);
+                    } else {
+                        m.disableParallelDecoding();
+                    }
+                }
+                long t1 = System.nanoTime();
+                final byte[] expected = map.loadSampleBytes(fromX, fromY, sizeX, sizeY, false);
+                long t2 = System.nanoTime();
+                final byte[] prefetched = prefetchingMap.loadSampleBytes(fromX, fromY, sizeX, sizeY, false);
+                long t3 = System.nanoTime();
+                final byte[] limited = limitedMap.loadSampleBytes(fromX, fromY, sizeX, sizeY, false);
+                long t4 = System.nanoTime();
+                System.out.printf("Region %dx%d at (%d,%d), %s: %.3f ms without prefetching, " +
+                                "%.3f ms with prefetching, %.3f ms with limited prefetching%n",
+                        sizeX, sizeY, fromX, fromY, parallel ? "parallel" : "sequential",
+                        (t2 - t1) * 1e-6, (t3 - t2) * 1e-6, (t4 - t3) * 1e-6);
+                if (!Arrays.equals(expected, prefetched)) {
+                    throw new AssertionError("Prefetching produced another result!");
+                }
+                if (!Arrays.equals(expected, limited)) {
+                    throw new AssertionError("Limited prefetching produced another result!");
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        System.out.println("Done");
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.matrices.tiff.tests.io;
+
+import net.algart.matrices.tiff.TiffIO;
+import net.algart.matrices.tiff.io.ReadBufferDataHandle;
+import org.scijava.io.location.FileLocation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+public class TiffReadBufferTest {
+    public static void main(String... args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage:");
+            System.out.println("    " + TiffReadBufferTest.class.getName() +
+                    " some-file [pageSize numberOfPages [numberOfTests]]");
+            return;
+        }
+        final Path file = Paths.get(args[0]);
+        final int pageSize = args.length > 2 ? Integer.parseInt(args[1]) : 8192;
+        final int numberOfPages = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+        final int numberOfTests = args.length > 3 ? Integer.parseInt(args[3]) : 10000;
+        final byte[] expected = Files.readAllBytes(file);
+        final Random random = new Random(157);
+
+        try (ReadBufferDataHandle<FileLocation> handle = new ReadBufferDataHandle<>(
+                TiffIO.getFileHandle(file), pageSize, numberOfPages)) {
+            long t1 = System.nanoTime();
+            final byte[] sequential = new byte[expected.length];
+            for (int p = 0; p < sequential.length; ) {
+                final int len = Math.min(random.nextInt(100) + 1, sequential.length - p);
+                // - little portions, like while reading IFD values
+                handle.readFully(sequential, p, len);
+                p += len;
+            }
+            long t2 = System.nanoTime();
+            System.out.printf("Sequential reading: %.3f ms, %d hits, %d misses, %d bytes read%n",
+                    (t2 - t1) * 1e-6, handle.hitCount(), handle.missCount(), handle.bytesRead());
+            if (!Arrays.equals(sequential, expected)) {
+                throw new AssertionError("Sequential reading error");
+            }
+
+            handle.resetStatistics();
+            t1 = System.nanoTime();
+            for (int test = 0; test < numberOfTests; test++) {
+                final int position = random.nextInt(expected.length);
+                final int len = Math.min(random.nextBoolean() ? random.nextInt(16) : random.nextInt(100000),
+                        expected.length - position);
+                final byte[] bytes = new byte[len];
+                handle.seek(position);
+                handle.readFully(bytes);
+                if (!Arrays.equals(bytes, 0, len, expected, position, position + len)) {
+                    throw new AssertionError("Random reading error at " + position + ", " + len + " bytes");
+                }
+            }
+            t2 = System.nanoTime();
+            System.out.printf("Random reading: %.3f ms, %d hits, %d misses, %d bytes read%n",
+                    (t2 - t1) * 1e-6, handle.hitCount(), handle.missCount(), handle.bytesRead());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.matrices.tiff.tests.io;
+
+import net.algart.matrices.tiff.TiffReader;
+import net.algart.matrices.tiff.TiffSharedTileCache;
+import net.algart.matrices.tiff.tiles.TiffReadMap;
+import net.algart.matrices.tiff.tiles.TiffTile;
+import net.algart.matrices.tiff.tiles.TiffTileIndex;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class TiffSharedCacheReadTest {
+    public static void main(String... args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage:");
+            System.out.println("    " + TiffSharedCacheReadTest.class.getName() +
+                    " source.tif [ifdIndex [maxCacheMemoryInMB [numberOfReaders]]]");
+            return;
+        }
+        final Path sourceFile = Paths.get(args[0]);
+        final int ifdIndex = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        final long maxCacheMemory = args.length > 2 ? Long.parseLong(args[2]) * 1048576L : 256 * 1048576L;
+        final int numberOfReaders = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        final TiffSharedTileCache cache = new TiffSharedTileCache(maxCacheMemory);
+        for (int test = 1; test <= numberOfReaders; test++) {
+            try (TiffReader reader = new TiffReader(sourceFile)) {
+                reader.setSharedTileCache(cache);
+                final TiffReadMap map = reader.map(ifdIndex);
+                long t1 = System.nanoTime();
+                for (int k = 0, n = map.numberOfGridTiles(); k < n; k++) {
+                    final TiffTileIndex tileIndex = map.indexFromLinear(k);
+                    final TiffTile cached = reader.readCachedTile(tileIndex);
+                    if (cached.index() != tileIndex && !cached.index().equals(tileIndex)) {
+                        throw new AssertionError("Tile " + cached + " does not belong to the map " + map);
+                    }
+                    if (test == numberOfReaders) {
+                        final TiffTile tile = reader.readTile(tileIndex);
+                        if (!Arrays.equals(cached.getDecodedData(), tile.getDecodedData())) {
+                            throw new AssertionError("Cached tile " + tileIndex + " differs from the file");
+                        }
+                    }
+                }
+                long t2 = System.nanoTime();
+                System.out.printf("Reader #%d: %d tiles read in %.3f ms, %d hits, %d misses; %s%n",
+                        test, map.numberOfGridTiles(), (t2 - t1) * 1e-6,
+                        reader.cacheHitCount(), reader.cacheMissCount(), cache);
+            }
+        }
+        System.out.printf("Shared cache: %d hits, %d misses, %d evictions%n",
+                cache.hitCount(), cache.missCount(), cache.evictionCount());
+        if (cache.memoryUsage() > maxCacheMemory) {
+            throw new AssertionError("Cache memory limit exceeded");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.matrices.tiff.tests.io;
+
+import net.algart.matrices.tiff.TiffIFD;
+import net.algart.matrices.tiff.TiffReader;
+import net.algart.matrices.tiff.TiffSidecarIndex;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+public class TiffSidecarIndexTest {
+    public static void main(String... args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage:");
+            System.out.println("    " + TiffSidecarIndexTest.class.getName() + " source.tif [index-directory]");
+            return;
+        }
+        final Path sourceFile = Paths.get(args[0]);
+        final Path indexFile = args.length > 1 ?
+                TiffSidecarIndex.fileInDirectory(Paths.get(args[1]), sourceFile) :
+                TiffSidecarIndex.sidecarFile(sourceFile);
+        Files.deleteIfExists(indexFile);
+
+        for (int test = 1; test <= 3; test++) {
+            System.out.printf("%nTest #%d%n", test);
+            long t1 = System.nanoTime();
+            final List<TiffIFD> ifds;
+            try (TiffReader reader = new TiffReader(sourceFile)) {
+                ifds = reader.allIFDs();
+            }
+            long t2 = System.nanoTime();
+            final List<TiffIFD> indexedIFDs;
+            try (TiffReader reader = new TiffReader(sourceFile).setIndexFile(indexFile)) {
+                indexedIFDs = reader.allIFDs();
+            }
+            long t3 = System.nanoTime();
+            System.out.printf("%d IFDs read from TIFF in %.3f ms, %s index %s in %.3f ms%n",
+                    ifds.size(), (t2 - t1) * 1e-6, test == 1 ? "creating" : "reading", indexFile,
+                    (t3 - t2) * 1e-6);
+            if (ifds.size() != indexedIFDs.size()) {
+                throw new AssertionError("Different number of IFDs");
+            }
+            for (int k = 0; k < ifds.size(); k++) {
+                final String expected = ifds.get(k).toString(TiffIFD.StringFormat.DETAILED);
+                if (!expected.equals(indexedIFDs.get(k).toString(TiffIFD.StringFormat.DETAILED))) {
+                    throw new AssertionError("Different IFD #" + k + ":\n" + expected + "\n" +
+                            indexedIFDs.get(k).toString(TiffIFD.StringFormat.DETAILED));
+                }
+                if (!ifds.get(k).map().keySet().equals(indexedIFDs.get(k).map().keySet())) {
+                    throw new AssertionError("Different tags in IFD #" + k);
+                }
+            }
+            System.out.println("All IFDs are identical");
+        }
+
+        final byte[] index = Files.readAllBytes(indexFile);
+        final int headerLength = 38;
+        // - magic, version and stamp
+        for (int test = 1; test <= 2; test++) {
+            final byte[] corrupted;
+            if (test == 1) {
+                corrupted = index.clone();
+                Arrays.fill(corrupted, headerLength, corrupted.length, (byte) 0x7F);
+                // - huge counts and lengths: must not lead to OutOfMemoryError
+            } else {
+                corrupted = Arrays.copyOf(index, headerLength + (index.length - headerLength) / 2);
+            }
+            Files.write(indexFile, corrupted);
+            final int expected, actual;
+            try (TiffReader reader = new TiffReader(sourceFile)) {
+                expected = reader.allIFDs().size();
+            }
+            try (TiffReader reader = new TiffReader(sourceFile).setIndexFile(indexFile)) {
+                actual = reader.allIFDs().size();
+            }
+            if (actual != expected) {
+                throw new AssertionError("Different number of IFDs with corrupted index");
+            }
+            if (!Arrays.equals(Files.readAllBytes(indexFile), index)) {
+                throw new AssertionError("Corrupted index was not rebuilt");
+            }
+            System.out.printf("Corrupted index #%d was rejected and rebuilt%n", test);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package net.algart.matrices.tiff.tests.io;
+
+import net.algart.matrices.tiff.TiffIO;
+import net.algart.matrices.tiff.io.WriteCombiningDataHandle;
+import org.scijava.io.location.FileLocation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+public class TiffWriteCombiningTest {
+    public static void main(String... args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage:");
+            System.out.println("    " + TiffWriteCombiningTest.class.getName() +
+                    " target-file [bufferSize [numberOfTests]]");
+            return;
+        }
+        final Path file = Paths.get(args[0]);
+        final int bufferSize = args.length > 1 ? Integer.parseInt(args[1]) : 65536;
+        final int numberOfTests = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+        final Random random = new Random(157);
+        byte[] expected = new byte[0];
+
+        Files.deleteIfExists(file);
+        long t1 = System.nanoTime();
+        try (WriteCombiningDataHandle<FileLocation> handle = new WriteCombiningDataHandle<>(
+                TiffIO.getFileHandle(file), bufferSize)) {
+            for (int test = 0; test < numberOfTests; test++) {
+                final int mode = random.nextInt(10);
+                if (mode == 0 && expected.length > 0) {
+                    // - reading, like in TiffWriter while rewriting IFD in place
+                    final int position = random.nextInt(expected.length);
+                    final int len = Math.min(random.nextInt(1000), expected.length - position);
+                    final byte[] bytes = new byte[len];
+                    handle.seek(position);
+                    handle.readFully(bytes);
+                    if (!Arrays.equals(bytes, 0, len, expected, position, position + len)) {
+                        throw new AssertionError("Reading error at " + position + ", " + len + " bytes");
+                    }
+                    continue;
+                }
+                final long position = mode <= 2 ?
+                        random.nextInt(expected.length + 1) :
+                        expected.length;
+                // - mostly appending to the file end, sometimes rewriting existing data
+                final int len = random.nextInt(10) == 0 ? random.nextInt(2 * bufferSize) : random.nextInt(100);
+                final byte[] bytes = new byte[len];
+                random.nextBytes(bytes);
+                handle.seek(position);
+                if (len == 1) {
+                    handle.write(bytes[0]);
+                } else {
+                    handle.write(bytes);
+                }
+                if (position + len > expected.length) {
+                    expected = Arrays.copyOf(expected, (int) (position + len));
+                }
+                System.arraycopy(bytes, 0, expected, (int) position, len);
+                if (handle.offset() != position + len || handle.length() != expected.length) {
+                    throw new AssertionError("Invalid offset/length " + handle.offset() + "/" + handle.length() +
+                            " after writing " + len + " bytes at " + position);
+                }
+            }
+            long t2 = System.nanoTime();
+            System.out.printf("Writing %d bytes: %.3f ms, %d actual write operations%n",
+                    expected.length, (t2 - t1) * 1e-6, handle.flushCount());
+        }
+        final byte[] result = Files.readAllBytes(file);
+        if (!Arrays.equals(result, expected)) {
+            throw new AssertionError("Written file differs from the expected data");
+        }
+        System.out.println("O'k");
+    }
+}
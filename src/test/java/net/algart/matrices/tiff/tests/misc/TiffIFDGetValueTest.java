@@ -28,6 +28,7 @@ import net.algart.matrices.tiff.TiffException;
 import net.algart.matrices.tiff.TiffIFD;
 import net.algart.matrices.tiff.tags.Tags;
 
+import java.util.List;
 import java.util.Optional;
 
 public class TiffIFDGetValueTest {
@@ -70,5 +71,23 @@ public class TiffIFDGetValueTest {
         ifd.putImageDimensions(3000, 3000);
         showTag(ifd, Tags.IMAGE_WIDTH, Number.class);
         showTag(ifd, Tags.IMAGE_WIDTH, Long.class);
+
+        TiffIFD other = TiffIFD.newInstance();
+        other.put(Tags.IMAGE_LENGTH, 200);
+        other.put(Tags.IMAGE_WIDTH, 100L);
+        other.put(Tags.SAMPLES_PER_PIXEL, 3);
+        other.put(Tags.IMAGE_LENGTH, 300);
+        other.remove(Tags.SAMPLES_PER_PIXEL);
+        System.out.printf("Tags: %s, sorted: %s%n", other.map(), other.isSorted());
+        if (!List.of(Tags.IMAGE_LENGTH, Tags.IMAGE_WIDTH).equals(List.copyOf(other.map().keySet()))) {
+            throw new AssertionError("Order of adding tags is not preserved");
+        }
+        if (other.optInt(Tags.IMAGE_WIDTH, -1) != 100 || other.optLong(Tags.IMAGE_LENGTH, -1) != 300
+                || other.optInt(Tags.SAMPLES_PER_PIXEL, -1) != -1) {
+            throw new AssertionError("Invalid optInt/optLong");
+        }
+        if (!List.of(Tags.IMAGE_WIDTH, Tags.IMAGE_LENGTH).equals(List.copyOf(other.sorted().map().keySet()))) {
+            throw new AssertionError("Tags are not sorted");
+        }
     }
 }
@@ -61,6 +61,41 @@ public class TiffMapTileGridTest {
         if (!isSorted(map)) {
             throw new AssertionError();
         }
+        if (map.index(1, 1) != map.getOrNew(1, 1).index()) {
+            throw new AssertionError("Index of existing tile is not reused");
+        }
+
+        TiffMap resizable = new TiffMap(TiffIFD.newTiledIFD(), true);
+        resizable.getOrNew(5, 3);
+        resizable.getOrNew(0, 0);
+        resizable.getOrNew(7, 0);
+        System.out.printf("%nSparse resizable map: %s%n  %s%n", resizable, resizable.indexes());
+        if (resizable.numberOfTiles() != 3 || !isIncreasing(resizable)) {
+            throw new AssertionError();
+        }
+        final TiffTile tile = resizable.getOrNew(5, 3);
+        if (resizable.getByLinear(tile.linearIndex()) != tile || resizable.tileMap().get(tile.index()) != tile) {
+            throw new AssertionError("Tile lookup failed");
+        }
+        resizable.remove(tile.index());
+        if (resizable.numberOfTiles() != 2 || resizable.tiles().contains(tile)) {
+            throw new AssertionError("Tile was not removed");
+        }
+        resizable.buildTileGrid();
+        System.out.printf("With grid: %s%n", resizable);
+        if (resizable.numberOfTiles() != 8 * 4 || !isSorted(resizable)) {
+            throw new AssertionError();
+        }
+    }
 
+    private static boolean isIncreasing(TiffMap map) {
+        int last = -1;
+        for (TiffTile tile : map.tiles()) {
+            if (tile.linearIndex() <= last) {
+                return false;
+            }
+            last = tile.linearIndex();
+        }
+        return true;
     }
 }
@@ -32,6 +32,7 @@ import net.algart.matrices.tiff.bits.TiffPrediction;
 import net.algart.matrices.tiff.tiles.TiffMap;
 import net.algart.matrices.tiff.tiles.TiffTile;
 
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.Objects;
@@ -75,7 +76,66 @@ public class TiffPredictionTest {
         }
     }
 
+    // Encoded rows of 32-bit float samples, prepared manually according to Adobe Photoshop TIFF Technical Note 3
+    // (Predictor=3): every row contains all most significant bytes of the samples (big-endian order),
+    // then all second bytes, etc., and then every byte is replaced with its difference from the byte,
+    // located samplesPerPixel positions before it. Encoded bytes do not depend on the byte order of the file.
+    private static final float[] FIXTURE_1_CHANNEL_FLOATS = {
+            1.0f, 2.5f, -3.25f,
+            100.0f, -0.5f, 65536.0f};
+    private static final int[] FIXTURE_1_CHANNEL_ENCODED = {
+            // 3F800000 (1.0), 40200000 (2.5), C0500000 (-3.25): planes 3F 40 C0 | 80 20 50 | 00.. | 00..
+            0x3F, 0x01, 0x80, 0xC0, 0xA0, 0x30, 0xB0, 0x00, 0x00, 0x00, 0x00, 0x00,
+            // 42C80000 (100.0), BF000000 (-0.5), 47800000 (65536.0): planes 42 BF 47 | C8 00 80 | 00.. | 00..
+            0x42, 0x7D, 0x88, 0x81, 0x38, 0x80, 0x80, 0x00, 0x00, 0x00, 0x00, 0x00};
+    private static final float[] FIXTURE_2_CHANNELS_FLOATS = {
+            1.0f, -2.0f, 0.75f, 1024.0f};
+    private static final int[] FIXTURE_2_CHANNELS_ENCODED = {
+            // 3F800000, C0000000, 3F400000, 44800000: planes 3F C0 3F 44 | 80 00 40 80 | 00.. | 00..
+            0x3F, 0xC0, 0x00, 0x84, 0x41, 0xBC, 0xC0, 0x80, 0xC0, 0x80, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00};
+
+    private static void testFloatingPointFixture(
+            int sizeX,
+            int numberOfChannels,
+            int[] encoded,
+            float[] expected,
+            boolean littleEndian) throws TiffException {
+        final int sizeY = expected.length / (sizeX * numberOfChannels);
+        final TiffIFD ifd = TiffIFD.newInstance()
+                .putImageDimensions(sizeX, sizeY)
+                .putStripSize(sizeY)
+                .putPixelInformation(numberOfChannels, TiffSampleType.FLOAT)
+                .setLittleEndian(littleEndian);
+        final TiffTile tile = new TiffMap(ifd, false).getOrNew(0, 0);
+        final byte[] data = new byte[encoded.length];
+        for (int k = 0; k < data.length; k++) {
+            data[k] = (byte) encoded[k];
+        }
+        tile.setDecodedData(data);
+        TiffPrediction.unsubtractFloatingPointPrediction(tile);
+        final float[] actual = new float[expected.length];
+        ByteBuffer.wrap(tile.getDecodedData()).order(tile.byteOrder()).asFloatBuffer().get(actual);
+        if (!Arrays.equals(expected, actual)) {
+            throw new AssertionError("Bug in unsubtractFloatingPointPrediction: " + Arrays.toString(actual) +
+                    " instead of " + Arrays.toString(expected) + (littleEndian ? " (little-endian)" : ""));
+        }
+        TiffPrediction.subtractFloatingPointPrediction(tile);
+        if (!Arrays.equals(data, tile.getDecodedData())) {
+            throw new AssertionError("Bug in subtractFloatingPointPrediction: the result does not match " +
+                    "Technical Note 3" + (littleEndian ? " (little-endian)" : ""));
+        }
+    }
+
+    private static void testFloatingPointFixtures() throws TiffException {
+        for (boolean littleEndian : new boolean[]{false, true}) {
+            testFloatingPointFixture(3, 1, FIXTURE_1_CHANNEL_ENCODED, FIXTURE_1_CHANNEL_FLOATS, littleEndian);
+            testFloatingPointFixture(2, 2, FIXTURE_2_CHANNELS_ENCODED, FIXTURE_2_CHANNELS_FLOATS, littleEndian);
+        }
+        System.out.println("Floating-point prediction fixtures: O'k");
+    }
+
     public static void main(String... args) throws TiffException {
+        testFloatingPointFixtures();
         if (args.length < 4) {
             System.out.println("Usage:");
             System.out.println("    " + TiffPredictionTest.class.getName()
@@ -92,11 +152,14 @@ public class TiffPredictionTest {
         for (int test = 0; test < numberOfTests; test++) {
             System.out.printf("%nTest #%d...%n", test);
             for (TiffSampleType sampleType : TiffSampleType.values()) {
-                System.out.printf("Sample type: %s%n", sampleType);
+                System.out.printf("Sample type: %s, %s%n",
+                        sampleType, test % 2 == 1 ? "little-endian" : "big-endian");
 
                 TiffIFD ifd = TiffIFD.newInstance()
                         .putTileSizes(tileSizeX, tileSizeY)
-                        .putPixelInformation(numberOfChannels, sampleType);
+                        .putPixelInformation(numberOfChannels, sampleType)
+                        .setLittleEndian(test % 2 == 1);
+                // - odd tests check little-endian byte order
                 TiffTile tile = new TiffMap(ifd, true).getOrNew(0, 0);
                 byte[] data = new byte[tile.getSizeInBytes()];
                 for (int k = 0; k < data.length; k++) {
@@ -147,6 +210,23 @@ public class TiffPredictionTest {
                         throw new AssertionError("Bug in simpleUnsubtractPrediction");
                     }
                 }
+
+                if (sampleType.isFloatingPoint()) {
+                    byte[] floatingPointPredicted = data.clone();
+                    tile.setDecodedData(floatingPointPredicted);
+                    long t9 = System.nanoTime();
+                    TiffPrediction.subtractFloatingPointPrediction(tile);
+                    long t10 = System.nanoTime();
+                    TiffPrediction.unsubtractFloatingPointPrediction(tile);
+                    long t11 = System.nanoTime();
+                    System.out.printf("subtractFloatingPointPrediction:   %.3f ms, %.3f MB/sec%n",
+                            (t10 - t9) * 1e-6, data.length / 1048576.0 / ((t10 - t9) * 1e-9));
+                    System.out.printf("unsubtractFloatingPointPrediction: %.3f ms, %.3f MB/sec%n",
+                            (t11 - t10) * 1e-6, data.length / 1048576.0 / ((t11 - t10) * 1e-9));
+                    if (!Arrays.equals(data, floatingPointPredicted)) {
+                        throw new AssertionError("Bug in unsubtractFloatingPointPrediction");
+                    }
+                }
             }
         }
         System.out.println("O'k");
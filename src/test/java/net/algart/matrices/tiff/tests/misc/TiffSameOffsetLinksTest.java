@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package net.algart.matrices.tiff.tests.misc;
+
+import net.algart.matrices.tiff.TiffIFD;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+public class TiffSameOffsetLinksTest {
+    // The previous implementation of TiffIFD.findLinksToPreviousSameOffset
+    private static int[] simpleLinksToPrevious(long[] offsets) {
+        final HashMap<Long, Integer> map = new HashMap<>();
+        final int[] result = new int[offsets.length];
+        for (int k = 0; k < result.length; k++) {
+            Integer p = map.put(offsets[k], k);
+            result[k] = p != null ? p : -1;
+        }
+        return result;
+    }
+
+    // The previous implementation of TiffIFD.findLinksToNextSameOffset
+    private static int[] simpleLinksToNext(long[] offsets) {
+        final HashMap<Long, Integer> map = new HashMap<>();
+        final int[] result = new int[offsets.length];
+        for (int k = result.length - 1; k >= 0; k--) {
+            Integer p = map.put(offsets[k], k);
+            result[k] = p != null ? p : -1;
+        }
+        return result;
+    }
+
+    public static void main(String... args) {
+        if (args.length < 2) {
+            System.out.println("Usage:");
+            System.out.println("    " + TiffSameOffsetLinksTest.class.getName() + " numberOfTiles numberOfTests");
+            return;
+        }
+        final int numberOfTiles = Integer.parseInt(args[0]);
+        final int numberOfTests = Integer.parseInt(args[1]);
+        final Random random = new Random(157);
+        for (int test = 0; test < numberOfTests; test++) {
+            final int mode = test % 3;
+            final long[] offsets = new long[numberOfTiles];
+            for (int k = 0; k < offsets.length; k++) {
+                offsets[k] = switch (mode) {
+                    case 0 -> 8 + 65536L * k;
+                    // - typical situation: increasing offsets
+                    case 1 -> random.nextInt(10) == 0 ? 0 : 8 + 65536L * k;
+                    // - some empty tiles with zero offsets
+                    default -> random.nextInt(Math.max(1, numberOfTiles / 2));
+                };
+            }
+            System.out.printf("%nTest #%d (mode %d)...%n", test, mode);
+            final int[] previous = new int[numberOfTiles];
+            final int[] next = new int[numberOfTiles];
+            long t1 = System.nanoTime();
+            final boolean duplicates = TiffIFD.findLinksToSameOffset(offsets, previous, next);
+            long t2 = System.nanoTime();
+            final int[] simplePrevious = simpleLinksToPrevious(offsets);
+            final int[] simpleNext = simpleLinksToNext(offsets);
+            long t3 = System.nanoTime();
+            System.out.printf("findLinksToSameOffset: %.3f ms, HashMap: %.3f ms, duplicates: %s%n",
+                    (t2 - t1) * 1e-6, (t3 - t2) * 1e-6, duplicates);
+            if (!Arrays.equals(previous, simplePrevious) || !Arrays.equals(next, simpleNext)) {
+                throw new AssertionError("Bug in findLinksToSameOffset");
+            }
+            if (duplicates != Arrays.stream(previous).anyMatch(p -> p >= 0)) {
+                throw new AssertionError("Invalid result of findLinksToSameOffset");
+            }
+        }
+        System.out.println("O'k");
+    }
+}
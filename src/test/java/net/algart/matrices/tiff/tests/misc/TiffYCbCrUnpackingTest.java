@@ -0,0 +1,190 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023-2026 Daniel Alievsky, AlgART Laboratory (http://algart.net)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package net.algart.matrices.tiff.tests.misc;
+
+import net.algart.matrices.tiff.TiffException;
+import net.algart.matrices.tiff.TiffIFD;
+import net.algart.matrices.tiff.bits.TiffUnpacking;
+import net.algart.matrices.tiff.samples.TiffSampleType;
+import net.algart.matrices.tiff.tags.TagPhotometric;
+import net.algart.matrices.tiff.tags.TagValue;
+import net.algart.matrices.tiff.tags.Tags;
+import net.algart.matrices.tiff.tiles.TiffMap;
+import net.algart.matrices.tiff.tiles.TiffTile;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class TiffYCbCrUnpackingTest {
+    private static final int[] SUBSAMPLINGS = {1, 2, 4};
+
+    // Straightforward double-precision implementation of YCbCr -> RGB conversion according to TIFF 6.0
+    // specification (sections 21, 22), processing every pixel independently
+    private static void referenceYCbCrToRGB(
+            byte[] data,
+            byte[] result,
+            int sizeX,
+            int sizeY,
+            int subX,
+            int subY,
+            int[] reference,
+            double[] luma) {
+        final double yScale = reference[1] == reference[0] ? 1.0 : 255.0 / (reference[1] - reference[0]);
+        final double cbScale = reference[3] == reference[2] ? 1.0 : 127.0 / (reference[3] - reference[2]);
+        final double crScale = reference[5] == reference[4] ? 1.0 : 127.0 / (reference[5] - reference[4]);
+        final int numberOfPixels = sizeX * sizeY;
+        final int block = subX * subY;
+        final int numberOfXBlocks = (sizeX + subX - 1) / subX;
+        final int numberOfYBlocks = (sizeY + subY - 1) / subY;
+        for (int yBlockIndex = 0; yBlockIndex < numberOfYBlocks; yBlockIndex++) {
+            for (int xBlockIndex = 0; xBlockIndex < numberOfXBlocks; xBlockIndex++) {
+                final int p = (yBlockIndex * numberOfXBlocks + xBlockIndex) * (block + 2);
+                if (p + block + 2 > data.length) {
+                    return;
+                }
+                final double cb = ((data[p + block] & 0xFF) - reference[2]) * cbScale;
+                final double cr = ((data[p + block + 1] & 0xFF) - reference[4]) * crScale;
+                for (int dy = 0; dy < subY; dy++) {
+                    for (int dx = 0; dx < subX; dx++) {
+                        final int x = xBlockIndex * subX + dx;
+                        final int y = yBlockIndex * subY + dy;
+                        if (x >= sizeX || y >= sizeY) {
+                            continue;
+                        }
+                        final double v = ((data[p + dy * subX + dx] & 0xFF) - reference[0]) * yScale;
+                        final double red = cr * (2.0 - 2.0 * luma[0]) + v;
+                        final double blue = cb * (2.0 - 2.0 * luma[2]) + v;
+                        final double green = (v - luma[2] * blue - luma[0] * red) / luma[1];
+                        final int i = y * sizeX + x;
+                        result[i] = toUnsignedByte(red);
+                        result[numberOfPixels + i] = toUnsignedByte(green);
+                        result[2 * numberOfPixels + i] = toUnsignedByte(blue);
+                    }
+                }
+            }
+        }
+    }
+
+    private static byte toUnsignedByte(double v) {
+        return (byte) (v < 0.0 ? 0 : v > 255.0 ? 255 : (int) Math.round(v));
+    }
+
+    private static byte[] separateYCbCrToRGB(
+            byte[] data,
+            int sizeX,
+            int sizeY,
+            int subX,
+            int subY,
+            int[] declaredReference,
+            TagValue.Rational[] coefficients) throws TiffException {
+        final TiffIFD ifd = TiffIFD.newInstance()
+                .putImageDimensions(sizeX, sizeY)
+                .putStripSize(sizeY)
+                .putPixelInformation(3, TiffSampleType.UINT8)
+                .putPhotometric(TagPhotometric.Y_CB_CR)
+                .putYCbCrSubsampling(subX, subY);
+        if (declaredReference != null) {
+            ifd.put(Tags.REFERENCE_BLACK_WHITE, declaredReference);
+        }
+        if (coefficients != null) {
+            ifd.put(Tags.Y_CB_CR_COEFFICIENTS, coefficients);
+        }
+        final TiffTile tile = new TiffMap(ifd, false).getOrNew(0, 0);
+        tile.setPartiallyDecodedData(data.clone());
+        tile.setInterleaved(true);
+        if (!TiffUnpacking.separateYCbCrToRGB(tile)) {
+            throw new AssertionError("YCbCr was not recognized: " + ifd);
+        }
+        return tile.getDecodedData();
+    }
+
+    public static void main(String... args) throws TiffException {
+        final int numberOfTests = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        final Random random = new Random(157);
+        int maxDifference = 0;
+        long numberOfCompared = 0;
+        for (int test = 0; test < numberOfTests; test++) {
+            final int subX = SUBSAMPLINGS[test % 3];
+            final int subY = SUBSAMPLINGS[test / 3 % 3];
+            // - all 9 combinations of subsampling factors
+            final int sizeX = 1 + random.nextInt(40);
+            final int sizeY = 1 + random.nextInt(40);
+            // - usually not multiples of subX/subY: the last blocks in rows/columns are partially used
+            final int numberOfBlocks = ((sizeX + subX - 1) / subX) * ((sizeY + subY - 1) / subY);
+            final int dataLength = numberOfBlocks * (subX * subY + 2) -
+                    (test % 7 == 0 ? random.nextInt(subX * subY + 3) : 0);
+            // - sometimes the data are truncated (damaged TIFF)
+            final byte[] data = new byte[dataLength];
+            random.nextBytes(data);
+            int[] declaredReference = null;
+            if (random.nextInt(3) > 0) {
+                declaredReference = new int[]{
+                        random.nextInt(30), 200 + random.nextInt(56),
+                        100 + random.nextInt(40), 200 + random.nextInt(56),
+                        100 + random.nextInt(40), 200 + random.nextInt(56)};
+                if (random.nextInt(5) == 0) {
+                    declaredReference[1] = declaredReference[0];
+                    // - degenerated range: scale 1.0
+                }
+            }
+            TagValue.Rational[] coefficients = null;
+            if (random.nextBoolean()) {
+                coefficients = new TagValue.Rational[]{
+                        TagValue.Rational.of(2000 + random.nextInt(1000), 10000),
+                        TagValue.Rational.of(5500 + random.nextInt(1000), 10000),
+                        TagValue.Rational.of(1000 + random.nextInt(500), 10000)};
+            }
+            final int[] reference = {0, 255, 128, 255, 128, 255};
+            if (declaredReference != null) {
+                System.arraycopy(declaredReference, 0, reference, 0, declaredReference.length);
+            }
+            final double[] luma = coefficients == null ?
+                    new double[]{0.299, 0.587, 0.114} :
+                    Arrays.stream(coefficients).mapToDouble(TagValue.Rational::doubleValue).toArray();
+
+            final byte[] actual = separateYCbCrToRGB(data, sizeX, sizeY, subX, subY, declaredReference, coefficients);
+            final byte[] expected = new byte[3 * sizeX * sizeY];
+            referenceYCbCrToRGB(data, expected, sizeX, sizeY, subX, subY, reference, luma);
+            if (actual.length != expected.length) {
+                throw new AssertionError("Invalid result length " + actual.length + " instead of " + expected.length);
+            }
+            for (int k = 0; k < expected.length; k++) {
+                final int difference = Math.abs((actual[k] & 0xFF) - (expected[k] & 0xFF));
+                // - fixed-point tables can differ from double arithmetic only in rounding x.5 values
+                if (difference > 1) {
+                    throw new AssertionError("Test #" + test + ", " + sizeX + "x" + sizeY +
+                            ", subsampling " + subX + "x" + subY + ", reference " + Arrays.toString(reference) +
+                            ", coefficients " + Arrays.toString(luma) + ": sample #" + k + " is " +
+                            (actual[k] & 0xFF) + " instead of " + (expected[k] & 0xFF));
+                }
+                maxDifference = Math.max(maxDifference, difference);
+                numberOfCompared++;
+            }
+        }
+        System.out.printf("%d tests, %d samples compared, maximal difference %d%n",
+                numberOfTests, numberOfCompared, maxDifference);
+        System.out.println("O'k");
+    }
+}